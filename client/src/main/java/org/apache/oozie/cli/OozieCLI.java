@@ -116,6 +116,8 @@ public class OozieCLI {
     public static final String RERUN_NOCLEANUP_OPTION = "nocleanup";
 
     public static final String VERBOSE_OPTION = "verbose";
+
+    public static final String ALL_OPTION = "all";
     public static final String VERBOSE_DELIMITER = "\t";
 
     public static final String PIGFILE_OPTION = "file";
@@ -260,6 +262,8 @@ public class OozieCLI {
         Option filter = new Option(FILTER_OPTION, true, "user=<U>;name=<N>;group=<G>;status=<S>;...");
         Option localtime = new Option(LOCAL_TIME_OPTION, false, "use local time (default GMT)");
         Option verbose = new Option(VERBOSE_OPTION, false, "verbose mode");
+        Option all = new Option(ALL_OPTION, false,
+                "all matching jobs, read page by page, -len is the page size (only for 'wf' job type)");
         start.setType(Integer.class);
         len.setType(Integer.class);
         Options jobsOptions = new Options();
@@ -271,6 +275,7 @@ public class OozieCLI {
         jobsOptions.addOption(filter);
         jobsOptions.addOption(jobtype);
         jobsOptions.addOption(verbose);
+        jobsOptions.addOption(all);
         return jobsOptions;
     }
 
@@ -970,7 +975,11 @@ public class OozieCLI {
         jobtype = (jobtype != null) ? jobtype : "wf";
         int len = Integer.parseInt((s != null) ? s : "0");
         try {
-            if (jobtype.toLowerCase().contains("wf")) {
+            if (jobtype.toLowerCase().contains("wf") && commandLine.hasOption(ALL_OPTION)) {
+                printJobs(wc.getAllJobsInfo(filter, (len > 0) ? len : 100), commandLine.hasOption(LOCAL_TIME_OPTION),
+                        commandLine.hasOption(VERBOSE_OPTION));
+            }
+            else if (jobtype.toLowerCase().contains("wf")) {
                 printJobs(wc.getJobsInfo(filter, start, len), commandLine.hasOption(LOCAL_TIME_OPTION), commandLine
                         .hasOption(VERBOSE_OPTION));
             }
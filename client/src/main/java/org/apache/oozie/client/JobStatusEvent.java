@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.client;
+
+import java.util.Date;
+
+/**
+ * Bean that represents a status transition of an Oozie workflow, coordinator or bundle job, or of a workflow or
+ * coordinator action.
+ * <p/>
+ * Status transitions are read from the job changes feed.
+ */
+public interface JobStatusEvent {
+
+    /**
+     * Return the ID of the job or action that changed.
+     *
+     * @return the job or action ID.
+     */
+    String getId();
+
+    /**
+     * Return the ID of the parent job.
+     * <p/>
+     * It is the job ID for actions, and the parent coordinator action or bundle ID for jobs that have one.
+     *
+     * @return the parent job ID, <code>null</code> if none.
+     */
+    String getParentId();
+
+    /**
+     * Return the type of the job, <code>wf</code>, <code>coord</code> or <code>bundle</code>.
+     *
+     * @return the job type.
+     */
+    String getJobType();
+
+    /**
+     * Return if the transition is of an action.
+     *
+     * @return <code>true</code> if the transition is of an action, <code>false</code> if it is of a job.
+     */
+    boolean isAction();
+
+    /**
+     * Return the new status of the job or action.
+     *
+     * @return the new status.
+     */
+    String getStatus();
+
+    /**
+     * Return the user of the job.
+     *
+     * @return the user of the job, <code>null</code> if not known.
+     */
+    String getUser();
+
+    /**
+     * Return the application name of the job.
+     *
+     * @return the application name of the job, <code>null</code> if not known.
+     */
+    String getAppName();
+
+    /**
+     * Return the time of the transition.
+     *
+     * @return the time of the transition.
+     */
+    Date getTime();
+
+}
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.client;
+
+import java.util.Date;
+
+/**
+ * Bean that represents the status of an Oozie workflow, coordinator or bundle job.
+ * <p/>
+ * It is a compact view of a job, used to check the status of many jobs with a single request.
+ */
+public interface JobStatusInfo {
+
+    /**
+     * Return the job ID.
+     *
+     * @return the job ID.
+     */
+    String getId();
+
+    /**
+     * Return the job status.
+     * <p/>
+     * It is the name of a {@link WorkflowJob.Status} for workflow jobs and of a {@link Job.Status} for coordinator and
+     * bundle jobs.
+     *
+     * @return the job status.
+     */
+    String getStatus();
+
+    /**
+     * Return the job start time.
+     *
+     * @return the job start time.
+     */
+    Date getStartTime();
+
+    /**
+     * Return the job end time.
+     *
+     * @return the job end time.
+     */
+    Date getEndTime();
+
+    /**
+     * Return the job last modified time.
+     *
+     * @return the job last modified time.
+     */
+    Date getLastModifiedTime();
+
+    /**
+     * Return the job external ID.
+     *
+     * @return the job external ID.
+     */
+    String getExternalId();
+
+}
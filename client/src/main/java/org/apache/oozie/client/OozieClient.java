@@ -17,25 +17,37 @@
  */
 package org.apache.oozie.client;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.io.Reader;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.transform.Transformer;
@@ -72,6 +84,13 @@ import org.w3c.dom.Element;
  * <p/>
  * The query will do an AND among all the filter names. The query will do an OR among all the filter values for the same
  * name. Multiple values must be specified as different name value pairs.
+ * <p/>
+ * The client requests gzip compressed responses and always closes the response streams, this allows the JDK HTTP
+ * keep-alive cache to reuse the connections to the Oozie server. The number of idle connections kept per server is
+ * set by the JDK <code>http.maxConnections</code> system property (default 5).
+ * <p/>
+ * The <code>*Async</code> methods run the requests in a thread pool of the client instance, the number of concurrent
+ * asynchronous requests is set with {@link #setAsyncConcurrency(int)}.
  */
 public class OozieClient {
 
@@ -131,6 +150,33 @@ public class OozieClient {
         NORMAL, NOWEBSERVICE, SAFEMODE
     };
 
+    /**
+     * Default number of concurrent asynchronous requests.
+     */
+    public static final int DEFAULT_ASYNC_CONCURRENCY = 5;
+
+    /**
+     * Callback for the result of an asynchronous request.
+     *
+     * @param <T> result type.
+     */
+    public static interface AsyncCallback<T> {
+
+        /**
+         * Invoked with the result of a request that completed successfully.
+         *
+         * @param result the request result.
+         */
+        void onSuccess(T result);
+
+        /**
+         * Invoked with the error of a request that failed.
+         *
+         * @param ex the request error.
+         */
+        void onFailure(OozieClientException ex);
+    }
+
     /**
      * debugMode =0 means no debugging. > 0 means debugging on.
      */
@@ -140,6 +186,8 @@ public class OozieClient {
     private String protocolUrl;
     private boolean validatedVersion = false;
     private final Map<String, String> headers = new HashMap<String, String>();
+    private int asyncConcurrency = DEFAULT_ASYNC_CONCURRENCY;
+    private ThreadPoolExecutor asyncExecutor;
 
     protected OozieClient() {
     }
@@ -196,6 +244,97 @@ public class OozieClient {
         this.debugMode = debugMode;
     }
 
+    /**
+     * Return the maximum number of concurrent asynchronous requests.
+     *
+     * @return the maximum number of concurrent asynchronous requests.
+     */
+    public synchronized int getAsyncConcurrency() {
+        return asyncConcurrency;
+    }
+
+    /**
+     * Set the maximum number of concurrent asynchronous requests, the default is {@link #DEFAULT_ASYNC_CONCURRENCY}.
+     * <p/>
+     * Asynchronous requests exceeding it wait for a previous request to complete.
+     *
+     * @param concurrency maximum number of concurrent asynchronous requests, it must be greater than zero.
+     */
+    public synchronized void setAsyncConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be greater than zero");
+        }
+        if (asyncExecutor != null) {
+            if (concurrency > asyncConcurrency) {
+                asyncExecutor.setMaximumPoolSize(concurrency);
+                asyncExecutor.setCorePoolSize(concurrency);
+            }
+            else {
+                asyncExecutor.setCorePoolSize(concurrency);
+                asyncExecutor.setMaximumPoolSize(concurrency);
+            }
+        }
+        asyncConcurrency = concurrency;
+    }
+
+    /**
+     * Thread factory for the asynchronous requests thread pool, it creates daemon threads.
+     */
+    private static class AsyncThreadFactory implements ThreadFactory {
+        private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+        private final AtomicInteger threadCount = new AtomicInteger();
+        private final String prefix = "oozie-client-" + POOL_COUNT.incrementAndGet() + "-";
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Run a request asynchronously in the client thread pool.
+     * <p/>
+     * The thread pool threads are daemon threads and they are stopped when idle, the client does not need to be
+     * closed.
+     *
+     * @param callable request to run.
+     * @param callback callback invoked when the request completes, it may be <code>null</code>.
+     * @return the future result of the request.
+     */
+    protected synchronized <T> Future<T> submitAsync(final Callable<T> callable, final AsyncCallback<T> callback) {
+        if (asyncExecutor == null) {
+            asyncExecutor = new ThreadPoolExecutor(asyncConcurrency, asyncConcurrency, 60, TimeUnit.SECONDS,
+                                                   new LinkedBlockingQueue<Runnable>(), new AsyncThreadFactory());
+            asyncExecutor.allowCoreThreadTimeOut(true);
+        }
+        return asyncExecutor.submit(new Callable<T>() {
+            public T call() throws OozieClientException {
+                T result;
+                try {
+                    result = callable.call();
+                }
+                catch (OozieClientException ex) {
+                    if (callback != null) {
+                        callback.onFailure(ex);
+                    }
+                    throw ex;
+                }
+                catch (Exception ex) {
+                    OozieClientException cex = new OozieClientException(OozieClientException.OTHER, ex);
+                    if (callback != null) {
+                        callback.onFailure(cex);
+                    }
+                    throw cex;
+                }
+                if (callback != null) {
+                    callback.onSuccess(result);
+                }
+                return result;
+            }
+        });
+    }
+
     /**
      * Validate that the Oozie client and server instances are protocol compatible.
      *
@@ -206,33 +345,11 @@ public class OozieClient {
             try {
                 URL url = new URL(baseUrl + RestConstants.VERSIONS);
                 HttpURLConnection conn = createConnection(url, "GET");
-                if (conn.getResponseCode() == HttpURLConnection.HTTP_OK) {
-                    JSONArray array = (JSONArray) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
-                    if (array == null) {
-                        throw new OozieClientException("HTTP error", "no response message");
-                    }
-                    if (!array.contains(WS_PROTOCOL_VERSION) && !array.contains(WS_PROTOCOL_VERSION_0)) {
-                        StringBuilder msg = new StringBuilder();
-                        msg.append("Supported version [").append(WS_PROTOCOL_VERSION).append(
-                                "] or less, Unsupported versions[");
-                        String separator = "";
-                        for (Object version : array) {
-                            msg.append(separator).append(version);
-                        }
-                        msg.append("]");
-                        throw new OozieClientException(OozieClientException.UNSUPPORTED_VERSION, msg.toString());
-                    }
-                    if (array.contains(WS_PROTOCOL_VERSION)) {
-                        protocolUrl = baseUrl + "v" + WS_PROTOCOL_VERSION + "/";
-                    }
-                    else {
-                        if (array.contains(WS_PROTOCOL_VERSION_0)) {
-                            protocolUrl = baseUrl + "v" + WS_PROTOCOL_VERSION_0 + "/";
-                        }
-                    }
+                try {
+                    validateWSVersion(conn);
                 }
-                else {
-                    handleError(conn);
+                finally {
+                    releaseConnection(conn);
                 }
             }
             catch (IOException ex) {
@@ -242,6 +359,37 @@ public class OozieClient {
         }
     }
 
+    private void validateWSVersion(HttpURLConnection conn) throws IOException, OozieClientException {
+        if (conn.getResponseCode() == HttpURLConnection.HTTP_OK) {
+            JSONArray array = (JSONArray) JSONValue.parse(getResponseReader(conn));
+            if (array == null) {
+                throw new OozieClientException("HTTP error", "no response message");
+            }
+            if (!array.contains(WS_PROTOCOL_VERSION) && !array.contains(WS_PROTOCOL_VERSION_0)) {
+                StringBuilder msg = new StringBuilder();
+                msg.append("Supported version [").append(WS_PROTOCOL_VERSION).append(
+                        "] or less, Unsupported versions[");
+                String separator = "";
+                for (Object version : array) {
+                    msg.append(separator).append(version);
+                }
+                msg.append("]");
+                throw new OozieClientException(OozieClientException.UNSUPPORTED_VERSION, msg.toString());
+            }
+            if (array.contains(WS_PROTOCOL_VERSION)) {
+                protocolUrl = baseUrl + "v" + WS_PROTOCOL_VERSION + "/";
+            }
+            else {
+                if (array.contains(WS_PROTOCOL_VERSION_0)) {
+                    protocolUrl = baseUrl + "v" + WS_PROTOCOL_VERSION_0 + "/";
+                }
+            }
+        }
+        else {
+            handleError(conn);
+        }
+    }
+
     /**
      * Create an empty configuration with just the {@link #USER_NAME} set to the JVM user name.
      *
@@ -347,12 +495,93 @@ public class OozieClient {
         if (method.equals("POST") || method.equals("PUT")) {
             conn.setDoOutput(true);
         }
+        conn.setRequestProperty("Accept-Encoding", "gzip");
         for (Map.Entry<String, String> header : headers.entrySet()) {
             conn.setRequestProperty(header.getKey(), header.getValue());
         }
         return conn;
     }
 
+    /**
+     * Return a buffered stream for the response of a connection, uncompressing it if the server sent it gzip
+     * compressed.
+     *
+     * @param conn connection.
+     * @return the response stream.
+     * @throws IOException thrown if the response could not be read.
+     */
+    protected static InputStream getResponseStream(HttpURLConnection conn) throws IOException {
+        InputStream is = conn.getInputStream();
+        if ("gzip".equalsIgnoreCase(conn.getContentEncoding())) {
+            is = new GZIPInputStream(is);
+        }
+        return new BufferedInputStream(is);
+    }
+
+    /**
+     * Return a buffered reader for the response of a connection, uncompressing it if the server sent it gzip
+     * compressed.
+     * <p/>
+     * The charset of the response content type is used, UTF-8 if the content type does not have one.
+     *
+     * @param conn connection.
+     * @return the response reader.
+     * @throws IOException thrown if the response could not be read.
+     */
+    protected static BufferedReader getResponseReader(HttpURLConnection conn) throws IOException {
+        String charset = "UTF-8";
+        String contentType = conn.getContentType();
+        if (contentType != null) {
+            for (String param : contentType.split(";")) {
+                param = param.trim();
+                if (param.toLowerCase().startsWith("charset=")) {
+                    charset = param.substring("charset=".length()).replace("\"", "");
+                }
+            }
+        }
+        return new BufferedReader(new InputStreamReader(getResponseStream(conn), charset));
+    }
+
+    /**
+     * Parse a JSON object response the server may have streamed.
+     * <p/>
+     * If the server fails after the response was committed the response is not valid JSON, it ends with {@link
+     * RestConstants#STREAM_ERROR_MARKER} and the error message.
+     *
+     * @param reader response reader.
+     * @return the JSON object.
+     * @throws OozieClientException thrown if the response is not a valid JSON object.
+     */
+    static JSONObject parseStreamedResponse(Reader reader) throws OozieClientException {
+        Object json = JSONValue.parse(reader);
+        if (!(json instanceof JSONObject)) {
+            throw new OozieClientException(OozieClientException.IO_ERROR,
+                                           "Invalid JSON response, the server failed writing it");
+        }
+        return (JSONObject) json;
+    }
+
+    /**
+     * Release a connection closing its response stream.
+     * <p/>
+     * Closing the response stream, instead of disconnecting, lets the JDK HTTP keep-alive cache reuse the underlying
+     * connection for the following requests to the same server.
+     *
+     * @param conn connection.
+     */
+    static void releaseConnection(HttpURLConnection conn) {
+        try {
+            InputStream is = (conn.getResponseCode() < HttpURLConnection.HTTP_BAD_REQUEST) ? conn.getInputStream()
+                    : conn.getErrorStream();
+            if (is != null) {
+                is.close();
+            }
+        }
+        catch (IOException ex) {
+            // the connection is not reused
+        }
+    }
+
     protected abstract class ClientCallable<T> implements Callable<T> {
         private final String method;
         private final String collection;
@@ -374,7 +603,12 @@ public class OozieClient {
                         System.out.println("Connection URL:[" + url + "]");
                     }
                     HttpURLConnection conn = createConnection(url, method);
-                    return call(conn);
+                    try {
+                        return call(conn);
+                    }
+                    finally {
+                        releaseConnection(conn);
+                    }
                 }
                 else {
                     System.out.println("Option not supported in target server. Supported only on Oozie-2.0 or greater."
@@ -481,7 +715,7 @@ public class OozieClient {
             conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
             writeToXml(conf, conn.getOutputStream());
             if (conn.getResponseCode() == HttpURLConnection.HTTP_CREATED) {
-                JSONObject json = (JSONObject) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                JSONObject json = (JSONObject) JSONValue.parse(getResponseReader(conn));
                 return (String) json.get(JsonTags.JOB_ID);
             }
             if (conn.getResponseCode() != HttpURLConnection.HTTP_OK) {
@@ -615,7 +849,7 @@ public class OozieClient {
         @Override
         protected WorkflowJob call(HttpURLConnection conn) throws IOException, OozieClientException {
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
+                Reader reader = getResponseReader(conn);
                 JSONObject json = (JSONObject) JSONValue.parse(reader);
                 return JsonToBean.createWorkflowJob(json);
             }
@@ -635,7 +869,7 @@ public class OozieClient {
         @Override
         protected WorkflowAction call(HttpURLConnection conn) throws IOException, OozieClientException {
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
+                Reader reader = getResponseReader(conn);
                 JSONObject json = (JSONObject) JSONValue.parse(reader);
                 return JsonToBean.createWorkflowAction(json);
             }
@@ -670,6 +904,34 @@ public class OozieClient {
         return new JobInfo(jobId, start, len).call();
     }
 
+    /**
+     * Get the info of a workflow job asynchronously.
+     *
+     * @param jobId job Id.
+     * @return the future job info, if the job info could not be retrieved its <code>get()</code> method throws an
+     * <code>ExecutionException</code> caused by an {@link OozieClientException}.
+     */
+    public Future<WorkflowJob> getJobInfoAsync(String jobId) {
+        return getJobInfoAsync(jobId, null);
+    }
+
+    /**
+     * Get the info of a workflow job asynchronously.
+     *
+     * @param jobId job Id.
+     * @param callback callback invoked when the request completes, it may be <code>null</code>.
+     * @return the future job info, if the job info could not be retrieved its <code>get()</code> method throws an
+     * <code>ExecutionException</code> caused by an {@link OozieClientException}.
+     */
+    public Future<WorkflowJob> getJobInfoAsync(final String jobId, AsyncCallback<WorkflowJob> callback) {
+        notEmpty(jobId, "jobId");
+        return submitAsync(new Callable<WorkflowJob>() {
+            public WorkflowJob call() throws OozieClientException {
+                return getJobInfo(jobId);
+            }
+        }, callback);
+    }
+
     /**
      * Get the info of a workflow action.
      *
@@ -753,8 +1015,7 @@ public class OozieClient {
         protected String call(HttpURLConnection conn) throws IOException, OozieClientException {
             String returnVal = null;
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                InputStream is = conn.getInputStream();
-                InputStreamReader isr = new InputStreamReader(is);
+                Reader isr = getResponseReader(conn);
                 try {
                     if (printStream != null) {
                         sendToOutputStream(isr, -1);
@@ -846,8 +1107,8 @@ public class OozieClient {
         @Override
         protected CoordinatorJob call(HttpURLConnection conn) throws IOException, OozieClientException {
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
+                Reader reader = getResponseReader(conn);
+                JSONObject json = parseStreamedResponse(reader);
                 return JsonToBean.createCoordinatorJob(json);
             }
             else {
@@ -867,7 +1128,7 @@ public class OozieClient {
         @Override
         protected BundleJob call(HttpURLConnection conn) throws IOException, OozieClientException {
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
+                Reader reader = getResponseReader(conn);
                 JSONObject json = (JSONObject) JSONValue.parse(reader);
                 return JsonToBean.createBundleJob(json);
             }
@@ -887,7 +1148,7 @@ public class OozieClient {
         @Override
         protected CoordinatorAction call(HttpURLConnection conn) throws IOException, OozieClientException {
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
+                Reader reader = getResponseReader(conn);
                 JSONObject json = (JSONObject) JSONValue.parse(reader);
                 return JsonToBean.createCoordinatorAction(json);
             }
@@ -933,6 +1194,34 @@ public class OozieClient {
         return new CoordJobInfo(jobId, start, len).call();
     }
 
+    /**
+     * Get the info of a coordinator job asynchronously.
+     *
+     * @param jobId job Id.
+     * @return the future job info, if the job info could not be retrieved its <code>get()</code> method throws an
+     * <code>ExecutionException</code> caused by an {@link OozieClientException}.
+     */
+    public Future<CoordinatorJob> getCoordJobInfoAsync(String jobId) {
+        return getCoordJobInfoAsync(jobId, null);
+    }
+
+    /**
+     * Get the info of a coordinator job asynchronously.
+     *
+     * @param jobId job Id.
+     * @param callback callback invoked when the request completes, it may be <code>null</code>.
+     * @return the future job info, if the job info could not be retrieved its <code>get()</code> method throws an
+     * <code>ExecutionException</code> caused by an {@link OozieClientException}.
+     */
+    public Future<CoordinatorJob> getCoordJobInfoAsync(final String jobId, AsyncCallback<CoordinatorJob> callback) {
+        notEmpty(jobId, "jobId");
+        return submitAsync(new Callable<CoordinatorJob>() {
+            public CoordinatorJob call() throws OozieClientException {
+                return getCoordJobInfo(jobId);
+            }
+        }, callback);
+    }
+
     /**
      * Get the info of a coordinator action.
      *
@@ -957,8 +1246,8 @@ public class OozieClient {
         protected List<WorkflowJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
             conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
+                Reader reader = getResponseReader(conn);
+                JSONObject json = parseStreamedResponse(reader);
                 JSONArray workflows = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
                 if (workflows == null) {
                     workflows = new JSONArray();
@@ -972,6 +1261,119 @@ public class OozieClient {
         }
     }
 
+    private class BulkJobsStatus extends ClientCallable<Map<String, JobStatusInfo>> {
+        private final Collection<String> jobIds;
+
+        BulkJobsStatus(Collection<String> jobIds) {
+            super("POST", RestConstants.JOBS, "", prepareParams(RestConstants.ACTION_PARAM,
+                    RestConstants.JOBS_ACTION_STATUS));
+            this.jobIds = notNull(jobIds, "jobIds");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Map<String, JobStatusInfo> call(HttpURLConnection conn) throws IOException,
+                OozieClientException {
+            conn.setRequestProperty("content-type", RestConstants.JSON_CONTENT_TYPE);
+            JSONArray ids = new JSONArray();
+            ids.addAll(jobIds);
+            Writer writer = new OutputStreamWriter(conn.getOutputStream(), "UTF-8");
+            ids.writeJSONString(writer);
+            writer.close();
+            if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
+                Reader reader = getResponseReader(conn);
+                JSONObject json = (JSONObject) JSONValue.parse(reader);
+                JSONArray statuses = (JSONArray) json.get(JsonTags.JOBS_STATUS);
+                Map<String, JobStatusInfo> map = new LinkedHashMap<String, JobStatusInfo>();
+                if (statuses != null) {
+                    for (JobStatusInfo status : JsonToBean.createJobStatusInfoList(statuses)) {
+                        map.put(status.getId(), status);
+                    }
+                }
+                return map;
+            }
+            else {
+                handleError(conn);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Return the status of several workflow, coordinator and bundle jobs with a single request.
+     * <p/>
+     * The server reads the status of all the jobs with a single query per job type.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return a map with the status of the jobs keyed by job ID, the jobs that do not exist are not in the map.
+     * @throws OozieClientException thrown if the jobs status could not be retrieved.
+     */
+    public Map<String, JobStatusInfo> getStatuses(Collection<String> jobIds) throws OozieClientException {
+        if (jobIds.isEmpty()) {
+            return new LinkedHashMap<String, JobStatusInfo>();
+        }
+        return new BulkJobsStatus(jobIds).call();
+    }
+
+    /**
+     * A page of workflow jobs info read with a cursor.
+     */
+    public static class JobsPage {
+        private final List<WorkflowJob> jobs;
+        private final String nextCursor;
+
+        JobsPage(List<WorkflowJob> jobs, String nextCursor) {
+            this.jobs = jobs;
+            this.nextCursor = nextCursor;
+        }
+
+        /**
+         * Return the workflow jobs info of the page.
+         *
+         * @return the workflow jobs info of the page, without node details.
+         */
+        public List<WorkflowJob> getJobs() {
+            return jobs;
+        }
+
+        /**
+         * Return the cursor to read the next page.
+         *
+         * @return the cursor of the next page, <code>null</code> if this is the last page.
+         */
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+
+    private class JobsPageStatus extends ClientCallable<JobsPage> {
+
+        JobsPageStatus(String filter, String cursor, int len) {
+            super("GET", RestConstants.JOBS, "", prepareParams(RestConstants.JOBS_FILTER_PARAM, filter,
+                    RestConstants.JOBTYPE_PARAM, "wf", RestConstants.JOBS_CURSOR_PARAM, cursor,
+                    RestConstants.LEN_PARAM, Integer.toString(len)));
+        }
+
+        @Override
+        protected JobsPage call(HttpURLConnection conn) throws IOException, OozieClientException {
+            conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
+            if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
+                Reader reader = getResponseReader(conn);
+                JSONObject json = parseStreamedResponse(reader);
+                JSONArray workflows = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
+                if (workflows == null) {
+                    workflows = new JSONArray();
+                }
+                return new JobsPage(JsonToBean.createWorkflowJobList(workflows),
+                                    (String) json.get(JsonTags.WORKFLOWS_NEXT_CURSOR));
+            }
+            else {
+                handleError(conn);
+            }
+            return null;
+        }
+    }
+
     private class CoordJobsStatus extends ClientCallable<List<CoordinatorJob>> {
 
         CoordJobsStatus(String filter, int start, int len) {
@@ -984,8 +1386,8 @@ public class OozieClient {
         protected List<CoordinatorJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
             conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
+                Reader reader = getResponseReader(conn);
+                JSONObject json = parseStreamedResponse(reader);
                 JSONArray jobs = (JSONArray) json.get(JsonTags.COORDINATOR_JOBS);
                 if (jobs == null) {
                     jobs = new JSONArray();
@@ -1011,8 +1413,8 @@ public class OozieClient {
         protected List<BundleJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
             conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
-                JSONObject json = (JSONObject) JSONValue.parse(reader);
+                Reader reader = getResponseReader(conn);
+                JSONObject json = parseStreamedResponse(reader);
                 JSONArray jobs = (JSONArray) json.get(JsonTags.BUNDLE_JOBS);
                 if (jobs == null) {
                     jobs = new JSONArray();
@@ -1040,7 +1442,7 @@ public class OozieClient {
         protected List<CoordinatorAction> call(HttpURLConnection conn) throws IOException, OozieClientException {
             conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
+                Reader reader = getResponseReader(conn);
                 JSONObject json = (JSONObject) JSONValue.parse(reader);
                 JSONArray coordActions = (JSONArray) json.get(JsonTags.COORDINATOR_ACTIONS);
                 return JsonToBean.createCoordinatorActionList(coordActions);
@@ -1131,6 +1533,141 @@ public class OozieClient {
         return getJobsInfo(filter, 1, 50);
     }
 
+    /**
+     * Return a page of the info of the workflow jobs that match the filter, newest first.
+     * <p/>
+     * Unlike offset pagination, the server reads the page from the position in the cursor, reading a deep page costs
+     * the same as reading the first one. The total number of matching jobs is not returned.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter syntax.
+     * @param cursor cursor returned with the previous page, <code>null</code> or empty for the first page.
+     * @param len number of jobs to return.
+     * @return the page with the workflow jobs info, without node details, and the cursor of the next page.
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    public JobsPage getJobsInfoPage(String filter, String cursor, int len) throws OozieClientException {
+        return new JobsPageStatus(filter, (cursor != null) ? cursor : "", len).call();
+    }
+
+    /**
+     * Return the info of all the workflow jobs that match the filter, newest first.
+     * <p/>
+     * The jobs are read page by page using cursors.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter syntax.
+     * @param pageLen number of jobs to read per page.
+     * @return a list with the workflow jobs info, without node details.
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    public List<WorkflowJob> getAllJobsInfo(String filter, int pageLen) throws OozieClientException {
+        List<WorkflowJob> jobs = new ArrayList<WorkflowJob>();
+        String cursor = "";
+        while (cursor != null) {
+            JobsPage page = getJobsInfoPage(filter, cursor, pageLen);
+            jobs.addAll(page.getJobs());
+            cursor = page.getNextCursor();
+        }
+        return jobs;
+    }
+
+    /**
+     * A page of job status transitions read from the job changes feed.
+     */
+    public static class ChangesPage {
+        private final List<JobStatusEvent> events;
+        private final String nextCursor;
+        private final boolean lost;
+
+        ChangesPage(List<JobStatusEvent> events, String nextCursor, boolean lost) {
+            this.events = events;
+            this.nextCursor = nextCursor;
+            this.lost = lost;
+        }
+
+        /**
+         * Return the status transitions of the page, oldest first.
+         *
+         * @return the status transitions of the page, empty if none happened before the request timed out.
+         */
+        public List<JobStatusEvent> getEvents() {
+            return events;
+        }
+
+        /**
+         * Return the cursor to read the status transitions that follow this page.
+         *
+         * @return the cursor of the next page.
+         */
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        /**
+         * Return if status transitions were dropped by the server since the requested cursor.
+         * <p/>
+         * The server keeps a bounded number of status transitions, a client that falls behind misses the oldest ones.
+         *
+         * @return <code>true</code> if status transitions were missed.
+         */
+        public boolean isLost() {
+            return lost;
+        }
+    }
+
+    private class JobChanges extends ClientCallable<ChangesPage> {
+
+        JobChanges(String filter, String jobType, String cursor, int len, int timeout) {
+            super("GET", RestConstants.JOBS, "", prepareParams(RestConstants.JOBS_CHANGES_PARAM, cursor,
+                    RestConstants.JOBS_FILTER_PARAM, filter, RestConstants.JOBTYPE_PARAM, jobType,
+                    RestConstants.LEN_PARAM, Integer.toString(len), RestConstants.JOBS_TIMEOUT_PARAM,
+                    Integer.toString(timeout)));
+        }
+
+        @Override
+        protected ChangesPage call(HttpURLConnection conn) throws IOException, OozieClientException {
+            conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
+            if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
+                Reader reader = getResponseReader(conn);
+                JSONObject json = (JSONObject) JSONValue.parse(reader);
+                JSONArray changes = (JSONArray) json.get(JsonTags.JOB_CHANGES);
+                if (changes == null) {
+                    changes = new JSONArray();
+                }
+                return new ChangesPage(JsonToBean.createJobStatusEventList(changes),
+                                       (String) json.get(JsonTags.JOB_CHANGES_NEXT_CURSOR),
+                                       Boolean.TRUE.equals(json.get(JsonTags.JOB_CHANGES_LOST)));
+            }
+            else {
+                handleError(conn);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Return the job and action status transitions that happened after a cursor, waiting for them if necessary.
+     * <p/>
+     * This is a long-poll request, the server answers as soon as there are status transitions matching the filter, or
+     * after the timeout with none. Calling this method in a loop, passing the cursor of each page to the next call,
+     * subscribes to the status transitions without polling every job.
+     * <p/>
+     * The filter supports the <code>user</code>, <code>name</code> (application name) and <code>status</code> names,
+     * with the same syntax as the jobs filter.
+     *
+     * @param filter status transition filter, <code>null</code> for all.
+     * @param jobType comma separated job types to include, <code>wf</code>, <code>coord</code> or
+     * <code>bundle</code>, <code>null</code> for all.
+     * @param cursor cursor of the previous page, <code>null</code> to start from the oldest transition the server has.
+     * @param len maximum number of status transitions to return.
+     * @param timeout maximum time to wait for status transitions, in seconds, the server may cap it.
+     * @return the page with the status transitions.
+     * @throws OozieClientException thrown if the status transitions could not be retrieved.
+     */
+    public ChangesPage getJobChanges(String filter, String jobType, String cursor, int len, int timeout)
+            throws OozieClientException {
+        return new JobChanges(filter, jobType, (cursor != null) ? cursor : "", len, timeout).call();
+    }
+
     /**
      * Print sla info about coordinator and workflow jobs and actions.
      *
@@ -1155,7 +1692,7 @@ public class OozieClient {
         protected Void call(HttpURLConnection conn) throws IOException, OozieClientException {
             conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                BufferedReader br = new BufferedReader(new InputStreamReader(conn.getInputStream()));
+                BufferedReader br = getResponseReader(conn);
                 String line = null;
                 while ((line = br.readLine()) != null) {
                     System.out.println(line);
@@ -1179,7 +1716,7 @@ public class OozieClient {
         @SuppressWarnings("unchecked")
         protected String call(HttpURLConnection conn) throws IOException, OozieClientException {
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
+                Reader reader = getResponseReader(conn);
                 JSONObject json = (JSONObject) JSONValue.parse(reader);
                 return (String) json.get(JsonTags.JOB_ID);
             }
@@ -1239,7 +1776,7 @@ public class OozieClient {
         @Override
         protected SYSTEM_MODE call(HttpURLConnection conn) throws IOException, OozieClientException {
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
+                Reader reader = getResponseReader(conn);
                 JSONObject json = (JSONObject) JSONValue.parse(reader);
                 return SYSTEM_MODE.valueOf((String) json.get(JsonTags.OOZIE_SYSTEM_MODE));
             }
@@ -1273,7 +1810,7 @@ public class OozieClient {
         @Override
         protected String call(HttpURLConnection conn) throws IOException, OozieClientException {
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
+                Reader reader = getResponseReader(conn);
                 JSONObject json = (JSONObject) JSONValue.parse(reader);
                 return (String) json.get(JsonTags.BUILD_VERSION);
             }
@@ -1337,7 +1874,7 @@ public class OozieClient {
         @Override
         protected List<String> call(HttpURLConnection conn) throws IOException, OozieClientException {
             if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
-                Reader reader = new InputStreamReader(conn.getInputStream());
+                Reader reader = getResponseReader(conn);
                 JSONObject json = (JSONObject) JSONValue.parse(reader);
                 JSONArray queueDumpArray = (JSONArray) json.get(JsonTags.QUEUE_DUMP);
 
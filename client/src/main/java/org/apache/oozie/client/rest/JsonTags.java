@@ -53,6 +53,27 @@ public interface JsonTags {
     public static final String WORKFLOWS_TOTAL = "total";
     public static final String WORKFLOWS_OFFSET = "offset";
     public static final String WORKFLOWS_LEN = "len";
+    public static final String WORKFLOWS_NEXT_CURSOR = "nextCursor";
+
+    public static final String JOBS_STATUS = "statuses";
+    public static final String JOB_STATUS_ID = "id";
+    public static final String JOB_STATUS_STATUS = "status";
+    public static final String JOB_STATUS_START_TIME = "startTime";
+    public static final String JOB_STATUS_END_TIME = "endTime";
+    public static final String JOB_STATUS_LAST_MOD_TIME = "lastModTime";
+    public static final String JOB_STATUS_EXTERNAL_ID = "externalId";
+
+    public static final String JOB_CHANGES = "changes";
+    public static final String JOB_CHANGES_NEXT_CURSOR = "nextCursor";
+    public static final String JOB_CHANGES_LOST = "lost";
+    public static final String JOB_CHANGE_ID = "id";
+    public static final String JOB_CHANGE_PARENT_ID = "parentId";
+    public static final String JOB_CHANGE_JOB_TYPE = "jobType";
+    public static final String JOB_CHANGE_ACTION = "action";
+    public static final String JOB_CHANGE_STATUS = "status";
+    public static final String JOB_CHANGE_USER = "user";
+    public static final String JOB_CHANGE_APP_NAME = "appName";
+    public static final String JOB_CHANGE_TIME = "time";
 
     public static final String WORKFLOW_ACTION_ID = "id";
     public static final String WORKFLOW_ACTION_NAME = "name";
@@ -165,6 +186,15 @@ public interface JsonTags {
     public static final String INSTR_VARIABLE_VALUE = "value";
     public static final String INSTR_SAMPLER_VALUE = "value";
 
+    public static final String SLOW_COMMANDS = "slowCommands";
+    public static final String COMMAND_NAME = "name";
+    public static final String COMMAND_TYPE = "type";
+    public static final String COMMAND_ENTITY_KEY = "entityKey";
+    public static final String COMMAND_START_TIME = "startTime";
+    public static final String COMMAND_TOTAL_TIME = "totalTime";
+    public static final String COMMAND_OUTCOME = "outcome";
+    public static final String COMMAND_PHASES = "phases";
+
     public static final Object COORDINATOR_JOBS = "coordinatorjobs";
     public static final Object COORD_JOB_TOTAL = "total";
     public static final Object COORD_JOB_OFFSET = "offset";
@@ -20,6 +20,9 @@ package org.apache.oozie.client.rest;
 import org.apache.oozie.client.BundleJob;
 import org.apache.oozie.client.CoordinatorAction;
 import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.client.Job;
+import org.apache.oozie.client.JobStatusEvent;
+import org.apache.oozie.client.JobStatusInfo;
 import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.client.WorkflowJob;
 import org.json.simple.JSONArray;
@@ -29,19 +32,31 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
- * JSON to bean converter for {@link WorkflowAction}, {@link WorkflowJob}, {@link CoordinatorAction}
- * and {@link CoordinatorJob}.
+ * JSON to bean converter for {@link WorkflowAction}, {@link WorkflowJob}, {@link CoordinatorAction},
+ * {@link CoordinatorJob}, {@link BundleJob}, {@link JobStatusInfo} and {@link JobStatusEvent}.
  * <p/>
- * It uses JDK dynamic proxy to create bean instances.
+ * By default the JSON values are decoded once, when the bean is created, into immutable bean instances. The setters of
+ * these beans throw an <code>UnsupportedOperationException</code>.
+ * <p/>
+ * If the {@link #USE_PROXY} system property is set to <code>true</code> the previous behavior is used instead, JDK
+ * dynamic proxies backed by the JSON object converting the JSON values on every getter call.
  */
 public class JsonToBean {
 
+    /**
+     * System property to use JDK dynamic proxies for the beans instead of decoding the JSON values eagerly.
+     */
+    public static final String USE_PROXY = "oozie.client.json.proxy";
+
+    private static boolean useProxy = Boolean.getBoolean(USE_PROXY);
+
     private static class Property {
         String label;
         Class type;
@@ -234,6 +249,28 @@ public class JsonToBean {
         }
     }
 
+    /**
+     * Creates a dynamic proxy bean backed by a JSON object.
+     *
+     * @param type bean interface.
+     * @param mapping property to JSON/type-info mapping.
+     * @param json json object.
+     * @return a dynamic proxy bean backed by the JSON object.
+     */
+    private static Object createProxy(Class type, Map<String, Property> mapping, JSONObject json) {
+        return Proxy.newProxyInstance(JsonToBean.class.getClassLoader(), new Class[]{type},
+                                      new JsonInvocationHandler(mapping, json));
+    }
+
+    /**
+     * Set if JDK dynamic proxies are used for the beans, for testing and benchmarking.
+     *
+     * @param proxy <code>true</code> to use JDK dynamic proxies, <code>false</code> to decode the JSON values eagerly.
+     */
+    static void setUseProxy(boolean proxy) {
+        useProxy = proxy;
+    }
+
     /**
      * Creates a workflow action bean from a JSON object.
      *
@@ -241,9 +278,10 @@ public class JsonToBean {
      * @return a workflow action bean populated with the JSON object values.
      */
     public static WorkflowAction createWorkflowAction(JSONObject json) {
-        return (WorkflowAction) Proxy.newProxyInstance(JsonToBean.class.getClassLoader(),
-                                                       new Class[]{WorkflowAction.class},
-                                                       new JsonInvocationHandler(WF_ACTION, json));
+        if (useProxy) {
+            return (WorkflowAction) createProxy(WorkflowAction.class, WF_ACTION, json);
+        }
+        return new DecodedWorkflowAction(json);
     }
 
     /**
@@ -267,9 +305,10 @@ public class JsonToBean {
      * @return a workflow job bean populated with the JSON object values.
      */
     public static WorkflowJob createWorkflowJob(JSONObject json) {
-        return (WorkflowJob) Proxy.newProxyInstance(JsonToBean.class.getClassLoader(),
-                                                    new Class[]{WorkflowJob.class},
-                                                    new JsonInvocationHandler(WF_JOB, json));
+        if (useProxy) {
+            return (WorkflowJob) createProxy(WorkflowJob.class, WF_JOB, json);
+        }
+        return new DecodedWorkflowJob(json);
     }
 
     /**
@@ -293,9 +332,10 @@ public class JsonToBean {
      * @return a coordinator action bean populated with the JSON object values.
      */
     public static CoordinatorAction createCoordinatorAction(JSONObject json) {
-        return (CoordinatorAction) Proxy.newProxyInstance(JsonToBean.class.getClassLoader(),
-                                                          new Class[]{CoordinatorAction.class},
-                                                          new JsonInvocationHandler(COORD_ACTION, json));
+        if (useProxy) {
+            return (CoordinatorAction) createProxy(CoordinatorAction.class, COORD_ACTION, json);
+        }
+        return new DecodedCoordinatorAction(json);
     }
 
     /**
@@ -319,9 +359,10 @@ public class JsonToBean {
      * @return a coordinator job bean populated with the JSON object values.
      */
     public static CoordinatorJob createCoordinatorJob(JSONObject json) {
-        return (CoordinatorJob) Proxy.newProxyInstance(JsonToBean.class.getClassLoader(),
-                                                       new Class[]{CoordinatorJob.class},
-                                                       new JsonInvocationHandler(COORD_JOB, json));
+        if (useProxy) {
+            return (CoordinatorJob) createProxy(CoordinatorJob.class, COORD_JOB, json);
+        }
+        return new DecodedCoordinatorJob(json);
     }
 
     /**
@@ -345,9 +386,10 @@ public class JsonToBean {
      * @return a bundle job bean populated with the JSON object values.
      */
     public static BundleJob createBundleJob(JSONObject json) {
-        return (BundleJob) Proxy.newProxyInstance(JsonToBean.class.getClassLoader(),
-                                                       new Class[]{BundleJob.class},
-                                                       new JsonInvocationHandler(BUNDLE_JOB, json));
+        if (useProxy) {
+            return (BundleJob) createProxy(BundleJob.class, BUNDLE_JOB, json);
+        }
+        return new DecodedBundleJob(json);
     }
 
     /**
@@ -363,4 +405,826 @@ public class JsonToBean {
         }
         return list;
     }
+
+    /**
+     * Creates a job status bean from a JSON object.
+     *
+     * @param json json object.
+     * @return a job status bean populated with the JSON object values.
+     */
+    public static JobStatusInfo createJobStatusInfo(JSONObject json) {
+        return new DecodedJobStatusInfo(json);
+    }
+
+    /**
+     * Creates a list of job status beans from a JSON array.
+     *
+     * @param json json array.
+     * @return a list of job status beans from a JSON array.
+     */
+    public static List<JobStatusInfo> createJobStatusInfoList(JSONArray json) {
+        List<JobStatusInfo> list = new ArrayList<JobStatusInfo>();
+        for (Object obj : json) {
+            list.add(createJobStatusInfo((JSONObject) obj));
+        }
+        return list;
+    }
+
+    /**
+     * Creates a job status event bean from a JSON object.
+     *
+     * @param json json object.
+     * @return a job status event bean populated with the JSON object values.
+     */
+    public static JobStatusEvent createJobStatusEvent(JSONObject json) {
+        return new DecodedJobStatusEvent(json);
+    }
+
+    /**
+     * Creates a list of job status event beans from a JSON array.
+     *
+     * @param json json array.
+     * @return a list of job status event beans from a JSON array.
+     */
+    public static List<JobStatusEvent> createJobStatusEventList(JSONArray json) {
+        List<JobStatusEvent> list = new ArrayList<JobStatusEvent>();
+        for (Object obj : json) {
+            list.add(createJobStatusEvent((JSONObject) obj));
+        }
+        return list;
+    }
+
+    private static String getString(JSONObject json, String label) {
+        return (String) json.get(label);
+    }
+
+    private static int getInt(JSONObject json, String label) {
+        Object obj = json.get(label);
+        return (obj != null) ? ((Long) obj).intValue() : 0;
+    }
+
+    private static Date getDate(JSONObject json, String label) {
+        return JsonUtils.parseDateRfc822((String) json.get(label));
+    }
+
+    private static <E extends Enum<E>> E getEnum(Class<E> type, JSONObject json, String label) {
+        String obj = (String) json.get(label);
+        return (obj != null) ? Enum.valueOf(type, obj) : null;
+    }
+
+    private static <T> List<T> getList(List<T> list) {
+        return (list != null) ? Collections.unmodifiableList(list) : Collections.<T>emptyList();
+    }
+
+    /**
+     * Immutable job status bean decoded from a JSON object.
+     */
+    private static final class DecodedJobStatusInfo implements JobStatusInfo {
+        private final String id;
+        private final String status;
+        private final Date startTime;
+        private final Date endTime;
+        private final Date lastModifiedTime;
+        private final String externalId;
+
+        DecodedJobStatusInfo(JSONObject json) {
+            id = getString(json, JsonTags.JOB_STATUS_ID);
+            status = getString(json, JsonTags.JOB_STATUS_STATUS);
+            startTime = getDate(json, JsonTags.JOB_STATUS_START_TIME);
+            endTime = getDate(json, JsonTags.JOB_STATUS_END_TIME);
+            lastModifiedTime = getDate(json, JsonTags.JOB_STATUS_LAST_MOD_TIME);
+            externalId = getString(json, JsonTags.JOB_STATUS_EXTERNAL_ID);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Date getStartTime() {
+            return startTime;
+        }
+
+        public Date getEndTime() {
+            return endTime;
+        }
+
+        public Date getLastModifiedTime() {
+            return lastModifiedTime;
+        }
+
+        public String getExternalId() {
+            return externalId;
+        }
+
+        @Override
+        public String toString() {
+            return "JobStatusInfo[id=" + id + ", status=" + status + "]";
+        }
+    }
+
+    /**
+     * Immutable job status event bean decoded from a JSON object.
+     */
+    private static final class DecodedJobStatusEvent implements JobStatusEvent {
+        private final String id;
+        private final String parentId;
+        private final String jobType;
+        private final boolean action;
+        private final String status;
+        private final String user;
+        private final String appName;
+        private final Date time;
+
+        DecodedJobStatusEvent(JSONObject json) {
+            id = getString(json, JsonTags.JOB_CHANGE_ID);
+            parentId = getString(json, JsonTags.JOB_CHANGE_PARENT_ID);
+            jobType = getString(json, JsonTags.JOB_CHANGE_JOB_TYPE);
+            action = Boolean.TRUE.equals(json.get(JsonTags.JOB_CHANGE_ACTION));
+            status = getString(json, JsonTags.JOB_CHANGE_STATUS);
+            user = getString(json, JsonTags.JOB_CHANGE_USER);
+            appName = getString(json, JsonTags.JOB_CHANGE_APP_NAME);
+            time = getDate(json, JsonTags.JOB_CHANGE_TIME);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getParentId() {
+            return parentId;
+        }
+
+        public String getJobType() {
+            return jobType;
+        }
+
+        public boolean isAction() {
+            return action;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getUser() {
+            return user;
+        }
+
+        public String getAppName() {
+            return appName;
+        }
+
+        public Date getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return "JobStatusEvent[id=" + id + ", status=" + status + "]";
+        }
+    }
+
+    /**
+     * Immutable workflow action bean decoded from a JSON object.
+     */
+    private static final class DecodedWorkflowAction implements WorkflowAction {
+        private final String id;
+        private final String name;
+        private final String type;
+        private final String conf;
+        private final Status status;
+        private final int retries;
+        private final Date startTime;
+        private final Date endTime;
+        private final String transition;
+        private final String data;
+        private final String externalId;
+        private final String externalStatus;
+        private final String trackerUri;
+        private final String consoleUrl;
+        private final String errorCode;
+        private final String errorMessage;
+        private final String toString;
+
+        DecodedWorkflowAction(JSONObject json) {
+            id = getString(json, JsonTags.WORKFLOW_ACTION_ID);
+            name = getString(json, JsonTags.WORKFLOW_ACTION_NAME);
+            type = getString(json, JsonTags.WORKFLOW_ACTION_TYPE);
+            conf = getString(json, JsonTags.WORKFLOW_ACTION_CONF);
+            status = getEnum(Status.class, json, JsonTags.WORKFLOW_ACTION_STATUS);
+            retries = getInt(json, JsonTags.WORKFLOW_ACTION_RETRIES);
+            startTime = getDate(json, JsonTags.WORKFLOW_ACTION_START_TIME);
+            endTime = getDate(json, JsonTags.WORKFLOW_ACTION_END_TIME);
+            transition = getString(json, JsonTags.WORKFLOW_ACTION_TRANSITION);
+            data = getString(json, JsonTags.WORKFLOW_ACTION_DATA);
+            externalId = getString(json, JsonTags.WORKFLOW_ACTION_EXTERNAL_ID);
+            externalStatus = getString(json, JsonTags.WORKFLOW_ACTION_EXTERNAL_STATUS);
+            trackerUri = getString(json, JsonTags.WORKFLOW_ACTION_TRACKER_URI);
+            consoleUrl = getString(json, JsonTags.WORKFLOW_ACTION_CONSOLE_URL);
+            errorCode = getString(json, JsonTags.WORKFLOW_ACTION_ERROR_CODE);
+            errorMessage = getString(json, JsonTags.WORKFLOW_ACTION_ERROR_MESSAGE);
+            toString = getString(json, JsonTags.TO_STRING);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getCred() {
+            throw new RuntimeException("Undefined method mapping: getCred");
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getConf() {
+            return conf;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public int getRetries() {
+            return retries;
+        }
+
+        public int getUserRetryCount() {
+            throw new RuntimeException("Undefined method mapping: getUserRetryCount");
+        }
+
+        public int getUserRetryMax() {
+            throw new RuntimeException("Undefined method mapping: getUserRetryMax");
+        }
+
+        public int getUserRetryInterval() {
+            throw new RuntimeException("Undefined method mapping: getUserRetryInterval");
+        }
+
+        public Date getStartTime() {
+            return startTime;
+        }
+
+        public Date getEndTime() {
+            return endTime;
+        }
+
+        public String getTransition() {
+            return transition;
+        }
+
+        public String getData() {
+            return data;
+        }
+
+        public String getExternalId() {
+            return externalId;
+        }
+
+        public String getExternalStatus() {
+            return externalStatus;
+        }
+
+        public String getTrackerUri() {
+            return trackerUri;
+        }
+
+        public String getConsoleUrl() {
+            return consoleUrl;
+        }
+
+        public String getErrorCode() {
+            return errorCode;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        @Override
+        public String toString() {
+            return toString;
+        }
+    }
+
+    /**
+     * Immutable workflow job bean decoded from a JSON object.
+     */
+    private static final class DecodedWorkflowJob implements WorkflowJob {
+        private final String appPath;
+        private final String appName;
+        private final String id;
+        private final String conf;
+        private final Status status;
+        private final Date lastModifiedTime;
+        private final Date createdTime;
+        private final Date endTime;
+        private final String user;
+        private final String group;
+        private final int run;
+        private final String consoleUrl;
+        private final String parentId;
+        private final List<WorkflowAction> actions;
+        private final String toString;
+
+        DecodedWorkflowJob(JSONObject json) {
+            appPath = getString(json, JsonTags.WORKFLOW_APP_PATH);
+            appName = getString(json, JsonTags.WORKFLOW_APP_NAME);
+            id = getString(json, JsonTags.WORKFLOW_ID);
+            conf = getString(json, JsonTags.WORKFLOW_CONF);
+            status = getEnum(Status.class, json, JsonTags.WORKFLOW_STATUS);
+            lastModifiedTime = getDate(json, JsonTags.WORKFLOW_LAST_MOD_TIME);
+            createdTime = getDate(json, JsonTags.WORKFLOW_CREATED_TIME);
+            endTime = getDate(json, JsonTags.WORKFLOW_END_TIME);
+            user = getString(json, JsonTags.WORKFLOW_USER);
+            group = getString(json, JsonTags.WORKFLOW_GROUP);
+            run = getInt(json, JsonTags.WORKFLOW_RUN);
+            consoleUrl = getString(json, JsonTags.WORKFLOW_CONSOLE_URL);
+            parentId = getString(json, JsonTags.WORKFLOW_PARENT_ID);
+            JSONArray array = (JSONArray) json.get(JsonTags.WORKFLOW_ACTIONS);
+            actions = getList((array != null) ? createWorkflowActionList(array) : null);
+            toString = getString(json, JsonTags.TO_STRING);
+        }
+
+        public String getAppPath() {
+            return appPath;
+        }
+
+        public String getAppName() {
+            return appName;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getConf() {
+            return conf;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Date getLastModifiedTime() {
+            return lastModifiedTime;
+        }
+
+        public Date getCreatedTime() {
+            return createdTime;
+        }
+
+        public Date getStartTime() {
+            // same mapping as the proxy beans, the workflow start time is its creation time
+            return createdTime;
+        }
+
+        public Date getEndTime() {
+            return endTime;
+        }
+
+        public String getUser() {
+            return user;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public int getRun() {
+            return run;
+        }
+
+        public String getConsoleUrl() {
+            return consoleUrl;
+        }
+
+        public String getParentId() {
+            return parentId;
+        }
+
+        public List<WorkflowAction> getActions() {
+            return actions;
+        }
+
+        @Override
+        public String toString() {
+            return toString;
+        }
+    }
+
+    /**
+     * Immutable coordinator action bean decoded from a JSON object.
+     */
+    private static final class DecodedCoordinatorAction implements CoordinatorAction {
+        private final String id;
+        private final String jobId;
+        private final int actionNumber;
+        private final String createdConf;
+        private final Date createdTime;
+        private final Date nominalTime;
+        private final String externalId;
+        private final Status status;
+        private final String runConf;
+        private final Date lastModifiedTime;
+        private final String missingDependencies;
+        private final String externalStatus;
+        private final String trackerUri;
+        private final String consoleUrl;
+        private final String errorCode;
+        private final String errorMessage;
+        private final String toString;
+
+        DecodedCoordinatorAction(JSONObject json) {
+            id = getString(json, JsonTags.COORDINATOR_ACTION_ID);
+            jobId = getString(json, JsonTags.COORDINATOR_JOB_ID);
+            actionNumber = getInt(json, JsonTags.COORDINATOR_ACTION_NUMBER);
+            createdConf = getString(json, JsonTags.COORDINATOR_ACTION_CREATED_CONF);
+            createdTime = getDate(json, JsonTags.COORDINATOR_ACTION_CREATED_TIME);
+            nominalTime = getDate(json, JsonTags.COORDINATOR_ACTION_NOMINAL_TIME);
+            externalId = getString(json, JsonTags.COORDINATOR_ACTION_EXTERNALID);
+            status = getEnum(Status.class, json, JsonTags.COORDINATOR_ACTION_STATUS);
+            runConf = getString(json, JsonTags.COORDINATOR_ACTION_RUNTIME_CONF);
+            lastModifiedTime = getDate(json, JsonTags.COORDINATOR_ACTION_LAST_MODIFIED_TIME);
+            missingDependencies = getString(json, JsonTags.COORDINATOR_ACTION_MISSING_DEPS);
+            externalStatus = getString(json, JsonTags.COORDINATOR_ACTION_EXTERNAL_STATUS);
+            trackerUri = getString(json, JsonTags.COORDINATOR_ACTION_TRACKER_URI);
+            consoleUrl = getString(json, JsonTags.COORDINATOR_ACTION_CONSOLE_URL);
+            errorCode = getString(json, JsonTags.COORDINATOR_ACTION_ERROR_CODE);
+            errorMessage = getString(json, JsonTags.COORDINATOR_ACTION_ERROR_MESSAGE);
+            toString = getString(json, JsonTags.TO_STRING);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public int getActionNumber() {
+            return actionNumber;
+        }
+
+        public String getCreatedConf() {
+            return createdConf;
+        }
+
+        public Date getCreatedTime() {
+            return createdTime;
+        }
+
+        public Date getNominalTime() {
+            return nominalTime;
+        }
+
+        public String getExternalId() {
+            return externalId;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getRunConf() {
+            return runConf;
+        }
+
+        public Date getLastModifiedTime() {
+            return lastModifiedTime;
+        }
+
+        public String getMissingDependencies() {
+            return missingDependencies;
+        }
+
+        public String getExternalStatus() {
+            return externalStatus;
+        }
+
+        public String getTrackerUri() {
+            return trackerUri;
+        }
+
+        public String getConsoleUrl() {
+            return consoleUrl;
+        }
+
+        public String getErrorCode() {
+            return errorCode;
+        }
+
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+
+        public void setErrorCode(String errorCode) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void setErrorMessage(String errorMessage) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String toString() {
+            return toString;
+        }
+    }
+
+    /**
+     * Immutable coordinator job bean decoded from a JSON object.
+     */
+    private static final class DecodedCoordinatorJob implements CoordinatorJob {
+        private final String appPath;
+        private final String appName;
+        private final String id;
+        private final String conf;
+        private final Status status;
+        private final Execution executionOrder;
+        private final int frequency;
+        private final Timeunit timeUnit;
+        private final String timeZone;
+        private final int concurrency;
+        private final int timeout;
+        private final Date lastActionTime;
+        private final Date nextMaterializedTime;
+        private final Date startTime;
+        private final Date endTime;
+        private final String user;
+        private final String group;
+        private final String consoleUrl;
+        private final List<CoordinatorAction> actions;
+        private final String toString;
+
+        DecodedCoordinatorJob(JSONObject json) {
+            appPath = getString(json, JsonTags.COORDINATOR_JOB_PATH);
+            appName = getString(json, JsonTags.COORDINATOR_JOB_NAME);
+            id = getString(json, JsonTags.COORDINATOR_JOB_ID);
+            conf = getString(json, JsonTags.COORDINATOR_JOB_CONF);
+            status = getEnum(Status.class, json, JsonTags.COORDINATOR_JOB_STATUS);
+            executionOrder = getEnum(Execution.class, json, JsonTags.COORDINATOR_JOB_EXECUTIONPOLICY);
+            frequency = getInt(json, JsonTags.COORDINATOR_JOB_FREQUENCY);
+            timeUnit = getEnum(Timeunit.class, json, JsonTags.COORDINATOR_JOB_TIMEUNIT);
+            timeZone = getString(json, JsonTags.COORDINATOR_JOB_TIMEZONE);
+            concurrency = getInt(json, JsonTags.COORDINATOR_JOB_CONCURRENCY);
+            timeout = getInt(json, JsonTags.COORDINATOR_JOB_TIMEOUT);
+            lastActionTime = getDate(json, JsonTags.COORDINATOR_JOB_LAST_ACTION_TIME);
+            nextMaterializedTime = getDate(json, JsonTags.COORDINATOR_JOB_NEXT_MATERIALIZED_TIME);
+            startTime = getDate(json, JsonTags.COORDINATOR_JOB_START_TIME);
+            endTime = getDate(json, JsonTags.COORDINATOR_JOB_END_TIME);
+            user = getString(json, JsonTags.COORDINATOR_JOB_USER);
+            group = getString(json, JsonTags.COORDINATOR_JOB_GROUP);
+            consoleUrl = getString(json, JsonTags.COORDINATOR_JOB_CONSOLE_URL);
+            JSONArray array = (JSONArray) json.get(JsonTags.COORDINATOR_ACTIONS);
+            actions = getList((array != null) ? createCoordinatorActionList(array) : null);
+            toString = getString(json, JsonTags.TO_STRING);
+        }
+
+        public String getAppPath() {
+            return appPath;
+        }
+
+        public String getAppName() {
+            return appName;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getConf() {
+            return conf;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Execution getExecutionOrder() {
+            return executionOrder;
+        }
+
+        public int getFrequency() {
+            return frequency;
+        }
+
+        public Timeunit getTimeUnit() {
+            return timeUnit;
+        }
+
+        public String getTimeZone() {
+            return timeZone;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public int getTimeout() {
+            return timeout;
+        }
+
+        public Date getLastActionTime() {
+            return lastActionTime;
+        }
+
+        public Date getNextMaterializedTime() {
+            return nextMaterializedTime;
+        }
+
+        public Date getStartTime() {
+            return startTime;
+        }
+
+        public Date getEndTime() {
+            return endTime;
+        }
+
+        public String getUser() {
+            return user;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public String getBundleId() {
+            throw new RuntimeException("Undefined method mapping: getBundleId");
+        }
+
+        public Date getPauseTime() {
+            throw new RuntimeException("Undefined method mapping: getPauseTime");
+        }
+
+        public String getExternalId() {
+            throw new RuntimeException("Undefined method mapping: getExternalId");
+        }
+
+        public String getConsoleUrl() {
+            return consoleUrl;
+        }
+
+        public List<CoordinatorAction> getActions() {
+            return actions;
+        }
+
+        public void setStatus(Job.Status status) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void setPending() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void resetPending() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String toString() {
+            return toString;
+        }
+    }
+
+    /**
+     * Immutable bundle job bean decoded from a JSON object.
+     */
+    private static final class DecodedBundleJob implements BundleJob {
+        private final String appPath;
+        private final String appName;
+        private final String id;
+        private final String externalId;
+        private final String conf;
+        private final Status status;
+        private final Timeunit timeUnit;
+        private final int timeout;
+        private final Date kickoffTime;
+        private final Date startTime;
+        private final Date endTime;
+        private final Date pauseTime;
+        private final Date createdTime;
+        private final String user;
+        private final String group;
+        private final String consoleUrl;
+        private final List<CoordinatorJob> coordinators;
+        private final String toString;
+
+        DecodedBundleJob(JSONObject json) {
+            appPath = getString(json, JsonTags.BUNDLE_JOB_PATH);
+            appName = getString(json, JsonTags.BUNDLE_JOB_NAME);
+            id = getString(json, JsonTags.BUNDLE_JOB_ID);
+            externalId = getString(json, JsonTags.BUNDLE_JOB_EXTERNAL_ID);
+            conf = getString(json, JsonTags.BUNDLE_JOB_CONF);
+            status = getEnum(Status.class, json, JsonTags.BUNDLE_JOB_STATUS);
+            timeUnit = getEnum(Timeunit.class, json, JsonTags.BUNDLE_JOB_TIMEUNIT);
+            timeout = getInt(json, JsonTags.BUNDLE_JOB_TIMEOUT);
+            kickoffTime = getDate(json, JsonTags.BUNDLE_JOB_KICKOFF_TIME);
+            startTime = getDate(json, JsonTags.BUNDLE_JOB_START_TIME);
+            endTime = getDate(json, JsonTags.BUNDLE_JOB_END_TIME);
+            pauseTime = getDate(json, JsonTags.BUNDLE_JOB_PAUSE_TIME);
+            createdTime = getDate(json, JsonTags.BUNDLE_JOB_CREATED_TIME);
+            user = getString(json, JsonTags.BUNDLE_JOB_USER);
+            group = getString(json, JsonTags.BUNDLE_JOB_GROUP);
+            consoleUrl = getString(json, JsonTags.BUNDLE_JOB_CONSOLE_URL);
+            JSONArray array = (JSONArray) json.get(JsonTags.BUNDLE_COORDINATOR_JOBS);
+            coordinators = getList((array != null) ? createCoordinatorJobList(array) : null);
+            toString = getString(json, JsonTags.TO_STRING);
+        }
+
+        public String getAppPath() {
+            return appPath;
+        }
+
+        public String getAppName() {
+            return appName;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getExternalId() {
+            return externalId;
+        }
+
+        public String getConf() {
+            return conf;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Timeunit getTimeUnit() {
+            return timeUnit;
+        }
+
+        public int getTimeout() {
+            return timeout;
+        }
+
+        public Date getKickoffTime() {
+            return kickoffTime;
+        }
+
+        public Date getStartTime() {
+            return startTime;
+        }
+
+        public Date getEndTime() {
+            return endTime;
+        }
+
+        public Date getPauseTime() {
+            return pauseTime;
+        }
+
+        public Date getCreatedTime() {
+            return createdTime;
+        }
+
+        public String getUser() {
+            return user;
+        }
+
+        public String getGroup() {
+            return group;
+        }
+
+        public String getConsoleUrl() {
+            return consoleUrl;
+        }
+
+        public List<CoordinatorJob> getCoordinators() {
+            return coordinators;
+        }
+
+        public void setStatus(Job.Status status) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void setPending() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void resetPending() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String toString() {
+            return toString;
+        }
+    }
 }
@@ -34,6 +34,18 @@ import org.json.simple.JSONObject;
  */
 public class JsonUtils {
 
+    /**
+     * RFC822 GMT parsers, one per thread as <code>SimpleDateFormat</code> is not thread safe.
+     */
+    private static final ThreadLocal<SimpleDateFormat> RFC822_PARSER = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            SimpleDateFormat dateFormater = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+            dateFormater.setTimeZone(TimeZone.getTimeZone("GMT"));
+            return dateFormater;
+        }
+    };
+
     /**
      * Format a Date in RFC822 GMT.
      *
@@ -58,9 +70,7 @@ public class JsonUtils {
     static Date parseDateRfc822(String str) {
         if (str != null) {
             try {
-                SimpleDateFormat dateFormater = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
-                dateFormater.setTimeZone(TimeZone.getTimeZone("GMT"));
-                return dateFormater.parse(str);
+                return RFC822_PARSER.get().parse(str);
             }
             catch (ParseException ex) {
                 return null;
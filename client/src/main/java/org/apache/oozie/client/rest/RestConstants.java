@@ -57,6 +57,8 @@ public interface RestConstants {
     public static final String JOB_ACTION_KILL = "kill";
 
     public static final String JOB_ACTION_CHANGE = "change";
+
+    public static final String JOBS_ACTION_STATUS = "status";
     public static final String JOB_CHANGE_VALUE = "value";
 
     public static final String JOB_ACTION_RERUN = "rerun";
@@ -101,6 +103,12 @@ public interface RestConstants {
 
     public static final String JOBS_EXTERNAL_ID_PARAM = "external-id";
 
+    public static final String JOBS_CURSOR_PARAM = "cursor";
+
+    public static final String JOBS_CHANGES_PARAM = "changes";
+
+    public static final String JOBS_TIMEOUT_PARAM = "timeout";
+
     public static final String ADMIN_STATUS_RESOURCE = "status";
 
     public static final String ADMIN_SAFE_MODE_PARAM = "safemode";
@@ -121,10 +129,20 @@ public interface RestConstants {
 
     public static final String ADMIN_QUEUE_DUMP_RESOURCE = "queue-dump";
 
+    public static final String ADMIN_METRICS_RESOURCE = "metrics";
+
+    public static final String ADMIN_SLOW_COMMANDS_RESOURCE = "slow-commands";
+
     public static final String OOZIE_ERROR_CODE = "oozie-error-code";
 
     public static final String OOZIE_ERROR_MESSAGE = "oozie-error-message";
 
+    /**
+     * Marker written at the end of a streamed JSON response when the server fails after the response was committed,
+     * it is followed by the error message. The response is then not valid JSON.
+     */
+    public static final String STREAM_ERROR_MARKER = "oozie-stream-error: ";
+
     public static final String JOBTYPE_PARAM = "jobtype";
 
     public static final String SLA_GT_SEQUENCE_ID = "gt-sequence-id";
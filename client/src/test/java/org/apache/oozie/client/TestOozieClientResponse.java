@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.client;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.zip.GZIPOutputStream;
+
+public class TestOozieClientResponse extends TestCase {
+
+    private static class MockConnection extends HttpURLConnection {
+        private final byte[] body;
+        private final String contentType;
+        private final String contentEncoding;
+        boolean closed;
+
+        MockConnection(byte[] body, String contentType, String contentEncoding) throws IOException {
+            super(new URL("http://localhost:11000/oozie"));
+            this.body = body;
+            this.contentType = contentType;
+            this.contentEncoding = contentEncoding;
+        }
+
+        @Override
+        public int getResponseCode() {
+            return HTTP_OK;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(body) {
+                @Override
+                public void close() throws IOException {
+                    closed = true;
+                    super.close();
+                }
+            };
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return contentEncoding;
+        }
+
+        @Override
+        public void disconnect() {
+            fail("the connection must not be disconnected");
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+
+        @Override
+        public void connect() {
+        }
+    }
+
+    public void testPlainResponse() throws Exception {
+        String body = "{\"id\":\"\u00e1\"}";
+        MockConnection conn = new MockConnection(body.getBytes("UTF-8"), "application/json;charset=UTF-8", null);
+        assertEquals(body, OozieClient.getResponseReader(conn).readLine());
+    }
+
+    public void testGzipResponse() throws Exception {
+        String body = "{\"id\":\"\u00e1\"}";
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(baos);
+        gzip.write(body.getBytes("ISO-8859-1"));
+        gzip.close();
+        MockConnection conn = new MockConnection(baos.toByteArray(), "text/plain; charset=ISO-8859-1", "gzip");
+        assertEquals(body, OozieClient.getResponseReader(conn).readLine());
+    }
+
+    public void testReleaseConnection() throws Exception {
+        MockConnection conn = new MockConnection(new byte[0], null, null);
+        OozieClient.releaseConnection(conn);
+        assertTrue(conn.closed);
+    }
+
+}
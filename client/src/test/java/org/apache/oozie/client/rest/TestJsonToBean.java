@@ -18,6 +18,7 @@
 package org.apache.oozie.client.rest;
 
 import junit.framework.TestCase;
+import org.apache.oozie.client.BundleJob;
 import org.apache.oozie.client.CoordinatorAction;
 import org.apache.oozie.client.CoordinatorJob;
 import org.apache.oozie.client.WorkflowAction;
@@ -25,6 +26,7 @@ import org.apache.oozie.client.WorkflowJob;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
+import java.lang.reflect.Proxy;
 import java.util.List;
 
 public class TestJsonToBean extends TestCase {
@@ -307,4 +309,144 @@ public class TestJsonToBean extends TestCase {
         assertEquals("cj2", list.get(1).getId());
     }
 
+    @SuppressWarnings("unchecked")
+    private JSONObject createJsonBundleJob() {
+        JSONObject json = new JSONObject();
+        json.put(JsonTags.BUNDLE_JOB_PATH, "a");
+        json.put(JsonTags.BUNDLE_JOB_NAME, "b");
+        json.put(JsonTags.BUNDLE_JOB_ID, "c");
+        json.put(JsonTags.BUNDLE_JOB_EXTERNAL_ID, "h");
+        json.put(JsonTags.BUNDLE_JOB_CONF, "d");
+        json.put(JsonTags.BUNDLE_JOB_STATUS, BundleJob.Status.RUNNING.toString());
+        json.put(JsonTags.BUNDLE_JOB_TIMEUNIT, BundleJob.Timeunit.DAY.toString());
+        json.put(JsonTags.BUNDLE_JOB_TIMEOUT, (long)3);
+        json.put(JsonTags.BUNDLE_JOB_KICKOFF_TIME, CREATED_TIME);
+        json.put(JsonTags.BUNDLE_JOB_START_TIME, START_TIME);
+        json.put(JsonTags.BUNDLE_JOB_END_TIME, END_TIME);
+        json.put(JsonTags.BUNDLE_JOB_PAUSE_TIME, LAST_ACTION);
+        json.put(JsonTags.BUNDLE_JOB_CREATED_TIME, CREATED_TIME);
+        json.put(JsonTags.BUNDLE_JOB_USER, "e");
+        json.put(JsonTags.BUNDLE_JOB_GROUP, "f");
+        json.put(JsonTags.BUNDLE_JOB_CONSOLE_URL, "g");
+        json.put(JsonTags.BUNDLE_COORDINATOR_JOBS, createJsonCoordinatorJobList());
+        return json;
+    }
+
+    public void testParseBundleJob() {
+        BundleJob job = JsonToBean.createBundleJob(createJsonBundleJob());
+
+        assertEquals("a", job.getAppPath());
+        assertEquals("b", job.getAppName());
+        assertEquals("c", job.getId());
+        assertEquals("d", job.getConf());
+        assertEquals(BundleJob.Status.RUNNING, job.getStatus());
+        assertEquals("h", job.getExternalId());
+        assertEquals(BundleJob.Timeunit.DAY, job.getTimeUnit());
+        assertEquals(3, job.getTimeout());
+        assertEquals(JsonUtils.parseDateRfc822(CREATED_TIME), job.getKickoffTime());
+        assertEquals(JsonUtils.parseDateRfc822(START_TIME), job.getStartTime());
+        assertEquals(JsonUtils.parseDateRfc822(END_TIME), job.getEndTime());
+        assertEquals(JsonUtils.parseDateRfc822(LAST_ACTION), job.getPauseTime());
+        assertEquals(JsonUtils.parseDateRfc822(CREATED_TIME), job.getCreatedTime());
+        assertEquals("e", job.getUser());
+        assertEquals("f", job.getGroup());
+        assertEquals("g", job.getConsoleUrl());
+        assertEquals(2, job.getCoordinators().size());
+        assertEquals("cj1", job.getCoordinators().get(0).getId());
+        assertEquals("cj2", job.getCoordinators().get(1).getId());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testDecodedBeansAreImmutable() {
+        JSONObject json = createJsonCoordinatorJob();
+        json.put(JsonTags.TO_STRING, "s");
+        CoordinatorJob job = JsonToBean.createCoordinatorJob(json);
+        assertFalse(Proxy.isProxyClass(job.getClass()));
+        assertEquals("s", job.toString());
+
+        // changes to the JSON object after the decoding are not seen by the bean
+        json.put(JsonTags.COORDINATOR_JOB_ID, "x");
+        assertEquals("c", job.getId());
+
+        try {
+            job.setStatus(CoordinatorJob.Status.KILLED);
+            fail();
+        }
+        catch (UnsupportedOperationException ex) {
+            //nop
+        }
+        try {
+            job.getActions().clear();
+            fail();
+        }
+        catch (UnsupportedOperationException ex) {
+            //nop
+        }
+        try {
+            job.getActions().get(0).setErrorCode("e");
+            fail();
+        }
+        catch (UnsupportedOperationException ex) {
+            //nop
+        }
+    }
+
+    public void testMissingValues() {
+        WorkflowJob wf = JsonToBean.createWorkflowJob(new JSONObject());
+        assertNull(wf.getId());
+        assertNull(wf.getStatus());
+        assertNull(wf.getCreatedTime());
+        assertEquals(0, wf.getRun());
+        assertEquals(0, wf.getActions().size());
+    }
+
+    public void testProxyFallback() {
+        JsonToBean.setUseProxy(true);
+        try {
+            WorkflowJob wf = JsonToBean.createWorkflowJob(createJsonWorkflowJob());
+            assertTrue(Proxy.isProxyClass(wf.getClass()));
+            assertEquals("c", wf.getId());
+            assertEquals(WorkflowJob.Status.PREP, wf.getStatus());
+            assertEquals(2, wf.getActions().size());
+            assertTrue(Proxy.isProxyClass(wf.getActions().get(0).getClass()));
+            assertEquals("a1", wf.getActions().get(0).getId());
+        }
+        finally {
+            JsonToBean.setUseProxy(false);
+        }
+    }
+
+    public void testDecodedMatchesProxy() {
+        BundleJob decoded = JsonToBean.createBundleJob(createJsonBundleJob());
+        BundleJob proxy;
+        JsonToBean.setUseProxy(true);
+        try {
+            proxy = JsonToBean.createBundleJob(createJsonBundleJob());
+        }
+        finally {
+            JsonToBean.setUseProxy(false);
+        }
+        assertEquals(proxy.getExternalId(), decoded.getExternalId());
+        assertEquals(proxy.getPauseTime(), decoded.getPauseTime());
+        assertEquals(proxy.getCreatedTime(), decoded.getCreatedTime());
+        assertEquals(proxy.getKickoffTime(), decoded.getKickoffTime());
+
+        // the coordinator jobs of the proxy beans have no mapping for these methods
+        CoordinatorJob coord = decoded.getCoordinators().get(0);
+        try {
+            coord.getPauseTime();
+            fail();
+        }
+        catch (RuntimeException ex) {
+            assertEquals("Undefined method mapping: getPauseTime", ex.getMessage());
+        }
+        try {
+            coord.getExternalId();
+            fail();
+        }
+        catch (RuntimeException ex) {
+            assertEquals("Undefined method mapping: getExternalId", ex.getMessage());
+        }
+    }
+
 }
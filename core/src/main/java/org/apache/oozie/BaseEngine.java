@@ -20,6 +20,7 @@ package org.apache.oozie;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -32,7 +33,9 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.client.CoordinatorJob;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.client.rest.JsonJobStatusInfo;
 import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.JobsStatusXCommand;
 import org.apache.oozie.command.wf.CompletedActionCommand;
 import org.apache.oozie.command.wf.DefinitionCommand;
 import org.apache.oozie.command.wf.ExternalIdCommand;
@@ -211,4 +214,20 @@ public abstract class BaseEngine {
 
     public abstract String dryrunSubmit(Configuration conf, boolean startJob) throws BaseEngineException;
 
+    /**
+     * Return the status of several workflow, coordinator and bundle jobs.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return the status of the jobs, in the order of the given IDs, the jobs that do not exist are not in the list.
+     * @throws BaseEngineException thrown if the jobs status could not be obtained.
+     */
+    public List<JsonJobStatusInfo> getJobsStatus(Collection<String> jobIds) throws BaseEngineException {
+        try {
+            return new JobsStatusXCommand(jobIds).call();
+        }
+        catch (CommandException ex) {
+            throw new BaseEngineException(ex);
+        }
+    }
+
 }
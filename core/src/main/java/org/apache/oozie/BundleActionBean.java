@@ -76,6 +76,7 @@ public class BundleActionBean implements Writable {
     @Column(name = "bundle_action_id")
     private String bundleActionId = null;
 
+    @Index
     @Column(name = "bundle_id")
     private String bundleId = null;
 
@@ -95,10 +96,12 @@ public class BundleActionBean implements Writable {
     private int critical = 0;
 
     @Basic
+    @Index
     @Column(name = "pending")
     private int pending = 0;
 
     @Basic
+    @Index
     @Column(name = "last_modified_time")
     private java.sql.Timestamp lastModifiedTimestamp = null;
 
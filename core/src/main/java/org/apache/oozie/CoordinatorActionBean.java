@@ -77,7 +77,9 @@ import org.apache.openjpa.persistence.jdbc.Index;
 
     @NamedQuery(name = "GET_COORD_ACTIONS_PENDING_FALSE_STATUS_COUNT", query = "select count(a) from CoordinatorActionBean a where a.jobId = :jobId AND a.pending = 0 AND a.status = :status"),
 
-    @NamedQuery(name = "GET_ACTIONS_FOR_COORD_JOB", query = "select OBJECT(a) from CoordinatorActionBean a where a.jobId = :jobId"),
+    @NamedQuery(name = "GET_ACTIONS_FOR_COORD_JOB", query = "select OBJECT(a) from CoordinatorActionBean a where a.jobId = :jobId order by a.actionNumber"),
+
+    @NamedQuery(name = "GET_ACTIONS_STATUS_FOR_COORD_JOB", query = "select a.id, a.actionNumber, a.status, a.nominalTimestamp, a.externalId from CoordinatorActionBean a where a.jobId = :jobId order by a.actionNumber"),
 
     @NamedQuery(name = "GET_COORD_ACTION_FOR_COORD_JOB_BY_ACTION_NUMBER", query = "select OBJECT(a) from CoordinatorActionBean a where a.jobId = :jobId AND a.actionNumber = :actionNumber"),
 
@@ -142,6 +144,7 @@ public class CoordinatorActionBean extends JsonCoordinatorAction implements
     private String slaXml = null;
 
     @Basic
+    @Index
     @Column(name = "pending")
     private int pending = 0;
 
@@ -216,6 +219,13 @@ public class CoordinatorActionBean extends JsonCoordinatorAction implements
         return Status.valueOf(status);
     }
 
+    /**
+     * @return status string
+     */
+    public String getStatusStr() {
+        return status;
+    }
+
     @Override
     public void setStatus(Status status) {
         super.setStatus(status);
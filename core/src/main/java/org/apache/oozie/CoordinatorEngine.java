@@ -52,14 +52,22 @@ import org.apache.oozie.command.coord.CoordSubmitCommand;
 import org.apache.oozie.command.coord.CoordSubmitXCommand;
 import org.apache.oozie.command.coord.CoordSuspendCommand;
 import org.apache.oozie.command.coord.CoordSuspendXCommand;
+import org.apache.oozie.executor.jpa.CoordActionsSubsetGetForJobJPAExecutor;
 import org.apache.oozie.service.DagXLogInfoService;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.XLogService;
+import org.apache.oozie.util.BatchIterator;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.XLogStreamer;
 
 public class CoordinatorEngine extends BaseEngine {
+    /**
+     * Number of coordinator actions read per batch by {@link #getCoordActions(String, int, int)}.
+     */
+    public static final int ACTIONS_BATCH_SIZE = 500;
+
     private static boolean useXCommand = true;
     private static XLog LOG = XLog.getLog(CoordinatorEngine.class);
 
@@ -100,14 +108,16 @@ public class CoordinatorEngine extends BaseEngine {
     }
 
     /**
-     * @param jobId
-     * @return CoordinatorJobBean
-     * @throws BaseEngineException
+     * Return the info of a coordinator job without its actions.
+     *
+     * @param jobId coordinator job id.
+     * @return the coordinator job info, with no actions.
+     * @throws BaseEngineException thrown if the job info could not be obtained.
      */
-    private CoordinatorJobBean getCoordJobWithNoActionInfo(String jobId) throws BaseEngineException {
+    public CoordinatorJobBean getCoordJobWithNoActionInfo(String jobId) throws BaseEngineException {
         try {
             if (useXCommand) {
-                return new CoordJobXCommand(jobId).call();
+                return new CoordJobXCommand(jobId, false).call();
             }
             else {
                 return new CoordJobCommand(jobId).call();
@@ -177,6 +187,41 @@ public class CoordinatorEngine extends BaseEngine {
         }
     }
 
+    /**
+     * Return an iterator over a range of the actions of a coordinator job, ordered by action number.
+     * <p/>
+     * The actions are read from the database in batches of {@link #ACTIONS_BATCH_SIZE} as the iterator is consumed,
+     * a failure reading a batch is reported as a {@link RuntimeException} by the iterator. The first batch is read
+     * before returning, so a failure reading it is reported before anything is written to a response.
+     *
+     * @param jobId coordinator job id.
+     * @param start offset of the first action, base 1.
+     * @param length maximum number of actions.
+     * @return an iterator over the coordinator actions.
+     * @throws CoordinatorEngineException thrown if the first batch of actions could not be read.
+     */
+    public Iterator<CoordinatorActionBean> getCoordActions(final String jobId, int start, int length)
+            throws CoordinatorEngineException {
+        Iterator<CoordinatorActionBean> actions = new BatchIterator<CoordinatorActionBean>(start, length,
+                                                                                            ACTIONS_BATCH_SIZE) {
+            @Override
+            protected List<CoordinatorActionBean> read(int start, int len) throws Exception {
+                return Services.get().get(JPAService.class).execute(
+                        new CoordActionsSubsetGetForJobJPAExecutor(jobId, start, len));
+            }
+        };
+        try {
+            actions.hasNext();
+        }
+        catch (RuntimeException ex) {
+            if (ex.getCause() instanceof XException) {
+                throw new CoordinatorEngineException((XException) ex.getCause());
+            }
+            throw new CoordinatorEngineException(ErrorCode.E0603, "getCoordActions", ex.getMessage(), ex);
+        }
+        return actions;
+    }
+
     /*
      * (non-Javadoc)
      *
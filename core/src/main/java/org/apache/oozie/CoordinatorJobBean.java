@@ -65,7 +65,9 @@ import org.apache.openjpa.persistence.jdbc.Index;
 
         @NamedQuery(name = "GET_COORD_JOBS_PAUSED", query = "select OBJECT(w) from CoordinatorJobBean w where w.status = 'PAUSED' OR w.status = 'PAUSEDWITHERROR' OR w.status = 'PREPPAUSED' order by w.lastModifiedTimestamp"),
 
-        @NamedQuery(name = "GET_COORD_JOBS_FOR_BUNDLE", query = "select OBJECT(w) from CoordinatorJobBean w where w.bundleId = :bundleId order by w.lastModifiedTimestamp") })
+        @NamedQuery(name = "GET_COORD_JOBS_FOR_BUNDLE", query = "select OBJECT(w) from CoordinatorJobBean w where w.bundleId = :bundleId order by w.lastModifiedTimestamp"),
+
+        @NamedQuery(name = "GET_COORD_JOBS_STATUS_FOR_IDS", query = "select w.id, w.status, w.startTimestamp, w.endTimestamp, w.lastModifiedTimestamp, w.externalId from CoordinatorJobBean w where w.id IN :ids") })
 public class CoordinatorJobBean extends JsonCoordinatorJob implements Writable {
 
     @Basic
@@ -79,6 +81,7 @@ public class CoordinatorJobBean extends JsonCoordinatorJob implements Writable {
     private String authToken = null;
 
     @Basic
+    @Index
     @Column(name = "start_time")
     private java.sql.Timestamp startTimestamp = null;
 
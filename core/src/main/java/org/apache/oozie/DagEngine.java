@@ -56,6 +56,7 @@ import org.apache.oozie.command.wf.SuspendCommand;
 import org.apache.oozie.command.wf.SuspendXCommand;
 import org.apache.oozie.command.wf.WorkflowActionInfoCommand;
 import org.apache.oozie.command.wf.WorkflowActionInfoXCommand;
+import org.apache.oozie.executor.jpa.WorkflowsJobGetJPAExecutor;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.CallableQueueService;
 import org.apache.oozie.util.ParamChecker;
@@ -529,6 +530,38 @@ public class DagEngine extends BaseEngine {
         }
     }
 
+    /**
+     * Return the info about a page of jobs, newest first, following a cursor.
+     * <p/>
+     * Unlike offset pagination, reading a page does not require skipping all the preceding jobs, the jobs are
+     * ordered by creation time and the page is read from the position in the cursor.
+     *
+     * @param filterStr job filter. Refer to the {@link org.apache.oozie.client.OozieClient} for the filter syntax.
+     * @param cursor cursor returned with the previous page, empty for the first page.
+     * @param len number of jobs to return.
+     * @return job info for the matching jobs of the page and the cursor of the next page, the jobs don't contain
+     *         node action information.
+     * @throws DagEngineException thrown if the jobs info could not be obtained.
+     */
+    public WorkflowsInfo getJobs(String filterStr, String cursor, int len) throws DagEngineException {
+        Map<String, List<String>> filter = parseFilter(filterStr);
+        ParamChecker.notNull(cursor, "cursor");
+        if (cursor.length() > 0) {
+            try {
+                WorkflowsJobGetJPAExecutor.decodeCursor(cursor);
+            }
+            catch (IllegalArgumentException ex) {
+                throw new DagEngineException(ErrorCode.E0421, cursor);
+            }
+        }
+        try {
+            return new JobsXCommand(filter, cursor, len).call();
+        }
+        catch (CommandException dce) {
+            throw new DagEngineException(dce);
+        }
+    }
+
     /**
      * Return the workflow Job ID for an external ID. <p/> This is reverse lookup for recovery purposes.
      *
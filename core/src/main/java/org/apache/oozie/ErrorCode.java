@@ -71,6 +71,9 @@ public enum ErrorCode {
     E0404(XLog.STD, "Only one of the properties are allowed [{0}]"),
 
     E0420(XLog.STD, "Invalid jobs filter [{0}], {1}"),
+    E0421(XLog.STD, "Invalid jobs cursor [{0}]"),
+    E0422(XLog.STD, "Invalid jobs status request, {0}"),
+    E0423(XLog.STD, "Job changes feed not available"),
 
     E0500(XLog.OPS, "Not authorized, {0}"),
     E0501(XLog.OPS, "Could not perform authorization operation, {0}"),
@@ -17,11 +17,15 @@
  */
 package org.apache.oozie;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
+import org.apache.oozie.client.JobStatusInfo;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.OozieClientException;
 import org.apache.oozie.client.WorkflowJob;
@@ -305,6 +309,27 @@ public class LocalOozieClient extends OozieClient {
         return getJobsInfo(filter, 1, 100);
     }
 
+    /**
+     * Return the status of several workflow, coordinator and bundle jobs.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return a map with the status of the jobs keyed by job ID, the jobs that do not exist are not in the map.
+     * @throws org.apache.oozie.client.OozieClientException thrown if the jobs status could not be retrieved.
+     */
+    @Override
+    public Map<String, JobStatusInfo> getStatuses(Collection<String> jobIds) throws OozieClientException {
+        try {
+            Map<String, JobStatusInfo> statuses = new LinkedHashMap<String, JobStatusInfo>();
+            for (JobStatusInfo status : dagEngine.getJobsStatus(jobIds)) {
+                statuses.put(status.getId(), status);
+            }
+            return statuses;
+        }
+        catch (BaseEngineException ex) {
+            throw new OozieClientException(ex.getErrorCode().toString(), ex);
+        }
+    }
+
     /**
      * Return the workflow job Id for an external Id. <p/> The external Id must have provided at job creation time.
      *
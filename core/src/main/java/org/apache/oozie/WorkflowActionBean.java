@@ -82,6 +82,7 @@ public class WorkflowActionBean extends JsonWorkflowAction implements Writable {
     private String status = WorkflowAction.Status.PREP.toString();
 
     @Basic
+    @Index
     @Column(name = "last_check_time")
     private java.sql.Timestamp lastCheckTimestamp;
 
@@ -98,6 +99,7 @@ public class WorkflowActionBean extends JsonWorkflowAction implements Writable {
     private String executionPath = null;
 
     @Basic
+    @Index
     @Column(name = "pending")
     private int pending = 0;
 
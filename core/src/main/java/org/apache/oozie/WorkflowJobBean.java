@@ -28,7 +28,11 @@ import org.apache.hadoop.io.Writable;
 import java.io.DataInput;
 import java.io.IOException;
 import java.io.DataOutput;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.persistence.Entity;
 import javax.persistence.Column;
@@ -36,6 +40,8 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Basic;
 import javax.persistence.Lob;
+import javax.persistence.PostLoad;
+import javax.persistence.Transient;
 
 import java.sql.Timestamp;
 
@@ -65,7 +71,9 @@ import org.apache.openjpa.persistence.jdbc.Index;
 
     @NamedQuery(name = "GET_WORKFLOWS_COUNT_WITH_STATUS", query = "select count(w) from WorkflowJobBean w where w.status = :status"),
 
-    @NamedQuery(name = "GET_WORKFLOWS_COUNT_WITH_STATUS_IN_LAST_N_SECS", query = "select count(w) from WorkflowJobBean w where w.status = :status and w.lastModifiedTimestamp > :lastModTime")
+    @NamedQuery(name = "GET_WORKFLOWS_COUNT_WITH_STATUS_IN_LAST_N_SECS", query = "select count(w) from WorkflowJobBean w where w.status = :status and w.lastModifiedTimestamp > :lastModTime"),
+
+    @NamedQuery(name = "GET_WORKFLOWS_STATUS_FOR_IDS", query = "select w.id, w.status, w.startTimestamp, w.endTimestamp, w.lastModifiedTimestamp, w.externalId from WorkflowJobBean w where w.id IN :ids")
 
         })
 public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
@@ -89,6 +97,7 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     private String status = WorkflowJob.Status.PREP.toString();
 
     @Basic
+    @Index
     @Column(name = "created_time")
     private java.sql.Timestamp createdTimestamp = null;
 
@@ -120,12 +129,62 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     @Lob
     private String slaXml = null;
 
+    @Transient
+    private boolean loaded = false;
+
+    @Transient
+    private Map<String, Object> dirtyFields = new LinkedHashMap<String, Object>();
+
     /**
      * Default constructor.
      */
     public WorkflowJobBean() {
     }
 
+    /**
+     * Start tracking the fields modified after the bean has been loaded from the database.
+     */
+    @PostLoad
+    protected void startDirtyTracking() {
+        loaded = true;
+        dirtyFields.clear();
+    }
+
+    /**
+     * Return if the bean has been loaded from the database, only then the modified fields are tracked.
+     *
+     * @return <code>true</code> if the modified fields are being tracked.
+     */
+    public boolean isDirtyTracked() {
+        return loaded;
+    }
+
+    /**
+     * Return the persistent fields modified since the bean was loaded or last persisted, with their current values.
+     * <p/> The keys are the JPQL field names, date fields are given by their timestamp field.
+     *
+     * @return the modified fields, in modification order.
+     */
+    public Map<String, Object> getDirtyFields() {
+        return Collections.unmodifiableMap(dirtyFields);
+    }
+
+    /**
+     * Mark the current state of the bean as persisted.
+     */
+    public void resetDirtyFields() {
+        dirtyFields.clear();
+    }
+
+    private void setDirty(String field, Object oldValue, Object newValue) {
+        boolean equal = (oldValue instanceof byte[] && newValue instanceof byte[])
+                        ? Arrays.equals((byte[]) oldValue, (byte[]) newValue)
+                        : (oldValue != null) ? oldValue.equals(newValue) : newValue == null;
+        if (!equal) {
+            dirtyFields.put(field, newValue);
+        }
+    }
+
     /**
      * Serialize the workflow bean to a data output.
      *
@@ -196,6 +255,7 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     }
 
     public void setAuthToken(String authToken) {
+        setDirty("authToken", this.authToken, authToken);
         this.authToken = authToken;
     }
 
@@ -204,6 +264,7 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     }
 
     public void setLogToken(String logToken) {
+        setDirty("logToken", this.logToken, logToken);
         this.logToken = logToken;
     }
 
@@ -212,6 +273,7 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     }
 
     public void setSlaXml(String slaXml) {
+        setDirty("slaXml", this.slaXml, slaXml);
         this.slaXml = slaXml;
     }
 
@@ -228,11 +290,22 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     }
 
     public void setWfInstance(byte[] wfInstance) {
+        setDirty("wfInstance", this.wfInstance, wfInstance);
         this.wfInstance = wfInstance;
     }
 
+    /**
+     * Set the workflow instance. <p/> The instance is serialized only if its state changed since it was read from
+     * this bean, this avoids rewriting the instance when only other fields of the bean changed.
+     *
+     * @param wfInstance workflow instance.
+     */
     public void setWfInstance(WorkflowInstance wfInstance) {
-        this.wfInstance = WritableUtils.toByteArray((LiteWorkflowInstance) wfInstance);
+        LiteWorkflowInstance instance = (LiteWorkflowInstance) wfInstance;
+        if (this.wfInstance == null || instance.isModified()) {
+            setWfInstance(WritableUtils.toByteArray(instance));
+            instance.resetModified();
+        }
     }
 
     public String getProtoActionConf() {
@@ -240,6 +313,7 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     }
 
     public void setProtoActionConf(String protoActionConf) {
+        setDirty("protoActionConf", this.protoActionConf, protoActionConf);
         this.protoActionConf = protoActionConf;
     }
 
@@ -273,22 +347,50 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
 
     @Override
     public void setAppName(String val) {
+        setDirty("appName", getAppName(), val);
         super.setAppName(val);
     }
 
     @Override
     public void setAppPath(String val) {
+        setDirty("appPath", getAppPath(), val);
         super.setAppPath(val);
     }
 
     @Override
     public void setConf(String val) {
+        setDirty("conf", getConf(), val);
         super.setConf(val);
     }
 
+    @Override
+    public void setUser(String val) {
+        setDirty("user", getUser(), val);
+        super.setUser(val);
+    }
+
+    @Override
+    public void setGroup(String val) {
+        setDirty("group", getGroup(), val);
+        super.setGroup(val);
+    }
+
+    @Override
+    public void setRun(int val) {
+        setDirty("run", getRun(), val);
+        super.setRun(val);
+    }
+
+    @Override
+    public void setParentId(String val) {
+        setDirty("parentId", getParentId(), val);
+        super.setParentId(val);
+    }
+
     @Override
     public void setStatus(Status val) {
         super.setStatus(val);
+        setDirty("status", this.status, val.toString());
         this.status = val.toString();
     }
 
@@ -300,6 +402,7 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     @Override
     public void setExternalId(String externalId) {
         super.setExternalId(externalId);
+        setDirty("externalId", this.externalId, externalId);
         this.externalId = externalId;
     }
 
@@ -311,7 +414,9 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     @Override
     public void setLastModifiedTime(Date lastModifiedTime) {
         super.setLastModifiedTime(lastModifiedTime);
-        this.lastModifiedTimestamp = DateUtils.convertDateToTimestamp(lastModifiedTime);
+        Timestamp timestamp = DateUtils.convertDateToTimestamp(lastModifiedTime);
+        setDirty("lastModifiedTimestamp", this.lastModifiedTimestamp, timestamp);
+        this.lastModifiedTimestamp = timestamp;
     }
 
     @Override
@@ -327,7 +432,9 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     @Override
     public void setCreatedTime(Date createdTime) {
         super.setCreatedTime(createdTime);
-        this.createdTimestamp = DateUtils.convertDateToTimestamp(createdTime);
+        Timestamp timestamp = DateUtils.convertDateToTimestamp(createdTime);
+        setDirty("createdTimestamp", this.createdTimestamp, timestamp);
+        this.createdTimestamp = timestamp;
     }
 
     @Override
@@ -338,7 +445,9 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     @Override
     public void setStartTime(Date startTime) {
         super.setStartTime(startTime);
-        this.startTimestamp = DateUtils.convertDateToTimestamp(startTime);
+        Timestamp timestamp = DateUtils.convertDateToTimestamp(startTime);
+        setDirty("startTimestamp", this.startTimestamp, timestamp);
+        this.startTimestamp = timestamp;
     }
 
     @Override
@@ -349,7 +458,9 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     @Override
     public void setEndTime(Date endTime) {
         super.setEndTime(endTime);
-        this.endTimestamp = DateUtils.convertDateToTimestamp(endTime);
+        Timestamp timestamp = DateUtils.convertDateToTimestamp(endTime);
+        setDirty("endTimestamp", this.endTimestamp, timestamp);
+        this.endTimestamp = timestamp;
     }
 
     private WorkflowInstance get(byte[] array) {
@@ -27,6 +27,7 @@ public class WorkflowsInfo {
     private int len;
     private int total;
     private List<WorkflowJobBean> workflows;
+    private String nextCursor;
 
     /**
      * Create  a workflows info bean.
@@ -43,6 +44,20 @@ public class WorkflowsInfo {
         this.workflows = workflows;
     }
 
+    /**
+     * Create a workflows info bean for a page read with a continuation cursor.
+     * <p/>
+     * The offset and total are not known for such a page, they are set to <code>-1</code>.
+     *
+     * @param workflows workflows being returned.
+     * @param len number of workflows.
+     * @param nextCursor cursor to read the next page, <code>null</code> if this is the last page.
+     */
+    public WorkflowsInfo(List<WorkflowJobBean> workflows, int len, String nextCursor) {
+        this(workflows, -1, len, -1);
+        this.nextCursor = nextCursor;
+    }
+
     /**
      * Return the workflows being returned.
      *
@@ -79,4 +94,14 @@ public class WorkflowsInfo {
         return total;
     }
 
+    /**
+     * Return the cursor to read the page following this one. <p/> For pagination purposes.
+     *
+     * @return the cursor of the next page, <code>null</code> if this is the last page or the page was not read with
+     *         a cursor.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
 }
@@ -37,6 +37,8 @@ import org.apache.oozie.action.ActionExecutor;
 import org.apache.oozie.action.ActionExecutorException;
 import org.apache.oozie.action.ActionExecutorException.ErrorType;
 import org.apache.oozie.client.WorkflowAction;
+import org.apache.oozie.service.EmailService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.XmlUtils;
 import org.jdom.Element;
 import org.jdom.Namespace;
@@ -44,6 +46,9 @@ import org.jdom.Namespace;
 /**
  * Email action executor. It takes to, cc addresses along with a subject and body and sends
  * out an email.
+ * <p/>
+ * If the {@link EmailService} is enabled the email is queued for delivery and the action completes
+ * once the email has been sent, otherwise the email is sent synchronously while starting the action.
  */
 public class EmailActionExecutor extends ActionExecutor {
 
@@ -52,6 +57,8 @@ public class EmailActionExecutor extends ActionExecutor {
     private final static String SUB = "subject";
     private final static String BOD = "body";
     private final static String COMMA = ",";
+    private final static String OK = "OK";
+    private final static String ERROR = "ERROR";
 
     public EmailActionExecutor() {
         super("email");
@@ -67,16 +74,30 @@ public class EmailActionExecutor extends ActionExecutor {
         try {
             context.setStartData("-", "-", "-");
             Element actionXml = XmlUtils.parseXml(action.getConf());
-            validateAndMail(context, actionXml);
-            context.setExecutionData("OK", null);
+            Session session = createSession();
+            Message message = validateAndCreateMessage(session, actionXml);
+            EmailService emailService = Services.get().get(EmailService.class);
+            String externalId = (emailService != null) ? emailService.submit(action.getId(), session, message)
+                                                       : null;
+            if (externalId != null) {
+                context.setStartData(externalId, EmailService.TRACKER_URI, "-");
+                context.setExternalStatus("RUNNING");
+            }
+            else {
+                send(message);
+                context.setExecutionData(OK, null);
+            }
         }
         catch (Exception ex) {
             throw convertException(ex);
         }
     }
 
-    @SuppressWarnings("unchecked")
     protected void validateAndMail(Context context, Element element) throws ActionExecutorException {
+        send(validateAndCreateMessage(createSession(), element));
+    }
+
+    private Message validateAndCreateMessage(Session session, Element element) throws ActionExecutorException {
         // The XSD does the min/max occurrence validation for us.
         Namespace ns = Namespace.getNamespace("uri:oozie:email-action:0.1");
         String tos[] = new String[0];
@@ -106,23 +127,30 @@ public class EmailActionExecutor extends ActionExecutor {
         // <body> - One ought to exist.
         body = element.getChildTextTrim(BOD, ns);
 
-        // All good - lets try to mail!
-        email(context, tos, ccs, subject, body);
+        // All good - lets build the mail!
+        return createMessage(session, tos, ccs, subject, body);
     }
 
     protected void email(Context context, String[] to, String[] cc, String subject, String body) throws ActionExecutorException {
+        send(createMessage(createSession(), to, cc, subject, body));
+    }
+
+    private Session createSession() {
         // Get mailing server details.
         String smtpHost = getOozieConf().get("oozie.email.smtp.host");
         String smtpPort = getOozieConf().get("oozie.email.smtp.port", "25");
         Boolean smtpAuth = getOozieConf().getBoolean("oozie.email.smtp.auth", false);
         String smtpUser = getOozieConf().get("oozie.email.smtp.username", "");
         String smtpPassword = getOozieConf().get("oozie.email.smtp.password", "");
-        String fromAddr = getOozieConf().get("oozie.email.from.address");
 
         Properties properties = new Properties();
         properties.setProperty("mail.smtp.host", smtpHost);
         properties.setProperty("mail.smtp.port", smtpPort);
         properties.setProperty("mail.smtp.auth", smtpAuth.toString());
+        if (smtpAuth) {
+            // Also tells apart the SMTP accounts the EmailService keeps connections to.
+            properties.setProperty("mail.smtp.user", smtpUser);
+        }
 
         Session session;
         // Do not use default instance (i.e. Session.getDefaultInstance)
@@ -132,7 +160,12 @@ public class EmailActionExecutor extends ActionExecutor {
         } else {
             session = Session.getInstance(properties, new JavaMailAuthenticator(smtpUser, smtpPassword));
         }
+        return session;
+    }
 
+    private Message createMessage(Session session, String[] to, String[] cc, String subject, String body)
+            throws ActionExecutorException {
+        String fromAddr = getOozieConf().get("oozie.email.from.address");
         Message message = new MimeMessage(session);
         InternetAddress from;
         List<InternetAddress> toAddrs = new ArrayList<InternetAddress>(to.length);
@@ -168,7 +201,10 @@ public class EmailActionExecutor extends ActionExecutor {
         } catch (MessagingException e) {
             throw new ActionExecutorException(ErrorType.ERROR, "EM005", "An error occured while adding recipients.", e);
         }
+        return message;
+    }
 
+    private void send(Message message) throws ActionExecutorException {
         try {
             // Send over SMTP Transport
             // (Session+Message has adequate details.)
@@ -183,21 +219,57 @@ public class EmailActionExecutor extends ActionExecutor {
     @Override
     public void end(Context context, WorkflowAction action) throws ActionExecutorException {
         String externalStatus = action.getExternalStatus();
-        WorkflowAction.Status status = externalStatus.equals("OK") ? WorkflowAction.Status.OK :
+        WorkflowAction.Status status = externalStatus.equals(OK) ? WorkflowAction.Status.OK :
                                        WorkflowAction.Status.ERROR;
         context.setEndData(status, getActionSignal(status));
+        releaseDelivery(action.getExternalId());
     }
 
     @Override
     public void check(Context context, WorkflowAction action)
             throws ActionExecutorException {
-
+        if (!EmailService.isEmailId(action.getExternalId())) {
+            return;
+        }
+        EmailService emailService = Services.get().get(EmailService.class);
+        EmailService.Delivery delivery = (emailService != null) ? emailService.getDelivery(action.getExternalId())
+                                                                : null;
+        if (delivery == null) {
+            // The delivery was lost with a server restart, the email may not have been sent.
+            context.setErrorInfo("EM008", "Unknown email delivery [" + action.getExternalId() + "]");
+            context.setExecutionData(ERROR, null);
+        }
+        else if (delivery.isDone()) {
+            if (delivery.getError() == null) {
+                context.setExecutionData(OK, null);
+            }
+            else {
+                context.setErrorInfo("EM007", delivery.getError());
+                context.setExecutionData(ERROR, null);
+            }
+        }
     }
 
     @Override
     public void kill(Context context, WorkflowAction action)
             throws ActionExecutorException {
+        if (EmailService.isEmailId(action.getExternalId())) {
+            EmailService emailService = Services.get().get(EmailService.class);
+            if (emailService != null && !emailService.cancel(action.getExternalId())) {
+                // Already sent or being sent, it cannot be recalled.
+                emailService.release(action.getExternalId());
+            }
+        }
+        context.setEndData(WorkflowAction.Status.KILLED, "ERROR");
+    }
 
+    private void releaseDelivery(String externalId) {
+        if (EmailService.isEmailId(externalId)) {
+            EmailService emailService = Services.get().get(EmailService.class);
+            if (emailService != null) {
+                emailService.release(externalId);
+            }
+        }
     }
 
     @Override
@@ -18,10 +18,32 @@
 package org.apache.oozie.action.hadoop;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.oozie.action.ActionExecutor;
+import org.apache.oozie.service.HadoopAccessorException;
+import org.apache.oozie.service.HadoopAccessorService;
+import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XLog;
 import org.jdom.Element;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class DistcpActionExecutor extends JavaActionExecutor{
     public static final String CONF_OOZIE_DISTCP_ACTION_MAIN_CLASS = "org.apache.hadoop.tools.DistCp";
@@ -29,10 +51,92 @@ public class DistcpActionExecutor extends JavaActionExecutor{
     private static final XLog LOG = XLog.getLog(DistcpActionExecutor.class);
     public static final String DISTCP_TYPE = "distcp";
 
+    /**
+     * Action configuration property to copy only the files changed since the previous copy, it requires the
+     * <code>-update</code> option.
+     */
+    public static final String CONF_DELTA = "oozie.distcp.delta";
+
+    /**
+     * Action configuration property to compare the checksums of source and target files of the same length instead
+     * of their modification times.
+     */
+    public static final String CONF_DELTA_CHECKSUM = "oozie.distcp.delta.checksum";
+
+    public static final String CONF_DELTA_MAX_JOBS = ActionExecutor.CONF_PREFIX + "distcp.delta.max.jobs";
+
+    static final String DELTA_PLAN_FILE = "distcp-delta.plan";
+
+    private static final String INSTRUMENTATION_GROUP = "action.executors";
+
+    // DistCp options taking a value
+    private static final Set<String> VALUE_OPTIONS = new HashSet<String>(Arrays.asList(
+            "-m", "-bandwidth", "-strategy", "-mapredSslConf", "-D", "-fs", "-jt", "-conf", "-libjars", "-files",
+            "-archives"));
+
+    // DistCp options whose semantics the delta copy plan does not preserve
+    private static final Set<String> NO_DELTA_OPTIONS = new HashSet<String>(Arrays.asList(
+            "-f", "-log", "-delete", "-overwrite", "-filelimit", "-sizelimit", "-atomic", "-diff"));
+
+    /**
+     * Files to copy per target directory and the totals of the files copied and skipped.
+     */
+    static class DeltaPlan {
+        private Map<Path, List<Path>> copies = new LinkedHashMap<Path, List<Path>>();
+        private long filesCopied;
+        private long bytesCopied;
+        private long filesSkipped;
+        private long bytesSkipped;
+
+        void copy(Path targetDir, FileStatus source) {
+            List<Path> sources = copies.get(targetDir);
+            if (sources == null) {
+                sources = new ArrayList<Path>();
+                copies.put(targetDir, sources);
+            }
+            sources.add(source.getPath());
+            filesCopied++;
+            bytesCopied += source.getLen();
+        }
+
+        void skip(FileStatus source) {
+            filesSkipped++;
+            bytesSkipped += source.getLen();
+        }
+
+        Map<Path, List<Path>> getCopies() {
+            return copies;
+        }
+
+        long getFilesCopied() {
+            return filesCopied;
+        }
+
+        long getBytesCopied() {
+            return bytesCopied;
+        }
+
+        long getFilesSkipped() {
+            return filesSkipped;
+        }
+
+        long getBytesSkipped() {
+            return bytesSkipped;
+        }
+    }
+
     public DistcpActionExecutor() {
         super("distcp");
     }
 
+    @Override
+    protected List<Class> getLauncherClasses() {
+        List<Class> classes = super.getLauncherClasses();
+        classes.add(LauncherMain.class);
+        classes.add(DistcpDeltaMain.class);
+        return classes;
+    }
+
     /* (non-Javadoc)
      * @see org.apache.oozie.action.hadoop.JavaActionExecutor#getLauncherMain(org.apache.hadoop.conf.Configuration, org.jdom.Element)
      */
@@ -46,6 +150,248 @@ public class DistcpActionExecutor extends JavaActionExecutor{
         return launcherConf.get(LauncherMapper.CONF_OOZIE_ACTION_MAIN_CLASS, classNameDistcp);
     }
 
+    /**
+     * If {@link #CONF_DELTA} is set in the action configuration, compare the source and target listings and make the
+     * launcher copy only the changed files with {@link DistcpDeltaMain}. <p/> A source file is changed if the target
+     * file does not exist, has a different length, or is older than the source file. If {@link #CONF_DELTA_CHECKSUM}
+     * is set the checksums of files of the same length are compared instead of their modification times, when the
+     * file systems provide them. <p/> DistCp runs once per target directory with changed files, if there are more
+     * than {@link #CONF_DELTA_MAX_JOBS} of them, or if the arguments can not be planned, the whole copy is done by
+     * DistCp as without the delta plan.
+     *
+     * @param context action execution context.
+     * @param actionXml action XML.
+     * @param actionConf action configuration.
+     * @param launcherJobConf launcher job configuration.
+     * @throws Exception thrown if the listings could not be compared or the plan could not be written.
+     */
+    @Override
+    protected void setupLauncherSubmission(Context context, Element actionXml, Configuration actionConf,
+                                           JobConf launcherJobConf) throws Exception {
+        if (actionConf.getBoolean(CONF_DELTA, false)) {
+            List<String> options = new ArrayList<String>();
+            List<String> paths = new ArrayList<String>();
+            DeltaPlan plan = null;
+            if (parseArgs(LauncherMapper.getMainArguments(launcherJobConf), options, paths)) {
+                Instrumentation.Cron cron = new Instrumentation.Cron();
+                cron.start();
+                plan = createDeltaPlan(context.getWorkflow().getUser(), context.getWorkflow().getGroup(),
+                                       actionConf.get("fs.default.name"), paths,
+                                       actionConf.getBoolean(CONF_DELTA_CHECKSUM, false));
+                cron.stop();
+                addCron("delta.plan", cron);
+            }
+            int maxJobs = getOozieConf().getInt(CONF_DELTA_MAX_JOBS, 10);
+            if (plan == null || plan.getCopies().size() > maxJobs) {
+                LOG.info("Delta copy not planned for action [{0}], copying everything", context.getAction().getId());
+                incr("delta.fallbacks", 1);
+            }
+            else {
+                LOG.info("Delta copy plan for action [{0}], copying [{1}] files [{2}] bytes, skipping [{3}] files "
+                         + "[{4}] bytes", context.getAction().getId(), plan.getFilesCopied(), plan.getBytesCopied(),
+                         plan.getFilesSkipped(), plan.getBytesSkipped());
+                Path planPath = new Path(context.getActionDir(), DELTA_PLAN_FILE);
+                writePlan(getActionFileSystem(context, actionXml), planPath, plan);
+                List<String> args = new ArrayList<String>();
+                args.add(planPath.toString());
+                args.add(launcherJobConf.get(LauncherMapper.CONF_OOZIE_ACTION_MAIN_CLASS));
+                for (String option : options) {
+                    // changed files are copied even if DistCp sees them as the same
+                    args.add(option.equals("-update") ? "-overwrite" : option);
+                }
+                LauncherMapper.setupMainClass(launcherJobConf, DistcpDeltaMain.class.getName());
+                LauncherMapper.setupMainArguments(launcherJobConf, args.toArray(new String[args.size()]));
+                incr("delta.files.copied", plan.getFilesCopied());
+                incr("delta.bytes.copied", plan.getBytesCopied());
+                incr("delta.files.skipped", plan.getFilesSkipped());
+                incr("delta.bytes.skipped", plan.getBytesSkipped());
+            }
+        }
+    }
+
+    /**
+     * Split DistCp arguments into options and paths.
+     *
+     * @param args DistCp arguments.
+     * @param options list to add the options, with their values, to.
+     * @param paths list to add the source paths and the target path to.
+     * @return <code>true</code> if the arguments can be planned, <code>false</code> otherwise.
+     */
+    static boolean parseArgs(String[] args, List<String> options, List<String> paths) {
+        boolean update = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("-")) {
+                if (NO_DELTA_OPTIONS.contains(args[i])) {
+                    return false;
+                }
+                update = update || args[i].equals("-update");
+                options.add(args[i]);
+                if (VALUE_OPTIONS.contains(args[i]) && i + 1 < args.length) {
+                    options.add(args[++i]);
+                }
+            }
+            else {
+                paths.add(args[i]);
+            }
+        }
+        return update && paths.size() > 1;
+    }
+
+    /**
+     * Compare the listings of the sources and the target of a DistCp <code>-update</code> copy. <p/> The contents
+     * of source directories and the source files are copied into the target directory.
+     *
+     * @param user user to access the file systems as.
+     * @param group group to access the file systems as.
+     * @param nameNode name node to resolve paths without scheme with.
+     * @param paths source paths, they may be globs, followed by the target path.
+     * @param checksum indicates if the checksums of files of the same length are compared.
+     * @return the delta copy plan, <code>null</code> if a source does not exist or a source file is a target
+     * directory or the other way around.
+     * @throws IOException thrown if the listings could not be read.
+     * @throws HadoopAccessorException thrown if a file system could not be accessed.
+     */
+    DeltaPlan createDeltaPlan(String user, String group, String nameNode, List<String> paths, boolean checksum)
+            throws IOException, HadoopAccessorException {
+        DeltaPlan plan = new DeltaPlan();
+        Path target = qualify(new Path(paths.get(paths.size() - 1)), user, nameNode);
+        FileSystem targetFs = getFileSystemFor(target, user, group);
+        for (String source : paths.subList(0, paths.size() - 1)) {
+            Path sourcePath = qualify(new Path(source), user, nameNode);
+            FileSystem sourceFs = getFileSystemFor(sourcePath, user, group);
+            FileStatus[] statuses = sourceFs.globStatus(sourcePath);
+            if (statuses == null || statuses.length == 0) {
+                return null;
+            }
+            for (FileStatus status : statuses) {
+                FileStatus[] sources = (status.isDir()) ? listStatus(sourceFs, status.getPath())
+                                                        : new FileStatus[]{status};
+                if (!planDirectory(plan, sourceFs, sources, targetFs, target, checksum)) {
+                    return null;
+                }
+            }
+        }
+        return plan;
+    }
+
+    private boolean planDirectory(DeltaPlan plan, FileSystem sourceFs, FileStatus[] sources, FileSystem targetFs,
+                                  Path targetDir, boolean checksum) throws IOException {
+        Map<String, FileStatus> targets = new HashMap<String, FileStatus>();
+        for (FileStatus status : listStatus(targetFs, targetDir)) {
+            targets.put(status.getPath().getName(), status);
+        }
+        for (FileStatus source : sources) {
+            String name = source.getPath().getName();
+            FileStatus target = targets.get(name);
+            if (target != null && target.isDir() != source.isDir()) {
+                return false;
+            }
+            if (source.isDir()) {
+                if (!planDirectory(plan, sourceFs, listStatus(sourceFs, source.getPath()), targetFs,
+                                   new Path(targetDir, name), checksum)) {
+                    return false;
+                }
+            }
+            else if (isChanged(sourceFs, source, targetFs, target, checksum)) {
+                plan.copy(targetDir, source);
+            }
+            else {
+                plan.skip(source);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return if a source file has to be copied over its target file.
+     *
+     * @param sourceFs source file system.
+     * @param source source file.
+     * @param targetFs target file system.
+     * @param target target file, <code>null</code> if it does not exist.
+     * @param checksum indicates if the checksums of files of the same length are compared.
+     * @return <code>true</code> if the source file has to be copied.
+     * @throws IOException thrown if a checksum could not be read.
+     */
+    static boolean isChanged(FileSystem sourceFs, FileStatus source, FileSystem targetFs, FileStatus target,
+                             boolean checksum) throws IOException {
+        if (target == null || source.getLen() != target.getLen()) {
+            return true;
+        }
+        if (checksum) {
+            FileChecksum sourceChecksum = sourceFs.getFileChecksum(source.getPath());
+            FileChecksum targetChecksum = (sourceChecksum != null) ? targetFs.getFileChecksum(target.getPath())
+                                                                   : null;
+            if (targetChecksum != null) {
+                return !sourceChecksum.equals(targetChecksum);
+            }
+        }
+        return source.getModificationTime() > target.getModificationTime();
+    }
+
+    /**
+     * Write a delta copy plan in the format read by {@link DistcpDeltaMain}.
+     *
+     * @param fs file system to write the plan to.
+     * @param planPath path of the plan file.
+     * @param plan delta copy plan.
+     * @throws IOException thrown if the plan could not be written.
+     */
+    static void writePlan(FileSystem fs, Path planPath, DeltaPlan plan) throws IOException {
+        Writer writer = new OutputStreamWriter(fs.create(planPath, true), "UTF-8");
+        try {
+            for (Map.Entry<Path, List<Path>> entry : plan.getCopies().entrySet()) {
+                for (Path source : entry.getValue()) {
+                    writer.write(entry.getKey() + DistcpDeltaMain.PLAN_SEPARATOR + source + "\n");
+                }
+            }
+        }
+        finally {
+            writer.close();
+        }
+    }
+
+    private static FileStatus[] listStatus(FileSystem fs, Path dir) throws IOException {
+        FileStatus[] statuses;
+        try {
+            statuses = fs.listStatus(dir);
+        }
+        catch (FileNotFoundException ex) {
+            statuses = null;
+        }
+        return (statuses != null) ? statuses : new FileStatus[0];
+    }
+
+    // paths without scheme are resolved like DistCp does, relative ones against the user home directory
+    private static Path qualify(Path path, String user, String nameNode) {
+        if (path.toUri().getScheme() == null) {
+            if (!path.isAbsolute()) {
+                path = new Path("/user/" + user, path);
+            }
+            path = new Path(new Path(nameNode), path);
+        }
+        return path;
+    }
+
+    private FileSystem getFileSystemFor(Path path, String user, String group) throws HadoopAccessorException {
+        return Services.get().get(HadoopAccessorService.class).createFileSystem(user, group, path.toUri(),
+                new Configuration());
+    }
+
+    private void incr(String name, long count) {
+        InstrumentationService instrumentationService = Services.get().get(InstrumentationService.class);
+        if (instrumentationService != null) {
+            instrumentationService.get().incr(INSTRUMENTATION_GROUP, getType() + "#" + name, count);
+        }
+    }
+
+    private void addCron(String name, Instrumentation.Cron cron) {
+        InstrumentationService instrumentationService = Services.get().get(InstrumentationService.class);
+        if (instrumentationService != null) {
+            instrumentationService.get().addCron(INSTRUMENTATION_GROUP, getType() + "#" + name, cron);
+        }
+    }
+
     /**
      * This function returns the Action classes names from the configuration
      *
@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.action.hadoop;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Launcher main that copies only the files of a delta copy plan, running DistCp once per target directory. <p/> The
+ * arguments are the path of the plan file, the DistCp main class and the DistCp options to use in every run. <p/>
+ * Each line of the plan file has a target directory and a source file separated by {@link #PLAN_SEPARATOR}, the
+ * lines of a target directory are consecutive. The source files of a target directory are copied into it, the
+ * options must make DistCp copy source files into an existing target directory, like <code>-overwrite</code>.
+ */
+public class DistcpDeltaMain extends LauncherMain {
+
+    public static final String PLAN_SEPARATOR = "\t";
+
+    public static void main(String[] args) throws Exception {
+        run(DistcpDeltaMain.class, args);
+    }
+
+    protected void run(String[] args) throws Exception {
+        System.out.println();
+        System.out.println("Oozie DistCp delta copy");
+        System.out.println("=======================");
+
+        Configuration conf = new Configuration();
+        Path planPath = new Path(args[0]);
+        Map<String, List<String>> plan = readPlan(planPath.getFileSystem(conf), planPath);
+        List<String> options = Arrays.asList(args).subList(2, args.length);
+        if (plan.isEmpty()) {
+            System.out.println("No changed files, nothing to copy");
+        }
+        else {
+            Method distcpMain = Class.forName(args[1]).getMethod("main", String[].class);
+            for (Map.Entry<String, List<String>> entry : plan.entrySet()) {
+                Path target = new Path(entry.getKey());
+                target.getFileSystem(conf).mkdirs(target);
+                List<String> distcpArgs = new ArrayList<String>(options);
+                distcpArgs.addAll(entry.getValue());
+                distcpArgs.add(entry.getKey());
+                System.out.println("Copying [" + entry.getValue().size() + "] changed files to [" + target + "]");
+                System.out.flush();
+                runDistcp(distcpMain, distcpArgs.toArray(new String[distcpArgs.size()]));
+            }
+        }
+        System.out.println("=======================");
+        System.out.println();
+    }
+
+    /**
+     * Read a delta copy plan.
+     *
+     * @param fs file system of the plan file.
+     * @param planPath path of the plan file.
+     * @return the source files to copy per target directory, in plan order.
+     * @throws IOException thrown if the plan could not be read.
+     */
+    static Map<String, List<String>> readPlan(FileSystem fs, Path planPath) throws IOException {
+        Map<String, List<String>> plan = new LinkedHashMap<String, List<String>>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(fs.open(planPath), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int index = line.indexOf(PLAN_SEPARATOR);
+                if (index == -1) {
+                    throw new IOException("Invalid delta copy plan line [" + line + "]");
+                }
+                String target = line.substring(0, index);
+                List<String> sources = plan.get(target);
+                if (sources == null) {
+                    sources = new ArrayList<String>();
+                    plan.put(target, sources);
+                }
+                sources.add(line.substring(index + PLAN_SEPARATOR.length()));
+            }
+        }
+        finally {
+            reader.close();
+        }
+        return plan;
+    }
+
+    /**
+     * Run DistCp, its <code>System.exit()</code> is intercepted by the launcher and a non zero exit code fails the
+     * copy.
+     *
+     * @param distcpMain DistCp main method.
+     * @param args DistCp arguments.
+     * @throws Exception thrown if DistCp failed.
+     */
+    private void runDistcp(Method distcpMain, String[] args) throws Exception {
+        try {
+            distcpMain.invoke(null, (Object) args);
+        }
+        catch (InvocationTargetException ex) {
+            if (SecurityException.class.isInstance(ex.getCause()) && LauncherSecurityManager.getExitInvoked()) {
+                int exitCode = LauncherSecurityManager.getExitCode();
+                LauncherSecurityManager.reset();
+                if (exitCode != 0) {
+                    throw new LauncherMainException(exitCode);
+                }
+            }
+            else if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            else {
+                throw ex;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.action.hadoop;
+
+import java.util.Properties;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Main class of a java action that returns the status of paths, with <code>capture-output</code> the status is
+ * available to decision nodes. <p/> Each argument is a path or a glob pattern, for the N-th argument (starting at 0)
+ * the output data has: <ul> <li><code>pathN.exists</code>: <code>true</code> if the path exists or the glob pattern
+ * matches any path.</li> <li><code>pathN.count</code>: number of paths matched.</li> <li><code>pathN.length</code>:
+ * total length in bytes of the paths matched, including the contents of the directories.</li>
+ * <li><code>pathN.modification.time</code>: latest modification time of the paths matched, in milliseconds, 0 if
+ * none.</li> </ul> <p/> It only reads the filesystem metadata, it is meant to be listed in the
+ * {@link org.apache.oozie.service.InServerLauncherService} main classes to run inside the Oozie server.
+ */
+public class FileStatusMain implements InServerMain {
+
+    public Properties run(Configuration actionConf, FileSystem fs, String[] args) throws Exception {
+        Properties props = new Properties();
+        for (int i = 0; i < args.length; i++) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Interrupted checking path [" + args[i] + "]");
+            }
+            FileStatus[] statuses = fs.globStatus(new Path(args[i]));
+            long length = 0;
+            long modificationTime = 0;
+            int count = 0;
+            if (statuses != null) {
+                for (FileStatus status : statuses) {
+                    length += (status.isDir()) ? fs.getContentSummary(status.getPath()).getLength() : status.getLen();
+                    modificationTime = Math.max(modificationTime, status.getModificationTime());
+                }
+                count = statuses.length;
+            }
+            String prefix = "path" + i + ".";
+            props.setProperty(prefix + "exists", Boolean.toString(count > 0));
+            props.setProperty(prefix + "count", Integer.toString(count));
+            props.setProperty(prefix + "length", Long.toString(length));
+            props.setProperty(prefix + "modification.time", Long.toString(modificationTime));
+        }
+        return props;
+    }
+
+}
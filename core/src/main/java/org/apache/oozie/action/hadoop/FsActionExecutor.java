@@ -18,8 +18,20 @@
 package org.apache.oozie.action.hadoop;
 
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
@@ -31,15 +43,30 @@ import org.apache.oozie.action.ActionExecutorException;
 import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.service.HadoopAccessorException;
 import org.apache.oozie.service.HadoopAccessorService;
+import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XmlUtils;
 import org.jdom.Element;
 
 /**
- * File system action executor. <p/> This executes the file system mkdir, move and delete commands
+ * File system action executor. <p/> This executes the file system mkdir, move, delete and chmod commands. <p/> The
+ * <code>delete</code> and <code>chmod</code> paths may be glob patterns. <p/> If the {@link #CONF_PARALLELISM}
+ * configuration property is greater than 1 the commands run in parallel, a command runs after the commands declared
+ * before it whose paths overlap its paths. When a command fails the commands not started yet are not run.
  */
 public class FsActionExecutor extends ActionExecutor {
 
+    public static final String CONF_PARALLELISM = CONF_PREFIX + "fs.parallelism";
+
+    private static final String INSTRUMENTATION_GROUP = "action.executors";
+
+    // paths per task when setting the permissions of the files of a directory in parallel
+    private static final int CHMOD_BATCH_SIZE = 100;
+
+    private Map<String, FileSystem> fileSystems = new ConcurrentHashMap<String, FileSystem>();
+    private ThreadPoolExecutor operationsExecutor;
+
     public FsActionExecutor() {
         super("fs");
     }
@@ -91,41 +118,220 @@ public class FsActionExecutor extends ActionExecutor {
             if (!recovery) {
                 fs.mkdirs(getRecoveryPath(context));
             }
-            for (Element commandElement : (List<Element>) element.getChildren()) {
-                String command = commandElement.getName();
-                if (command.equals("mkdir")) {
-                    Path path = getPath(commandElement, "path");
-                    mkdir(context, path);
+            List<Element> commandElements = (List<Element>) element.getChildren();
+            int parallelism = getOozieConf().getInt(CONF_PARALLELISM, 1);
+            if (parallelism > 1 && commandElements.size() > 1) {
+                doOperationsInParallel(context, commandElements, recovery, parallelism);
+            }
+            else {
+                for (Element commandElement : commandElements) {
+                    doOperation(context, commandElement, recovery);
+                }
+            }
+        }
+        catch (Exception ex) {
+            throw convertException(ex);
+        }
+    }
+
+    private void doOperationsInParallel(final Context context, List<Element> commandElements,
+                                        final boolean recovery, int parallelism) throws Exception {
+        List<List<Path>> operationPaths = new ArrayList<List<Path>>();
+        for (Element commandElement : commandElements) {
+            operationPaths.add(getOperationPaths(commandElement));
+        }
+        int[] stages = getStages(operationPaths);
+        int lastStage = 0;
+        for (int stage : stages) {
+            lastStage = Math.max(lastStage, stage);
+        }
+        // without a queue, tasks that cannot be given to an idle thread run in the submitter thread, so tasks
+        // waiting for the tasks they submit cannot deadlock
+        operationsExecutor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                                                    new SynchronousQueue<Runnable>(),
+                                                    new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            for (int stage = 0; stage <= lastStage; stage++) {
+                List<Future<Void>> futures = new ArrayList<Future<Void>>();
+                for (int i = 0; i < stages.length; i++) {
+                    if (stages[i] == stage) {
+                        final Element commandElement = commandElements.get(i);
+                        futures.add(operationsExecutor.submit(new Callable<Void>() {
+                            public Void call() throws Exception {
+                                doOperation(context, commandElement, recovery);
+                                return null;
+                            }
+                        }));
+                    }
+                }
+                waitFor(futures);
+            }
+        }
+        finally {
+            operationsExecutor.shutdownNow();
+            operationsExecutor = null;
+        }
+    }
+
+    /**
+     * Wait for all the tasks to complete, throwing the exception of the first failed task.
+     *
+     * @param futures futures of the tasks.
+     * @throws Exception thrown if a task failed.
+     */
+    private void waitFor(List<Future<Void>> futures) throws Exception {
+        Exception exception = null;
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            }
+            catch (ExecutionException ex) {
+                if (exception == null) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    exception = (Exception) cause;
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private void doOperation(Context context, Element commandElement, boolean recovery)
+            throws ActionExecutorException {
+        String command = commandElement.getName();
+        Instrumentation.Cron cron = new Instrumentation.Cron();
+        cron.start();
+        if (command.equals("mkdir")) {
+            Path path = getPath(commandElement, "path");
+            mkdir(context, path);
+        }
+        else {
+            if (command.equals("delete")) {
+                Path path = getPath(commandElement, "path");
+                delete(context, path);
+            }
+            else {
+                if (command.equals("move")) {
+                    Path source = getPath(commandElement, "source");
+                    Path target = getPath(commandElement, "target");
+                    move(context, source, target, recovery);
                 }
                 else {
-                    if (command.equals("delete")) {
+                    if (command.equals("chmod")) {
                         Path path = getPath(commandElement, "path");
-                        delete(context, path);
-                    }
-                    else {
-                        if (command.equals("move")) {
-                            Path source = getPath(commandElement, "source");
-                            Path target = getPath(commandElement, "target");
-                            move(context, source, target, recovery);
-                        }
-                        else {
-                            if (command.equals("chmod")) {
-                                Path path = getPath(commandElement, "path");
-                                String str = commandElement.getAttributeValue("dir-files");
-                                boolean dirFiles = (str == null) || Boolean.parseBoolean(str);
-                                String permissionsMask = commandElement.getAttributeValue("permissions").trim();
-                                chmod(context, path, permissionsMask, dirFiles);
-                            }
-                        }
+                        String str = commandElement.getAttributeValue("dir-files");
+                        boolean dirFiles = (str == null) || Boolean.parseBoolean(str);
+                        String permissionsMask = commandElement.getAttributeValue("permissions").trim();
+                        chmod(context, path, permissionsMask, dirFiles);
                     }
                 }
             }
         }
-        catch (Exception ex) {
-            throw convertException(ex);
+        cron.stop();
+        InstrumentationService instrumentationService = Services.get().get(InstrumentationService.class);
+        if (instrumentationService != null) {
+            instrumentationService.get().addCron(INSTRUMENTATION_GROUP, getType() + "#op." + command, cron);
         }
     }
 
+    /**
+     * Return the paths a command works on.
+     *
+     * @param commandElement command element.
+     * @return the paths the command works on.
+     */
+    List<Path> getOperationPaths(Element commandElement) {
+        String command = commandElement.getName();
+        if (command.equals("move")) {
+            Path source = getPath(commandElement, "source");
+            Path target = getPath(commandElement, "target");
+            // a relative target is resolved by the filesystem, assume it may be anywhere in it
+            Path resolved = (target.toUri().getPath().startsWith("/")) ? new Path(source, target)
+                                                                       : new Path(source, "/");
+            return Arrays.asList(source, resolved);
+        }
+        else {
+            if (commandElement.getAttribute("path") != null) {
+                return Collections.singletonList(getPath(commandElement, "path"));
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Return the stage of each command, the commands of a stage run after the commands of the previous stages
+     * complete. <p/> A command goes in the stage after the latest stage of the commands declared before it whose
+     * paths overlap its paths.
+     *
+     * @param operationPaths paths of each command, in declared order.
+     * @return the stage of each command, in declared order.
+     */
+    static int[] getStages(List<List<Path>> operationPaths) {
+        int[] stages = new int[operationPaths.size()];
+        for (int i = 0; i < stages.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if (stages[j] >= stages[i] && overlap(operationPaths.get(i), operationPaths.get(j))) {
+                    stages[i] = stages[j] + 1;
+                }
+            }
+        }
+        return stages;
+    }
+
+    private static boolean overlap(List<Path> paths1, List<Path> paths2) {
+        for (Path path1 : paths1) {
+            for (Path path2 : paths2) {
+                if (overlap(path1, path2)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return if a path is the same, an ancestor or a descendant of another path. <p/> The paths are compared up to
+     * their first glob pattern character.
+     *
+     * @param path1 a path.
+     * @param path2 another path.
+     * @return <code>true</code> if the paths overlap.
+     */
+    static boolean overlap(Path path1, Path path2) {
+        URI uri1 = path1.toUri();
+        URI uri2 = path2.toUri();
+        if (!equals(uri1.getScheme(), uri2.getScheme()) || !equals(uri1.getAuthority(), uri2.getAuthority())) {
+            return false;
+        }
+        String str1 = getNonGlobPrefix(uri1.getPath());
+        String str2 = getNonGlobPrefix(uri2.getPath());
+        return isAncestor(str1, str2) || isAncestor(str2, str1);
+    }
+
+    private static boolean equals(String str1, String str2) {
+        return (str1 == null) ? str2 == null : str1.equals(str2);
+    }
+
+    private static String getNonGlobPrefix(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            if ("*?[]{}\\".indexOf(path.charAt(i)) > -1) {
+                return path.substring(0, path.lastIndexOf('/', i) + 1);
+            }
+        }
+        return path;
+    }
+
+    private static boolean isAncestor(String ancestor, String path) {
+        if (ancestor.endsWith("/")) {
+            return path.startsWith(ancestor) || path.equals(ancestor.substring(0, ancestor.length() - 1));
+        }
+        return path.equals(ancestor) || path.startsWith(ancestor + "/");
+    }
+
     /**
      * @param path
      * @param context
@@ -135,8 +341,14 @@ public class FsActionExecutor extends ActionExecutor {
     private FileSystem getFileSystemFor(Path path, Context context) throws HadoopAccessorException {
         String user = context.getWorkflow().getUser();
         String group = context.getWorkflow().getGroup();
-        return Services.get().get(HadoopAccessorService.class).createFileSystem(user, group, path.toUri(),
-                new Configuration());
+        String key = user + "," + group + "," + path.toUri().getScheme() + "://" + path.toUri().getAuthority();
+        FileSystem fs = fileSystems.get(key);
+        if (fs == null) {
+            fs = Services.get().get(HadoopAccessorService.class).createFileSystem(user, group, path.toUri(),
+                    new Configuration());
+            fileSystems.put(key, fs);
+        }
+        return fs;
     }
 
     /**
@@ -169,7 +381,7 @@ public class FsActionExecutor extends ActionExecutor {
     }
 
     /**
-     * Delete path
+     * Delete path, or the paths matching a glob pattern
      *
      * @param context
      * @param path
@@ -180,10 +392,14 @@ public class FsActionExecutor extends ActionExecutor {
             validatePath(path, true);
             FileSystem fs = getFileSystemFor(path, context);
 
-            if (fs.exists(path)) {
-                if (!fs.delete(path, true)) {
-                    throw new ActionExecutorException(ActionExecutorException.ErrorType.ERROR, "FS005",
-                                                      "delete, path [{0}] could not delete path", path);
+            FileStatus[] matches = fs.globStatus(path);
+            if (matches != null) {
+                for (FileStatus match : matches) {
+                    if (!fs.delete(match.getPath(), true)) {
+                        throw new ActionExecutorException(ActionExecutorException.ErrorType.ERROR, "FS005",
+                                                          "delete, path [{0}] could not delete path",
+                                                          match.getPath());
+                    }
                 }
             }
         }
@@ -250,31 +466,41 @@ public class FsActionExecutor extends ActionExecutor {
     void chmod(Context context, Path path, String permissions, boolean dirFiles) throws ActionExecutorException {
         try {
             validatePath(path, true);
-            FileSystem fs = getFileSystemFor(path, context);
+            final FileSystem fs = getFileSystemFor(path, context);
 
-            if (!fs.exists(path)) {
+            FileStatus[] matches = fs.globStatus(path);
+            if (matches == null || matches.length == 0) {
                 throw new ActionExecutorException(ActionExecutorException.ErrorType.ERROR, "FS009",
                                                   "chmod, path [{0}] does not exist", path);
             }
 
-            FileStatus pathStatus = fs.getFileStatus(path);
-
-            Path[] paths;
-            if (dirFiles && pathStatus.isDir()) {
-                FileStatus[] filesStatus = fs.listStatus(path);
-                paths = new Path[filesStatus.length];
-                for (int i = 0; i < filesStatus.length; i++) {
-                    paths[i] = filesStatus[i].getPath();
+            List<Path> paths = new ArrayList<Path>();
+            for (FileStatus pathStatus : matches) {
+                paths.add(pathStatus.getPath());
+                if (dirFiles && pathStatus.isDir()) {
+                    for (FileStatus fileStatus : fs.listStatus(pathStatus.getPath())) {
+                        paths.add(fileStatus.getPath());
+                    }
                 }
             }
-            else {
-                paths = new Path[]{path};
-            }
 
-            FsPermission newFsPermission = createShortPermission(permissions, path);
-            fs.setPermission(path, newFsPermission);
-            for (Path p : paths) {
-                fs.setPermission(p, newFsPermission);
+            final FsPermission newFsPermission = createShortPermission(permissions, path);
+            ThreadPoolExecutor executor = operationsExecutor;
+            if (executor == null || paths.size() <= CHMOD_BATCH_SIZE) {
+                setPermission(fs, paths, newFsPermission);
+            }
+            else {
+                List<Future<Void>> futures = new ArrayList<Future<Void>>();
+                for (int i = 0; i < paths.size(); i += CHMOD_BATCH_SIZE) {
+                    final List<Path> batch = paths.subList(i, Math.min(paths.size(), i + CHMOD_BATCH_SIZE));
+                    futures.add(executor.submit(new Callable<Void>() {
+                        public Void call() throws IOException {
+                            setPermission(fs, batch, newFsPermission);
+                            return null;
+                        }
+                    }));
+                }
+                waitFor(futures);
             }
         }
         catch (Exception ex) {
@@ -282,6 +508,12 @@ public class FsActionExecutor extends ActionExecutor {
         }
     }
 
+    private void setPermission(FileSystem fs, List<Path> paths, FsPermission permission) throws IOException {
+        for (Path p : paths) {
+            fs.setPermission(p, permission);
+        }
+    }
+
     FsPermission createShortPermission(String permissions, Path path) throws ActionExecutorException {
         if (permissions.length() == 3) {
             char user = permissions.charAt(0);
@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.action.hadoop;
+
+import java.util.Properties;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+
+/**
+ * Main class of a lightweight action that can run inside the Oozie server instead of in a launcher job. <p/> Main
+ * classes implementing this interface run in the {@link org.apache.oozie.service.InServerLauncherService} thread pool
+ * if they are listed in its configuration, else they run in a launcher job like any other main class. <p/> Several
+ * actions run concurrently in the same JVM, implementations must not use system properties, must not call
+ * <code>System.exit()</code> and must stop when interrupted.
+ */
+public interface InServerMain {
+
+    /**
+     * Run the action.
+     *
+     * @param actionConf action configuration.
+     * @param fs filesystem for the user of the workflow job.
+     * @param args action arguments.
+     * @return the output data of the action, <code>null</code> if none.
+     * @throws Exception thrown if the action failed.
+     */
+    public Properties run(Configuration actionConf, FileSystem fs, String[] args) throws Exception;
+
+}
@@ -54,7 +54,13 @@ import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.service.HadoopAccessorException;
 import org.apache.oozie.service.HadoopAccessorService;
+import org.apache.oozie.service.InServerLauncherService;
+import org.apache.oozie.service.LauncherDataService;
+import org.apache.oozie.service.LauncherExecution;
+import org.apache.oozie.service.LauncherStatusService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.service.ShareLibService;
+import org.apache.oozie.service.WarmLauncherService;
 import org.apache.oozie.service.WorkflowAppService;
 import org.apache.oozie.servlet.CallbackServlet;
 import org.apache.oozie.util.IOUtils;
@@ -306,6 +312,10 @@ public class JavaActionExecutor extends ActionExecutor {
 
     String getOozieLauncherJar(Context context) throws ActionExecutorException {
         try {
+            ShareLibService shareLibService = getShareLibService();
+            if (shareLibService != null) {
+                return shareLibService.getStagedLauncherJar(context.getActionDir(), getLocalLauncherJar()).toString();
+            }
             return new Path(context.getActionDir(), getLauncherJarName()).toString();
         }
         catch (Exception ex) {
@@ -313,11 +323,46 @@ public class JavaActionExecutor extends ActionExecutor {
         }
     }
 
+    private File getLocalLauncherJar() {
+        return new File(getOozieRuntimeDir(), getLauncherJarName());
+    }
+
+    /**
+     * Return the {@link ShareLibService} if launcher JARs are staged.
+     *
+     * @return the {@link ShareLibService}, <code>null</code> if launcher JARs are copied to the action directory.
+     */
+    private ShareLibService getShareLibService() {
+        ShareLibService shareLibService = Services.get().get(ShareLibService.class);
+        return (shareLibService != null && shareLibService.isLauncherStagingEnabled()) ? shareLibService : null;
+    }
+
+    /**
+     * Return if a launcher job is in the running jobs snapshot of its JobTracker.
+     *
+     * @param jobTracker JobTracker of the job.
+     * @param jobId job ID.
+     * @param jobClient JobClient to fetch a new snapshot with.
+     * @return <code>true</code> if the job is known to be running, <code>false</code> if it must be looked up.
+     */
+    private boolean isKnownRunning(String jobTracker, String jobId, JobClient jobClient) {
+        LauncherStatusService statusService = Services.get().get(LauncherStatusService.class);
+        return statusService != null
+                && statusService.isRunning(jobTracker, jobId, LauncherStatusService.forJobClient(jobClient));
+    }
+
     public void prepareActionDir(FileSystem actionFs, Context context) throws ActionExecutorException {
         try {
             Path actionDir = context.getActionDir();
             Path tempActionDir = new Path(actionDir.getParent(), actionDir.getName() + ".tmp");
-            if (!actionFs.exists(actionDir)) {
+            ShareLibService shareLibService = getShareLibService();
+            if (shareLibService != null) {
+                shareLibService.stageLauncherJar(actionFs, actionDir, getLocalLauncherJar());
+                if (!actionFs.exists(actionDir)) {
+                    actionFs.mkdirs(actionDir);
+                }
+            }
+            else if (!actionFs.exists(actionDir)) {
                 try {
                     actionFs.copyFromLocalFile(new Path(getOozieRuntimeDir(), getLauncherJarName()), new Path(
                             tempActionDir, getLauncherJarName()));
@@ -488,6 +533,37 @@ public class JavaActionExecutor extends ActionExecutor {
         injectCallback(context, launcherConf);
     }
 
+    /**
+     * Register the launcher with the {@link LauncherDataService} and set it up to post its data with the registration
+     * secret, discarding the data posted by previous launchers of the action.
+     *
+     * @param context action execution context.
+     * @param launcherConf launcher configuration.
+     */
+    private void injectLauncherDataCallback(Context context, Configuration launcherConf) {
+        LauncherDataService launcherDataService = Services.get().get(LauncherDataService.class);
+        if (launcherDataService != null && launcherDataService.isEnabled()) {
+            String secret = launcherDataService.register(context.getAction().getId());
+            LauncherMapper.setupDataCallback(launcherConf, context.getCallbackUrl(
+                    LauncherMapper.DATA_CALLBACK_STATUS_VAR), launcherDataService.getMaxDataLen(), secret);
+        }
+    }
+
+    /**
+     * Set up a new launcher job right before it is submitted, once the action prepare has been done. <p/> By default
+     * it does nothing, action executors override it to adjust the launcher main class or arguments to the state of
+     * the file system.
+     *
+     * @param context action execution context.
+     * @param actionXml action XML.
+     * @param actionConf action configuration.
+     * @param launcherJobConf launcher job configuration.
+     * @throws Exception thrown if the launcher job could not be set up.
+     */
+    protected void setupLauncherSubmission(Context context, Element actionXml, Configuration actionConf,
+                                           JobConf launcherJobConf) throws Exception {
+    }
+
     public void submitLauncher(FileSystem actionFs, Context context, WorkflowAction action) throws ActionExecutorException {
         JobClient jobClient = null;
         boolean exception = false;
@@ -532,9 +608,6 @@ public class JavaActionExecutor extends ActionExecutor {
             }
 
             JobConf launcherJobConf = createLauncherConf(actionFs, context, action, actionXml, actionConf);
-            injectLauncherCallback(context, launcherJobConf);
-            XLog.getLog(getClass()).debug("Creating Job Client for action " + action.getId());
-            jobClient = createJobClient(context, launcherJobConf);
             String launcherId = LauncherMapper.getRecoveryId(launcherJobConf, context.getActionDir(), context
                     .getRecoveryId());
             boolean alreadyRunning = launcherId != null;
@@ -543,6 +616,38 @@ public class JavaActionExecutor extends ActionExecutor {
             // if user-retry is on, always submit new launcher
             boolean isUserRetry = ((WorkflowActionBean)action).isUserRetry();
 
+            // a launcher job already running for the action is recovered, it is never run again in the server
+            boolean prepared = false;
+            if (!alreadyRunning || isUserRetry) {
+                String mainClass = launcherJobConf.get(LauncherMapper.CONF_OOZIE_ACTION_MAIN_CLASS);
+                InServerLauncherService inServerService = Services.get().get(InServerLauncherService.class);
+                WarmLauncherService warmService = Services.get().get(WarmLauncherService.class);
+                if (inServerService != null && inServerService.isInServer(mainClass)) {
+                    prepare(context, actionXml);
+                    prepared = true;
+                    String externalId = inServerService.submit(action.getId(), mainClass, actionConf, actionFs,
+                            LauncherMapper.getMainArguments(launcherJobConf), maxActionOutputLen);
+                    if (externalId != null) {
+                        context.setStartData(externalId, InServerLauncherService.TRACKER_URI, null);
+                        return;
+                    }
+                }
+                else if (warmService != null && warmService.isWarm(mainClass)) {
+                    prepare(context, actionXml);
+                    prepared = true;
+                    String externalId = warmService.submit(context.getWorkflow().getId(), action.getId(), mainClass,
+                            actionConf, launcherJobConf, actionFs, LauncherMapper.getMainArguments(launcherJobConf),
+                            maxActionOutputLen);
+                    if (externalId != null) {
+                        context.setStartData(externalId, WarmLauncherService.TRACKER_URI, null);
+                        return;
+                    }
+                }
+            }
+            injectLauncherCallback(context, launcherJobConf);
+            XLog.getLog(getClass()).debug("Creating Job Client for action " + action.getId());
+            jobClient = createJobClient(context, launcherJobConf);
+
             if (alreadyRunning && !isUserRetry) {
                 runningJob = jobClient.getJob(JobID.forName(launcherId));
                 if (runningJob == null) {
@@ -552,7 +657,10 @@ public class JavaActionExecutor extends ActionExecutor {
                 }
             }
             else {
-                prepare(context, actionXml);
+                if (!prepared) {
+                    prepare(context, actionXml);
+                }
+                setupLauncherSubmission(context, actionXml, actionConf, launcherJobConf);
                 XLog.getLog(getClass()).debug("Submitting the job through Job Client for action " + action.getId());
 
                 // setting up propagation of the delegation token.
@@ -572,6 +680,7 @@ public class JavaActionExecutor extends ActionExecutor {
                 else {
                     log.info("No need to inject credentials.");
                 }
+                injectLauncherDataCallback(context, launcherJobConf);
                 runningJob = jobClient.submitJob(launcherJobConf);
                 if (runningJob == null) {
                     throw new ActionExecutorException(ActionExecutorException.ErrorType.ERROR, "JA017",
@@ -768,6 +877,8 @@ public class JavaActionExecutor extends ActionExecutor {
             throw convertException(ex);
         }
         finally {
+            releaseLauncherExecution(action.getExternalId());
+            releaseLauncherData(action.getId());
             try {
                 FileSystem actionFs = getActionFileSystem(context, action);
                 cleanUpActionDir(actionFs, context);
@@ -778,6 +889,191 @@ public class JavaActionExecutor extends ActionExecutor {
         }
     }
 
+    /**
+     * Set the error info of an action from the error properties of its launcher.
+     *
+     * @param context action execution context.
+     * @param props launcher error properties.
+     */
+    private void setLauncherError(Context context, Properties props) {
+        XLog log = XLog.getLog(getClass());
+        String errorCode = props.getProperty("error.code");
+        if (errorCode.equals("0")) {
+            errorCode = "JA018";
+        }
+        String errorReason = props.getProperty("error.reason");
+        log.warn("Launcher ERROR, reason: {0}", errorReason);
+        String exMsg = props.getProperty("exception.message");
+        String errorInfo = (exMsg != null) ? exMsg : errorReason;
+        context.setErrorInfo(errorCode, errorInfo);
+        String exStackTrace = props.getProperty("exception.stacktrace");
+        if (exMsg != null) {
+            log.warn("Launcher exception: {0}{E}{1}", exMsg, exStackTrace);
+        }
+    }
+
+    /**
+     * Return if an external ID is of an execution managed by the server instead of by a launcher job.
+     *
+     * @param externalId external ID.
+     * @return <code>true</code> if the execution is managed by the {@link InServerLauncherService} or the {@link
+     * WarmLauncherService}.
+     */
+    private static boolean isLauncherExecution(String externalId) {
+        return InServerLauncherService.isInServerId(externalId) || WarmLauncherService.isWarmId(externalId);
+    }
+
+    private LauncherExecution getLauncherExecution(String externalId) {
+        if (InServerLauncherService.isInServerId(externalId)) {
+            InServerLauncherService inServerService = Services.get().get(InServerLauncherService.class);
+            return (inServerService != null) ? inServerService.getExecution(externalId) : null;
+        }
+        WarmLauncherService warmService = Services.get().get(WarmLauncherService.class);
+        return (warmService != null) ? warmService.getExecution(externalId) : null;
+    }
+
+    private void killLauncherExecution(String externalId) {
+        if (InServerLauncherService.isInServerId(externalId)) {
+            InServerLauncherService inServerService = Services.get().get(InServerLauncherService.class);
+            if (inServerService != null) {
+                inServerService.kill(externalId);
+            }
+        }
+        else {
+            WarmLauncherService warmService = Services.get().get(WarmLauncherService.class);
+            if (warmService != null) {
+                warmService.kill(externalId);
+            }
+        }
+    }
+
+    private void releaseLauncherExecution(String externalId) {
+        if (InServerLauncherService.isInServerId(externalId)) {
+            InServerLauncherService inServerService = Services.get().get(InServerLauncherService.class);
+            if (inServerService != null) {
+                inServerService.release(externalId);
+            }
+        }
+        else if (WarmLauncherService.isWarmId(externalId)) {
+            WarmLauncherService warmService = Services.get().get(WarmLauncherService.class);
+            if (warmService != null) {
+                warmService.release(externalId);
+            }
+        }
+    }
+
+    /**
+     * Return the data posted by the current launcher job of an action.
+     *
+     * @param action action.
+     * @return the posted data, <code>null</code> if none or if posted by another launcher job.
+     */
+    private LauncherDataService.LauncherData getLauncherData(WorkflowAction action) {
+        LauncherDataService launcherDataService = Services.get().get(LauncherDataService.class);
+        LauncherDataService.LauncherData data = (launcherDataService != null)
+                                                ? launcherDataService.get(action.getId()) : null;
+        if (data != null && !data.getLauncherId().equals(action.getExternalId())) {
+            data = null;
+        }
+        return data;
+    }
+
+    private void releaseLauncherData(String actionId) {
+        LauncherDataService launcherDataService = Services.get().get(LauncherDataService.class);
+        if (launcherDataService != null) {
+            launcherDataService.release(actionId);
+        }
+    }
+
+    /**
+     * Complete an action with the output or the error data posted by its launcher.
+     *
+     * @param context action execution context.
+     * @param action action to check.
+     * @param data data posted by the launcher.
+     * @param runningJob completed launcher job.
+     * @throws Exception thrown if the action could not be checked.
+     */
+    private void checkLauncherData(Context context, WorkflowAction action, LauncherDataService.LauncherData data,
+                                   RunningJob runningJob) throws Exception {
+        XLog.getLog(getClass()).info(XLog.STD, "action completed, external ID [{0}], launcher posted [{1}]",
+                action.getExternalId(), data.getType());
+        if (data.getType().equals(LauncherMapper.DATA_OUTPUT) && runningJob.isSuccessful()) {
+            Properties props = null;
+            if (getCaptureOutput(action)) {
+                props = new Properties();
+                props.putAll(data.getProperties());
+            }
+            context.setExecutionData(SUCCEEDED, props);
+        }
+        else {
+            setLauncherError(context, data.getProperties());
+            context.setExecutionData(FAILED_KILLED, null);
+        }
+    }
+
+    /**
+     * Check an action whose execution is managed by the server.
+     *
+     * @param context action execution context.
+     * @param action action to check.
+     * @throws Exception thrown if the action could not be checked.
+     */
+    private void checkLauncherExecution(Context context, WorkflowAction action) throws Exception {
+        LauncherExecution execution = getLauncherExecution(action.getExternalId());
+        if (execution == null) {
+            context.setExternalStatus(FAILED);
+            context.setExecutionData(FAILED, null);
+            throw new ActionExecutorException(ActionExecutorException.ErrorType.FAILED, "JA017",
+                    "Unknown execution [{0}] associated with action [{1}].  Failing this action!", action
+                            .getExternalId(), action.getId());
+        }
+        if (!execution.isDone()) {
+            context.setExternalStatus(RUNNING);
+            XLog.getLog(getClass()).info(XLog.STD, "checking action, external ID [{0}] status [{1}]",
+                    action.getExternalId(), action.getExternalStatus());
+        }
+        else if (execution.getError() == null && execution.getNewId() != null) {
+            String launcherId = action.getExternalId();
+            String newId = execution.getNewId();
+            Element actionXml = XmlUtils.parseXml(action.getConf());
+            JobConf jobConf = new JobConf();
+            XConfiguration.copy(createBaseHadoopConf(context, actionXml), jobConf);
+            JobClient jobClient = createJobClient(context, jobConf);
+            try {
+                RunningJob runningJob = jobClient.getJob(JobID.forName(newId));
+                if (runningJob == null) {
+                    context.setExternalStatus(FAILED);
+                    throw new ActionExecutorException(ActionExecutorException.ErrorType.FAILED, "JA017",
+                            "Unknown hadoop job [{0}] associated with action [{1}].  Failing this action!", newId,
+                            action.getId());
+                }
+                context.setStartData(newId, jobConf.get(HADOOP_JOB_TRACKER), runningJob.getTrackingURL());
+                context.setExternalStatus(RUNNING);
+            }
+            finally {
+                jobClient.close();
+            }
+            releaseLauncherExecution(launcherId);
+            XLog.getLog(getClass()).info(XLog.STD, "External ID swap, old ID [{0}] new ID [{1}]", launcherId, newId);
+        }
+        else if (execution.getError() == null) {
+            XLog.getLog(getClass()).info(XLog.STD, "action completed, external ID [{0}]", action.getExternalId());
+            Properties props = null;
+            if (getCaptureOutput(action)) {
+                props = new Properties();
+                if (execution.getOutput() != null) {
+                    props.putAll(execution.getOutput());
+                }
+            }
+            context.setExecutionData(SUCCEEDED, props);
+        }
+        else {
+            setLauncherError(context, execution.getError());
+            context.setExecutionData(FAILED_KILLED, null);
+        }
+    }
+
     /**
      * Create job client object
      *
@@ -797,12 +1093,22 @@ public class JavaActionExecutor extends ActionExecutor {
         JobClient jobClient = null;
         boolean exception = false;
         try {
+            if (isLauncherExecution(action.getExternalId())) {
+                checkLauncherExecution(context, action);
+                return;
+            }
             Element actionXml = XmlUtils.parseXml(action.getConf());
-            FileSystem actionFs = getActionFileSystem(context, actionXml);
             Configuration conf = createBaseHadoopConf(context, actionXml);
             JobConf jobConf = new JobConf();
             XConfiguration.copy(conf, jobConf);
             jobClient = createJobClient(context, jobConf);
+            if (isKnownRunning(jobConf.get(HADOOP_JOB_TRACKER), action.getExternalId(), jobClient)) {
+                context.setExternalStatus(RUNNING);
+                XLog.getLog(getClass()).debug(XLog.STD, "checking action, external ID [{0}] running in snapshot",
+                        action.getExternalId());
+                return;
+            }
+            FileSystem actionFs = getActionFileSystem(context, actionXml);
             RunningJob runningJob = jobClient.getJob(JobID.forName(action.getExternalId()));
             if (runningJob == null) {
                 context.setExternalStatus(FAILED);
@@ -816,14 +1122,33 @@ public class JavaActionExecutor extends ActionExecutor {
 
                 String user = context.getWorkflow().getUser();
                 String group = context.getWorkflow().getGroup();
-                if (LauncherMapper.hasIdSwap(runningJob, user, group, actionDir)) {
-                    String launcherId = action.getExternalId();
+                String launcherId = action.getExternalId();
+                String newId = null;
+                if (LauncherMapper.isDataPosted(runningJob)) {
+                    // the data is used only once the JobTracker confirms the launcher completed and posted it
+                    LauncherDataService.LauncherData launcherData = getLauncherData(action);
+                    if (launcherData == null) {
+                        context.setExternalStatus(FAILED);
+                        context.setExecutionData(FAILED, null);
+                        throw new ActionExecutorException(ActionExecutorException.ErrorType.FAILED, "JA019",
+                                "Data posted by launcher [{0}] of action [{1}] was lost, the Oozie server restarted",
+                                action.getExternalId(), action.getId());
+                    }
+                    if (!launcherData.getType().equals(LauncherMapper.DATA_ID_SWAP)) {
+                        checkLauncherData(context, action, launcherData, runningJob);
+                        return;
+                    }
+                    newId = launcherData.getProperties().getProperty("id");
+                }
+                else if (LauncherMapper.hasIdSwap(runningJob, user, group, actionDir)) {
                     Path idSwapPath = LauncherMapper.getIdSwapPath(context.getActionDir());
                     InputStream is = actionFs.open(idSwapPath);
                     BufferedReader reader = new BufferedReader(new InputStreamReader(is));
                     Properties props = PropertiesUtils.readProperties(reader, maxActionOutputLen);
                     reader.close();
-                    String newId = props.getProperty("id");
+                    newId = props.getProperty("id");
+                }
+                if (newId != null) {
                     runningJob = jobClient.getJob(JobID.forName(newId));
                     if (runningJob == null) {
                         context.setExternalStatus(FAILED);
@@ -856,30 +1181,23 @@ public class JavaActionExecutor extends ActionExecutor {
                     }
                     else {
                         XLog log = XLog.getLog(getClass());
-                        String errorReason;
                         Path actionError = LauncherMapper.getErrorPath(context.getActionDir());
+                        // the counters of a failed launcher task are lost, its error data may have been posted
+                        LauncherDataService.LauncherData launcherData = getLauncherData(action);
                         if (actionFs.exists(actionError)) {
                             InputStream is = actionFs.open(actionError);
                             BufferedReader reader = new BufferedReader(new InputStreamReader(is));
                             Properties props = PropertiesUtils.readProperties(reader, -1);
                             reader.close();
-                            String errorCode = props.getProperty("error.code");
-                            if (errorCode.equals("0")) {
-                                errorCode = "JA018";
-                            }
-                            errorReason = props.getProperty("error.reason");
-                            log.warn("Launcher ERROR, reason: {0}", errorReason);
-                            String exMsg = props.getProperty("exception.message");
-                            String errorInfo = (exMsg != null) ? exMsg : errorReason;
-                            context.setErrorInfo(errorCode, errorInfo);
-                            String exStackTrace = props.getProperty("exception.stacktrace");
-                            if (exMsg != null) {
-                                log.warn("Launcher exception: {0}{E}{1}", exMsg, exStackTrace);
-                            }
+                            setLauncherError(context, props);
+                        }
+                        else if (launcherData != null && launcherData.getType().equals(LauncherMapper.DATA_ERROR)) {
+                            setLauncherError(context, launcherData.getProperties());
                         }
                         else {
-                            errorReason = XLog.format("LauncherMapper died, check Hadoop log for job [{0}:{1}]", action
-                                    .getTrackerUri(), action.getExternalId());
+                            String errorReason = XLog.format(
+                                    "LauncherMapper died, check Hadoop log for job [{0}:{1}]", action.getTrackerUri(),
+                                    action.getExternalId());
                             log.warn(errorReason);
                         }
                         context.setExecutionData(FAILED_KILLED, null);
@@ -931,14 +1249,19 @@ public class JavaActionExecutor extends ActionExecutor {
         JobClient jobClient = null;
         boolean exception = false;
         try {
-            Element actionXml = XmlUtils.parseXml(action.getConf());
-            Configuration conf = createBaseHadoopConf(context, actionXml);
-            JobConf jobConf = new JobConf();
-            XConfiguration.copy(conf, jobConf);
-            jobClient = createJobClient(context, jobConf);
-            RunningJob runningJob = jobClient.getJob(JobID.forName(action.getExternalId()));
-            if (runningJob != null) {
-                runningJob.killJob();
+            if (isLauncherExecution(action.getExternalId())) {
+                killLauncherExecution(action.getExternalId());
+            }
+            else {
+                Element actionXml = XmlUtils.parseXml(action.getConf());
+                Configuration conf = createBaseHadoopConf(context, actionXml);
+                JobConf jobConf = new JobConf();
+                XConfiguration.copy(conf, jobConf);
+                jobClient = createJobClient(context, jobConf);
+                RunningJob runningJob = jobClient.getJob(JobID.forName(action.getExternalId()));
+                if (runningJob != null) {
+                    runningJob.killJob();
+                }
             }
             context.setExternalStatus(KILLED);
             context.setExecutionData(KILLED, null);
@@ -977,7 +1300,7 @@ public class JavaActionExecutor extends ActionExecutor {
 
     @Override
     public boolean isCompleted(String externalStatus) {
-        return FINAL_STATUS.contains(externalStatus);
+        return FINAL_STATUS.contains(externalStatus) || LauncherDataService.isLauncherData(externalStatus);
     }
 
 }
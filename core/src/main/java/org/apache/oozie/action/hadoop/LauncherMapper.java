@@ -18,6 +18,7 @@
 package org.apache.oozie.action.hadoop;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
@@ -30,6 +31,8 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.net.HttpURLConnection;
+import java.net.URL;
 import java.security.Permission;
 import java.text.MessageFormat;
 import java.util.Properties;
@@ -58,11 +61,48 @@ public class LauncherMapper<K1, V1, K2, V2> implements Mapper<K1, V1, K2, V2>, R
     private static final String CONF_OOZIE_ACTION_MAIN_ARG_COUNT = "oozie.action.main.arg.count";
     private static final String CONF_OOZIE_ACTION_MAIN_ARG_PREFIX = "oozie.action.main.arg.";
     private static final String CONF_OOZIE_ACTION_MAX_OUTPUT_DATA = "oozie.action.max.output.data";
+    private static final String CONF_OOZIE_LAUNCHER_DATA_CALLBACK_URL = "oozie.launcher.data.callback.url";
+    private static final String CONF_OOZIE_LAUNCHER_DATA_MAX_LEN = "oozie.launcher.data.max.len";
+    private static final String CONF_OOZIE_LAUNCHER_DATA_SECRET = "oozie.launcher.data.secret";
+
+    /**
+     * Variable of the data callback URL the launcher replaces with the type of the data it posts.
+     */
+    public static final String DATA_CALLBACK_STATUS_VAR = "$launcherData";
+
+    /**
+     * Type of the data posted when the main class succeeds, the data is the output data, possibly empty.
+     */
+    public static final String DATA_OUTPUT = "LAUNCHER_OUTPUT";
+
+    /**
+     * Type of the data posted when the main class started a new Hadoop job, the data has the job ID as [id].
+     */
+    public static final String DATA_ID_SWAP = "LAUNCHER_IDSWAP";
+
+    /**
+     * Type of the data posted when the main class fails, the data is the error data.
+     */
+    public static final String DATA_ERROR = "LAUNCHER_ERROR";
+
+    /**
+     * Request header with the secret the launcher was registered with.
+     */
+    public static final String DATA_SECRET_HEADER = "oozie-launcher-secret";
+
+    /**
+     * Request header with the ID of the launcher job posting the data.
+     */
+    public static final String DATA_LAUNCHER_ID_HEADER = "oozie-launcher-id";
+
+    private static final int DATA_POST_CONNECT_TIMEOUT = 10 * 1000;
+    private static final int DATA_POST_READ_TIMEOUT = 30 * 1000;
 
     private static final String COUNTER_GROUP = "oozie.launcher";
     private static final String COUNTER_DO_ID_SWAP = "oozie.do.id.swap";
     private static final String COUNTER_OUTPUT_DATA = "oozie.output.data";
     private static final String COUNTER_LAUNCHER_ERROR = "oozie.launcher.error";
+    private static final String COUNTER_DATA_POSTED = "oozie.data.posted";
 
     private static final String OOZIE_JOB_ID = "oozie.job.id";
     private static final String OOZIE_ACTION_ID = "oozie.action.id";
@@ -150,6 +190,21 @@ public class LauncherMapper<K1, V1, K2, V2> implements Mapper<K1, V1, K2, V2>, R
         launcherConf.setInt(CONF_OOZIE_ACTION_MAX_OUTPUT_DATA, maxOutputData);
     }
 
+    /**
+     * Set up the launcher to post its output data, new job ID and error data to the Oozie server.
+     *
+     * @param launcherConf launcher configuration.
+     * @param callbackUrl callback URL with {@link #DATA_CALLBACK_STATUS_VAR} as external status.
+     * @param maxDataLen maximum length of the data posted, larger data is written to the action directory.
+     * @param secret secret the launcher was registered with, sent with the data.
+     */
+    public static void setupDataCallback(Configuration launcherConf, String callbackUrl, int maxDataLen,
+                                         String secret) {
+        launcherConf.set(CONF_OOZIE_LAUNCHER_DATA_CALLBACK_URL, callbackUrl);
+        launcherConf.setInt(CONF_OOZIE_LAUNCHER_DATA_MAX_LEN, maxDataLen);
+        launcherConf.set(CONF_OOZIE_LAUNCHER_DATA_SECRET, secret);
+    }
+
     /**
      * @param launcherConf
      * @param jobId
@@ -224,6 +279,25 @@ public class LauncherMapper<K1, V1, K2, V2> implements Mapper<K1, V1, K2, V2>, R
         return output;
     }
 
+    /**
+     * Return if the launcher posted its data to the Oozie server instead of writing it to the action directory.
+     *
+     * @param runningJob launcher job.
+     * @return <code>true</code> if the launcher posted its data.
+     * @throws IOException thrown if the job counters could not be read.
+     */
+    public static boolean isDataPosted(RunningJob runningJob) throws IOException {
+        boolean posted = false;
+        Counters counters = runningJob.getCounters();
+        if (counters != null) {
+            Counters.Group group = counters.getGroup(COUNTER_GROUP);
+            if (group != null) {
+                posted = group.getCounter(COUNTER_DATA_POSTED) == 1;
+            }
+        }
+        return posted;
+    }
+
     /**
      * @param runningJob
      * @return
@@ -425,12 +499,8 @@ public class LauncherMapper<K1, V1, K2, V2> implements Mapper<K1, V1, K2, V2>, R
                     }
                     if (errorMessage == null) {
                         File outputData = new File(System.getProperty("oozie.action.output.properties"));
+                        Properties outputProps = null;
                         if (outputData.exists()) {
-                            FileSystem fs = FileSystem.get(getJobConf());
-                            fs.copyFromLocalFile(new Path(outputData.toString()), new Path(actionDir,
-                                                                                           ACTION_OUTPUT_PROPS));
-                            reporter.incrCounter(COUNTER_GROUP, COUNTER_OUTPUT_DATA, 1);
-
                             int maxOutputData = getJobConf().getInt(CONF_OOZIE_ACTION_MAX_OUTPUT_DATA, 2 * 1024);
                             if (outputData.length() > maxOutputData) {
                                 String msg = MessageFormat.format("Output data size [{0}] exceeds maximum [{1}]",
@@ -440,34 +510,45 @@ public class LauncherMapper<K1, V1, K2, V2> implements Mapper<K1, V1, K2, V2>, R
                             System.out.println();
                             System.out.println("Oozie Launcher, capturing output data:");
                             System.out.println("=======================");
-                            Properties props = new Properties();
-                            props.load(new FileReader(outputData));
-                            props.store(System.out, "");
+                            outputProps = new Properties();
+                            outputProps.load(new FileReader(outputData));
+                            outputProps.store(System.out, "");
                             System.out.println();
                             System.out.println("=======================");
                             System.out.println();
                         }
                         File newId = new File(System.getProperty("oozie.action.newId.properties"));
+                        Properties newIdProps = null;
                         if (newId.exists()) {
-                            Properties props = new Properties();
-                            props.load(new FileReader(newId));
-                            if (props.getProperty("id") == null) {
+                            newIdProps = new Properties();
+                            newIdProps.load(new FileReader(newId));
+                            if (newIdProps.getProperty("id") == null) {
                                 throw new IllegalStateException("ID swap file does not have [id] property");
                             }
-                            FileSystem fs = FileSystem.get(getJobConf());
-                            fs.copyFromLocalFile(new Path(newId.toString()), new Path(actionDir, ACTION_NEW_ID_PROPS));
-                            reporter.incrCounter(COUNTER_GROUP, COUNTER_DO_ID_SWAP, 1);
-
-                            System.out.println("Oozie Launcher, copying new Hadoop job id to file: "
-                                    + new Path(actionDir, ACTION_NEW_ID_PROPS).toUri());
-
                             System.out.println();
                             System.out.println("Oozie Launcher, propagating new Hadoop job id to Oozie");
                             System.out.println("=======================");
-                            System.out.println("id: " + props.getProperty("id"));
+                            System.out.println("id: " + newIdProps.getProperty("id"));
                             System.out.println("=======================");
                             System.out.println();
                         }
+                        if (newIdProps != null) {
+                            if (!postData(DATA_ID_SWAP, newIdProps, reporter)) {
+                                FileSystem fs = FileSystem.get(getJobConf());
+                                fs.copyFromLocalFile(new Path(newId.toString()), new Path(actionDir,
+                                                                                          ACTION_NEW_ID_PROPS));
+                                reporter.incrCounter(COUNTER_GROUP, COUNTER_DO_ID_SWAP, 1);
+                                System.out.println("Oozie Launcher, copying new Hadoop job id to file: "
+                                        + new Path(actionDir, ACTION_NEW_ID_PROPS).toUri());
+                            }
+                        }
+                        else if (!postData(DATA_OUTPUT, (outputProps != null) ? outputProps : new Properties(),
+                                           reporter) && outputProps != null) {
+                            FileSystem fs = FileSystem.get(getJobConf());
+                            fs.copyFromLocalFile(new Path(outputData.toString()), new Path(actionDir,
+                                                                                           ACTION_OUTPUT_PROPS));
+                            reporter.incrCounter(COUNTER_GROUP, COUNTER_OUTPUT_DATA, 1);
+                        }
                     }
                 }
                 catch (NoSuchMethodException ex) {
@@ -567,10 +648,12 @@ public class LauncherMapper<K1, V1, K2, V2> implements Mapper<K1, V1, K2, V2>, R
                 pw.close();
                 errorProps.setProperty("exception.stacktrace", sw.toString());
             }
-            FileSystem fs = FileSystem.get(getJobConf());
-            OutputStream os = fs.create(new Path(actionDir, ACTION_ERROR_PROPS));
-            errorProps.store(os, "");
-            os.close();
+            if (!postData(DATA_ERROR, errorProps, null)) {
+                FileSystem fs = FileSystem.get(getJobConf());
+                OutputStream os = fs.create(new Path(actionDir, ACTION_ERROR_PROPS));
+                errorProps.store(os, "");
+                os.close();
+            }
 
             System.out.print("Failing Oozie Launcher, " + reason + "\n");
             System.err.print("Failing Oozie Launcher, " + reason + "\n");
@@ -585,6 +668,59 @@ public class LauncherMapper<K1, V1, K2, V2> implements Mapper<K1, V1, K2, V2>, R
         }
     }
 
+    /**
+     * Post launcher data to the Oozie server.
+     *
+     * @param type type of the data.
+     * @param props data to post.
+     * @param reporter reporter to record the post with, the post is not recorded if <code>null</code>.
+     * @return <code>true</code> if the data was posted, <code>false</code> if posting is not set up, the data is
+     * too long or the post failed, the caller must then write the data to the action directory.
+     */
+    private boolean postData(String type, Properties props, Reporter reporter) {
+        String callbackUrl = getJobConf().get(CONF_OOZIE_LAUNCHER_DATA_CALLBACK_URL);
+        if (callbackUrl == null) {
+            return false;
+        }
+        try {
+            // the properties stream format escapes all non ASCII characters
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            props.store(data, "");
+            if (data.size() > getJobConf().getInt(CONF_OOZIE_LAUNCHER_DATA_MAX_LEN, 0)) {
+                System.out.println("Oozie Launcher, data too long to post to Oozie, writing it to the action dir");
+                return false;
+            }
+            URL url = new URL(callbackUrl.replace(DATA_CALLBACK_STATUS_VAR, type));
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            conn.setConnectTimeout(DATA_POST_CONNECT_TIMEOUT);
+            conn.setReadTimeout(DATA_POST_READ_TIMEOUT);
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("content-type", "text/plain");
+            conn.setRequestProperty(DATA_SECRET_HEADER, getJobConf().get(CONF_OOZIE_LAUNCHER_DATA_SECRET, ""));
+            conn.setRequestProperty(DATA_LAUNCHER_ID_HEADER, getJobConf().get("mapred.job.id", ""));
+            conn.setDoOutput(true);
+            OutputStream os = conn.getOutputStream();
+            data.writeTo(os);
+            os.close();
+            int responseCode = conn.getResponseCode();
+            conn.disconnect();
+            if (responseCode == HttpURLConnection.HTTP_OK) {
+                if (reporter != null) {
+                    reporter.incrCounter(COUNTER_GROUP, COUNTER_DATA_POSTED, 1);
+                }
+                System.out.println("Oozie Launcher, posted data to Oozie");
+                return true;
+            }
+            System.out.println("Oozie Launcher, could not post data to Oozie, HTTP status [" + responseCode
+                    + "], writing it to the action dir");
+        }
+        catch (IOException ex) {
+            System.out.println("Oozie Launcher, could not post data to Oozie, " + ex.getMessage()
+                    + ", writing it to the action dir");
+        }
+        return false;
+    }
+
     /**
      * Print files and directories in current directory. Will list files in the sub-directory (only 1 level deep)
      */
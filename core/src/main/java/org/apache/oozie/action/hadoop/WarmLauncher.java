@@ -0,0 +1,234 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.action.hadoop;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Long running launcher process of the {@link org.apache.oozie.service.WarmLauncherService} pool. <p/> The process
+ * reads from STDIN one execution directory per line, runs the {@link LauncherMain} class indicated in the execution
+ * directory and writes <code>DONE</code> to STDOUT when the execution ends. <p/> An execution directory contains the
+ * <code>launcher.properties</code> file with the main class, its classpath JARs and arguments and the
+ * <code>action.xml</code> action configuration. The main class is loaded by a class loader of the execution with the
+ * classpath JARs, it is the context class loader while the main class runs. The main class sees the same system
+ * properties it sees in a launcher job, the <code>output.properties</code>, <code>newId.properties</code> and
+ * <code>error.properties</code> files are left in the execution directory, the main class STDOUT and STDERR go to its
+ * <code>stdout</code> and <code>stderr</code> files. <p/> The system properties are restored after every execution.
+ * The process ends when STDIN is closed.
+ */
+public class WarmLauncher {
+
+    public static final String LAUNCHER_PROPS = "launcher.properties";
+    public static final String MAIN_CLASS = "main.class";
+    public static final String CLASSPATH = "classpath";
+    public static final String MAIN_ARG_COUNT = "main.arg.count";
+    public static final String MAIN_ARG_PREFIX = "main.arg.";
+    public static final String JOB_ID = "job.id";
+    public static final String ACTION_ID = "action.id";
+    public static final String LAUNCHER_ID = "launcher.id";
+    public static final String MAX_OUTPUT_DATA = "max.output.data";
+
+    public static final String ACTION_CONF_XML = LauncherMapper.ACTION_CONF_XML;
+    public static final String OUTPUT_PROPS = "output.properties";
+    public static final String NEW_ID_PROPS = "newId.properties";
+    public static final String ERROR_PROPS = "error.properties";
+
+    public static final String DONE = "DONE";
+
+    public static void main(String[] args) throws Exception {
+        PrintStream protocol = System.out;
+        if (args.length > 0) {
+            PrintStream log = new PrintStream(new FileOutputStream(args[0], true), true);
+            System.setOut(log);
+            System.setErr(log);
+        }
+        new LauncherSecurityManager();
+        Properties systemProps = (Properties) System.getProperties().clone();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, "UTF-8"));
+        String line = reader.readLine();
+        while (line != null) {
+            line = line.trim();
+            if (line.length() > 0) {
+                PrintStream out = System.out;
+                PrintStream err = System.err;
+                try {
+                    execute(new File(line));
+                }
+                finally {
+                    System.setOut(out);
+                    System.setErr(err);
+                    System.setProperties((Properties) systemProps.clone());
+                }
+                protocol.println(DONE);
+                protocol.flush();
+            }
+            line = reader.readLine();
+        }
+    }
+
+    /**
+     * Run the main class of an execution directory.
+     *
+     * @param dir execution directory.
+     * @throws IOException thrown if the execution directory could not be read or written.
+     */
+    static void execute(File dir) throws IOException {
+        Properties props = load(new File(dir, LAUNCHER_PROPS));
+        String mainClass = props.getProperty(MAIN_CLASS);
+        String msgPrefix = "Main class [" + mainClass + "], ";
+        String errorMessage = null;
+        Throwable errorCause = null;
+        int errorCode = 0;
+        String[] args = new String[Integer.parseInt(props.getProperty(MAIN_ARG_COUNT, "0"))];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = props.getProperty(MAIN_ARG_PREFIX + i);
+        }
+        File outputData = new File(dir, OUTPUT_PROPS);
+        File newId = new File(dir, NEW_ID_PROPS);
+        System.setProperty("oozie.launcher.job.id", props.getProperty(LAUNCHER_ID));
+        System.setProperty("oozie.job.id", props.getProperty(JOB_ID));
+        System.setProperty("oozie.action.id", props.getProperty(ACTION_ID));
+        System.setProperty("oozie.action.conf.xml", new File(dir, ACTION_CONF_XML).getAbsolutePath());
+        System.setProperty("oozie.action.output.properties", outputData.getAbsolutePath());
+        System.setProperty("oozie.action.newId.properties", newId.getAbsolutePath());
+        System.setOut(new PrintStream(new FileOutputStream(new File(dir, "stdout")), true));
+        System.setErr(new PrintStream(new FileOutputStream(new File(dir, "stderr")), true));
+        LauncherSecurityManager.reset();
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            ClassLoader classLoader = createClassLoader(props.getProperty(CLASSPATH, ""), contextClassLoader);
+            Thread.currentThread().setContextClassLoader(classLoader);
+            Class<?> klass = Class.forName(mainClass, true, classLoader);
+            Method mainMethod = klass.getMethod("main", String[].class);
+            mainMethod.invoke(null, (Object) args);
+        }
+        catch (InvocationTargetException ex) {
+            if (LauncherMainException.class.isInstance(ex.getCause())) {
+                errorMessage = msgPrefix + "exit code [" + ((LauncherMainException) ex.getCause()).getErrorCode()
+                        + "]";
+            }
+            else if (SecurityException.class.isInstance(ex.getCause()) && LauncherSecurityManager.getExitInvoked()) {
+                // if 0 main() method finished successfully
+                errorCode = LauncherSecurityManager.getExitCode();
+                if (errorCode != 0) {
+                    errorMessage = msgPrefix + "exit code [" + errorCode + "]";
+                }
+            }
+            else {
+                errorMessage = msgPrefix + "exception invoking main()";
+                errorCause = ex.getCause();
+            }
+        }
+        catch (Throwable ex) {
+            errorMessage = msgPrefix + "exception invoking main()";
+            errorCause = ex;
+        }
+        finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+            System.out.close();
+            System.err.close();
+        }
+        if (errorMessage == null && outputData.exists()) {
+            int maxOutputData = Integer.parseInt(props.getProperty(MAX_OUTPUT_DATA, Integer.toString(2 * 1024)));
+            if (outputData.length() > maxOutputData) {
+                errorMessage = "Output data size [" + outputData.length() + "] exceeds maximum [" + maxOutputData
+                        + "]";
+            }
+        }
+        if (errorMessage == null && newId.exists() && load(newId).getProperty("id") == null) {
+            errorMessage = "ID swap file does not have [id] property";
+        }
+        if (errorMessage != null) {
+            writeError(dir, errorCode, errorMessage, errorCause);
+        }
+    }
+
+    /**
+     * Create the class loader of an execution.
+     *
+     * @param classpath classpath JARs of the execution, separated by the path separator.
+     * @param parent parent class loader.
+     * @return a class loader with the classpath JARs, the parent class loader if there are none.
+     * @throws IOException thrown if a JAR path is not valid.
+     */
+    private static ClassLoader createClassLoader(String classpath, ClassLoader parent) throws IOException {
+        List<URL> urls = new ArrayList<URL>();
+        for (String jar : classpath.split(File.pathSeparator)) {
+            if (jar.length() > 0) {
+                urls.add(new File(jar).toURI().toURL());
+            }
+        }
+        return (urls.isEmpty()) ? parent : new URLClassLoader(urls.toArray(new URL[urls.size()]), parent);
+    }
+
+    private static Properties load(File file) throws IOException {
+        InputStream is = new FileInputStream(file);
+        try {
+            Properties props = new Properties();
+            props.load(is);
+            return props;
+        }
+        finally {
+            is.close();
+        }
+    }
+
+    private static void writeError(File dir, int errorCode, String reason, Throwable ex) throws IOException {
+        if (ex != null) {
+            reason += ", " + ex.getMessage();
+        }
+        Properties errorProps = new Properties();
+        errorProps.setProperty("error.code", Integer.toString(errorCode));
+        errorProps.setProperty("error.reason", reason);
+        if (ex != null) {
+            if (ex.getMessage() != null) {
+                errorProps.setProperty("exception.message", ex.getMessage());
+            }
+            StringWriter sw = new StringWriter();
+            PrintWriter pw = new PrintWriter(sw);
+            ex.printStackTrace(pw);
+            pw.close();
+            errorProps.setProperty("exception.stacktrace", sw.toString());
+        }
+        OutputStream os = new FileOutputStream(new File(dir, ERROR_PROPS));
+        try {
+            errorProps.store(os, "");
+        }
+        finally {
+            os.close();
+        }
+    }
+
+}
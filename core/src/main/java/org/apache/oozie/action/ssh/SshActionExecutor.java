@@ -17,11 +17,9 @@
  */
 package org.apache.oozie.action.ssh;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.List;
 import java.util.concurrent.Callable;
 
@@ -33,6 +31,7 @@ import org.apache.oozie.action.ActionExecutorException;
 import org.apache.oozie.service.CallbackService;
 import org.apache.oozie.servlet.CallbackServlet;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.service.SshSessionService;
 import org.apache.oozie.util.IOUtils;
 import org.apache.oozie.util.PropertiesUtils;
 import org.apache.oozie.util.XLog;
@@ -57,9 +56,6 @@ public class SshActionExecutor extends ActionExecutor {
     protected static final String SSH_COMMAND_OPTIONS =
             "-o PasswordAuthentication=no -o KbdInteractiveDevices=no -o StrictHostKeyChecking=no -o ConnectTimeout=20 ";
 
-    protected static final String SSH_COMMAND_BASE = "ssh " + SSH_COMMAND_OPTIONS;
-    protected static final String SCP_COMMAND_BASE = "scp " + SSH_COMMAND_OPTIONS;
-
     public static final String ERR_SETUP_FAILED = "SETUP_FAILED";
     public static final String ERR_EXECUTION_FAILED = "EXECUTION_FAILED";
     public static final String ERR_UNKNOWN_ERROR = "UNKOWN_ERROR";
@@ -123,21 +119,15 @@ public class SshActionExecutor extends ActionExecutor {
         if (status == Status.OK) {
             if (captureOutput) {
                 String outFile = getRemoteFileName(context, action, "stdout", false, true);
-                String dataCommand = SSH_COMMAND_BASE + action.getTrackerUri() + " cat " + outFile;
+                String dataCommand = getSshCommandBase() + action.getTrackerUri() + " cat " + outFile;
                 log.debug("Ssh command [{0}]", dataCommand);
                 try {
-                    Process process = Runtime.getRuntime().exec(dataCommand.split("\\s"));
-                    StringBuffer buffer = new StringBuffer();
-                    boolean overflow = false;
-                    drainBuffers(process, buffer, null, maxLen);
-                    if (buffer.length() > maxLen) {
-                        overflow = true;
-                    }
-                    if (overflow) {
+                    String output = runCommand(action.getTrackerUri(), dataCommand, maxLen).getStdout();
+                    if (output.length() > maxLen) {
                         throw new ActionExecutorException(ActionExecutorException.ErrorType.ERROR,
                                                           "ERR_OUTPUT_EXCEED_MAX_LEN", "unknown error");
                     }
-                    context.setExecutionData(status.toString(), PropertiesUtils.stringToProperties(buffer.toString()));
+                    context.setExecutionData(status.toString(), PropertiesUtils.stringToProperties(output));
                 }
                 catch (Exception ex) {
                     throw new ActionExecutorException(ActionExecutorException.ErrorType.ERROR, "ERR_UNKNOWN_ERROR",
@@ -166,8 +156,8 @@ public class SshActionExecutor extends ActionExecutor {
      */
     @Override
     public void kill(Context context, WorkflowAction action) throws ActionExecutorException {
-        String command = "ssh " + action.getTrackerUri() + " kill  -KILL " + action.getExternalId();
-        int returnValue = getReturnValue(command);
+        String command = getSshCommandBase() + action.getTrackerUri() + " kill  -KILL " + action.getExternalId();
+        int returnValue = getReturnValue(action.getTrackerUri(), command);
         if (returnValue != 0) {
             throw new ActionExecutorException(ActionExecutorException.ErrorType.ERROR, "FAILED_TO_KILL", XLog.format(
                     "Unable to kill process {0} on {1}", action.getExternalId(), action.getTrackerUri()));
@@ -251,12 +241,9 @@ public class SshActionExecutor extends ActionExecutor {
     private String checkIfRunning(String host, final Context context, final WorkflowAction action) {
         String pid = null;
         String outFile = getRemoteFileName(context, action, "pid", false, false);
-        String getOutputCmd = SSH_COMMAND_BASE + host + " cat " + outFile;
+        String getOutputCmd = getSshCommandBase() + host + " cat " + outFile;
         try {
-            Process process = Runtime.getRuntime().exec(getOutputCmd.split("\\s"));
-            StringBuffer buffer = new StringBuffer();
-            drainBuffers(process, buffer, null, maxLen);
-            pid = getFirstLine(buffer);
+            pid = getFirstLine(runCommand(host, getOutputCmd, maxLen).getStdout());
 
             if (Long.valueOf(pid) > 0) {
                 return pid;
@@ -302,15 +289,25 @@ public class SshActionExecutor extends ActionExecutor {
      * @throws InterruptedException if process does not run properly.
      */
     public int executeCommand(String command) throws IOException, InterruptedException {
-        Runtime runtime = Runtime.getRuntime();
-        Process p = runtime.exec(command.split("\\s"));
+        return executeCommand(null, command);
+    }
 
-        StringBuffer errorBuffer = new StringBuffer();
-        int exitValue = drainBuffers(p, null, errorBuffer, maxLen);
+    /**
+     * Utility method to execute command.
+     *
+     * @param host host the command connects to, <code>null</code> if unknown.
+     * @param command Command to execute as String.
+     * @return exit status of the execution.
+     * @throws IOException if process exits with status nonzero.
+     * @throws InterruptedException if process does not run properly.
+     */
+    public int executeCommand(String host, String command) throws IOException, InterruptedException {
+        SshSessionService.Result result = runCommand(host, command, maxLen);
+        int exitValue = result.getExitValue();
 
         String error = null;
         if (exitValue != 0) {
-            error = getTruncatedString(errorBuffer);
+            error = getTruncatedString(result.getStderr());
             throw new IOException(XLog.format("Not able to perform operation [{0}]", command) + " | " + "ErrorStream: "
                     + error);
         }
@@ -343,14 +340,13 @@ public class SshActionExecutor extends ActionExecutor {
             throw new IOException("Required Local file " + file.getAbsolutePath() + " not present.");
         }
         String remoteDirLocation = getRemoteFileName(context, action, null, true, true);
-        String command = XLog.format("{0}{1}  mkdir -p {2} ", SSH_COMMAND_BASE, host, remoteDirLocation).toString();
-        executeCommand(command);
-        command = XLog.format("{0}{1}/ssh-base.sh {2}/ssh-wrapper.sh {3}:{4}", SCP_COMMAND_BASE, localDirLocation,
-                              localDirLocation, host, remoteDirLocation);
-        executeCommand(command);
-        command = XLog.format("{0}{1}  chmod +x {2}ssh-base.sh {3}ssh-wrapper.sh ", SSH_COMMAND_BASE, host,
-                              remoteDirLocation, remoteDirLocation);
-        executeCommand(command);
+        String command = XLog.format("{0}{1}  mkdir -p {2} ", getSshCommandBase(), host, remoteDirLocation)
+                .toString();
+        executeCommand(host, command);
+        // the local scripts are executable, -p preserves their mode so they do not need a chmod on the remote host
+        command = XLog.format("{0}-p {1}/ssh-base.sh {2}/ssh-wrapper.sh {3}:{4}", getScpCommandBase(),
+                              localDirLocation, localDirLocation, host, remoteDirLocation);
+        executeCommand(host, command);
         return remoteDirLocation;
     }
 
@@ -371,27 +367,23 @@ public class SshActionExecutor extends ActionExecutor {
     protected String doExecute(String host, String dirLocation, String cmnd, String args, boolean ignoreOutput,
                                WorkflowAction action, String recoveryId) throws IOException, InterruptedException {
         XLog log = XLog.getLog(getClass());
-        Runtime runtime = Runtime.getRuntime();
         String callbackPost = ignoreOutput ? "_" : getOozieConf().get(HTTP_COMMAND_OPTIONS).replace(" ", "%%%");
         // TODO check
         String callBackUrl = Services.get().get(CallbackService.class)
                 .createCallBackUrl(action.getId(), EXT_STATUS_VAR);
-        String command = XLog.format("{0}{1} {2}ssh-base.sh {3} \"{4}\" \"{5}\" {6} {7} {8} ", SSH_COMMAND_BASE, host,
-                                     dirLocation, getOozieConf().get(HTTP_COMMAND), callBackUrl, callbackPost, recoveryId, cmnd, args)
+        String command = XLog.format("{0}{1} {2}ssh-base.sh {3} \"{4}\" \"{5}\" {6} {7} {8} ", getSshCommandBase(),
+                                     host, dirLocation, getOozieConf().get(HTTP_COMMAND), callBackUrl, callbackPost,
+                                     recoveryId, cmnd, args)
                 .toString();
         log.trace("Executing ssh command [{0}]", command);
-        Process p = runtime.exec(command.split("\\s"));
-        String pid = "";
-
-        StringBuffer inputBuffer = new StringBuffer();
-        StringBuffer errorBuffer = new StringBuffer();
-        int exitValue = drainBuffers(p, inputBuffer, errorBuffer, maxLen);
+        SshSessionService.Result result = runCommand(host, command, maxLen);
+        int exitValue = result.getExitValue();
 
-        pid = getFirstLine(inputBuffer);
+        String pid = getFirstLine(result.getStdout());
 
         String error = null;
         if (exitValue != 0) {
-            error = getTruncatedString(errorBuffer);
+            error = getTruncatedString(result.getStderr());
             throw new IOException(XLog.format("Not able to execute ssh-base.sh on {0}", host) + " | " + "ErrorStream: "
                     + error);
         }
@@ -415,8 +407,8 @@ public class SshActionExecutor extends ActionExecutor {
         boolean deleteTmpDir = getOozieConf().getBoolean(DELETE_TMP_DIR, true);
         if (deleteTmpDir) {
             String tmpDir = getRemoteFileName(context, action, null, true, false);
-            String removeTmpDirCmd = SSH_COMMAND_BASE + action.getTrackerUri() + " rm -rf " + tmpDir;
-            int retVal = getReturnValue(removeTmpDirCmd);
+            String removeTmpDirCmd = getSshCommandBase() + action.getTrackerUri() + " rm -rf " + tmpDir;
+            int retVal = getReturnValue(action.getTrackerUri(), removeTmpDirCmd);
             if (retVal != 0) {
                 XLog.getLog(getClass()).warn("Cannot delete temp dir {0}", tmpDir);
             }
@@ -426,25 +418,69 @@ public class SshActionExecutor extends ActionExecutor {
     /**
      * Get the return value of a process.
      *
+     * @param host host the command connects to.
      * @param command command to be executed.
      * @return zero if execution is successful and any non zero value for failure.
      * @throws ActionExecutorException
      */
-    private int getReturnValue(String command) throws ActionExecutorException {
-        int returnValue;
-        Process ps = null;
+    private int getReturnValue(String host, String command) throws ActionExecutorException {
         try {
-            ps = Runtime.getRuntime().exec(command.split("\\s"));
-            returnValue = drainBuffers(ps, null, null, 0);
+            return runCommand(host, command, 0).getExitValue();
         }
         catch (IOException e) {
             throw new ActionExecutorException(ActionExecutorException.ErrorType.ERROR, "FAILED_OPERATION", XLog.format(
                     "Not able to perform operation {0}", command), e);
         }
-        finally {
-            ps.destroy();
+        catch (InterruptedException e) {
+            throw convertException(e);
+        }
+    }
+
+    /**
+     * Run a command through the {@link SshSessionService}, or as a local process if the service is not available.
+     *
+     * @param host host the command connects to, <code>null</code> if unknown.
+     * @param command command to run.
+     * @param maxLength maximum length of STDOUT and STDERR kept.
+     * @return the command result.
+     * @throws IOException thrown if the command could not be run.
+     * @throws InterruptedException thrown if interrupted while waiting for the command.
+     */
+    private SshSessionService.Result runCommand(String host, String command, int maxLength) throws IOException,
+            InterruptedException {
+        SshSessionService sessionService = Services.get().get(SshSessionService.class);
+        if (sessionService == null) {
+            return new SshSessionService.ProcessTransport().run(command.split("\\s"), maxLength);
         }
-        return returnValue;
+        return sessionService.execute(host, command, maxLength);
+    }
+
+    /**
+     * Return the ssh and scp options of the {@link SshSessionService}, if available.
+     *
+     * @return the connection multiplexing options, an empty string if the service is not available.
+     */
+    private String getSessionOptions() {
+        SshSessionService sessionService = Services.get().get(SshSessionService.class);
+        return (sessionService != null) ? sessionService.getOptions() : "";
+    }
+
+    /**
+     * Return the ssh command with its options, including the connection multiplexing ones.
+     *
+     * @return the ssh command with its options, ending with a space.
+     */
+    protected String getSshCommandBase() {
+        return "ssh " + getSessionOptions() + SSH_COMMAND_OPTIONS;
+    }
+
+    /**
+     * Return the scp command with its options, including the connection multiplexing ones.
+     *
+     * @return the scp command with its options, ending with a space.
+     */
+    protected String getScpCommandBase() {
+        return "scp " + getSessionOptions() + SSH_COMMAND_OPTIONS;
     }
 
     /**
@@ -461,6 +497,8 @@ public class SshActionExecutor extends ActionExecutor {
                     + "/ssh-base.sh"));
             IOUtils.copyCharStream(IOUtils.getResourceAsReader("ssh-wrapper.sh", -1), new FileWriter(dirLocation
                     + "/ssh-wrapper.sh"));
+            new File(dirLocation, "ssh-base.sh").setExecutable(true);
+            new File(dirLocation, "ssh-wrapper.sh").setExecutable(true);
         }
         catch (IOException ie) {
             throw new RuntimeException(XLog.format("Not able to copy required scripts file to {0} "
@@ -476,16 +514,22 @@ public class SshActionExecutor extends ActionExecutor {
      * @throws ActionExecutorException thrown if there is any error in getting status.
      */
     protected Status getActionStatus(Context context, WorkflowAction action) throws ActionExecutorException {
-        String command = SSH_COMMAND_BASE + action.getTrackerUri() + " ps -p " + action.getExternalId();
+        String host = action.getTrackerUri();
+        String listCommand = getSshCommandBase() + host + " ps -e -o pid=";
+        SshSessionService sessionService = Services.get().get(SshSessionService.class);
+        if (sessionService != null && sessionService.isRunning(host, action.getExternalId(), listCommand)) {
+            return Status.RUNNING;
+        }
+        String command = getSshCommandBase() + host + " ps -p " + action.getExternalId();
         Status aStatus;
-        int returnValue = getReturnValue(command);
+        int returnValue = getReturnValue(host, command);
         if (returnValue == 0) {
             aStatus = Status.RUNNING;
         }
         else {
             String outFile = getRemoteFileName(context, action, "error", false, true);
-            String checkErrorCmd = SSH_COMMAND_BASE + action.getTrackerUri() + " ls " + outFile;
-            int retVal = getReturnValue(checkErrorCmd);
+            String checkErrorCmd = getSshCommandBase() + host + " ls " + outFile;
+            int retVal = getReturnValue(host, checkErrorCmd);
             if (retVal == 0) {
                 aStatus = Status.ERROR;
             }
@@ -609,99 +653,26 @@ public class SshActionExecutor extends ActionExecutor {
     /**
      * Truncate the string to max length.
      *
-     * @param strBuffer
+     * @param str
      * @return truncated string string
      */
-    private String getTruncatedString(StringBuffer strBuffer) {
+    private String getTruncatedString(String str) {
 
-        if (strBuffer.length() <= maxLen) {
-            return strBuffer.toString();
+        if (str.length() <= maxLen) {
+            return str;
         }
         else {
-            return strBuffer.substring(0, maxLen);
-        }
-    }
-
-    /**
-     * Drains the inputStream and errorStream of the Process being executed. The contents of the streams are stored if a
-     * buffer is provided for the stream.
-     *
-     * @param p The Process instance.
-     * @param inputBuffer The buffer into which STDOUT is to be read. Can be null if only draining is required.
-     * @param errorBuffer The buffer into which STDERR is to be read. Can be null if only draining is required.
-     * @param maxLength The maximum data length to be stored in these buffers. This is an indicative value, and the
-     * store content may exceed this length.
-     * @return the exit value of the process.
-     * @throws IOException
-     */
-    private int drainBuffers(Process p, StringBuffer inputBuffer, StringBuffer errorBuffer, int maxLength)
-            throws IOException {
-        int exitValue = -1;
-        BufferedReader ir = new BufferedReader(new InputStreamReader(p.getInputStream()));
-        BufferedReader er = new BufferedReader(new InputStreamReader(p.getErrorStream()));
-
-        int inBytesRead = 0;
-        int errBytesRead = 0;
-
-        boolean processEnded = false;
-
-        try {
-            while (!processEnded) {
-                try {
-                    exitValue = p.exitValue();
-                    processEnded = true;
-                }
-                catch (IllegalThreadStateException ex) {
-                    // Continue to drain.
-                }
-
-                inBytesRead += drainBuffer(ir, inputBuffer, maxLength, inBytesRead, processEnded);
-                errBytesRead += drainBuffer(er, errorBuffer, maxLength, errBytesRead, processEnded);
-            }
-        }
-        finally {
-            ir.close();
-            er.close();
-        }
-        return exitValue;
-    }
-
-    /**
-     * Reads the contents of a stream and stores them into the provided buffer.
-     *
-     * @param br The stream to be read.
-     * @param storageBuf The buffer into which the contents of the stream are to be stored.
-     * @param maxLength The maximum number of bytes to be stored in the buffer. An indicative value and may be
-     * exceeded.
-     * @param bytesRead The number of bytes read from this stream to date.
-     * @param readAll If true, the stream is drained while their is data available in it. Otherwise, only a single chunk
-     * of data is read, irrespective of how much is available.
-     * @return
-     * @throws IOException
-     */
-    private int drainBuffer(BufferedReader br, StringBuffer storageBuf, int maxLength, int bytesRead, boolean readAll)
-            throws IOException {
-        int bReadSession = 0;
-        if (br.ready()) {
-            char[] buf = new char[1024];
-            do {
-                int bReadCurrent = br.read(buf, 0, 1024);
-                if (storageBuf != null && bytesRead < maxLength) {
-                    storageBuf.append(buf, 0, bReadCurrent);
-                }
-                bReadSession += bReadCurrent;
-            } while (br.ready() && readAll);
+            return str.substring(0, maxLen);
         }
-        return bReadSession;
     }
 
     /**
-     * Returns the first line from a StringBuffer, recognized by the new line character \n.
+     * Returns the first line from a String, recognized by the new line character \n.
      *
-     * @param buffer The StringBuffer from which the first line is required.
+     * @param buffer The String from which the first line is required.
      * @return The first line of the buffer.
      */
-    private String getFirstLine(StringBuffer buffer) {
+    private String getFirstLine(String buffer) {
         int newLineIndex = 0;
         newLineIndex = buffer.indexOf("\n");
         if (newLineIndex == -1) {
@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.client.rest;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.oozie.client.JobStatusEvent;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Status transition of a job or action, used by the job changes feed.
+ */
+public class JsonJobStatusEvent implements JobStatusEvent, JsonBean {
+    private String id;
+    private String parentId;
+    private String jobType;
+    private boolean action;
+    private String status;
+    private String user;
+    private String appName;
+    private Date time;
+
+    /**
+     * Create a status transition.
+     *
+     * @param id job or action ID.
+     * @param parentId parent job ID, it may be <code>null</code>.
+     * @param jobType job type, <code>wf</code>, <code>coord</code> or <code>bundle</code>.
+     * @param action indicates if the transition is of an action.
+     * @param status new status.
+     * @param user user of the job, it may be <code>null</code>.
+     * @param appName application name of the job, it may be <code>null</code>.
+     * @param time time of the transition.
+     */
+    public JsonJobStatusEvent(String id, String parentId, String jobType, boolean action, String status, String user,
+                              String appName, Date time) {
+        this.id = id;
+        this.parentId = parentId;
+        this.jobType = jobType;
+        this.action = action;
+        this.status = status;
+        this.user = user;
+        this.appName = appName;
+        this.time = time;
+    }
+
+    /**
+     * Return a copy of the transition with the given job user and application name.
+     *
+     * @param user user of the job.
+     * @param appName application name of the job.
+     * @return the copy of the transition.
+     */
+    public JsonJobStatusEvent withJobInfo(String user, String appName) {
+        return new JsonJobStatusEvent(id, parentId, jobType, action, status, user, appName, time);
+    }
+
+    @SuppressWarnings("unchecked")
+    public JSONObject toJSONObject() {
+        JSONObject json = new JSONObject();
+        json.put(JsonTags.JOB_CHANGE_ID, id);
+        json.put(JsonTags.JOB_CHANGE_PARENT_ID, parentId);
+        json.put(JsonTags.JOB_CHANGE_JOB_TYPE, jobType);
+        json.put(JsonTags.JOB_CHANGE_ACTION, action);
+        json.put(JsonTags.JOB_CHANGE_STATUS, status);
+        json.put(JsonTags.JOB_CHANGE_USER, user);
+        json.put(JsonTags.JOB_CHANGE_APP_NAME, appName);
+        json.put(JsonTags.JOB_CHANGE_TIME, JsonUtils.formatDateRfc822(time));
+        return json;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public boolean isAction() {
+        return action;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getAppName() {
+        return appName;
+    }
+
+    public Date getTime() {
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        return "JobStatusEvent[id=" + id + ", status=" + status + "]";
+    }
+
+    /**
+     * Convert a status transition list into a JSONArray.
+     *
+     * @param events status transition list.
+     * @return the corresponding JSON array.
+     */
+    @SuppressWarnings("unchecked")
+    public static JSONArray toJSONArray(List<? extends JsonJobStatusEvent> events) {
+        JSONArray array = new JSONArray();
+        if (events != null) {
+            for (JsonJobStatusEvent event : events) {
+                array.add(event.toJSONObject());
+            }
+        }
+        return array;
+    }
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.client.rest;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.oozie.client.JobStatusInfo;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Compact status of a workflow, coordinator or bundle job, used by the bulk jobs status request.
+ */
+public class JsonJobStatusInfo implements JobStatusInfo, JsonBean {
+    private String id;
+    private String status;
+    private Date startTime;
+    private Date endTime;
+    private Date lastModifiedTime;
+    private String externalId;
+
+    /**
+     * Create a job status.
+     *
+     * @param id job ID.
+     * @param status job status.
+     * @param startTime job start time.
+     * @param endTime job end time.
+     * @param lastModifiedTime job last modified time.
+     * @param externalId job external ID.
+     */
+    public JsonJobStatusInfo(String id, String status, Date startTime, Date endTime, Date lastModifiedTime,
+                             String externalId) {
+        this.id = id;
+        this.status = status;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.lastModifiedTime = lastModifiedTime;
+        this.externalId = externalId;
+    }
+
+    @SuppressWarnings("unchecked")
+    public JSONObject toJSONObject() {
+        JSONObject json = new JSONObject();
+        json.put(JsonTags.JOB_STATUS_ID, id);
+        json.put(JsonTags.JOB_STATUS_STATUS, status);
+        json.put(JsonTags.JOB_STATUS_START_TIME, JsonUtils.formatDateRfc822(startTime));
+        json.put(JsonTags.JOB_STATUS_END_TIME, JsonUtils.formatDateRfc822(endTime));
+        json.put(JsonTags.JOB_STATUS_LAST_MOD_TIME, JsonUtils.formatDateRfc822(lastModifiedTime));
+        json.put(JsonTags.JOB_STATUS_EXTERNAL_ID, externalId);
+        return json;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Date getStartTime() {
+        return startTime;
+    }
+
+    public Date getEndTime() {
+        return endTime;
+    }
+
+    public Date getLastModifiedTime() {
+        return lastModifiedTime;
+    }
+
+    public String getExternalId() {
+        return externalId;
+    }
+
+    @Override
+    public String toString() {
+        return "JobStatusInfo[id=" + id + ", status=" + status + "]";
+    }
+
+    /**
+     * Convert a job status list into a JSONArray.
+     *
+     * @param statuses job status list.
+     * @return the corresponding JSON array.
+     */
+    @SuppressWarnings("unchecked")
+    public static JSONArray toJSONArray(List<? extends JsonJobStatusInfo> statuses) {
+        JSONArray array = new JSONArray();
+        if (statuses != null) {
+            for (JsonJobStatusInfo status : statuses) {
+                array.add(status.toJSONObject());
+            }
+        }
+        return array;
+    }
+
+}
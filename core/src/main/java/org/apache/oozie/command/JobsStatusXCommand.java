@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.command;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.XException;
+import org.apache.oozie.client.rest.JsonJobStatusInfo;
+import org.apache.oozie.executor.jpa.JobsGetStatusJPAExecutor;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Return the status of several workflow, coordinator and bundle jobs, reading it with a single query per job type.
+ */
+public class JobsStatusXCommand extends XCommand<List<JsonJobStatusInfo>> {
+    private final Collection<String> jobIds;
+
+    /**
+     * Create a bulk job status command.
+     *
+     * @param jobIds IDs of the jobs.
+     */
+    public JobsStatusXCommand(Collection<String> jobIds) {
+        super("jobs.status", "jobs.status", 1);
+        this.jobIds = ParamChecker.notNull(jobIds, "jobIds");
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.command.XCommand#execute()
+     */
+    @Override
+    protected List<JsonJobStatusInfo> execute() throws CommandException {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        if (jpaService == null) {
+            throw new CommandException(ErrorCode.E0610);
+        }
+        try {
+            return jpaService.execute(new JobsGetStatusJPAExecutor(jobIds));
+        }
+        catch (XException ex) {
+            throw new CommandException(ex);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.command.XCommand#getEntityKey()
+     */
+    @Override
+    protected String getEntityKey() {
+        return null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.command.XCommand#isLockRequired()
+     */
+    @Override
+    protected boolean isLockRequired() {
+        return false;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.command.XCommand#loadState()
+     */
+    @Override
+    protected void loadState() throws CommandException {
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.command.XCommand#verifyPrecondition()
+     */
+    @Override
+    protected void verifyPrecondition() throws CommandException, PreconditionException {
+    }
+
+}
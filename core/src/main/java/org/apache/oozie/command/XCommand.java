@@ -21,6 +21,7 @@ import org.apache.oozie.ErrorCode;
 import org.apache.oozie.FaultInjection;
 import org.apache.oozie.XException;
 import org.apache.oozie.service.CallableQueueService;
+import org.apache.oozie.service.CommandProfilerService;
 import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.MemoryLocksService;
 import org.apache.oozie.service.Services;
@@ -50,7 +51,7 @@ import java.util.UUID;
  * <li>execution: command logic</li>
  * </ul>
  * <p/>
- * It has built in instrumentation and logging.
+ * It has built in instrumentation, per phase profiling and logging.
  */
 public abstract class XCommand<T> implements XCallable<T> {
     public static final String DEFAULT_LOCK_TIMEOUT = "oozie.command.default.lock.timeout";
@@ -234,34 +235,47 @@ public abstract class XCommand<T> implements XCallable<T> {
         Instrumentation instrumentation = Services.get().get(InstrumentationService.class).get();
         instrumentation.incr(INSTRUMENTATION_GROUP, getName() + ".executions", 1);
         Instrumentation.Cron callCron = new Instrumentation.Cron();
+        XCommandProfile profile = new XCommandProfile(getName(), getType());
+        profile.addPhase(XCommandProfile.PHASE_QUEUE_WAIT, Math.max(0, profile.getStartTime() - getCreatedTime()));
+        XCommandProfile parentProfile = XCommandProfile.setCurrent(profile);
+        String outcome = XCommandProfile.OUTCOME_FAILED;
         try {
             callCron.start();
+            Instrumentation.Cron cron = startPhase();
             eagerLoadState();
+            endPhase(profile, XCommandProfile.PHASE_EAGER_LOAD_STATE, cron);
             LOG = XLog.resetPrefix(LOG);
+            cron = startPhase();
             eagerVerifyPrecondition();
+            endPhase(profile, XCommandProfile.PHASE_EAGER_VERIFY_PRECONDITION, cron);
             try {
                 T ret = null;
                 if (isLockRequired()) {
-                    Instrumentation.Cron acquireLockCron = new Instrumentation.Cron();
-                    acquireLockCron.start();
+                    Instrumentation.Cron acquireLockCron = startPhase();
                     acquireLock();
-                    acquireLockCron.stop();
-                    instrumentation.addCron(INSTRUMENTATION_GROUP, getName() + ".acquireLock", acquireLockCron);
+                    endPhase(profile, XCommandProfile.PHASE_ACQUIRE_LOCK, acquireLockCron);
                 }
                 if (!isLockRequired() || (isLockRequired() && lock != null)) {
                     LOG.debug("Load state for [{0}]", getEntityKey());
+                    cron = startPhase();
                     loadState();
+                    endPhase(profile, XCommandProfile.PHASE_LOAD_STATE, cron);
                     LOG = XLog.resetPrefix(LOG);
                     LOG.debug("Precondition check for command [{0}] key [{1}]", getName(), getEntityKey());
+                    cron = startPhase();
                     verifyPrecondition();
+                    endPhase(profile, XCommandProfile.PHASE_VERIFY_PRECONDITION, cron);
                     LOG.debug("Execute command [{0}] key [{1}]", getName(), getEntityKey());
-                    Instrumentation.Cron executeCron = new Instrumentation.Cron();
-                    executeCron.start();
+                    Instrumentation.Cron executeCron = startPhase();
                     ret = execute();
-                    executeCron.stop();
-                    instrumentation.addCron(INSTRUMENTATION_GROUP, getName() + ".execute", executeCron);
+                    endPhase(profile, XCommandProfile.PHASE_EXECUTE, executeCron);
+                    outcome = XCommandProfile.OUTCOME_SUCCEEDED;
+                }
+                else {
+                    outcome = XCommandProfile.OUTCOME_REQUEUED;
                 }
                 if (commandQueue != null) {
+                    cron = startPhase();
                     CallableQueueService callableQueueService = Services.get().get(CallableQueueService.class);
                     for (Map.Entry<Long, List<XCommand<?>>> entry : commandQueue.entrySet()) {
                         LOG.debug("Queuing [{0}] commands with delay [{1}]ms", entry.getValue().size(), entry.getKey());
@@ -270,6 +284,7 @@ public abstract class XCommand<T> implements XCallable<T> {
                                     .size(), entry.getKey());
                         }
                     }
+                    endPhase(profile, XCommandProfile.PHASE_QUEUE_COMMANDS, cron);
                 }
                 return ret;
             }
@@ -282,6 +297,7 @@ public abstract class XCommand<T> implements XCallable<T> {
         catch(PreconditionException pex){
             LOG.warn(pex.getMessage().toString() + ", Error Code: " + pex.getErrorCode().toString(), pex);
             instrumentation.incr(INSTRUMENTATION_GROUP, getName() + ".preconditionfailed", 1);
+            outcome = XCommandProfile.OUTCOME_PRECONDITION_FAILED;
             return null;
         }
         catch (XException ex) {
@@ -303,6 +319,53 @@ public abstract class XCommand<T> implements XCallable<T> {
             FaultInjection.deactivate("org.apache.oozie.command.SkipCommitFaultInjection");
             callCron.stop();
             instrumentation.addCron(INSTRUMENTATION_GROUP, getName() + ".call", callCron);
+            XCommandProfile.setCurrent(parentProfile);
+            endProfile(profile, outcome);
+        }
+    }
+
+    /**
+     * Start the cron of a command phase.
+     *
+     * @return the started cron.
+     */
+    private Instrumentation.Cron startPhase() {
+        Instrumentation.Cron cron = new Instrumentation.Cron();
+        cron.start();
+        return cron;
+    }
+
+    /**
+     * Stop the cron of a command phase, adding it to the command profile and to the [NAME].[PHASE] timer.
+     *
+     * @param profile command profile.
+     * @param phase phase name.
+     * @param cron phase cron.
+     */
+    private void endPhase(XCommandProfile profile, String phase, Instrumentation.Cron cron) {
+        cron.stop();
+        profile.addPhase(phase, cron.getOwn());
+        instrumentation.addCron(INSTRUMENTATION_GROUP, getName() + "." + phase, cron);
+    }
+
+    /**
+     * End the command profile and hand it to the {@link CommandProfilerService}, if available.
+     *
+     * @param profile command profile.
+     * @param outcome outcome of the command execution.
+     */
+    private void endProfile(XCommandProfile profile, String outcome) {
+        String entityKey;
+        try {
+            entityKey = getEntityKey();
+        }
+        catch (RuntimeException ex) {
+            entityKey = null;
+        }
+        profile.end(entityKey, outcome);
+        CommandProfilerService profilerService = Services.get().get(CommandProfilerService.class);
+        if (profilerService != null) {
+            profilerService.record(profile);
         }
     }
 
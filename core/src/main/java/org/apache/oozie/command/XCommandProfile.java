@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.command;
+
+import org.apache.oozie.client.rest.JsonTags;
+import org.apache.oozie.client.rest.JsonUtils;
+import org.json.simple.JSONObject;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Phase timings of a single {@link XCommand} execution. <p/> The {@link XCommand} life-cycle phases are recorded by
+ * {@link XCommand#call()}, the time spent in database access is added by the {@link
+ * org.apache.oozie.service.JPAService} to the profile of the command running in the current thread. <p/> Phase
+ * durations are in milliseconds, a phase recorded several times accumulates its durations.
+ */
+public class XCommandProfile {
+
+    /**
+     * Phase for the time elapsed between the creation of the command and the start of its execution.
+     */
+    public static final String PHASE_QUEUE_WAIT = "queueWait";
+
+    public static final String PHASE_EAGER_LOAD_STATE = "eagerLoadState";
+
+    public static final String PHASE_EAGER_VERIFY_PRECONDITION = "eagerVerifyPrecondition";
+
+    public static final String PHASE_ACQUIRE_LOCK = "acquireLock";
+
+    public static final String PHASE_LOAD_STATE = "loadState";
+
+    public static final String PHASE_VERIFY_PRECONDITION = "verifyPrecondition";
+
+    public static final String PHASE_EXECUTE = "execute";
+
+    public static final String PHASE_QUEUE_COMMANDS = "queueCommands";
+
+    /**
+     * Phase for database reads, it overlaps the life-cycle phases.
+     */
+    public static final String PHASE_DB_READ = "db.read";
+
+    /**
+     * Phase for database writes, it overlaps the life-cycle phases.
+     */
+    public static final String PHASE_DB_WRITE = "db.write";
+
+    public static final String OUTCOME_SUCCEEDED = "SUCCEEDED";
+
+    public static final String OUTCOME_PRECONDITION_FAILED = "PRECONDITION_FAILED";
+
+    public static final String OUTCOME_REQUEUED = "REQUEUED";
+
+    public static final String OUTCOME_FAILED = "FAILED";
+
+    private static final ThreadLocal<XCommandProfile> CURRENT = new ThreadLocal<XCommandProfile>();
+
+    private String name;
+    private String type;
+    private String entityKey;
+    private long startTime;
+    private long endTime;
+    private String outcome;
+    private Map<String, Long> phases = new LinkedHashMap<String, Long>();
+
+    /**
+     * Create a profile for a command execution starting now.
+     *
+     * @param name command name.
+     * @param type command type.
+     */
+    public XCommandProfile(String name, String type) {
+        this.name = name;
+        this.type = type;
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Return the profile of the command running in the current thread.
+     *
+     * @return the profile of the command running in the current thread, <code>null</code> if none.
+     */
+    public static XCommandProfile getCurrent() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Set the profile of the command running in the current thread.
+     *
+     * @param profile profile to set, <code>null</code> to clear it.
+     * @return the profile previously set, <code>null</code> if none.
+     */
+    static XCommandProfile setCurrent(XCommandProfile profile) {
+        XCommandProfile previous = CURRENT.get();
+        if (profile != null) {
+            CURRENT.set(profile);
+        }
+        else {
+            CURRENT.remove();
+        }
+        return previous;
+    }
+
+    /**
+     * Add a duration to a phase.
+     *
+     * @param phase phase name.
+     * @param millis duration in milliseconds.
+     */
+    public synchronized void addPhase(String phase, long millis) {
+        Long current = phases.get(phase);
+        phases.put(phase, (current != null) ? current + millis : millis);
+    }
+
+    /**
+     * Mark the end of the command execution.
+     *
+     * @param entityKey entity key of the command, it may be <code>null</code>.
+     * @param outcome outcome of the execution.
+     */
+    void end(String entityKey, String outcome) {
+        this.entityKey = entityKey;
+        this.outcome = outcome;
+        endTime = System.currentTimeMillis();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getEntityKey() {
+        return entityKey;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Return the duration of the command execution, not including the queue wait.
+     *
+     * @return the execution duration in milliseconds.
+     */
+    public long getTotal() {
+        return endTime - startTime;
+    }
+
+    /**
+     * Return the phase durations, in recording order.
+     *
+     * @return the phase durations in milliseconds.
+     */
+    public synchronized Map<String, Long> getPhases() {
+        return Collections.unmodifiableMap(new LinkedHashMap<String, Long>(phases));
+    }
+
+    /**
+     * Return the JSON representation of the profile.
+     *
+     * @return the JSON representation of the profile.
+     */
+    @SuppressWarnings("unchecked")
+    public JSONObject toJSONObject() {
+        JSONObject json = new JSONObject();
+        json.put(JsonTags.COMMAND_NAME, name);
+        json.put(JsonTags.COMMAND_TYPE, type);
+        json.put(JsonTags.COMMAND_ENTITY_KEY, entityKey);
+        json.put(JsonTags.COMMAND_START_TIME, JsonUtils.formatDateRfc822(new Date(startTime)));
+        json.put(JsonTags.COMMAND_TOTAL_TIME, getTotal());
+        json.put(JsonTags.COMMAND_OUTCOME, outcome);
+        JSONObject phasesJson = new JSONObject();
+        phasesJson.putAll(getPhases());
+        json.put(JsonTags.COMMAND_PHASES, phasesJson);
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return "XCommandProfile[name=" + name + ", key=" + entityKey + ", total=" + getTotal() + "ms, outcome="
+                + outcome + ", phases=" + getPhases() + "]";
+    }
+
+}
@@ -28,6 +28,8 @@ import org.apache.oozie.ErrorCode;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
+import org.apache.oozie.service.NotificationService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XConfiguration;
@@ -35,6 +37,9 @@ import org.apache.oozie.util.XLog;
 
 /**
  * This class will send the notification for the coordinator action
+ * <p/>
+ * The notification is handed to the {@link NotificationService} which sends it asynchronously, if the service is not
+ * available the notification is sent by the command itself.
  */
 public class CoordActionNotificationXCommand extends CoordinatorXCommand<Void> {
 
@@ -69,6 +74,12 @@ public class CoordActionNotificationXCommand extends CoordinatorXCommand<Void> {
             url = url.replaceAll(ACTION_ID_PATTERN, actionBean.getId());
             url = url.replaceAll(STATUS_PATTERN, actionBean.getStatus().toString());
             LOG.debug("Notification URL :" + url);
+            NotificationService notificationService = Services.get().get(NotificationService.class);
+            if (notificationService != null) {
+                notificationService.send(url, actionBean.getId() + " " + actionBean.getStatus());
+                LOG.info("ENDED Coordinator Notification actionId=" + actionBean.getId());
+                return null;
+            }
             try {
                 URL urlObj = new URL(url);
                 HttpURLConnection urlConn = (HttpURLConnection) urlObj.openConnection();
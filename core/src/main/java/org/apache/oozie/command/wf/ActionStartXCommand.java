@@ -66,6 +66,7 @@ public class ActionStartXCommand extends ActionXCommand<Void> {
     private WorkflowActionBean wfAction = null;
     private JPAService jpaService = null;
     private ActionExecutor executor = null;
+    private boolean lockRequired = true;
 
     public ActionStartXCommand(String actionId, String type) {
         super("action.start", type, 0);
@@ -73,9 +74,21 @@ public class ActionStartXCommand extends ActionXCommand<Void> {
         this.jobId = Services.get().get(UUIDService.class).getId(actionId);
     }
 
+    /**
+     * Create a start command for an action of a job whose lock is already held by the caller.
+     *
+     * @param actionId action ID.
+     * @param type action type.
+     * @param lockRequired <code>false</code> if the caller already holds the job lock.
+     */
+    ActionStartXCommand(String actionId, String type, boolean lockRequired) {
+        this(actionId, type);
+        this.lockRequired = lockRequired;
+    }
+
     @Override
     protected boolean isLockRequired() {
-        return true;
+        return lockRequired;
     }
 
     @Override
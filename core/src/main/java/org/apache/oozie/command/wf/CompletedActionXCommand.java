@@ -26,17 +26,34 @@ import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.executor.jpa.WorkflowActionGetJPAExecutor;
 import org.apache.oozie.service.ActionService;
+import org.apache.oozie.service.CallableQueueService;
 import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.LauncherStatusService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.ParamChecker;
 
 /**
  * This command is executed once the Workflow command is finished.
+ * <p/>
+ * A completion notified before the start of the action has been committed, the action is still pending in
+ * <code>PREP</code>, is retried every {@link #START_WAIT_DELAY} milliseconds up to {@link #START_WAIT_RETRIES} times.
  */
 public class CompletedActionXCommand extends WorkflowXCommand<Void> {
+    /**
+     * Maximum number of times a completion notified before the start of the action committed is retried.
+     */
+    public static final int START_WAIT_RETRIES = 10;
+
+    /**
+     * Delay, in milliseconds, between the retries of a completion notified before the start of the action committed.
+     */
+    public static final long START_WAIT_DELAY = 1000;
+
     private final String actionId;
     private final String externalStatus;
+    private final Properties actionData;
+    private int startWaitRetries;
     private JPAService jpaService;
     private WorkflowActionBean wfactionBean;
 
@@ -44,6 +61,7 @@ public class CompletedActionXCommand extends WorkflowXCommand<Void> {
         super("callback", "callback", priority);
         this.actionId = ParamChecker.notEmpty(actionId, "actionId");
         this.externalStatus = ParamChecker.notEmpty(externalStatus, "externalStatus");
+        this.actionData = actionData;
     }
 
     public CompletedActionXCommand(String actionId, String externalStatus, Properties actionData) {
@@ -82,10 +100,27 @@ public class CompletedActionXCommand extends WorkflowXCommand<Void> {
     protected void eagerVerifyPrecondition() throws CommandException, PreconditionException {
         super.eagerVerifyPrecondition();
         if (this.wfactionBean.getStatus() != WorkflowActionBean.Status.RUNNING) {
+            if (this.wfactionBean.getStatus() == WorkflowActionBean.Status.PREP && this.wfactionBean.isPending()
+                    && startWaitRetries < START_WAIT_RETRIES && requeueForStart()) {
+                throw new PreconditionException(ErrorCode.E0800, actionId, this.wfactionBean.getStatus());
+            }
             throw new CommandException(ErrorCode.E0800, actionId, this.wfactionBean.getStatus());
         }
     }
 
+    /**
+     * Queue this completion again, to be run once the start of the action has been committed.
+     *
+     * @return <code>true</code> if the completion could be queued.
+     */
+    private boolean requeueForStart() {
+        CompletedActionXCommand command = new CompletedActionXCommand(actionId, externalStatus, actionData,
+                                                                      getPriority());
+        command.startWaitRetries = startWaitRetries + 1;
+        LOG.debug("Action [{0}] not started yet, retrying its completion in [{1}]ms", actionId, START_WAIT_DELAY);
+        return Services.get().get(CallableQueueService.class).queue(command, START_WAIT_DELAY);
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -97,6 +132,11 @@ public class CompletedActionXCommand extends WorkflowXCommand<Void> {
         // this is done because oozie notifications (of sub-wfs) is send
         // every status change, not only on completion.
         if (executor.isCompleted(externalStatus)) {
+            // the check must not see the job as running in a snapshot fetched before the callback
+            LauncherStatusService statusService = Services.get().get(LauncherStatusService.class);
+            if (statusService != null) {
+                statusService.completed(this.wfactionBean.getTrackerUri(), this.wfactionBean.getExternalId());
+            }
             queue(new ActionCheckXCommand(this.wfactionBean.getId(), getPriority(), -1));
         }
         return null;
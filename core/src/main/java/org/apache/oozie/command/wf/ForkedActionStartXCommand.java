@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.command.wf;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.PreconditionException;
+
+/**
+ * Start the actions of a fork one after the other, holding the job lock once for all of them.
+ * <p/>
+ * Every {@link ActionStartXCommand} locks the job, queuing one of them per forked action makes them compete for the
+ * same lock and get requeued when they lose it. This command takes the job lock once and runs the start of each
+ * forked action within it. An action that fails to start stays pending and it is picked up by the recovery service.
+ */
+public class ForkedActionStartXCommand extends WorkflowXCommand<Void> {
+    private String jobId;
+    private List<String> actionIds = new ArrayList<String>();
+    private List<String> actionTypes = new ArrayList<String>();
+
+    public ForkedActionStartXCommand(String jobId, List<WorkflowActionBean> actions) {
+        super("action.start.fork", "action.start.fork", 0);
+        this.jobId = jobId;
+        for (WorkflowActionBean action : actions) {
+            actionIds.add(action.getId());
+            actionTypes.add(action.getType());
+        }
+    }
+
+    @Override
+    protected boolean isLockRequired() {
+        return true;
+    }
+
+    @Override
+    protected String getEntityKey() {
+        return jobId;
+    }
+
+    @Override
+    protected void loadState() throws CommandException {
+    }
+
+    @Override
+    protected void verifyPrecondition() throws CommandException, PreconditionException {
+    }
+
+    @Override
+    protected Void execute() throws CommandException {
+        LOG.debug("STARTED ForkedActionStartXCommand for jobid=" + jobId + ", actions=" + actionIds);
+        for (int i = 0; i < actionIds.size(); i++) {
+            try {
+                new ActionStartXCommand(actionIds.get(i), actionTypes.get(i), false).call();
+            }
+            catch (CommandException ex) {
+                LOG.warn("Could not start forked action [{0}], it will be recovered, {1}", actionIds.get(i),
+                         ex.getMessage(), ex);
+            }
+        }
+        LOG.debug("ENDED ForkedActionStartXCommand for jobid=" + jobId);
+        return null;
+    }
+
+}
@@ -33,6 +33,7 @@ public class JobsXCommand extends WorkflowXCommand<WorkflowsInfo> {
     private final Map<String, List<String>> filter;
     private final int start;
     private final int len;
+    private final String cursor;
     private WorkflowsInfo workflows;
 
     /**
@@ -48,6 +49,23 @@ public class JobsXCommand extends WorkflowXCommand<WorkflowsInfo> {
         this.filter = filter;
         this.start = start;
         this.len = length;
+        this.cursor = null;
+    }
+
+    /**
+     * Constructor taking the filter information and the cursor of the page to return
+     *
+     * @param filter Can be name, status, user, group and combination of these
+     * @param cursor cursor returned with the previous page, empty for the first page.
+     * @param length number of workflows to be returned from the list of workflows matching the filter and following
+     *        the cursor.
+     */
+    public JobsXCommand(Map<String, List<String>> filter, String cursor, int length) {
+        super("job.info", "job.info", 1, true);
+        this.filter = filter;
+        this.start = -1;
+        this.len = length;
+        this.cursor = cursor;
     }
 
     /* (non-Javadoc)
@@ -58,7 +76,14 @@ public class JobsXCommand extends WorkflowXCommand<WorkflowsInfo> {
         try {
             JPAService jpaService = Services.get().get(JPAService.class);
             if (jpaService != null) {
-                this.workflows = jpaService.execute(new WorkflowsJobGetJPAExecutor(this.filter, this.start, this.len));
+                if (this.cursor != null) {
+                    this.workflows = jpaService.execute(new WorkflowsJobGetJPAExecutor(this.filter, this.cursor,
+                                                                                       this.len));
+                }
+                else {
+                    this.workflows = jpaService.execute(new WorkflowsJobGetJPAExecutor(this.filter, this.start,
+                                                                                       this.len));
+                }
             }
             else {
                 throw new CommandException(ErrorCode.E0610);
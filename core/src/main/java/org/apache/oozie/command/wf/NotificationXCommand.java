@@ -22,6 +22,8 @@ import org.apache.oozie.WorkflowActionBean;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
+import org.apache.oozie.service.NotificationService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
@@ -30,6 +32,12 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URL;
 
+/**
+ * Send the job or action notification, if the job has a notification URL.
+ * <p/>
+ * The notification is handed to the {@link NotificationService} which sends it asynchronously, if the service is not
+ * available the notification is sent by the command itself.
+ */
 public class NotificationXCommand extends WorkflowXCommand<Void> {
 
     private static final String STATUS_PATTERN = "\\$status";
@@ -37,6 +45,7 @@ public class NotificationXCommand extends WorkflowXCommand<Void> {
     private static final String NODE_NAME_PATTERN = "\\$nodeName";
 
     private String url;
+    private String event;
     private int retries = 0;
 
     public NotificationXCommand(WorkflowJobBean workflow) {
@@ -47,6 +56,7 @@ public class NotificationXCommand extends WorkflowXCommand<Void> {
         if (url != null) {
             url = url.replaceAll(JOB_ID_PATTERN, workflow.getId());
             url = url.replaceAll(STATUS_PATTERN, workflow.getStatus().toString());
+            event = workflow.getId() + " " + workflow.getStatus();
         }
     }
 
@@ -60,12 +70,15 @@ public class NotificationXCommand extends WorkflowXCommand<Void> {
         if (url != null) {
             url = url.replaceAll(JOB_ID_PATTERN, workflow.getId());
             url = url.replaceAll(NODE_NAME_PATTERN, action.getName());
+            String status;
             if (action.isComplete()) {
-                url = url.replaceAll(STATUS_PATTERN, "T:" + action.getTransition());
+                status = "T:" + action.getTransition();
             }
             else {
-                url = url.replaceAll(STATUS_PATTERN, "S:" + action.getStatus().toString());
+                status = "S:" + action.getStatus().toString();
             }
+            url = url.replaceAll(STATUS_PATTERN, status);
+            event = action.getId() + " " + status;
         }
     }
 
@@ -92,6 +105,11 @@ public class NotificationXCommand extends WorkflowXCommand<Void> {
         //if command is requeue, the logInfo has to set to thread local Info object again
         LogUtils.setLogInfo(logInfo);
         if (url != null) {
+            NotificationService notificationService = Services.get().get(NotificationService.class);
+            if (notificationService != null) {
+                notificationService.send(url, event);
+                return null;
+            }
             try {
                 URL url = new URL(this.url);
                 HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
@@ -33,6 +33,7 @@ import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.executor.jpa.WorkflowActionGetJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionInsertJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionUpdateJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowActionsInsertJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobUpdateJPAExecutor;
 import org.apache.oozie.service.ELService;
@@ -47,6 +48,7 @@ import org.apache.oozie.workflow.lite.KillNodeDef;
 import org.apache.oozie.workflow.lite.NodeDef;
 import org.apache.oozie.util.ELEvaluator;
 import org.apache.oozie.util.InstrumentUtils;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.ParamChecker;
@@ -56,6 +58,7 @@ import org.jdom.Element;
 import org.jdom.Namespace;
 
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -260,6 +263,41 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
 
         }
         else {
+            startActions(workflowInstance);
+        }
+
+        try {
+            jpaService.execute(new WorkflowJobUpdateJPAExecutor(wfJob));
+        }
+        catch (JPAExecutorException je) {
+            throw new CommandException(je);
+        }
+        LOG.debug(
+                "Updated the workflow status to " + wfJob.getId() + "  status =" + wfJob.getStatusStr());
+        if (wfJob.getStatus() != WorkflowJob.Status.RUNNING && wfJob.getStatus() != WorkflowJob.Status.SUSPENDED) {
+            // update coordinator action
+            new CoordActionUpdateXCommand(wfJob).call();    //Note: Called even if wf is not necessarily instantiated by coordinator
+            new WfEndXCommand(wfJob).call(); //To delete the WF temp dir
+        }
+        LOG.debug("ENDED SignalCommand for jobid=" + jobId + ", actionId=" + actionId);
+        return null;
+    }
+
+    /**
+     * Persist and queue the start of the actions started by the last signal.
+     * <p/>
+     * The new actions are inserted in a single transaction, when there is more than one (a fork) they are started by
+     * a single {@link ForkedActionStartXCommand} under one job lock and the fan-out time is instrumented.
+     *
+     * @param workflowInstance workflow instance.
+     * @throws CommandException thrown if the actions could not be persisted.
+     */
+    private void startActions(WorkflowInstance workflowInstance) throws CommandException {
+        Instrumentation.Cron fanOutCron = new Instrumentation.Cron();
+        fanOutCron.start();
+        List<WorkflowActionBean> newActions = new ArrayList<WorkflowActionBean>();
+        Element eWfJob = null;
+        try {
             for (WorkflowActionBean newAction : WorkflowStoreService.getStartedActions(workflowInstance)) {
                 String skipVar = workflowInstance.getVar(newAction.getName() + WorkflowInstance.NODE_VAR_SEPARATOR
                         + ReRunCommand.TO_SKIP);
@@ -267,48 +305,46 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
                 if (skipVar != null) {
                     skipNewAction = skipVar.equals("true");
                 }
-                try {
-                    if (skipNewAction) {
-                        WorkflowActionBean oldAction;
+                if (skipNewAction) {
+                    WorkflowActionBean oldAction;
 
-                        oldAction = jpaService.execute(new WorkflowActionGetJPAExecutor(newAction.getId()));
+                    oldAction = jpaService.execute(new WorkflowActionGetJPAExecutor(newAction.getId()));
 
-                        oldAction.setPending();
-                        jpaService.execute(new WorkflowActionUpdateJPAExecutor(oldAction));
+                    oldAction.setPending();
+                    jpaService.execute(new WorkflowActionUpdateJPAExecutor(oldAction));
 
-                        queue(new SignalXCommand(jobId, oldAction.getId()));
-                    }
-                    else {
-                        newAction.setPending();
-                        String actionSlaXml = getActionSLAXml(newAction.getName(), workflowInstance.getApp()
-                                .getDefinition(), wfJob.getConf());
-                        newAction.setSlaXml(actionSlaXml);
-                        jpaService.execute(new WorkflowActionInsertJPAExecutor(newAction));
-                        LOG.debug("SignalXCommand: Name: "+ newAction.getName() + ", Id: " +newAction.getId() + ", Authcode:" + newAction.getCred());
-                        queue(new ActionStartXCommand(newAction.getId(), newAction.getType()));
-                    }
+                    queue(new SignalXCommand(jobId, oldAction.getId()));
                 }
-                catch (JPAExecutorException je) {
-                    throw new CommandException(je);
+                else {
+                    newAction.setPending();
+                    if (eWfJob == null) {
+                        eWfJob = parseWorkflowXml(workflowInstance.getApp().getDefinition());
+                    }
+                    newAction.setSlaXml(getActionSLAXml(newAction.getName(), eWfJob));
+                    newActions.add(newAction);
+                    LOG.debug("SignalXCommand: Name: " + newAction.getName() + ", Id: " + newAction.getId()
+                            + ", Authcode:" + newAction.getCred());
                 }
             }
-        }
-
-        try {
-            jpaService.execute(new WorkflowJobUpdateJPAExecutor(wfJob));
+            if (newActions.size() == 1) {
+                jpaService.execute(new WorkflowActionInsertJPAExecutor(newActions.get(0)));
+            }
+            else if (newActions.size() > 1) {
+                jpaService.execute(new WorkflowActionsInsertJPAExecutor(newActions));
+            }
         }
         catch (JPAExecutorException je) {
             throw new CommandException(je);
         }
-        LOG.debug(
-                "Updated the workflow status to " + wfJob.getId() + "  status =" + wfJob.getStatusStr());
-        if (wfJob.getStatus() != WorkflowJob.Status.RUNNING && wfJob.getStatus() != WorkflowJob.Status.SUSPENDED) {
-            // update coordinator action
-            new CoordActionUpdateXCommand(wfJob).call();    //Note: Called even if wf is not necessarily instantiated by coordinator
-            new WfEndXCommand(wfJob).call(); //To delete the WF temp dir
+        if (newActions.size() == 1) {
+            queue(new ActionStartXCommand(newActions.get(0).getId(), newActions.get(0).getType()));
+        }
+        else if (newActions.size() > 1) {
+            queue(new ForkedActionStartXCommand(jobId, newActions));
+            fanOutCron.stop();
+            getInstrumentation().addCron(INSTRUMENTATION_GROUP, getName() + ".fork.fanout", fanOutCron);
+            getInstrumentation().incr(INSTRUMENTATION_GROUP, getName() + ".fork.actions", newActions.size());
         }
-        LOG.debug("ENDED SignalCommand for jobid=" + jobId + ", actionId=" + actionId);
-        return null;
     }
 
     public static ELEvaluator createELEvaluatorForGroup(Configuration conf, String group) {
@@ -319,11 +355,19 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
         return eval;
     }
 
+    private Element parseWorkflowXml(String wfXml) throws CommandException {
+        try {
+            return XmlUtils.parseXml(wfXml);
+        }
+        catch (Exception e) {
+            throw new CommandException(ErrorCode.E1004, e.getMessage(), e);
+        }
+    }
+
     @SuppressWarnings("unchecked")
-    private String getActionSLAXml(String actionName, String wfXml, String wfConf) throws CommandException {
+    private String getActionSLAXml(String actionName, Element eWfJob) throws CommandException {
         String slaXml = null;
         try {
-            Element eWfJob = XmlUtils.parseXml(wfXml);
             for (Element action : (List<Element>) eWfJob.getChildren("action", eWfJob.getNamespace())) {
                 if (action.getAttributeValue("name").equals(actionName) == false) {
                     continue;
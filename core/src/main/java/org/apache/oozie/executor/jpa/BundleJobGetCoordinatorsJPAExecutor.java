@@ -29,7 +29,7 @@ import org.apache.oozie.util.ParamChecker;
 /**
  * Load the coordinators for specified bundle in the Coordinator job bean
  */
-public class BundleJobGetCoordinatorsJPAExecutor implements JPAExecutor<List<CoordinatorJobBean>> {
+public class BundleJobGetCoordinatorsJPAExecutor implements ReadOnlyJPAExecutor<List<CoordinatorJobBean>> {
     private String bundleId = null;
 
     public BundleJobGetCoordinatorsJPAExecutor(String bundleId) {
@@ -41,7 +41,7 @@ import org.apache.openjpa.persistence.jdbc.ResultSetType;
 /**
  * Load the BundleInfo and return it.
  */
-public class BundleJobInfoGetJPAExecutor implements JPAExecutor<BundleJobInfo> {
+public class BundleJobInfoGetJPAExecutor implements ReadOnlyJPAExecutor<BundleJobInfo> {
 
     private Map<String, List<String>> filter;
     private int start = 1;
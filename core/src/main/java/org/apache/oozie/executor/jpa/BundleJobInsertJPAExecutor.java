@@ -20,6 +20,8 @@ package org.apache.oozie.executor.jpa;
 import javax.persistence.EntityManager;
 
 import org.apache.oozie.BundleJobBean;
+import org.apache.oozie.service.ChangeFeedService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -40,6 +42,10 @@ public class BundleJobInsertJPAExecutor implements JPAExecutor<String> {
     @Override
     public String execute(EntityManager em) throws JPAExecutorException {
         em.persist(this.bundleJob);
+        ChangeFeedService changeFeed = Services.get().get(ChangeFeedService.class);
+        if (changeFeed != null) {
+            changeFeed.stageStatus(bundleJob);
+        }
         return null;
     }
 
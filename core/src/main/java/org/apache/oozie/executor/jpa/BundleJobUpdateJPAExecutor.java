@@ -19,6 +19,8 @@ package org.apache.oozie.executor.jpa;
 
 import javax.persistence.EntityManager;
 import org.apache.oozie.BundleJobBean;
+import org.apache.oozie.service.ChangeFeedService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -52,6 +54,10 @@ public class BundleJobUpdateJPAExecutor implements JPAExecutor<Void> {
     @Override
     public Void execute(EntityManager em) throws JPAExecutorException {
         em.merge(bundleJob);
+        ChangeFeedService changeFeed = Services.get().get(ChangeFeedService.class);
+        if (changeFeed != null) {
+            changeFeed.stageStatus(bundleJob);
+        }
         return null;
     }
 
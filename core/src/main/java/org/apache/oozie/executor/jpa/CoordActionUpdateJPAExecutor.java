@@ -23,6 +23,8 @@ import javax.persistence.EntityManager;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.ChangeFeedService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -50,6 +52,10 @@ public class CoordActionUpdateJPAExecutor implements JPAExecutor<Void> {
         try {
             coordAction.setLastModifiedTime(new Date());
             em.merge(coordAction);
+            ChangeFeedService changeFeed = Services.get().get(ChangeFeedService.class);
+            if (changeFeed != null) {
+                changeFeed.stageStatus(coordAction);
+            }
             return null;
         }
         catch (Exception e) {
@@ -30,7 +30,7 @@ import org.apache.oozie.util.ParamChecker;
 /**
  * Load the list of CoordinatorAction subset for a CoordJob and return the list.
  */
-public class CoordActionsSubsetGetForJobJPAExecutor implements JPAExecutor<List<CoordinatorActionBean>> {
+public class CoordActionsSubsetGetForJobJPAExecutor implements ReadOnlyJPAExecutor<List<CoordinatorActionBean>> {
 
     private String coordJobId = null;
     private int start = 1;
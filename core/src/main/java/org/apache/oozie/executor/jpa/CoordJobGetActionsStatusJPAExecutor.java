@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load the id, action number, status, nominal time and external id of the coordinator actions of a coordinator job.
+ * <p/> Only those columns are queried, the action XML, configurations, missing dependencies and SLA XML are not read
+ * from the database, the returned beans have them set to <code>null</code> and they must not be used to update the
+ * actions. <p/> The pending counter is not loaded and is always 0, status transit aggregates the coordinator job
+ * status without waiting for pending actions.
+ */
+public class CoordJobGetActionsStatusJPAExecutor implements JPAExecutor<List<CoordinatorActionBean>> {
+
+    private String coordJobId = null;
+    private int start = -1;
+    private int len = -1;
+
+    public CoordJobGetActionsStatusJPAExecutor(String coordJobId) {
+        ParamChecker.notNull(coordJobId, "coordJobId");
+        this.coordJobId = coordJobId;
+    }
+
+    public CoordJobGetActionsStatusJPAExecutor(String coordJobId, int start, int len) {
+        this(coordJobId);
+        this.start = start;
+        this.len = len;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "CoordJobGetActionsStatusJPAExecutor";
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<CoordinatorActionBean> execute(EntityManager em) throws JPAExecutorException {
+        List<CoordinatorActionBean> actionList = new ArrayList<CoordinatorActionBean>();
+        try {
+            Query q = em.createNamedQuery("GET_ACTIONS_STATUS_FOR_COORD_JOB");
+            q.setParameter("jobId", coordJobId);
+            if (start > 0) {
+                q.setFirstResult(start - 1);
+            }
+            if (len > 0) {
+                q.setMaxResults(len);
+            }
+            List<Object[]> rows = q.getResultList();
+            for (Object[] arr : rows) {
+                actionList.add(getBeanForCoordActionFromArray(arr));
+            }
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e);
+        }
+        return actionList;
+    }
+
+    private CoordinatorActionBean getBeanForCoordActionFromArray(Object[] arr) {
+        CoordinatorActionBean action = new CoordinatorActionBean();
+        action.setId((String) arr[0]);
+        action.setJobId(coordJobId);
+        if (arr[1] != null) {
+            action.setActionNumber((Integer) arr[1]);
+        }
+        if (arr[2] != null) {
+            action.setStatus(CoordinatorAction.Status.valueOf((String) arr[2]));
+        }
+        if (arr[3] != null) {
+            action.setNominalTime((Timestamp) arr[3]);
+        }
+        if (arr[4] != null) {
+            action.setExternalId((String) arr[4]);
+        }
+        return action;
+    }
+
+}
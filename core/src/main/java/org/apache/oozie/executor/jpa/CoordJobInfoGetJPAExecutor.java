@@ -41,7 +41,7 @@ import org.apache.openjpa.persistence.jdbc.ResultSetType;
 /**
  * Load the CoordinatorInfo and return it.
  */
-public class CoordJobInfoGetJPAExecutor implements JPAExecutor<CoordinatorJobInfo> {
+public class CoordJobInfoGetJPAExecutor implements ReadOnlyJPAExecutor<CoordinatorJobInfo> {
 
     private Map<String, List<String>> filter;
     private int start = 1;
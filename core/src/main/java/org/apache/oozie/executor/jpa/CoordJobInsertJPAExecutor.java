@@ -20,6 +20,8 @@ package org.apache.oozie.executor.jpa;
 import javax.persistence.EntityManager;
 
 import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.service.ChangeFeedService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -48,6 +50,10 @@ public class CoordJobInsertJPAExecutor implements JPAExecutor<String> {
     @Override
     public String execute(EntityManager em) throws JPAExecutorException {
         em.persist(coordJob);
+        ChangeFeedService changeFeed = Services.get().get(ChangeFeedService.class);
+        if (changeFeed != null) {
+            changeFeed.stageStatus(coordJob);
+        }
         return null;
     }
 }
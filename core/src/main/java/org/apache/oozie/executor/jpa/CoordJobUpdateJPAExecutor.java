@@ -20,6 +20,8 @@ package org.apache.oozie.executor.jpa;
 import javax.persistence.EntityManager;
 import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.ChangeFeedService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -47,6 +49,10 @@ public class CoordJobUpdateJPAExecutor implements JPAExecutor<Void> {
     public Void execute(EntityManager em) throws JPAExecutorException {
         try {
             em.merge(coordJob);
+            ChangeFeedService changeFeed = Services.get().get(ChangeFeedService.class);
+            if (changeFeed != null) {
+                changeFeed.stageStatus(coordJob);
+            }
             return null;
         }
         catch (Exception e) {
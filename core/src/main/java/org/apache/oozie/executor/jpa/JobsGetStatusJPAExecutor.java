@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.client.rest.JsonJobStatusInfo;
+import org.apache.oozie.service.UUIDService.ApplicationType;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load the id, status, start time, end time, last modified time and external id of several workflow, coordinator and
+ * bundle jobs. <p/> The job type is taken from the job ID suffix, the jobs of each type are read with a single
+ * <code>IN</code> query on their IDs, split in batches of {@link #BATCH_SIZE} IDs to stay within the database limits
+ * for <code>IN</code> lists. <p/> The statuses are returned in the order of the given IDs, the IDs of jobs that do
+ * not exist, or that are not job IDs, are ignored.
+ */
+public class JobsGetStatusJPAExecutor implements ReadOnlyJPAExecutor<List<JsonJobStatusInfo>> {
+
+    /**
+     * Maximum number of IDs of a single <code>IN</code> query.
+     */
+    public static final int BATCH_SIZE = 1000;
+
+    private Collection<String> jobIds;
+
+    public JobsGetStatusJPAExecutor(Collection<String> jobIds) {
+        ParamChecker.notNull(jobIds, "jobIds");
+        this.jobIds = jobIds;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "JobsGetStatusJPAExecutor";
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    public List<JsonJobStatusInfo> execute(EntityManager em) throws JPAExecutorException {
+        List<String> wfIds = new ArrayList<String>();
+        List<String> coordIds = new ArrayList<String>();
+        List<String> bundleIds = new ArrayList<String>();
+        Set<String> ids = new LinkedHashSet<String>(jobIds);
+        for (String id : ids) {
+            if (id == null) {
+                continue;
+            }
+            if (id.endsWith("-" + ApplicationType.WORKFLOW.getType())) {
+                wfIds.add(id);
+            }
+            else if (id.endsWith("-" + ApplicationType.COORDINATOR.getType())) {
+                coordIds.add(id);
+            }
+            else if (id.endsWith("-" + ApplicationType.BUNDLE.getType())) {
+                bundleIds.add(id);
+            }
+        }
+        Map<String, JsonJobStatusInfo> statuses = new HashMap<String, JsonJobStatusInfo>();
+        try {
+            getStatuses(em, "GET_WORKFLOWS_STATUS_FOR_IDS", wfIds, statuses);
+            getStatuses(em, "GET_COORD_JOBS_STATUS_FOR_IDS", coordIds, statuses);
+            getStatuses(em, "GET_BUNDLE_JOBS_STATUS_FOR_IDS", bundleIds, statuses);
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e);
+        }
+        List<JsonJobStatusInfo> list = new ArrayList<JsonJobStatusInfo>(statuses.size());
+        for (String id : ids) {
+            JsonJobStatusInfo status = statuses.get(id);
+            if (status != null) {
+                list.add(status);
+            }
+        }
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void getStatuses(EntityManager em, String queryName, List<String> ids,
+                             Map<String, JsonJobStatusInfo> statuses) {
+        for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+            Query q = em.createNamedQuery(queryName);
+            q.setParameter("ids", new ArrayList<String>(ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()))));
+            List<Object[]> rows = q.getResultList();
+            for (Object[] arr : rows) {
+                JsonJobStatusInfo status = getBeanForJobStatusFromArray(arr);
+                statuses.put(status.getId(), status);
+            }
+        }
+    }
+
+    private JsonJobStatusInfo getBeanForJobStatusFromArray(Object[] arr) {
+        return new JsonJobStatusInfo((String) arr[0], (String) arr[1], (Date) arr[2], (Date) arr[3], (Date) arr[4],
+                                     (String) arr[5]);
+    }
+
+}
@@ -28,7 +28,7 @@ import org.apache.oozie.SLAEventBean;
 /**
  * Load the list of SLAEventBean for a seqId and return the list.
  */
-public class SLAEventsGetForSeqIdJPAExecutor implements JPAExecutor<List<SLAEventBean>> {
+public class SLAEventsGetForSeqIdJPAExecutor implements ReadOnlyJPAExecutor<List<SLAEventBean>> {
 
     private long seqId = 0;
     private int limitLen = 100; // Default
@@ -20,6 +20,8 @@ package org.apache.oozie.executor.jpa;
 import javax.persistence.EntityManager;
 
 import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.service.ChangeFeedService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.ErrorCode;
 
@@ -45,6 +47,10 @@ public class WorkflowActionUpdateJPAExecutor implements JPAExecutor<String> {
 
         try {
             em.merge(wfAction);
+            ChangeFeedService changeFeed = Services.get().get(ChangeFeedService.class);
+            if (changeFeed != null) {
+                changeFeed.stageStatus(wfAction);
+            }
             return null;
         }
         catch (Exception e) {
@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.service.ChangeFeedService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Persist a list of WorkflowAction beans in a single transaction.
+ */
+public class WorkflowActionsInsertJPAExecutor implements JPAExecutor<Void> {
+
+    private List<WorkflowActionBean> wfActions = null;
+
+    public WorkflowActionsInsertJPAExecutor(List<WorkflowActionBean> wfActions) {
+        ParamChecker.notNull(wfActions, "wfActions");
+        this.wfActions = wfActions;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "WorkflowActionsInsertJPAExecutor";
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    public Void execute(EntityManager em) throws JPAExecutorException {
+        try {
+            ChangeFeedService changeFeed = Services.get().get(ChangeFeedService.class);
+            for (WorkflowActionBean wfAction : wfActions) {
+                em.persist(wfAction);
+                if (changeFeed != null) {
+                    changeFeed.stageStatus(wfAction);
+                }
+            }
+            return null;
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e);
+        }
+    }
+}
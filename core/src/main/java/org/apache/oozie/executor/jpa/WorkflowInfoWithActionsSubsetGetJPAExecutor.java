@@ -32,7 +32,7 @@ import org.apache.oozie.util.ParamChecker;
 /**
  * This JPA Executor is responsible for getting the Workflow job with actions in certain range.
  */
-public class WorkflowInfoWithActionsSubsetGetJPAExecutor implements JPAExecutor<WorkflowJobBean> {
+public class WorkflowInfoWithActionsSubsetGetJPAExecutor implements ReadOnlyJPAExecutor<WorkflowJobBean> {
 
     private String wfJobId = null;
     private WorkflowJobBean workflow;
@@ -18,15 +18,22 @@
 package org.apache.oozie.executor.jpa;
 
 import java.util.Date;
+import java.util.Map;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
 
 import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.service.ChangeFeedService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.ErrorCode;
 
 /**
 * Persist the WorkflowJob bean.
+* <p/>
+* If the bean was loaded from the database only the fields modified since then are written, otherwise the whole bean
+* is merged.
 */
 public class WorkflowJobUpdateJPAExecutor implements JPAExecutor<Void> {
 
@@ -52,7 +59,14 @@ public class WorkflowJobUpdateJPAExecutor implements JPAExecutor<Void> {
     public Void execute(EntityManager em) throws JPAExecutorException {
         try {
             wfJob.setLastModifiedTime(new Date());
-            em.merge(wfJob);
+            if (!wfJob.isDirtyTracked() || (!wfJob.getDirtyFields().isEmpty() && updateDirtyFields(em) == 0)) {
+                em.merge(wfJob);
+            }
+            wfJob.resetDirtyFields();
+            ChangeFeedService changeFeed = Services.get().get(ChangeFeedService.class);
+            if (changeFeed != null) {
+                changeFeed.stageStatus(wfJob);
+            }
             return null;
         }
         catch (Exception e) {
@@ -60,4 +74,30 @@ public class WorkflowJobUpdateJPAExecutor implements JPAExecutor<Void> {
         }
     }
 
+    /**
+     * Update the modified fields of the bean with a single update statement.
+     *
+     * @param em entity manager.
+     * @return the number of rows updated, <code>0</code> if the job does not exist in the database.
+     */
+    private int updateDirtyFields(EntityManager em) {
+        Map<String, Object> dirtyFields = wfJob.getDirtyFields();
+        StringBuilder sb = new StringBuilder("update WorkflowJobBean w set ");
+        int index = 1;
+        for (String field : dirtyFields.keySet()) {
+            if (index > 1) {
+                sb.append(", ");
+            }
+            sb.append("w.").append(field).append(" = ?").append(index++);
+        }
+        sb.append(" where w.id = ?").append(index);
+        Query q = em.createQuery(sb.toString());
+        index = 1;
+        for (Object value : dirtyFields.values()) {
+            q.setParameter(index++, value);
+        }
+        q.setParameter(index, wfJob.getId());
+        return q.executeUpdate();
+    }
+
 }
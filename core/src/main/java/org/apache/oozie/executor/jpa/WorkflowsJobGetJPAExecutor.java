@@ -17,6 +17,7 @@
  */
 package org.apache.oozie.executor.jpa;
 
+import java.io.UnsupportedEncodingException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
@@ -36,15 +37,25 @@ import org.apache.openjpa.persistence.jdbc.JDBCFetchPlan;
 import org.apache.openjpa.persistence.jdbc.LRSSizeAlgorithm;
 import org.apache.openjpa.persistence.jdbc.ResultSetType;
 
-public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
+public class WorkflowsJobGetJPAExecutor implements ReadOnlyJPAExecutor<WorkflowsInfo> {
 
     private static final String seletStr = "Select w.id, w.appName, w.status, w.run, w.user, w.group, w.createdTimestamp, "
         + "w.startTimestamp, w.lastModifiedTimestamp, w.endTimestamp from WorkflowJobBean w";
     private static final String countStr = "Select count(w) from WorkflowJobBean w";
 
+    private static final String KEYSET_CONDITION = "(w.createdTimestamp < :cursorTime or "
+        + "(w.createdTimestamp = :cursorTime and w.id < :cursorId))";
+    private static final String KEYSET_ORDER = " order by w.createdTimestamp desc, w.id desc";
+    private static final String CREATED_CONDITION = "w.createdTimestamp is not null";
+    private static final String NULL_CREATED_CONDITION = "w.createdTimestamp is null";
+    private static final String NULL_CREATED_KEYSET_CONDITION = "w.id < :cursorId";
+    private static final String NULL_CREATED_ORDER = " order by w.id desc";
+
     private final Map<String, List<String>> filter;
     private final int start;
     private final int len;
+    private final String cursor;
+    private final boolean keyset;
 
     /**
      * This JPA Executor gets the workflows info for the range.
@@ -57,6 +68,27 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
         this.filter = filter;
         this.start = start;
         this.len = len;
+        this.cursor = null;
+        this.keyset = false;
+    }
+
+    /**
+     * This JPA Executor gets the page of workflows info following a cursor.
+     * <p/>
+     * Workflows are ordered by creation time and id, newest first, and the page is read seeking past the cursor
+     * position instead of skipping an offset, the total is not counted. Workflows without creation time follow all
+     * the others, ordered by id.
+     *
+     * @param filter
+     * @param cursor cursor returned with the previous page, <code>null</code> or empty for the first page.
+     * @param len
+     */
+    public WorkflowsJobGetJPAExecutor(Map<String, List<String>> filter, String cursor, int len) {
+        this.filter = filter;
+        this.start = -1;
+        this.len = len;
+        this.cursor = cursor;
+        this.keyset = true;
     }
 
     /* (non-Javadoc)
@@ -210,6 +242,10 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
             }
         }
 
+        if (keyset) {
+            return getPage(em, sb, colArray, valArray);
+        }
+
         int realLen = 0;
 
         Query q = null;
@@ -255,6 +291,115 @@ public class WorkflowsJobGetJPAExecutor implements JPAExecutor<WorkflowsInfo> {
         return new WorkflowsInfo(wfBeansList, start, len, realLen);
     }
 
+    private WorkflowsInfo getPage(EntityManager em, StringBuilder sb, List<String> colArray, List<String> valArray)
+            throws JPAExecutorException {
+        Object[] position = (cursor != null && cursor.length() > 0) ? decodeCursor(cursor) : null;
+        // one more row than requested tells if there is a next page without counting
+        List<Object[]> objectArrList = new ArrayList<Object[]>();
+        if (position == null || position[0] != null) {
+            String condition = CREATED_CONDITION;
+            if (position != null) {
+                condition += " and " + KEYSET_CONDITION;
+            }
+            objectArrList.addAll(getRows(em, sb, colArray, valArray, condition, KEYSET_ORDER, position, len + 1));
+        }
+        // null creation times sort first or last depending on the database, they are read in their own pass
+        if (objectArrList.size() <= len) {
+            String condition = NULL_CREATED_CONDITION;
+            if (position != null && position[0] == null) {
+                condition += " and " + NULL_CREATED_KEYSET_CONDITION;
+            }
+            objectArrList.addAll(getRows(em, sb, colArray, valArray, condition, NULL_CREATED_ORDER, position,
+                                         len + 1 - objectArrList.size()));
+        }
+        List<WorkflowJobBean> wfBeansList = new ArrayList<WorkflowJobBean>();
+        for (int i = 0; i < objectArrList.size() && i < len; i++) {
+            wfBeansList.add(getBeanForWorkflowFromArray(objectArrList.get(i)));
+        }
+        String nextCursor = null;
+        if (objectArrList.size() > len && len > 0) {
+            WorkflowJobBean last = wfBeansList.get(len - 1);
+            nextCursor = encodeCursor(last.getCreatedTimestamp(), last.getId());
+        }
+        return new WorkflowsInfo(wfBeansList, len, nextCursor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> getRows(EntityManager em, StringBuilder sb, List<String> colArray, List<String> valArray,
+                                   String condition, String order, Object[] position, int max) {
+        StringBuilder query = new StringBuilder((sb.length() > 0) ? sb.toString() : seletStr);
+        query.append((sb.length() > 0) ? " and " : " where ").append(condition).append(order);
+        Query q = em.createQuery(query.toString());
+        for (int i = 0; i < colArray.size(); i++) {
+            q.setParameter(colArray.get(i), valArray.get(i));
+        }
+        if (condition.contains(":cursorTime")) {
+            q.setParameter("cursorTime", position[0]);
+        }
+        if (condition.contains(":cursorId")) {
+            q.setParameter("cursorId", position[1]);
+        }
+        q.setMaxResults(max);
+        return (List<Object[]>) q.getResultList();
+    }
+
+    /**
+     * Encode a cursor for the position of a workflow in the creation time ordering.
+     *
+     * @param createdTime workflow creation time, <code>null</code> if the workflow has no creation time.
+     * @param id workflow id.
+     * @return the opaque cursor.
+     */
+    public static String encodeCursor(Timestamp createdTime, String id) {
+        try {
+            byte[] bytes = (((createdTime != null) ? Long.toString(createdTime.getTime()) : "") + ":" + id)
+                    .getBytes("UTF-8");
+            StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        }
+        catch (UnsupportedEncodingException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Decode a cursor created by {@link #encodeCursor(Timestamp, String)}.
+     *
+     * @param cursor opaque cursor.
+     * @return an array with the workflow creation time, as a {@link Timestamp} or <code>null</code>, and the workflow
+     * id.
+     * @throws IllegalArgumentException thrown if the cursor is invalid.
+     */
+    public static Object[] decodeCursor(String cursor) {
+        if (cursor.length() % 2 != 0) {
+            throw new IllegalArgumentException("Invalid cursor length");
+        }
+        byte[] bytes = new byte[cursor.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(cursor.charAt(2 * i), 16);
+            int low = Character.digit(cursor.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Invalid cursor character");
+            }
+            bytes[i] = (byte) ((high << 4) + low);
+        }
+        try {
+            String position = new String(bytes, "UTF-8");
+            int index = position.indexOf(':');
+            if (index < 0 || index == position.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor position");
+            }
+            Timestamp createdTime = (index > 0) ? new Timestamp(Long.parseLong(position.substring(0, index))) : null;
+            return new Object[]{createdTime, position.substring(index + 1)};
+        }
+        catch (UnsupportedEncodingException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     /* (non-Javadoc)
      * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
      */
@@ -0,0 +1,489 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import org.apache.oozie.BundleJobBean;
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.rest.JsonJobStatusEvent;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This service keeps the most recent job and action status transitions in an in-memory ring buffer, for clients to
+ * read them with a long-poll request instead of polling every job. <p/> Status transitions are staged by the JPA
+ * executors that insert and update jobs and actions, and they are published by the {@link JPAService} once the
+ * transaction commits. A status transition is published only if the status differs from the last one published for
+ * the same job or action, the last status of up to {@link #CONF_TRACKED} jobs and actions is kept. <p/> The {@link
+ * #CONF_SIZE} configuration property indicates how many status transitions are kept, once full the oldest transition
+ * is discarded. <p/> Clients keep their own cursor, the position of the last transition they read, so the service
+ * does not keep any per client state. <p/> At most {@link #CONF_MAX_WAITERS} requests wait for status transitions at
+ * the same time, further requests return right away with the status transitions available.
+ */
+public class ChangeFeedService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "changefeed";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "ChangeFeedService.";
+
+    public static final String CONF_SIZE = CONF_PREFIX + "buffer.size";
+
+    public static final String CONF_TRACKED = CONF_PREFIX + "tracked.size";
+
+    public static final String CONF_MAX_WAIT = CONF_PREFIX + "max.wait";
+
+    public static final String CONF_MAX_WAITERS = CONF_PREFIX + "max.waiters";
+
+    public static final String JOB_TYPE_WF = "wf";
+
+    public static final String JOB_TYPE_COORD = "coord";
+
+    public static final String JOB_TYPE_BUNDLE = "bundle";
+
+    private static final ThreadLocal<List<JsonJobStatusEvent>> STAGED = new ThreadLocal<List<JsonJobStatusEvent>>();
+
+    private JsonJobStatusEvent[] events;
+    private long lastSeq;
+    private String epoch;
+    private long maxWait;
+    private int maxWaiters;
+    private Map<String, String[]> tracked;
+    private AtomicInteger waiters = new AtomicInteger();
+    private Instrumentation instrumentation;
+
+    /**
+     * Initialize the change feed service.
+     *
+     * @param services services instance.
+     */
+    public void init(Services services) {
+        int size = services.getConf().getInt(CONF_SIZE, 10000);
+        final int trackedSize = services.getConf().getInt(CONF_TRACKED, 50000);
+        events = new JsonJobStatusEvent[Math.max(1, size)];
+        lastSeq = 0;
+        epoch = Long.toString(System.currentTimeMillis(), 36);
+        maxWait = services.getConf().getLong(CONF_MAX_WAIT, 60) * 1000;
+        maxWaiters = services.getConf().getInt(CONF_MAX_WAITERS, 100);
+        tracked = new LinkedHashMap<String, String[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+                return size() > trackedSize;
+            }
+        };
+    }
+
+    /**
+     * Destroy the change feed service, waking up all the waiting requests.
+     */
+    public synchronized void destroy() {
+        events = null;
+        tracked = null;
+        notifyAll();
+    }
+
+    /**
+     * Return the public interface for change feed service.
+     *
+     * @return {@link ChangeFeedService}.
+     */
+    public Class<? extends Service> getInterface() {
+        return ChangeFeedService.class;
+    }
+
+    /**
+     * Instrument the change feed service.
+     *
+     * @param instr instance to instrument the change feed service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        instr.addVariable(INSTRUMENTATION_GROUP, "events", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                synchronized (ChangeFeedService.this) {
+                    return lastSeq;
+                }
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "waiters", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) waiters.get();
+            }
+        });
+    }
+
+    /**
+     * Stage the status of a workflow job, it is published when the current transaction commits.
+     *
+     * @param job workflow job.
+     */
+    public void stageStatus(WorkflowJobBean job) {
+        stageJobStatus(job.getId(), job.getParentId(), JOB_TYPE_WF, job.getStatusStr(), job.getUser(),
+                       job.getAppName());
+    }
+
+    /**
+     * Stage the status of a coordinator job, it is published when the current transaction commits.
+     *
+     * @param job coordinator job.
+     */
+    public void stageStatus(CoordinatorJobBean job) {
+        stageJobStatus(job.getId(), job.getBundleId(), JOB_TYPE_COORD, job.getStatusStr(), job.getUser(),
+                       job.getAppName());
+    }
+
+    /**
+     * Stage the status of a bundle job, it is published when the current transaction commits.
+     *
+     * @param job bundle job.
+     */
+    public void stageStatus(BundleJobBean job) {
+        stageJobStatus(job.getId(), null, JOB_TYPE_BUNDLE, job.getStatusStr(), job.getUser(), job.getAppName());
+    }
+
+    /**
+     * Stage the status of a workflow action, it is published when the current transaction commits.
+     *
+     * @param action workflow action.
+     */
+    public void stageStatus(WorkflowActionBean action) {
+        stageActionStatus(action.getId(), action.getJobId(), JOB_TYPE_WF, action.getStatusStr());
+    }
+
+    /**
+     * Stage the status of a coordinator action, it is published when the current transaction commits.
+     *
+     * @param action coordinator action.
+     */
+    public void stageStatus(CoordinatorActionBean action) {
+        stageActionStatus(action.getId(), action.getJobId(), JOB_TYPE_COORD, action.getStatusStr());
+    }
+
+    private void stageJobStatus(String id, String parentId, String jobType, String status, String user,
+                                String appName) {
+        stage(new JsonJobStatusEvent(id, parentId, jobType, false, status, user, appName, new Date()));
+    }
+
+    /**
+     * The user and the application name of an action are the ones of its job, if the service knows them.
+     */
+    private void stageActionStatus(String id, String jobId, String jobType, String status) {
+        stage(new JsonJobStatusEvent(id, jobId, jobType, true, status, null, null, new Date()));
+    }
+
+    private void stage(JsonJobStatusEvent event) {
+        if (event.getId() == null || event.getStatus() == null) {
+            return;
+        }
+        List<JsonJobStatusEvent> staged = STAGED.get();
+        if (staged == null) {
+            staged = new ArrayList<JsonJobStatusEvent>();
+            STAGED.set(staged);
+        }
+        staged.add(event);
+    }
+
+    /**
+     * Publish the status transitions staged by the current thread.
+     */
+    public void publishStaged() {
+        List<JsonJobStatusEvent> staged = STAGED.get();
+        if (staged != null) {
+            STAGED.remove();
+            publish(staged);
+        }
+    }
+
+    /**
+     * Discard the status transitions staged by the current thread, if any.
+     */
+    public void discardStaged() {
+        STAGED.remove();
+    }
+
+    /**
+     * Publish status transitions, waking up the requests waiting for them.
+     * <p/>
+     * The statuses that did not change since the last one published for the same job or action are ignored.
+     *
+     * @param list status transitions to publish.
+     */
+    synchronized void publish(List<JsonJobStatusEvent> list) {
+        if (events == null) {
+            return;
+        }
+        boolean published = false;
+        for (JsonJobStatusEvent event : list) {
+            String[] last = tracked.get(event.getId());
+            if (last != null && last[0] != null && last[0].equals(event.getStatus())) {
+                continue;
+            }
+            if (event.isAction()) {
+                String[] job = tracked.get(event.getParentId());
+                if (job != null) {
+                    event = event.withJobInfo(job[1], job[2]);
+                }
+            }
+            tracked.put(event.getId(), new String[]{event.getStatus(), event.getUser(), event.getAppName()});
+            lastSeq++;
+            events[(int) ((lastSeq - 1) % events.length)] = event;
+            published = true;
+        }
+        if (published) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Return the status transitions that happened after a cursor, waiting for them if there are none yet.
+     *
+     * @param cursor cursor of the last status transition read, <code>null</code> or empty to start from the oldest
+     * status transition kept.
+     * @param filter filter for the status transitions.
+     * @param len maximum number of status transitions to return.
+     * @param timeout maximum time to wait for status transitions, in milliseconds, it is capped by {@link
+     * #CONF_MAX_WAIT}. If {@link #CONF_MAX_WAITERS} requests are already waiting the request does not wait.
+     * @return the status transitions.
+     * @throws ServiceException thrown if the cursor is invalid.
+     */
+    public Changes getChanges(String cursor, Filter filter, int len, long timeout) throws ServiceException {
+        long seq = parseCursor(cursor);
+        long wait = Math.max(0, Math.min(timeout, maxWait));
+        boolean waiter = false;
+        if (wait > 0) {
+            waiter = waiters.incrementAndGet() <= maxWaiters;
+            if (!waiter) {
+                waiters.decrementAndGet();
+                wait = 0;
+                incr("waiters.rejected");
+            }
+        }
+        long deadline = System.currentTimeMillis() + wait;
+        boolean lost = false;
+        List<JsonJobStatusEvent> list = new ArrayList<JsonJobStatusEvent>();
+        try {
+            synchronized (this) {
+                while (events != null) {
+                    long oldest = Math.max(1, lastSeq - events.length + 1);
+                    if (seq < 0) {
+                        seq = oldest - 1;
+                    }
+                    else if (seq > lastSeq) {
+                        lost = true;
+                        seq = oldest - 1;
+                    }
+                    else if (seq < oldest - 1) {
+                        lost = true;
+                        seq = oldest - 1;
+                    }
+                    while (seq < lastSeq && list.size() < len) {
+                        seq++;
+                        JsonJobStatusEvent event = events[(int) ((seq - 1) % events.length)];
+                        if (filter.matches(event)) {
+                            list.add(event);
+                        }
+                    }
+                    wait = deadline - System.currentTimeMillis();
+                    if (!list.isEmpty() || wait <= 0) {
+                        break;
+                    }
+                    try {
+                        wait(wait);
+                    }
+                    catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+        finally {
+            if (waiter) {
+                waiters.decrementAndGet();
+            }
+        }
+        return new Changes(list, epoch + "-" + Math.max(seq, 0), lost);
+    }
+
+    /**
+     * Parse a cursor, a cursor of a previous server run restarts from the oldest status transition kept.
+     *
+     * @param cursor cursor to parse.
+     * @return the sequence number of the cursor, <code>-1</code> to start from the oldest status transition kept,
+     * <code>Long.MAX_VALUE</code> if the cursor is of a previous server run.
+     * @throws ServiceException thrown if the cursor is invalid.
+     */
+    private long parseCursor(String cursor) throws ServiceException {
+        if (cursor == null || cursor.length() == 0) {
+            return -1;
+        }
+        int index = cursor.indexOf('-');
+        try {
+            if (index < 0) {
+                throw new NumberFormatException();
+            }
+            long seq = Long.parseLong(cursor.substring(index + 1));
+            if (seq < 0) {
+                throw new NumberFormatException();
+            }
+            return (cursor.substring(0, index).equals(epoch)) ? seq : Long.MAX_VALUE;
+        }
+        catch (NumberFormatException ex) {
+            throw new ServiceException(ErrorCode.E0421, cursor);
+        }
+    }
+
+    /**
+     * Create a filter for the status transitions.
+     * <p/>
+     * The filter syntax is the jobs filter one, <code>[NAME=VALUE][;NAME=VALUE]*</code>, the valid names are
+     * <code>user</code>, <code>name</code> (application name) and <code>status</code>. Values of the same name are ORed,
+     * different names are ANDed.
+     *
+     * @param filter filter, it may be <code>null</code>.
+     * @param jobTypes comma separated job types, <code>wf</code>, <code>coord</code> or <code>bundle</code>, it may be
+     * <code>null</code> for all the job types.
+     * @return the filter.
+     * @throws ServiceException thrown if the filter is invalid.
+     */
+    public static Filter parseFilter(String filter, String jobTypes) throws ServiceException {
+        Filter result = new Filter();
+        if (filter != null) {
+            for (String token : filter.split(";")) {
+                token = token.trim();
+                if (token.length() == 0) {
+                    continue;
+                }
+                int index = token.indexOf('=');
+                if (index < 1) {
+                    throw new ServiceException(ErrorCode.E0420, filter, "elements must be name=value pairs");
+                }
+                String name = token.substring(0, index).trim();
+                String value = token.substring(index + 1).trim();
+                if (name.equals("user")) {
+                    result.users.add(value);
+                }
+                else if (name.equals("name")) {
+                    result.appNames.add(value);
+                }
+                else if (name.equals("status")) {
+                    result.statuses.add(value);
+                }
+                else {
+                    throw new ServiceException(ErrorCode.E0420, filter, XLog.format("invalid name [{0}]", name));
+                }
+            }
+        }
+        if (jobTypes != null) {
+            for (String jobType : jobTypes.split(",")) {
+                jobType = jobType.trim();
+                if (!jobType.equals(JOB_TYPE_WF) && !jobType.equals(JOB_TYPE_COORD) &&
+                        !jobType.equals(JOB_TYPE_BUNDLE)) {
+                    throw new ServiceException(ErrorCode.E0420, jobTypes, XLog.format("invalid job type [{0}]",
+                                                                                      jobType));
+                }
+                result.jobTypes.add(jobType);
+            }
+        }
+        return result;
+    }
+
+    private void incr(String name) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
+    /**
+     * Filter for status transitions.
+     */
+    public static class Filter {
+        private Set<String> users = new HashSet<String>();
+        private Set<String> appNames = new HashSet<String>();
+        private Set<String> statuses = new HashSet<String>();
+        private Set<String> jobTypes = new HashSet<String>();
+
+        /**
+         * Return if a status transition matches the filter.
+         *
+         * @param event status transition.
+         * @return <code>true</code> if the status transition matches the filter.
+         */
+        public boolean matches(JsonJobStatusEvent event) {
+            return (users.isEmpty() || users.contains(event.getUser())) &&
+                    (appNames.isEmpty() || appNames.contains(event.getAppName())) &&
+                    (statuses.isEmpty() || statuses.contains(event.getStatus())) &&
+                    (jobTypes.isEmpty() || jobTypes.contains(event.getJobType()));
+        }
+    }
+
+    /**
+     * Status transitions read from the service.
+     */
+    public static class Changes {
+        private List<JsonJobStatusEvent> events;
+        private String nextCursor;
+        private boolean lost;
+
+        Changes(List<JsonJobStatusEvent> events, String nextCursor, boolean lost) {
+            this.events = Collections.unmodifiableList(events);
+            this.nextCursor = nextCursor;
+            this.lost = lost;
+        }
+
+        /**
+         * Return the status transitions, oldest first.
+         *
+         * @return the status transitions.
+         */
+        public List<JsonJobStatusEvent> getEvents() {
+            return events;
+        }
+
+        /**
+         * Return the cursor to read the status transitions that follow these ones.
+         *
+         * @return the next cursor.
+         */
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        /**
+         * Return if status transitions were discarded since the requested cursor.
+         *
+         * @return <code>true</code> if status transitions were discarded.
+         */
+        public boolean isLost() {
+            return lost;
+        }
+    }
+
+}
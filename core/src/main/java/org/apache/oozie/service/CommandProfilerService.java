@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import org.apache.oozie.command.XCommandProfile;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This service keeps the profiles of the most recent slow {@link org.apache.oozie.command.XCommand} executions. <p/>
+ * A command execution is slow if it takes at least {@link #CONF_THRESHOLD} milliseconds, not including the time it
+ * waited in the queue. <p/> The {@link #CONF_SIZE} configuration property indicates how many slow command profiles
+ * are kept, once full the oldest profile is discarded.
+ */
+public class CommandProfilerService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "commandprofiler";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "CommandProfilerService.";
+
+    public static final String CONF_SIZE = CONF_PREFIX + "slow.commands.size";
+
+    public static final String CONF_THRESHOLD = CONF_PREFIX + "slow.command.threshold";
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private XCommandProfile[] slowCommands;
+    private int next;
+    private long threshold;
+    private AtomicLong slowCount = new AtomicLong();
+
+    /**
+     * Initialize the command profiler service.
+     *
+     * @param services services instance.
+     */
+    public void init(Services services) {
+        int size = services.getConf().getInt(CONF_SIZE, 100);
+        slowCommands = new XCommandProfile[Math.max(1, size)];
+        next = 0;
+        threshold = services.getConf().getLong(CONF_THRESHOLD, 1000);
+    }
+
+    /**
+     * Destroy the command profiler service.
+     */
+    public void destroy() {
+        slowCommands = null;
+    }
+
+    /**
+     * Return the public interface for command profiler service.
+     *
+     * @return {@link CommandProfilerService}.
+     */
+    public Class<? extends Service> getInterface() {
+        return CommandProfilerService.class;
+    }
+
+    /**
+     * Instrument the command profiler service.
+     *
+     * @param instr instance to instrument the command profiler service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "slow.commands", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return slowCount.get();
+            }
+        });
+    }
+
+    /**
+     * Record the profile of a command execution, it is kept only if the command was slow.
+     *
+     * @param profile command profile.
+     */
+    public void record(XCommandProfile profile) {
+        if (profile.getTotal() >= threshold) {
+            slowCount.incrementAndGet();
+            log.debug("Slow command {0}", profile);
+            synchronized (this) {
+                if (slowCommands != null) {
+                    slowCommands[next] = profile;
+                    next = (next + 1) % slowCommands.length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the profiles of the slow commands kept, slowest first.
+     *
+     * @param len maximum number of profiles to return, <code>-1</code> for all of them.
+     * @return the profiles of the slow commands.
+     */
+    public List<XCommandProfile> getSlowCommands(int len) {
+        List<XCommandProfile> list = new ArrayList<XCommandProfile>();
+        synchronized (this) {
+            if (slowCommands != null) {
+                for (XCommandProfile profile : slowCommands) {
+                    if (profile != null) {
+                        list.add(profile);
+                    }
+                }
+            }
+        }
+        Collections.sort(list, new Comparator<XCommandProfile>() {
+            public int compare(XCommandProfile p1, XCommandProfile p2) {
+                long diff = p2.getTotal() - p1.getTotal();
+                return (diff > 0) ? 1 : (diff < 0) ? -1 : 0;
+            }
+        });
+        return (len > -1 && len < list.size()) ? list.subList(0, len) : list;
+    }
+
+    /**
+     * Discard all the slow command profiles kept.
+     */
+    public synchronized void clear() {
+        if (slowCommands != null) {
+            slowCommands = new XCommandProfile[slowCommands.length];
+            next = 0;
+        }
+    }
+
+}
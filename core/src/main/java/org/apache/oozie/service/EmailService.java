@@ -0,0 +1,472 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.Transport;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.command.wf.CompletedActionXCommand;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The EmailService delivers the messages of email actions asynchronously, off the command threads. <p/> Messages are
+ * queued in a bounded queue, {@link #CONF_QUEUE_SIZE} entries, and delivered by {@link #CONF_THREADS} delivery
+ * threads, if set to <code>0</code>, the default, the service is disabled and email actions send their messages
+ * synchronously.
+ * <p/> A delivery thread takes up to {@link #CONF_BATCH_SIZE} queued messages at once and sends the messages for the
+ * same SMTP server over a single SMTP connection. Connections are kept open and reused by the delivery thread until
+ * they have been idle for {@link #CONF_IDLE_TIMEOUT} seconds. <p/> If the queue is full the message is not accepted
+ * and the email action sends it synchronously, slowing down the submitter. <p/> The completion of a delivery is
+ * notified like a launcher job callback. A delivery not sent yet can be cancelled, when its action is killed.
+ * Deliveries are kept in memory, a delivery pending when the server stops is lost and its action errors when checked.
+ */
+public class EmailService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "email";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "EmailService.";
+
+    public static final String CONF_THREADS = CONF_PREFIX + "threads";
+
+    public static final String CONF_QUEUE_SIZE = CONF_PREFIX + "queue.size";
+
+    public static final String CONF_BATCH_SIZE = CONF_PREFIX + "batch.size";
+
+    public static final String CONF_IDLE_TIMEOUT = CONF_PREFIX + "connection.idle.timeout";
+
+    /**
+     * Prefix of the external IDs of the email actions delivered asynchronously.
+     */
+    public static final String EXTERNAL_ID_PREFIX = "email_";
+
+    /**
+     * Tracker URI of the email actions delivered asynchronously.
+     */
+    public static final String TRACKER_URI = "smtp";
+
+    private static final int HIGH_PRIORITY = 2;
+
+    // completed deliveries not released by their action are discarded after this time
+    private static final long COMPLETED_TTL = 60 * 60 * 1000;
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private BlockingQueue<Delivery> queue;
+    private List<Thread> threads;
+    private int batchSize;
+    private long idleTimeout;
+    private volatile boolean active;
+    private Map<String, Delivery> deliveries = new ConcurrentHashMap<String, Delivery>();
+    private Instrumentation instrumentation;
+
+    /**
+     * Delivery of the message of an email action.
+     */
+    public static class Delivery {
+        private String actionId;
+        private String externalId;
+        private Session session;
+        private Message message;
+        private boolean sending;
+        private boolean cancelled;
+        private volatile boolean done;
+        private volatile String error;
+        private volatile long endTime;
+
+        private Delivery(String actionId, Session session, Message message) {
+            this.actionId = actionId;
+            this.externalId = EXTERNAL_ID_PREFIX + actionId;
+            this.session = session;
+            this.message = message;
+        }
+
+        private synchronized boolean startSending() {
+            sending = !cancelled;
+            return sending;
+        }
+
+        private synchronized boolean cancel() {
+            cancelled = !sending;
+            return cancelled;
+        }
+
+        private void complete(String error) {
+            this.error = error;
+            endTime = System.currentTimeMillis();
+            session = null;
+            message = null;
+            done = true;
+        }
+
+        public String getExternalId() {
+            return externalId;
+        }
+
+        /**
+         * Return if the delivery has completed.
+         *
+         * @return <code>true</code> if the message has been sent or could not be sent.
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Return the delivery error.
+         *
+         * @return the reason the message could not be sent, <code>null</code> if it was sent or it is pending.
+         */
+        public String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Open SMTP connection kept by a delivery thread.
+     */
+    private static class Connection {
+        private Transport transport;
+        private long lastUsed;
+    }
+
+    /**
+     * Delivery thread, it sends the queued messages in batches reusing its SMTP connections.
+     */
+    private class Deliverer implements Runnable {
+        private Map<String, Connection> connections = new HashMap<String, Connection>();
+
+        public void run() {
+            try {
+                while (active) {
+                    Delivery first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first != null) {
+                        List<Delivery> batch = new ArrayList<Delivery>(batchSize);
+                        batch.add(first);
+                        queue.drainTo(batch, batchSize - 1);
+                        deliver(batch);
+                    }
+                    closeIdle(System.currentTimeMillis());
+                }
+            }
+            catch (InterruptedException ex) {
+                // service destroyed
+            }
+            finally {
+                closeIdle(Long.MAX_VALUE);
+            }
+        }
+
+        private void deliver(List<Delivery> batch) {
+            Map<String, List<Delivery>> byServer = new LinkedHashMap<String, List<Delivery>>();
+            for (Delivery delivery : batch) {
+                String server = getServerKey(delivery.session);
+                List<Delivery> list = byServer.get(server);
+                if (list == null) {
+                    list = new ArrayList<Delivery>();
+                    byServer.put(server, list);
+                }
+                list.add(delivery);
+            }
+            for (Map.Entry<String, List<Delivery>> entry : byServer.entrySet()) {
+                Instrumentation.Cron cron = new Instrumentation.Cron();
+                cron.start();
+                for (Delivery delivery : entry.getValue()) {
+                    if (!delivery.startSending()) {
+                        log.debug("Email delivery [{0}] cancelled", delivery.getExternalId());
+                        continue;
+                    }
+                    String error = null;
+                    try {
+                        send(entry.getKey(), delivery);
+                        incr("messages.sent");
+                    }
+                    catch (MessagingException ex) {
+                        error = "Encountered an error while sending the email message over SMTP, " + ex.getMessage();
+                        incr("messages.failed");
+                        log.warn("Email delivery [{0}] failed, {1}", delivery.getExternalId(), ex.getMessage(), ex);
+                    }
+                    delivery.complete(error);
+                    notifyCompletion(delivery);
+                }
+                cron.stop();
+                addCron("batch", cron);
+            }
+        }
+
+        private void send(String server, Delivery delivery) throws MessagingException {
+            delivery.message.saveChanges();
+            Connection connection = connections.get(server);
+            if (connection != null && connection.transport.isConnected()) {
+                try {
+                    connection.transport.sendMessage(delivery.message, delivery.message.getAllRecipients());
+                    connection.lastUsed = System.currentTimeMillis();
+                    return;
+                }
+                catch (SendFailedException ex) {
+                    throw ex;
+                }
+                catch (MessagingException ex) {
+                    // the server may have dropped the idle connection, retry once over a new one
+                    log.debug("Pooled SMTP connection to [{0}] failed, reconnecting, {1}", server, ex.getMessage());
+                }
+            }
+            close(connections.remove(server));
+            connection = new Connection();
+            connection.transport = delivery.session.getTransport("smtp");
+            connection.transport.connect();
+            incr("connections");
+            connections.put(server, connection);
+            connection.transport.sendMessage(delivery.message, delivery.message.getAllRecipients());
+            connection.lastUsed = System.currentTimeMillis();
+        }
+
+        private void closeIdle(long now) {
+            Iterator<Connection> it = connections.values().iterator();
+            while (it.hasNext()) {
+                Connection connection = it.next();
+                if (now - connection.lastUsed >= idleTimeout || !connection.transport.isConnected()) {
+                    it.remove();
+                    close(connection);
+                }
+            }
+        }
+
+        private void close(Connection connection) {
+            if (connection != null) {
+                try {
+                    connection.transport.close();
+                }
+                catch (MessagingException ex) {
+                    log.debug("Error closing SMTP connection, {0}", ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Initialize the email service, starting the delivery threads.
+     *
+     * @param services services instance.
+     */
+    public void init(Services services) {
+        Configuration conf = services.getConf();
+        int threadCount = conf.getInt(CONF_THREADS, 0);
+        batchSize = Math.max(1, conf.getInt(CONF_BATCH_SIZE, 20));
+        idleTimeout = conf.getLong(CONF_IDLE_TIMEOUT, 60) * 1000;
+        threads = new ArrayList<Thread>();
+        if (threadCount > 0) {
+            queue = new ArrayBlockingQueue<Delivery>(Math.max(1, conf.getInt(CONF_QUEUE_SIZE, 1000)));
+            active = true;
+            for (int i = 0; i < threadCount; i++) {
+                Thread thread = new Thread(new Deliverer(), "EmailService-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+            Runnable reaper = new Runnable() {
+                public void run() {
+                    reap(System.currentTimeMillis());
+                }
+            };
+            services.get(SchedulerService.class).schedule(reaper, 60, 60, SchedulerService.Unit.SEC);
+            log.info("Delivering email asynchronously, [{0}] threads, batch size [{1}]", threadCount, batchSize);
+        }
+    }
+
+    /**
+     * Destroy the email service, stopping the delivery threads.
+     */
+    public void destroy() {
+        active = false;
+        if (threads != null) {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            threads = null;
+        }
+        deliveries.clear();
+    }
+
+    /**
+     * Return the public interface for email service.
+     *
+     * @return {@link EmailService}.
+     */
+    public Class<? extends Service> getInterface() {
+        return EmailService.class;
+    }
+
+    /**
+     * Instrument the email service.
+     *
+     * @param instr instance to instrument the email service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        instr.addVariable(INSTRUMENTATION_GROUP, "queue.size", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (queue != null) ? (long) queue.size() : 0L;
+            }
+        });
+    }
+
+    /**
+     * Return if messages are delivered asynchronously.
+     *
+     * @return <code>true</code> if messages are delivered asynchronously.
+     */
+    public boolean isEnabled() {
+        return active;
+    }
+
+    /**
+     * Return if an external ID is of an email action delivered asynchronously.
+     *
+     * @param externalId external ID.
+     * @return <code>true</code> if the external ID is of an email action delivered asynchronously.
+     */
+    public static boolean isEmailId(String externalId) {
+        return externalId != null && externalId.startsWith(EXTERNAL_ID_PREFIX);
+    }
+
+    /**
+     * Queue the message of an email action for delivery.
+     *
+     * @param actionId action ID.
+     * @param session mail session of the message, it indicates the SMTP server to send the message to.
+     * @param message message to send.
+     * @return the external ID of the delivery, <code>null</code> if the service is disabled or the queue is full.
+     */
+    public String submit(String actionId, Session session, Message message) {
+        if (!active) {
+            return null;
+        }
+        Delivery delivery = new Delivery(actionId, session, message);
+        deliveries.put(delivery.getExternalId(), delivery);
+        if (!queue.offer(delivery)) {
+            deliveries.remove(delivery.getExternalId());
+            incr("messages.rejected");
+            log.debug("Email queue full, action [{0}] sends its message synchronously", actionId);
+            return null;
+        }
+        incr("messages.queued");
+        return delivery.getExternalId();
+    }
+
+    /**
+     * Return a delivery.
+     *
+     * @param externalId external ID of the delivery.
+     * @return the delivery, <code>null</code> if unknown.
+     */
+    public Delivery getDelivery(String externalId) {
+        return deliveries.get(externalId);
+    }
+
+    /**
+     * Release a delivery once its action has ended.
+     *
+     * @param externalId external ID of the delivery.
+     */
+    public void release(String externalId) {
+        deliveries.remove(externalId);
+    }
+
+    /**
+     * Cancel a delivery if its message has not been sent yet, releasing it.
+     *
+     * @param externalId external ID of the delivery.
+     * @return <code>true</code> if the delivery was cancelled, <code>false</code> if it is unknown or its message is
+     *         being sent or has been sent.
+     */
+    public boolean cancel(String externalId) {
+        Delivery delivery = deliveries.remove(externalId);
+        if (delivery != null && delivery.cancel()) {
+            queue.remove(delivery);
+            incr("messages.cancelled");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Discard the completed deliveries not released.
+     *
+     * @param now current time.
+     */
+    void reap(long now) {
+        Iterator<Delivery> it = deliveries.values().iterator();
+        while (it.hasNext()) {
+            Delivery delivery = it.next();
+            if (delivery.isDone() && now - delivery.endTime > COMPLETED_TTL) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Return the key of the SMTP server and account a session sends to, messages with the same key share connections.
+     *
+     * @param session mail session.
+     * @return the server key.
+     */
+    static String getServerKey(Session session) {
+        return session.getProperty("mail.smtp.user") + "@" + session.getProperty("mail.smtp.host") + ":"
+               + session.getProperty("mail.smtp.port");
+    }
+
+    private void notifyCompletion(Delivery delivery) {
+        String externalStatus = (delivery.getError() == null) ? "OK" : "ERROR";
+        Services services = Services.get();
+        CallableQueueService queueService = (services != null) ? services.get(CallableQueueService.class) : null;
+        if (queueService == null || !queueService.queue(new CompletedActionXCommand(delivery.actionId, externalStatus,
+                                                                                     null, HIGH_PRIORITY))) {
+            log.warn("Could not queue the completion of [{0}], it will be seen by the action checker",
+                     delivery.getExternalId());
+        }
+    }
+
+    private void incr(String name) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
+    private void addCron(String name, Instrumentation.Cron cron) {
+        if (instrumentation != null) {
+            instrumentation.addCron(INSTRUMENTATION_GROUP, name, cron);
+        }
+    }
+
+}
@@ -25,6 +25,8 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.filecache.DistributedCache;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XLog;
@@ -33,6 +35,11 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
 
@@ -41,16 +48,91 @@ import java.util.HashSet;
  * default accessor used is the base accessor which just injects the UGI into the configuration instance used to
  * create/obtain JobClient and ileSystem instances. <p/> The HadoopAccess class to use can be configured in the
  * <code>oozie-site.xml</code> using the <code>oozie.service.HadoopAccessorService.accessor.class</code> property.
+ * <p/> JobClient and FileSystem handles are cached per user, group and JobTracker/NameNode, up to {@link
+ * #CONF_CACHE_SIZE} handles of each kind. A cached JobClient is reference counted, closing it releases it, and it is
+ * closed once it has not been used for {@link #CONF_CACHE_IDLE_TIMEOUT} seconds.
  */
-public class HadoopAccessorService implements Service {
+public class HadoopAccessorService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "hadoopaccessor";
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "HadoopAccessorService.";
     public static final String JOB_TRACKER_WHITELIST = CONF_PREFIX + "jobTracker.whitelist";
     public static final String NAME_NODE_WHITELIST = CONF_PREFIX + "nameNode.whitelist";
+    public static final String CONF_CACHE_SIZE = CONF_PREFIX + "cache.size";
+    public static final String CONF_CACHE_IDLE_TIMEOUT = CONF_PREFIX + "cache.idle.timeout";
 
     private Set<String> jobTrackerWhitelist = new HashSet<String>();
     private Set<String> nameNodeWhitelist = new HashSet<String>();
 
+    private int cacheSize;
+    private long idleTimeout;
+    private final Map<String, CachedJobClient> jobClients = new LinkedHashMap<String, CachedJobClient>(16, 0.75f,
+                                                                                                      true);
+    private final Map<String, CachedFileSystem> fileSystems = new LinkedHashMap<String, CachedFileSystem>(16, 0.75f,
+                                                                                                         true);
+    private Instrumentation instrumentation;
+
+    /**
+     * JobClient handle shared by the callers of {@link HadoopAccessorService#createJobClient(String, String, JobConf)}
+     * for the same user, group and JobTracker. <p/> Closing it releases it, it is really closed when evicted from the
+     * cache while not in use.
+     */
+    protected static class CachedJobClient extends JobClient {
+        private String key;
+        private int references;
+        private long lastUsed;
+
+        public CachedJobClient(JobConf conf) throws IOException {
+            super(conf);
+        }
+
+        /**
+         * Release the handle, if the handle is not cached it is closed.
+         *
+         * @throws IOException thrown if the handle could not be closed.
+         */
+        @Override
+        public void close() throws IOException {
+            boolean release;
+            synchronized (this) {
+                release = key != null;
+                if (release) {
+                    references = Math.max(0, references - 1);
+                    lastUsed = System.currentTimeMillis();
+                }
+            }
+            if (!release) {
+                super.close();
+            }
+        }
+
+        private synchronized void acquire() {
+            references++;
+            lastUsed = System.currentTimeMillis();
+        }
+
+        private synchronized boolean isIdle(long now, long timeout) {
+            return references == 0 && now - lastUsed >= timeout;
+        }
+
+        private void closeClient() throws IOException {
+            synchronized (this) {
+                key = null;
+            }
+            super.close();
+        }
+    }
+
+    private static class CachedFileSystem {
+        private final FileSystem fs;
+        private long lastUsed;
+
+        private CachedFileSystem(FileSystem fs) {
+            this.fs = fs;
+            lastUsed = System.currentTimeMillis();
+        }
+    }
+
     public void init(Services services) throws ServiceException {
         for (String name : services.getConf().getStringCollection(JOB_TRACKER_WHITELIST)) {
             String tmp = name.toLowerCase().trim();
@@ -72,6 +154,18 @@ public class HadoopAccessorService implements Service {
         XLog.getLog(getClass()).info(
                 "NAME_NODE_WHITELIST :" + services.getConf().getStringCollection(NAME_NODE_WHITELIST)
                         + ", Total entries :" + nameNodeWhitelist.size());
+        cacheSize = services.getConf().getInt(CONF_CACHE_SIZE, 500);
+        idleTimeout = services.getConf().getLong(CONF_CACHE_IDLE_TIMEOUT, 600) * 1000;
+        SchedulerService scheduler = services.get(SchedulerService.class);
+        if (scheduler != null && cacheSize > 0) {
+            Runnable evictor = new Runnable() {
+                public void run() {
+                    evictIdle(System.currentTimeMillis());
+                }
+            };
+            int interval = (int) Math.max(1, Math.min(60, idleTimeout / 1000));
+            scheduler.schedule(evictor, interval, interval, SchedulerService.Unit.SEC);
+        }
         init(services.getConf());
     }
 
@@ -79,6 +173,17 @@ public class HadoopAccessorService implements Service {
     }
 
     public void destroy() {
+        List<CachedJobClient> clients;
+        synchronized (jobClients) {
+            clients = new ArrayList<CachedJobClient>(jobClients.values());
+            jobClients.clear();
+        }
+        for (CachedJobClient client : clients) {
+            closeJobClient(client);
+        }
+        synchronized (fileSystems) {
+            fileSystems.clear();
+        }
     }
 
     public Class<? extends Service> getInterface() {
@@ -86,7 +191,31 @@ public class HadoopAccessorService implements Service {
     }
 
     /**
-     * Return a JobClient created with the provided user/group.
+     * Instrument the hadoop accessor service.
+     *
+     * @param instr instance to instrument the hadoop accessor service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        instr.addVariable(INSTRUMENTATION_GROUP, "jobclient.cached", new Instrumentation.Variable<Integer>() {
+            public Integer getValue() {
+                synchronized (jobClients) {
+                    return jobClients.size();
+                }
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "filesystem.cached", new Instrumentation.Variable<Integer>() {
+            public Integer getValue() {
+                synchronized (fileSystems) {
+                    return fileSystems.size();
+                }
+            }
+        });
+    }
+
+    /**
+     * Return a JobClient created with the provided user/group. <p/> The JobClient may be shared with other callers,
+     * callers must close it once done, closing it releases it.
      * 
      * @param conf JobConf with all necessary information to create the
      *        JobClient.
@@ -94,16 +223,91 @@ public class HadoopAccessorService implements Service {
      * @throws HadoopAccessorException if the client could not be created.
      */
     public JobClient createJobClient(String user, String group, JobConf conf) throws HadoopAccessorException {
-        validateJobTracker(conf.get("mapred.job.tracker"));
+        ParamChecker.notEmpty(user, "user");
+        ParamChecker.notEmpty(group, "group");
+        String jobTracker = conf.get("mapred.job.tracker");
+        validateJobTracker(jobTracker);
+        String key = user + "," + group + "@" + jobTracker;
+        CachedJobClient client = null;
+        if (cacheSize > 0) {
+            synchronized (jobClients) {
+                client = jobClients.get(key);
+                if (client != null) {
+                    client.acquire();
+                }
+            }
+        }
+        if (client != null) {
+            incrCounter("jobclient.hits");
+        }
+        else {
+            client = newJobClient(user, group, conf);
+            incrCounter("jobclient.created");
+            if (cacheSize > 0) {
+                CachedJobClient discard = null;
+                synchronized (jobClients) {
+                    CachedJobClient existing = jobClients.get(key);
+                    if (existing != null) {
+                        // another caller created it concurrently, use the cached one
+                        discard = client;
+                        client = existing;
+                    }
+                    else if (jobClients.size() < cacheSize || evictOne(jobClients)) {
+                        client.key = key;
+                        jobClients.put(key, client);
+                    }
+                    client.acquire();
+                }
+                if (discard != null) {
+                    closeJobClient(discard);
+                }
+            }
+        }
+        try {
+            prepareJobClient(client, conf);
+        }
+        catch (HadoopAccessorException ex) {
+            try {
+                client.close();
+            }
+            catch (IOException ioEx) {
+                XLog.getLog(getClass()).warn("Could not close JobClient, {0}", ioEx.getMessage(), ioEx);
+            }
+            throw ex;
+        }
+        return client;
+    }
+
+    /**
+     * Create a new JobClient for the provided user/group.
+     *
+     * @param user user.
+     * @param group group.
+     * @param conf JobConf with all necessary information to create the JobClient.
+     * @return a new JobClient.
+     * @throws HadoopAccessorException if the client could not be created.
+     */
+    protected CachedJobClient newJobClient(String user, String group, JobConf conf) throws HadoopAccessorException {
         conf = createConfiguration(user, group, conf);
         try {
-            return new JobClient(conf);
+            return new CachedJobClient(conf);
         }
         catch (IOException e) {
             throw new HadoopAccessorException(ErrorCode.E0902, e);
         }
     }
 
+    /**
+     * Prepare a new or cached JobClient for a caller, invoked on every {@link #createJobClient(String, String,
+     * JobConf)} call.
+     *
+     * @param jobClient JobClient returned to the caller.
+     * @param conf JobConf of the caller.
+     * @throws HadoopAccessorException if the client could not be prepared.
+     */
+    protected void prepareJobClient(JobClient jobClient, JobConf conf) throws HadoopAccessorException {
+    }
+
     /**
      * Return a FileSystem created with the provided user/group.
      * 
@@ -114,12 +318,7 @@ public class HadoopAccessorService implements Service {
      */
     public FileSystem createFileSystem(String user, String group, Configuration conf) throws HadoopAccessorException {
         try {
-            validateNameNode(new URI(conf.get("fs.default.name")).getAuthority());
-            conf = createConfiguration(user, group, conf);
-            return FileSystem.get(conf);
-        }
-        catch (IOException e) {
-            throw new HadoopAccessorException(ErrorCode.E0902, e);
+            return createFileSystem(user, group, new URI(conf.get("fs.default.name")), conf);
         }
         catch (URISyntaxException e) {
             throw new HadoopAccessorException(ErrorCode.E0902, e);
@@ -128,7 +327,7 @@ public class HadoopAccessorService implements Service {
 
     /**
      * Return a FileSystem created with the provided user/group for the
-     * specified URI.
+     * specified URI. <p/> The FileSystem may be shared with other callers, callers must not close it.
      * 
      * @param uri file system URI.
      * @param conf Configuration with all necessary information to create the
@@ -138,7 +337,44 @@ public class HadoopAccessorService implements Service {
      */
     public FileSystem createFileSystem(String user, String group, URI uri, Configuration conf)
             throws HadoopAccessorException {
+        ParamChecker.notEmpty(user, "user");
+        ParamChecker.notEmpty(group, "group");
         validateNameNode(uri.getAuthority());
+        String key = user + "," + group + "@" + uri.getScheme() + "://" + uri.getAuthority();
+        if (cacheSize > 0) {
+            synchronized (fileSystems) {
+                CachedFileSystem cached = fileSystems.get(key);
+                if (cached != null) {
+                    cached.lastUsed = System.currentTimeMillis();
+                    incrCounter("filesystem.hits");
+                    return cached.fs;
+                }
+            }
+        }
+        FileSystem fs = newFileSystem(user, group, uri, conf);
+        incrCounter("filesystem.created");
+        if (cacheSize > 0) {
+            synchronized (fileSystems) {
+                if (fileSystems.size() < cacheSize || evictOne(fileSystems)) {
+                    fileSystems.put(key, new CachedFileSystem(fs));
+                }
+            }
+        }
+        return fs;
+    }
+
+    /**
+     * Create a FileSystem for the provided user/group and URI.
+     *
+     * @param user user.
+     * @param group group.
+     * @param uri file system URI.
+     * @param conf Configuration with all necessary information to create the FileSystem.
+     * @return the FileSystem.
+     * @throws HadoopAccessorException if the filesystem could not be created.
+     */
+    protected FileSystem newFileSystem(String user, String group, URI uri, Configuration conf)
+            throws HadoopAccessorException {
         conf = createConfiguration(user, group, conf);
         try {
             return FileSystem.get(uri, conf);
@@ -148,6 +384,76 @@ public class HadoopAccessorService implements Service {
         }
     }
 
+    /**
+     * Evict the least recently used cache entry that is not in use, the cache lock must be held.
+     *
+     * @param cache cache to evict from.
+     * @return <code>true</code> if an entry was evicted.
+     */
+    private boolean evictOne(Map<String, ?> cache) {
+        for (Iterator<?> it = cache.values().iterator(); it.hasNext();) {
+            Object entry = it.next();
+            if (entry instanceof CachedJobClient) {
+                CachedJobClient client = (CachedJobClient) entry;
+                if (client.isIdle(Long.MAX_VALUE, 0)) {
+                    it.remove();
+                    closeJobClient(client);
+                    return true;
+                }
+            }
+            else {
+                it.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evict the cached handles that have been idle for longer than the idle timeout.
+     *
+     * @param now current time in milliseconds.
+     */
+    void evictIdle(long now) {
+        List<CachedJobClient> idle = new ArrayList<CachedJobClient>();
+        synchronized (jobClients) {
+            for (Iterator<CachedJobClient> it = jobClients.values().iterator(); it.hasNext();) {
+                CachedJobClient client = it.next();
+                if (client.isIdle(now, idleTimeout)) {
+                    it.remove();
+                    idle.add(client);
+                }
+            }
+        }
+        for (CachedJobClient client : idle) {
+            closeJobClient(client);
+        }
+        synchronized (fileSystems) {
+            // FileSystem instances are also cached by Hadoop, they are dropped from this cache but not closed
+            for (Iterator<CachedFileSystem> it = fileSystems.values().iterator(); it.hasNext();) {
+                if (now - it.next().lastUsed >= idleTimeout) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private void closeJobClient(CachedJobClient client) {
+        try {
+            client.closeClient();
+            incrCounter("jobclient.closed");
+        }
+        catch (IOException ex) {
+            XLog.getLog(getClass()).warn("Could not close JobClient, {0}", ex.getMessage(), ex);
+        }
+    }
+
+    private void incrCounter(String name) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
     /**
      * Validate Job tracker
      * @param jobTrackerUri
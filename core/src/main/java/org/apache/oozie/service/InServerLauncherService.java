@@ -0,0 +1,455 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.action.hadoop.InServerMain;
+import org.apache.oozie.command.wf.CompletedActionXCommand;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.PropertiesUtils;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The InServerLauncherService runs the main classes of lightweight actions in a bounded thread pool inside the Oozie
+ * server, saving the launcher job and its latency. <p/> Only the {@link InServerMain} classes listed in the {@link
+ * #CONF_MAIN_CLASSES} configuration property run in the server, if none is listed the service is disabled. <p/> An
+ * execution produces the same output data and error properties a launcher job does, its completion is notified like
+ * a launcher job callback. Executions taking longer than {@link #CONF_TIMEOUT} seconds are interrupted and fail. <p/>
+ * If the pool queue is full the action runs in a launcher job. <p/> Executions are kept in memory, an execution
+ * running when the server stops is lost and its action fails when checked.
+ */
+public class InServerLauncherService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "inserverlauncher";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "InServerLauncherService.";
+
+    public static final String CONF_MAIN_CLASSES = CONF_PREFIX + "main.classes";
+
+    public static final String CONF_THREADS = CONF_PREFIX + "threads";
+
+    public static final String CONF_QUEUE_SIZE = CONF_PREFIX + "queue.size";
+
+    public static final String CONF_TIMEOUT = CONF_PREFIX + "timeout";
+
+    /**
+     * Prefix of the external IDs of the actions running in the server.
+     */
+    public static final String EXTERNAL_ID_PREFIX = "local_";
+
+    /**
+     * Tracker URI of the actions running in the server.
+     */
+    public static final String TRACKER_URI = "local";
+
+    private static final int HIGH_PRIORITY = 2;
+
+    // completed executions not released by their action are discarded after this time
+    private static final long COMPLETED_TTL = 60 * 60 * 1000;
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private Map<String, Class<? extends InServerMain>> mainClasses;
+    private ThreadPoolExecutor executor;
+    private long timeout;
+    private Map<String, Execution> executions = new ConcurrentHashMap<String, Execution>();
+    private Instrumentation instrumentation;
+
+    /**
+     * Execution of an action main class in the server.
+     */
+    public static class Execution implements LauncherExecution, Runnable {
+        private String actionId;
+        private String externalId;
+        private InServerMain main;
+        private Configuration actionConf;
+        private FileSystem fs;
+        private String[] args;
+        private int maxOutputLen;
+        private InServerLauncherService service;
+        private volatile Future<?> future;
+        private volatile long startTime;
+        private volatile long endTime;
+        private volatile boolean done;
+        private volatile boolean killed;
+        private Properties output;
+        private Properties error;
+
+        private Execution(InServerLauncherService service, String actionId, InServerMain main,
+                          Configuration actionConf, FileSystem fs, String[] args, int maxOutputLen) {
+            this.service = service;
+            this.actionId = actionId;
+            this.externalId = EXTERNAL_ID_PREFIX + actionId;
+            this.main = main;
+            this.actionConf = actionConf;
+            this.fs = fs;
+            this.args = args;
+            this.maxOutputLen = maxOutputLen;
+        }
+
+        /**
+         * Run the action main class, recording its output data or its error.
+         */
+        public void run() {
+            startTime = System.currentTimeMillis();
+            Instrumentation.Cron cron = new Instrumentation.Cron();
+            cron.start();
+            Properties output = null;
+            Properties error = null;
+            String mainClass = main.getClass().getName();
+            try {
+                output = main.run(actionConf, fs, args);
+                if (output != null) {
+                    int len = PropertiesUtils.propertiesToString(output).length();
+                    if (len > maxOutputLen) {
+                        error = createError(XLog.format("Output data size [{0}] exceeds maximum [{1}]", len,
+                                                        maxOutputLen), null);
+                        output = null;
+                    }
+                }
+            }
+            catch (Throwable ex) {
+                error = createError("Main class [" + mainClass + "], exception invoking run()", ex);
+            }
+            finally {
+                cron.stop();
+            }
+            synchronized (this) {
+                if (done) {
+                    // killed or timed out while running
+                    return;
+                }
+                this.output = output;
+                this.error = error;
+                complete();
+            }
+            service.addCron("execution", cron);
+            service.incr((error == null) ? "executions.succeeded" : "executions.failed");
+            service.log.debug("In-server execution [{0}] of [{1}] completed, {2}", externalId, mainClass,
+                              (error == null) ? "succeeded" : error.getProperty("error.reason"));
+            // a completion notified before the start of the action has been committed is retried by the command
+            String externalStatus = (error == null) ? "SUCCEEDED" : "FAILED/KILLED";
+            CallableQueueService queueService = Services.get().get(CallableQueueService.class);
+            if (queueService == null || !queueService.queue(new CompletedActionXCommand(actionId, externalStatus,
+                                                                                         null, HIGH_PRIORITY))) {
+                service.log.warn("Could not queue the completion of [{0}], it will be seen by the action checker",
+                                 externalId);
+            }
+        }
+
+        private void complete() {
+            done = true;
+            endTime = System.currentTimeMillis();
+            actionConf = null;
+            fs = null;
+            args = null;
+        }
+
+        /**
+         * Interrupt the execution if it is still running.
+         *
+         * @param reason error reason, <code>null</code> if the execution is killed.
+         * @return <code>true</code> if the execution was interrupted, <code>false</code> if it had completed.
+         */
+        synchronized boolean interrupt(String reason) {
+            if (done) {
+                return false;
+            }
+            if (reason != null) {
+                error = createError(reason, null);
+            }
+            else {
+                killed = true;
+            }
+            complete();
+            if (future != null) {
+                future.cancel(true);
+            }
+            return true;
+        }
+
+        private static Properties createError(String reason, Throwable ex) {
+            Properties errorProps = new Properties();
+            errorProps.setProperty("error.code", "0");
+            if (ex != null) {
+                reason += ", " + ex.getMessage();
+                if (ex.getMessage() != null) {
+                    errorProps.setProperty("exception.message", ex.getMessage());
+                }
+                StringWriter sw = new StringWriter();
+                PrintWriter pw = new PrintWriter(sw);
+                ex.printStackTrace(pw);
+                pw.close();
+                errorProps.setProperty("exception.stacktrace", sw.toString());
+            }
+            errorProps.setProperty("error.reason", reason);
+            return errorProps;
+        }
+
+        public String getExternalId() {
+            return externalId;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public boolean isKilled() {
+            return killed;
+        }
+
+        public synchronized Properties getOutput() {
+            return output;
+        }
+
+        public synchronized Properties getError() {
+            return error;
+        }
+
+        /**
+         * Return <code>null</code>, there is no ID swap for executions in the server.
+         *
+         * @return <code>null</code>.
+         */
+        public String getNewId() {
+            return null;
+        }
+    }
+
+    /**
+     * Initialize the in-server launcher service.
+     *
+     * @param services services instance.
+     * @throws ServiceException thrown if a main class could not be loaded or is not an {@link InServerMain}.
+     */
+    public void init(Services services) throws ServiceException {
+        Configuration conf = services.getConf();
+        mainClasses = new HashMap<String, Class<? extends InServerMain>>();
+        String[] classNames = conf.getStrings(CONF_MAIN_CLASSES);
+        if (classNames != null) {
+            for (String className : classNames) {
+                className = className.trim();
+                if (className.length() == 0) {
+                    continue;
+                }
+                try {
+                    Class<?> klass = Class.forName(className, true, getClass().getClassLoader());
+                    if (!InServerMain.class.isAssignableFrom(klass)) {
+                        throw new ServiceException(ErrorCode.E0100, getClass().getName(), XLog.format(
+                                "main class [{0}] does not implement [{1}]", className, InServerMain.class.getName()));
+                    }
+                    mainClasses.put(className, klass.asSubclass(InServerMain.class));
+                }
+                catch (ClassNotFoundException ex) {
+                    throw new ServiceException(ErrorCode.E0100, getClass().getName(), ex.getMessage(), ex);
+                }
+            }
+        }
+        timeout = conf.getLong(CONF_TIMEOUT, 300) * 1000;
+        if (!mainClasses.isEmpty()) {
+            int threads = Math.max(1, conf.getInt(CONF_THREADS, 5));
+            int queueSize = Math.max(1, conf.getInt(CONF_QUEUE_SIZE, 50));
+            executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                                              new ArrayBlockingQueue<Runnable>(queueSize));
+            Runnable reaper = new Runnable() {
+                public void run() {
+                    reap(System.currentTimeMillis());
+                }
+            };
+            services.get(SchedulerService.class).schedule(reaper, 60, 60, SchedulerService.Unit.SEC);
+            log.info("Running main classes {0} in the server, [{1}] threads", mainClasses.keySet(), threads);
+        }
+    }
+
+    /**
+     * Destroy the in-server launcher service, interrupting the running executions.
+     */
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        executions.clear();
+    }
+
+    /**
+     * Return the public interface for in-server launcher service.
+     *
+     * @return {@link InServerLauncherService}.
+     */
+    public Class<? extends Service> getInterface() {
+        return InServerLauncherService.class;
+    }
+
+    /**
+     * Instrument the in-server launcher service.
+     *
+     * @param instr instance to instrument the in-server launcher service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        instr.addVariable(INSTRUMENTATION_GROUP, "executions", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) executions.size();
+            }
+        });
+    }
+
+    /**
+     * Return if a main class runs in the server.
+     *
+     * @param mainClass main class name.
+     * @return <code>true</code> if the main class runs in the server.
+     */
+    public boolean isInServer(String mainClass) {
+        return executor != null && mainClass != null && mainClasses.containsKey(mainClass);
+    }
+
+    /**
+     * Return if an external ID is of an action running in the server.
+     *
+     * @param externalId external ID.
+     * @return <code>true</code> if the external ID is of an action running in the server.
+     */
+    public static boolean isInServerId(String externalId) {
+        return externalId != null && externalId.startsWith(EXTERNAL_ID_PREFIX);
+    }
+
+    /**
+     * Submit an action main class for execution in the server.
+     *
+     * @param actionId action ID.
+     * @param mainClass main class name, it must run in the server.
+     * @param actionConf action configuration.
+     * @param fs filesystem for the user of the workflow job.
+     * @param args action arguments.
+     * @param maxOutputLen maximum length of the output data.
+     * @return the external ID of the execution, <code>null</code> if the pool queue is full.
+     * @throws ServiceException thrown if the main class could not be instantiated.
+     */
+    public String submit(String actionId, String mainClass, Configuration actionConf, FileSystem fs, String[] args,
+                         int maxOutputLen) throws ServiceException {
+        if (!isInServer(mainClass)) {
+            throw new IllegalArgumentException(XLog.format("main class [{0}] does not run in the server", mainClass));
+        }
+        InServerMain main;
+        try {
+            main = mainClasses.get(mainClass).newInstance();
+        }
+        catch (Exception ex) {
+            throw new ServiceException(ErrorCode.E0100, getClass().getName(), ex.getMessage(), ex);
+        }
+        Execution execution = new Execution(this, actionId, main, actionConf, fs, args, maxOutputLen);
+        executions.put(execution.getExternalId(), execution);
+        try {
+            execution.future = executor.submit(execution);
+        }
+        catch (RejectedExecutionException ex) {
+            executions.remove(execution.getExternalId());
+            incr("executions.rejected");
+            log.debug("In-server pool full, action [{0}] runs in a launcher job", actionId);
+            return null;
+        }
+        incr("executions");
+        return execution.getExternalId();
+    }
+
+    /**
+     * Return an execution.
+     *
+     * @param externalId external ID of the execution.
+     * @return the execution, <code>null</code> if unknown.
+     */
+    public Execution getExecution(String externalId) {
+        return executions.get(externalId);
+    }
+
+    /**
+     * Kill an execution.
+     *
+     * @param externalId external ID of the execution.
+     */
+    public void kill(String externalId) {
+        Execution execution = executions.remove(externalId);
+        if (execution != null && execution.interrupt(null)) {
+            incr("executions.killed");
+        }
+    }
+
+    /**
+     * Release an execution once its action has ended.
+     *
+     * @param externalId external ID of the execution.
+     */
+    public void release(String externalId) {
+        executions.remove(externalId);
+    }
+
+    /**
+     * Fail the executions running longer than the timeout and discard the completed executions not released.
+     *
+     * @param now current time.
+     */
+    void reap(long now) {
+        Iterator<Execution> it = executions.values().iterator();
+        while (it.hasNext()) {
+            Execution execution = it.next();
+            if (execution.isDone()) {
+                if (now - execution.endTime > COMPLETED_TTL) {
+                    it.remove();
+                }
+            }
+            else if (timeout > 0 && execution.startTime > 0 && now - execution.startTime > timeout) {
+                if (execution.interrupt(XLog.format("Execution timed out after [{0}] seconds", timeout / 1000))) {
+                    incr("executions.timedout");
+                    log.warn("In-server execution [{0}] timed out", execution.getExternalId());
+                    Services.get().get(CallableQueueService.class).queue(new CompletedActionXCommand(
+                            execution.actionId, "FAILED/KILLED", null, HIGH_PRIORITY));
+                }
+            }
+        }
+    }
+
+    private void incr(String name) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
+    private void addCron(String name, Instrumentation.Cron cron) {
+        if (instrumentation != null) {
+            instrumentation.addCron(INSTRUMENTATION_GROUP, name, cron);
+        }
+    }
+
+}
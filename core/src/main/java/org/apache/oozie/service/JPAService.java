@@ -18,8 +18,10 @@
 package org.apache.oozie.service;
 
 import java.io.IOException;
+import java.sql.Timestamp;
 import java.text.MessageFormat;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -41,8 +43,10 @@ import org.apache.oozie.client.rest.JsonCoordinatorJob;
 import org.apache.oozie.client.rest.JsonSLAEvent;
 import org.apache.oozie.client.rest.JsonWorkflowAction;
 import org.apache.oozie.client.rest.JsonWorkflowJob;
+import org.apache.oozie.command.XCommandProfile;
 import org.apache.oozie.executor.jpa.JPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.executor.jpa.ReadOnlyJPAExecutor;
 import org.apache.oozie.util.IOUtils;
 import org.apache.oozie.util.Instrumentable;
 import org.apache.oozie.util.Instrumentation;
@@ -51,6 +55,18 @@ import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
 
 /**
  * Service that manages JPA and executes {@link JPAExecutor}.
+ * <p/>
+ * If the {@link #CONF_REPLICA_URL} configuration property is set, a second persistence unit is created for a read
+ * replica of the database and {@link ReadOnlyJPAExecutor} instances are executed against it. The replica driver,
+ * credentials and pool size default to the ones of the primary database.
+ * <p/>
+ * If {@link #CONF_REPLICA_MAX_STALENESS} is greater than zero, the replica lag is checked every {@link
+ * #CONF_REPLICA_STALENESS_CHECK_INTERVAL} seconds comparing the most recent workflow job modification time in both
+ * databases, while the lag exceeds the maximum staleness read-only executors are executed against the primary
+ * database.
+ * <p/>
+ * If {@link #CONF_QUERY_INSTRUMENTATION} is <code>true</code>, the calls, execution times, rows and 99th percentile
+ * execution time of the named queries run by the executors are instrumented per named query.
  */
 public class JPAService implements Service, Instrumentable {
     private static final String INSTRUMENTATION_GROUP = "jpa";
@@ -70,8 +86,29 @@ public class JPAService implements Service, Instrumentable {
     public static final String CONF_VALIDATE_DB_CONN_EVICTION_INTERVAL = CONF_PREFIX + "validate.db.connection.eviction.interval";
     public static final String CONF_VALIDATE_DB_CONN_EVICTION_NUM = CONF_PREFIX + "validate.db.connection.eviction.num";
 
+    public static final String CONF_REPLICA_URL = CONF_PREFIX + "replica.jdbc.url";
+    public static final String CONF_REPLICA_DRIVER = CONF_PREFIX + "replica.jdbc.driver";
+    public static final String CONF_REPLICA_USERNAME = CONF_PREFIX + "replica.jdbc.username";
+    public static final String CONF_REPLICA_PASSWORD = CONF_PREFIX + "replica.jdbc.password";
+    public static final String CONF_REPLICA_MAX_ACTIVE_CONN = CONF_PREFIX + "replica.pool.max.active.conn";
+    public static final String CONF_REPLICA_CREATE_DB_SCHEMA = CONF_PREFIX + "replica.create.db.schema";
+    public static final String CONF_REPLICA_MAX_STALENESS = CONF_PREFIX + "replica.max.staleness";
+    public static final String CONF_REPLICA_STALENESS_CHECK_INTERVAL = CONF_PREFIX + "replica.staleness.check.interval";
+
+    public static final String CONF_QUERY_INSTRUMENTATION = CONF_PREFIX + "query.instrumentation";
+    public static final String CONF_QUERY_INSTRUMENTATION_SAMPLES = CONF_PREFIX + "query.instrumentation.samples";
+
+    private static final String LAST_MODIFIED_QUERY = "select max(w.lastModifiedTimestamp) from WorkflowJobBean w";
 
     private EntityManagerFactory factory;
+    private EntityManagerFactory replicaFactory;
+    private long replicaMaxStaleness;
+    private volatile boolean replicaUsable;
+    private volatile long replicaLag;
+    private AtomicLong replicaReads = new AtomicLong();
+    private boolean queryInstrumentation;
+    private int queryInstrumentationSamples;
+    private NamedQueryInstrumentation queryInstr;
     private Instrumentation instr;
 
     private static XLog LOG;
@@ -88,6 +125,26 @@ public class JPAService implements Service, Instrumentable {
     @Override
     public void instrument(Instrumentation instr) {
         this.instr = instr;
+        if (queryInstrumentation) {
+            queryInstr = new NamedQueryInstrumentation(instr, queryInstrumentationSamples);
+        }
+        if (replicaFactory != null) {
+            instr.addVariable(INSTRUMENTATION_GROUP, "replica.lag", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return replicaLag;
+                }
+            });
+            instr.addVariable(INSTRUMENTATION_GROUP, "replica.usable", new Instrumentation.Variable<Boolean>() {
+                public Boolean getValue() {
+                    return replicaUsable;
+                }
+            });
+            instr.addVariable(INSTRUMENTATION_GROUP, "replica.reads", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return replicaReads.get();
+                }
+            });
+        }
     }
 
     /**
@@ -109,7 +166,59 @@ public class JPAService implements Service, Instrumentable {
         boolean validateDbConn = conf.getBoolean(CONF_VALIDATE_DB_CONN, false);
         String evictionInterval = conf.get(CONF_VALIDATE_DB_CONN_EVICTION_INTERVAL, "300000").trim();
         String evictionNum = conf.get(CONF_VALIDATE_DB_CONN_EVICTION_NUM, "10").trim();
+        queryInstrumentation = conf.getBoolean(CONF_QUERY_INSTRUMENTATION, true);
+        queryInstrumentationSamples = conf.getInt(CONF_QUERY_INSTRUMENTATION_SAMPLES, 1000);
+
+        factory = createEntityManagerFactory(url, driver, user, password, maxConn, dataSource, dbSchema,
+                                             autoSchemaCreation, validateDbConn, evictionInterval, evictionNum);
+        initEntityManagerFactory(factory);
+
+        String replicaUrl = conf.get(CONF_REPLICA_URL, "").trim();
+        if (replicaUrl.length() > 0) {
+            String replicaDriver = conf.get(CONF_REPLICA_DRIVER, driver);
+            String replicaUser = conf.get(CONF_REPLICA_USERNAME, user);
+            String replicaPassword = conf.get(CONF_REPLICA_PASSWORD, password).trim();
+            String replicaMaxConn = conf.get(CONF_REPLICA_MAX_ACTIVE_CONN, maxConn).trim();
+            boolean replicaSchemaCreation = conf.getBoolean(CONF_REPLICA_CREATE_DB_SCHEMA, false);
+            try {
+                replicaFactory = createEntityManagerFactory(replicaUrl, replicaDriver, replicaUser, replicaPassword,
+                                                            replicaMaxConn, dataSource, dbSchema,
+                                                            replicaSchemaCreation, validateDbConn, evictionInterval,
+                                                            evictionNum);
+                initEntityManagerFactory(replicaFactory);
+            }
+            catch (ServiceException ex) {
+                destroy();
+                throw ex;
+            }
+            catch (RuntimeException ex) {
+                destroy();
+                throw ex;
+            }
+            replicaMaxStaleness = conf.getLong(CONF_REPLICA_MAX_STALENESS, 30) * 1000;
+            replicaUsable = replicaMaxStaleness <= 0;
+            if (replicaMaxStaleness > 0) {
+                checkReplicaLag();
+                int interval = conf.getInt(CONF_REPLICA_STALENESS_CHECK_INTERVAL, 10);
+                SchedulerService scheduler = services.get(SchedulerService.class);
+                if (scheduler != null && interval > 0) {
+                    Runnable checker = new Runnable() {
+                        public void run() {
+                            checkReplicaLag();
+                        }
+                    };
+                    scheduler.schedule(checker, interval, interval, SchedulerService.Unit.SEC);
+                }
+            }
+            LOG.info("Read replica [{0}] enabled, max staleness [{1}] ms", replicaUrl, replicaMaxStaleness);
+        }
+    }
 
+    private EntityManagerFactory createEntityManagerFactory(String url, String driver, String user, String password,
+                                                            String maxConn, String dataSource, String dbSchema,
+                                                            boolean autoSchemaCreation, boolean validateDbConn,
+                                                            String evictionInterval, String evictionNum)
+            throws ServiceException {
         if (!url.startsWith("jdbc:")) {
             throw new ServiceException(ErrorCode.E0608, url, "invalid JDBC URL, must start with 'jdbc:'");
         }
@@ -153,9 +262,11 @@ public class JPAService implements Service, Instrumentable {
 
         props.setProperty("openjpa.ConnectionDriverName", dataSource);
 
-        factory = Persistence.createEntityManagerFactory(persistentUnit, props);
+        return Persistence.createEntityManagerFactory(persistentUnit, props);
+    }
 
-        EntityManager entityManager = getEntityManager();
+    private void initEntityManagerFactory(EntityManagerFactory factory) {
+        EntityManager entityManager = factory.createEntityManager();
         entityManager.find(WorkflowActionBean.class, 1);
         entityManager.find(WorkflowJobBean.class, 1);
         entityManager.find(CoordinatorActionBean.class, 1);
@@ -184,21 +295,108 @@ public class JPAService implements Service, Instrumentable {
      * Destroy the JPAService
      */
     public void destroy() {
+        if (replicaFactory != null && replicaFactory.isOpen()) {
+            replicaFactory.close();
+        }
+        replicaFactory = null;
         if (factory != null && factory.isOpen()) {
             factory.close();
         }
     }
 
+    /**
+     * Check the read replica lag, marking the replica as not usable while the lag exceeds the maximum staleness.
+     * <p/>
+     * The lag is the difference between the most recent workflow job modification time in the primary database and
+     * in the replica, a replica that cannot be queried is not usable.
+     *
+     * @return the replica lag in milliseconds, <code>-1</code> if the replica could not be queried.
+     */
+    long checkReplicaLag() {
+        EntityManagerFactory replica = replicaFactory;
+        if (replica == null) {
+            return -1;
+        }
+        long lag;
+        try {
+            Timestamp primaryTime = getLastModifiedTime(factory);
+            Timestamp replicaTime = getLastModifiedTime(replica);
+            if (primaryTime == null) {
+                lag = 0;
+            }
+            else if (replicaTime == null) {
+                lag = Long.MAX_VALUE;
+            }
+            else {
+                lag = Math.max(0, primaryTime.getTime() - replicaTime.getTime());
+            }
+        }
+        catch (RuntimeException ex) {
+            LOG.warn("Could not check read replica lag, {0}", ex.getMessage(), ex);
+            lag = -1;
+        }
+        replicaLag = lag;
+        boolean usable = lag >= 0 && (replicaMaxStaleness <= 0 || lag <= replicaMaxStaleness);
+        if (usable != replicaUsable) {
+            LOG.info("Read replica {0}, lag [{1}] ms", (usable) ? "in use" : "not in use", lag);
+        }
+        replicaUsable = usable;
+        return lag;
+    }
+
+    private Timestamp getLastModifiedTime(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return (Timestamp) em.createQuery(LAST_MODIFIED_QUERY).getSingleResult();
+        }
+        finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Return the 99th percentile of the execution time of the most recent calls of a named query.
+     *
+     * @param name named query name.
+     * @return the 99th percentile in milliseconds, <code>-1</code> if the named query has not been executed or the
+     * named query instrumentation is disabled.
+     */
+    public long getNamedQueryP99(String name) {
+        return (queryInstr != null) ? queryInstr.getP99(name) : -1;
+    }
+
+    /**
+     * Return if read-only executors are currently executed against the read replica.
+     *
+     * @return <code>true</code> if a read replica is configured and its lag is within the maximum staleness.
+     */
+    public boolean isReplicaInUse() {
+        return replicaFactory != null && replicaUsable;
+    }
+
     /**
      * Execute a {@link JPAExecutor}.
+     * <p/>
+     * A {@link ReadOnlyJPAExecutor} is executed against the read replica if one is configured and in use.
      *
      * @param executor JPAExecutor to execute.
      * @return return value of the JPAExecutor.
      * @throws JPAExecutorException thrown if an jpa executor failed
      */
     public <T> T execute(JPAExecutor<T> executor) throws JPAExecutorException {
-        EntityManager em = getEntityManager();
+        EntityManager em;
+        if (executor instanceof ReadOnlyJPAExecutor && isReplicaInUse()) {
+            em = replicaFactory.createEntityManager();
+            replicaReads.incrementAndGet();
+        }
+        else {
+            em = getEntityManager();
+        }
+        if (queryInstr != null) {
+            em = queryInstr.wrap(em);
+        }
         Instrumentation.Cron cron = new Instrumentation.Cron();
+        ChangeFeedService changeFeed = Services.get().get(ChangeFeedService.class);
         try {
             LOG.trace("Executing JPAExecutor [{0}]", executor.getName());
             if (instr != null) {
@@ -214,13 +412,24 @@ public class JPAService implements Service, Instrumentable {
 
                 em.getTransaction().commit();
             }
+            if (changeFeed != null) {
+                changeFeed.publishStaged();
+            }
             return t;
         }
         finally {
+            if (changeFeed != null) {
+                changeFeed.discardStaged();
+            }
             cron.stop();
             if (instr != null) {
                 instr.addCron(INSTRUMENTATION_GROUP, executor.getName(), cron);
             }
+            XCommandProfile profile = XCommandProfile.getCurrent();
+            if (profile != null) {
+                profile.addPhase(isWrite(executor) ? XCommandProfile.PHASE_DB_WRITE : XCommandProfile.PHASE_DB_READ,
+                                 cron.getOwn());
+            }
             try {
                 if (em.getTransaction().isActive()) {
                     LOG.warn("JPAExecutor [{0}] ended with an active transaction, rolling back", executor.getName());
@@ -246,6 +455,18 @@ public class JPAService implements Service, Instrumentable {
         }
     }
 
+    /**
+     * Return if a {@link JPAExecutor} writes to the database, based on the executor naming convention.
+     *
+     * @param executor JPAExecutor.
+     * @return <code>true</code> if the executor inserts, updates or deletes entities.
+     */
+    private boolean isWrite(JPAExecutor<?> executor) {
+        String name = executor.getName();
+        return name.contains("Insert") || name.contains("Update") || name.contains("Delete")
+                || name.contains("Remove");
+    }
+
     /**
      * Return an EntityManager. Used by the StoreService. Once the StoreService is removed this method must be removed.
      *
@@ -38,7 +38,6 @@ import org.apache.oozie.service.ServiceException;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.security.PrivilegedExceptionAction;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentHashMap;
@@ -115,26 +114,23 @@ public class KerberosHadoopAccessorService extends HadoopAccessorService {
     }
 
     /**
-     * Return a JobClient created with the provided user/group.
+     * Create a new JobClient for the provided user/group, as a proxy user of the Oozie Kerberos user.
      *
+     * @param user user.
+     * @param group group.
      * @param conf JobConf with all necessary information to create the JobClient.
-     * @return JobClient created with the provided user/group.
+     * @return a new JobClient.
      * @throws HadoopAccessorException if the client could not be created.
      */
-    public JobClient createJobClient(String user, String group, final JobConf conf) throws HadoopAccessorException {
-        ParamChecker.notEmpty(user, "user");
-        ParamChecker.notEmpty(group, "group");
-        validateJobTracker(conf.get("mapred.job.tracker"));
+    protected CachedJobClient newJobClient(String user, String group, final JobConf conf)
+            throws HadoopAccessorException {
         try {
             UserGroupInformation ugi = getUGI(user);
-            JobClient jobClient = ugi.doAs(new PrivilegedExceptionAction<JobClient>() {
-                public JobClient run() throws Exception {
-                    return new JobClient(conf);
+            return ugi.doAs(new PrivilegedExceptionAction<CachedJobClient>() {
+                public CachedJobClient run() throws Exception {
+                    return new CachedJobClient(conf);
                 }
             });
-            Token<DelegationTokenIdentifier> mrdt = jobClient.getDelegationToken(new Text("mr token"));
-            conf.getCredentials().addToken(new Text("mr token"), mrdt);
-            return jobClient;
         }
         catch (InterruptedException ex) {
             throw new HadoopAccessorException(ErrorCode.E0902, ex);
@@ -145,26 +141,16 @@ public class KerberosHadoopAccessorService extends HadoopAccessorService {
     }
 
     /**
-     * Return a FileSystem created with the provided user/group.
+     * Add a JobTracker delegation token to the credentials of the caller JobConf.
      *
-     * @param conf Configuration with all necessary information to create the FileSystem.
-     * @return FileSystem created with the provided user/group.
-     * @throws HadoopAccessorException if the filesystem could not be created.
+     * @param jobClient JobClient returned to the caller.
+     * @param conf JobConf of the caller.
+     * @throws HadoopAccessorException if the delegation token could not be obtained.
      */
-    public FileSystem createFileSystem(String user, String group, final Configuration conf)
-            throws HadoopAccessorException {
-        ParamChecker.notEmpty(user, "user");
-        ParamChecker.notEmpty(group, "group");
+    protected void prepareJobClient(JobClient jobClient, JobConf conf) throws HadoopAccessorException {
         try {
-            validateNameNode(new URI(conf.get("fs.default.name")).getAuthority());
-            UserGroupInformation ugi = getUGI(user);
-            return ugi.doAs(new PrivilegedExceptionAction<FileSystem>() {
-                public FileSystem run() throws Exception {
-                    Configuration defaultConf = new Configuration();
-                    XConfiguration.copy(conf, defaultConf);
-                    return FileSystem.get(defaultConf);
-                }
-            });
+            Token<DelegationTokenIdentifier> mrdt = jobClient.getDelegationToken(new Text("mr token"));
+            conf.getCredentials().addToken(new Text("mr token"), mrdt);
         }
         catch (InterruptedException ex) {
             throw new HadoopAccessorException(ErrorCode.E0902, ex);
@@ -172,24 +158,20 @@ public class KerberosHadoopAccessorService extends HadoopAccessorService {
         catch (IOException ex) {
             throw new HadoopAccessorException(ErrorCode.E0902, ex);
         }
-        catch (URISyntaxException ex) {
-            throw new HadoopAccessorException(ErrorCode.E0902, ex);
-        }
     }
 
     /**
-     * Return a FileSystem created with the provided user/group for the specified URI.
+     * Create a FileSystem for the provided user/group and URI, as a proxy user of the Oozie Kerberos user.
      *
+     * @param user user.
+     * @param group group.
      * @param uri file system URI.
      * @param conf Configuration with all necessary information to create the FileSystem.
-     * @return FileSystem created with the provided user/group.
+     * @return the FileSystem.
      * @throws HadoopAccessorException if the filesystem could not be created.
      */
-    public FileSystem createFileSystem(String user, String group, final URI uri, final Configuration conf)
+    protected FileSystem newFileSystem(String user, String group, final URI uri, final Configuration conf)
             throws HadoopAccessorException {
-        ParamChecker.notEmpty(user, "user");
-        ParamChecker.notEmpty(group, "group");
-        validateNameNode(uri.getAuthority());
         try {
             UserGroupInformation ugi = getUGI(user);
             return ugi.doAs(new PrivilegedExceptionAction<FileSystem>() {
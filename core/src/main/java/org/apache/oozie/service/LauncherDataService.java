@@ -0,0 +1,334 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.action.hadoop.LauncherMapper;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The LauncherDataService keeps the output data, the new job ID and the error data launcher jobs post to the
+ * callback endpoint when their main class completes. <p/> With the data in memory the action is completed without
+ * reading the data files of the action directory, the data is used only once the JobTracker reports the launcher
+ * job completed. <p/> Each launcher is registered with a secret set in its configuration, posts without the secret
+ * of the last launcher registered for the action are rejected. Registrations and data not released by their action
+ * expire after {@link #CONF_TTL} seconds. <p/> A launcher posts at most {@link #CONF_MAX_DATA_LEN} bytes, larger
+ * data is spooled to the action directory as before. The data kept is bounded to {@link #CONF_MAX_SIZE} bytes, when
+ * full posts are rejected and the launchers spool their data. <p/> If {@link #CONF_ENABLED} is <code>false</code>
+ * launchers always spool their data. <p/> The data is kept in memory, data posted before a server restart is lost
+ * and the action fails when checked.
+ */
+public class LauncherDataService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "launcherdata";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "LauncherDataService.";
+
+    public static final String CONF_ENABLED = CONF_PREFIX + "enabled";
+
+    public static final String CONF_MAX_DATA_LEN = CONF_PREFIX + "max.data.len";
+
+    public static final String CONF_MAX_SIZE = CONF_PREFIX + "max.size";
+
+    public static final String CONF_TTL = CONF_PREFIX + "ttl";
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private boolean enabled;
+    private int maxDataLen;
+    private long maxSize;
+    private long ttl;
+    private SecureRandom random = new SecureRandom();
+    private Map<String, Registration> registrations = new ConcurrentHashMap<String, Registration>();
+    private AtomicLong size = new AtomicLong();
+    private Instrumentation instrumentation;
+
+    /**
+     * Launcher registered for an action and the data it posted.
+     */
+    private static class Registration {
+        private String secret;
+        private long time;
+        private LauncherData data;
+
+        private Registration(String secret) {
+            this.secret = secret;
+            time = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Data posted by a launcher job.
+     */
+    public static class LauncherData {
+        private String type;
+        private String launcherId;
+        private Properties properties;
+        private int len;
+
+        private LauncherData(String type, String launcherId, Properties properties, int len) {
+            this.type = type;
+            this.launcherId = launcherId;
+            this.properties = properties;
+            this.len = len;
+        }
+
+        /**
+         * Return the type of the data.
+         *
+         * @return {@link LauncherMapper#DATA_OUTPUT}, {@link LauncherMapper#DATA_ID_SWAP} or {@link
+         * LauncherMapper#DATA_ERROR}.
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * Return the ID of the launcher job that posted the data.
+         *
+         * @return the launcher job ID.
+         */
+        public String getLauncherId() {
+            return launcherId;
+        }
+
+        public Properties getProperties() {
+            return properties;
+        }
+    }
+
+    /**
+     * Initialize the launcher data service.
+     *
+     * @param services services instance.
+     */
+    public void init(Services services) {
+        Configuration conf = services.getConf();
+        enabled = conf.getBoolean(CONF_ENABLED, true);
+        maxDataLen = conf.getInt(CONF_MAX_DATA_LEN, 64 * 1024);
+        maxSize = conf.getLong(CONF_MAX_SIZE, 16 * 1024 * 1024);
+        ttl = conf.getLong(CONF_TTL, 24 * 60 * 60) * 1000;
+        if (enabled) {
+            Runnable reaper = new Runnable() {
+                public void run() {
+                    reap(System.currentTimeMillis());
+                }
+            };
+            int interval = (int) Math.max(60, Math.min(60 * 60, ttl / 1000));
+            services.get(SchedulerService.class).schedule(reaper, interval, interval, SchedulerService.Unit.SEC);
+        }
+        log.info("Launcher data posting enabled [{0}], max data length [{1}]", enabled, maxDataLen);
+    }
+
+    /**
+     * Destroy the launcher data service.
+     */
+    public void destroy() {
+        registrations.clear();
+        size.set(0);
+    }
+
+    /**
+     * Return the public interface for launcher data service.
+     *
+     * @return {@link LauncherDataService}.
+     */
+    public Class<? extends Service> getInterface() {
+        return LauncherDataService.class;
+    }
+
+    /**
+     * Instrument the launcher data service.
+     *
+     * @param instr instance to instrument the launcher data service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        instr.addVariable(INSTRUMENTATION_GROUP, "size", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return size.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "registrations", new Instrumentation.Variable<Integer>() {
+            public Integer getValue() {
+                return registrations.size();
+            }
+        });
+    }
+
+    /**
+     * Return if launchers post their data.
+     *
+     * @return <code>true</code> if launchers post their data.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Return the maximum length of the data a launcher posts.
+     *
+     * @return the maximum length of the data a launcher posts.
+     */
+    public int getMaxDataLen() {
+        return maxDataLen;
+    }
+
+    /**
+     * Return if a callback external status is a launcher data post.
+     *
+     * @param externalStatus callback external status.
+     * @return <code>true</code> if the callback is a launcher data post.
+     */
+    public static boolean isLauncherData(String externalStatus) {
+        return LauncherMapper.DATA_OUTPUT.equals(externalStatus) || LauncherMapper.DATA_ID_SWAP.equals(externalStatus)
+               || LauncherMapper.DATA_ERROR.equals(externalStatus);
+    }
+
+    /**
+     * Register a new launcher for an action, discarding the registration and the data of previous launchers of the
+     * action.
+     *
+     * @param actionId action ID.
+     * @return the secret the launcher must post its data with.
+     */
+    public String register(String actionId) {
+        String secret = new BigInteger(130, random).toString(32);
+        Registration previous = registrations.put(actionId, new Registration(secret));
+        if (previous != null) {
+            discard(previous);
+        }
+        return secret;
+    }
+
+    /**
+     * Keep the data posted by the launcher of an action, replacing any previous data of the action.
+     *
+     * @param actionId action ID.
+     * @param launcherId ID of the launcher job that posted the data.
+     * @param secret secret the launcher posted the data with.
+     * @param type type of the data.
+     * @param properties data.
+     * @param len length of the posted data.
+     * @return <code>true</code> if the data is kept, <code>false</code> if the service is disabled, the launcher is
+     * not the one registered for the action, the data is too long or the service is full.
+     */
+    public boolean put(String actionId, String launcherId, String secret, String type, Properties properties,
+                       int len) {
+        if (!enabled || !isLauncherData(type) || len > maxDataLen) {
+            incr("posts.rejected");
+            return false;
+        }
+        Registration registration = registrations.get(actionId);
+        if (registration == null || secret == null || launcherId == null
+                || !MessageDigest.isEqual(registration.secret.getBytes(), secret.getBytes())) {
+            incr("posts.unauthorized");
+            log.warn("Launcher data for action [{0}] rejected, launcher [{1}] is not registered", actionId,
+                     launcherId);
+            return false;
+        }
+        if (size.addAndGet(len) > maxSize) {
+            size.addAndGet(-len);
+            incr("posts.rejected");
+            log.warn("Launcher data full, action [{0}] has to spool its data", actionId);
+            return false;
+        }
+        LauncherData previous;
+        synchronized (registration) {
+            previous = registration.data;
+            registration.data = new LauncherData(type, launcherId, properties, len);
+        }
+        if (previous != null) {
+            size.addAndGet(-previous.len);
+        }
+        // a registration released or replaced meanwhile does not keep the data
+        if (registrations.get(actionId) != registration) {
+            discard(registration);
+        }
+        incr("posts");
+        return true;
+    }
+
+    /**
+     * Return the data posted by the launcher of an action.
+     *
+     * @param actionId action ID.
+     * @return the posted data, <code>null</code> if none.
+     */
+    public LauncherData get(String actionId) {
+        Registration registration = registrations.get(actionId);
+        return (registration != null) ? registration.data : null;
+    }
+
+    /**
+     * Discard the registration and the data posted by the launcher of an action.
+     *
+     * @param actionId action ID.
+     */
+    public void release(String actionId) {
+        Registration previous = registrations.remove(actionId);
+        if (previous != null) {
+            discard(previous);
+        }
+    }
+
+    private void discard(Registration registration) {
+        LauncherData previous;
+        synchronized (registration) {
+            previous = registration.data;
+            registration.data = null;
+        }
+        if (previous != null) {
+            size.addAndGet(-previous.len);
+        }
+    }
+
+    /**
+     * Discard the registrations and the data not released by their action within the TTL.
+     *
+     * @param now current time.
+     */
+    void reap(long now) {
+        Iterator<Map.Entry<String, Registration>> it = registrations.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Registration> entry = it.next();
+            if (now - entry.getValue().time > ttl) {
+                it.remove();
+                discard(entry.getValue());
+                incr("expired");
+            }
+        }
+    }
+
+    private void incr(String name) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.util.Properties;
+
+/**
+ * Execution of an action main class managed by the Oozie server instead of by a launcher job. <p/> The output data,
+ * error and new job ID of an execution are the ones a launcher job reports.
+ */
+public interface LauncherExecution {
+
+    /**
+     * Return if the execution completed.
+     *
+     * @return <code>true</code> if the execution completed, was killed or timed out.
+     */
+    public boolean isDone();
+
+    /**
+     * Return if the execution was killed.
+     *
+     * @return <code>true</code> if the execution was killed.
+     */
+    public boolean isKilled();
+
+    /**
+     * Return the output data of a successful execution.
+     *
+     * @return the output data, <code>null</code> if none.
+     */
+    public Properties getOutput();
+
+    /**
+     * Return the error of a failed execution, with the same properties a failed launcher job reports.
+     *
+     * @return the error properties, <code>null</code> if the execution did not fail.
+     */
+    public Properties getError();
+
+    /**
+     * Return the ID of the Hadoop job the execution started and that completes the action.
+     *
+     * @return the Hadoop job ID, <code>null</code> if none.
+     */
+    public String getNewId();
+
+}
@@ -0,0 +1,225 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hadoop.mapred.JobClient;
+import org.apache.hadoop.mapred.JobStatus;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The LauncherStatusService answers if launcher jobs are still running from a periodic snapshot of the jobs not yet
+ * completed in each JobTracker, so checking thousands of running actions does not require one JobTracker call per
+ * action. <p/> A snapshot is fetched with a single call at most once every {@link #CONF_SNAPSHOT_TTL} seconds per
+ * JobTracker, concurrent callers wait for the fetch in progress. <p/> Only positive answers come from the snapshot:
+ * a job not in it may have completed or may have been submitted after the snapshot, callers must then look the job
+ * up individually. A job in the snapshot may have completed since, its completion is seen at most {@link
+ * #CONF_SNAPSHOT_TTL} seconds late by the action checker. <p/> Completion callbacks are recorded with {@link
+ * #completed(String, String)}, a job that notified its completion is not reported as running from a snapshot fetched
+ * before the notification, so the check triggered by the callback looks the job up.
+ */
+public class LauncherStatusService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "launcherstatus";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "LauncherStatusService.";
+
+    public static final String CONF_SNAPSHOT_TTL = CONF_PREFIX + "snapshot.ttl";
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private long ttl;
+    private Map<String, Snapshot> snapshots = new ConcurrentHashMap<String, Snapshot>();
+    private Instrumentation instrumentation;
+
+    /**
+     * Source of the IDs of the jobs not yet completed in a JobTracker. <p/> The JobTracker is accessed through this
+     * interface so the service can be used with a local stand-in.
+     */
+    public static interface RunningJobsSource {
+
+        /**
+         * Return the IDs of the jobs not yet completed.
+         *
+         * @return the IDs of the jobs not yet completed.
+         * @throws IOException thrown if the JobTracker could not be queried.
+         */
+        public Set<String> getRunningJobIds() throws IOException;
+    }
+
+    /**
+     * Snapshot of the running jobs of a JobTracker.
+     */
+    private static class Snapshot {
+        private volatile Set<String> jobIds = Collections.emptySet();
+        private volatile long time;
+        private Map<String, Long> completions = new ConcurrentHashMap<String, Long>();
+    }
+
+    /**
+     * Return a {@link RunningJobsSource} for a JobClient, it uses a single <code>jobsToComplete()</code> call.
+     *
+     * @param jobClient JobClient of the JobTracker.
+     * @return the running jobs source for the JobClient.
+     */
+    public static RunningJobsSource forJobClient(final JobClient jobClient) {
+        return new RunningJobsSource() {
+            public Set<String> getRunningJobIds() throws IOException {
+                Set<String> ids = new HashSet<String>();
+                JobStatus[] statuses = jobClient.jobsToComplete();
+                if (statuses != null) {
+                    for (JobStatus status : statuses) {
+                        ids.add(status.getJobID().toString());
+                    }
+                }
+                return ids;
+            }
+        };
+    }
+
+    /**
+     * Initialize the launcher status service.
+     *
+     * @param services services instance.
+     */
+    public void init(Services services) {
+        ttl = services.getConf().getLong(CONF_SNAPSHOT_TTL, 30) * 1000;
+    }
+
+    /**
+     * Destroy the launcher status service.
+     */
+    public void destroy() {
+        snapshots.clear();
+    }
+
+    /**
+     * Return the public interface for launcher status service.
+     *
+     * @return {@link LauncherStatusService}.
+     */
+    public Class<? extends Service> getInterface() {
+        return LauncherStatusService.class;
+    }
+
+    /**
+     * Instrument the launcher status service.
+     *
+     * @param instr instance to instrument the launcher status service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+    }
+
+    /**
+     * Return if a job is known to be running in a JobTracker.
+     *
+     * @param jobTracker JobTracker address.
+     * @param jobId job ID.
+     * @param source source to fetch a new snapshot of the running jobs from, if the current one is too old.
+     * @return <code>true</code> if the job is in the running jobs snapshot of the JobTracker, <code>false</code> if
+     * it is not or if the snapshot could not be fetched, the job must then be looked up individually.
+     */
+    public boolean isRunning(String jobTracker, String jobId, RunningJobsSource source) {
+        if (ttl <= 0 || jobTracker == null || jobId == null) {
+            return false;
+        }
+        Snapshot snapshot = getSnapshot(jobTracker);
+        if (System.currentTimeMillis() - snapshot.time >= ttl) {
+            synchronized (snapshot) {
+                // another caller may have fetched it while waiting
+                if (System.currentTimeMillis() - snapshot.time >= ttl) {
+                    Instrumentation.Cron cron = new Instrumentation.Cron();
+                    cron.start();
+                    try {
+                        // the snapshot is as recent as the start of the fetch
+                        long time = System.currentTimeMillis();
+                        snapshot.jobIds = source.getRunningJobIds();
+                        snapshot.time = time;
+                        Iterator<Map.Entry<String, Long>> it = snapshot.completions.entrySet().iterator();
+                        while (it.hasNext()) {
+                            if (it.next().getValue() < time) {
+                                it.remove();
+                            }
+                        }
+                        incr("snapshots", 1);
+                    }
+                    catch (IOException ex) {
+                        log.warn("Could not fetch running jobs from [{0}], {1}", jobTracker, ex.getMessage(), ex);
+                        incr("snapshots.failed", 1);
+                        return false;
+                    }
+                    finally {
+                        cron.stop();
+                        if (instrumentation != null) {
+                            instrumentation.addCron(INSTRUMENTATION_GROUP, "snapshot", cron);
+                        }
+                    }
+                }
+            }
+        }
+        boolean running = snapshot.jobIds.contains(jobId);
+        if (running) {
+            Long completion = snapshot.completions.get(jobId);
+            if (completion != null && completion >= snapshot.time) {
+                running = false;
+                incr("completed.after.snapshot", 1);
+            }
+        }
+        incr((running) ? "running" : "not.running", 1);
+        return running;
+    }
+
+    /**
+     * Record that a job notified its completion, the job is not reported as running from the snapshots fetched before
+     * the notification.
+     *
+     * @param jobTracker JobTracker address.
+     * @param jobId job ID.
+     */
+    public void completed(String jobTracker, String jobId) {
+        if (ttl > 0 && jobTracker != null && jobId != null) {
+            getSnapshot(jobTracker).completions.put(jobId, System.currentTimeMillis());
+        }
+    }
+
+    private Snapshot getSnapshot(String jobTracker) {
+        Snapshot snapshot = snapshots.get(jobTracker);
+        if (snapshot == null) {
+            snapshot = new Snapshot();
+            Snapshot existing = ((ConcurrentHashMap<String, Snapshot>) snapshots).putIfAbsent(jobTracker, snapshot);
+            snapshot = (existing != null) ? existing : snapshot;
+        }
+        return snapshot;
+    }
+
+    private void incr(String name, long count) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, count);
+        }
+    }
+
+}
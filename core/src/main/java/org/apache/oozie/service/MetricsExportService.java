@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.util.InstrumentationExporter;
+import org.apache.oozie.util.InstrumentationFilter;
+import org.apache.oozie.util.PrometheusInstrumentationWriter;
+import org.apache.oozie.util.XLog;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This service publishes the {@link InstrumentationService} instrumentation to external monitoring systems. <p/> The
+ * {@link #CONF_EXPORTERS} configuration property indicates the {@link InstrumentationExporter} classes to use. <p/>
+ * The {@link #CONF_GROUPS_INCLUDE} and {@link #CONF_GROUPS_EXCLUDE} configuration properties indicate which
+ * instrumentation groups are exported, they apply to all exporters and to the Prometheus text written by {@link
+ * #writePrometheus(Writer)}. <p/> This service depends on the {@link InstrumentationService} and the {@link
+ * SchedulerService}.
+ */
+public class MetricsExportService implements Service {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "MetricsExportService.";
+
+    public static final String CONF_EXPORTERS = CONF_PREFIX + "exporters";
+
+    public static final String CONF_GROUPS_INCLUDE = CONF_PREFIX + "groups.include";
+
+    public static final String CONF_GROUPS_EXCLUDE = CONF_PREFIX + "groups.exclude";
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private InstrumentationService instrumentationService;
+    private InstrumentationFilter filter;
+    private List<InstrumentationExporter> exporters;
+
+    /**
+     * Initialize the metrics export service, initializing all the configured exporters.
+     *
+     * @param services services instance.
+     * @throws ServiceException thrown if the service or any of the exporters could not be initialized.
+     */
+    @SuppressWarnings("unchecked")
+    public void init(Services services) throws ServiceException {
+        instrumentationService = services.get(InstrumentationService.class);
+        if (instrumentationService == null) {
+            throw new ServiceException(ErrorCode.E0100, getClass().getName(), "InstrumentationService unavailable");
+        }
+        if (services.get(SchedulerService.class) == null) {
+            throw new ServiceException(ErrorCode.E0100, getClass().getName(), "SchedulerService unavailable");
+        }
+        filter = new InstrumentationFilter(getList(services, CONF_GROUPS_INCLUDE),
+                                           getList(services, CONF_GROUPS_EXCLUDE));
+        exporters = new ArrayList<InstrumentationExporter>();
+        Class<? extends InstrumentationExporter>[] classes =
+                (Class<? extends InstrumentationExporter>[]) services.getConf().getClasses(CONF_EXPORTERS);
+        if (classes != null) {
+            try {
+                for (Class<? extends InstrumentationExporter> klass : classes) {
+                    InstrumentationExporter exporter = (InstrumentationExporter)
+                            ReflectionUtils.newInstance(klass, null);
+                    exporter.init(services, instrumentationService.get(), filter);
+                    exporters.add(exporter);
+                    log.info("Instrumentation exporter [{0}] initialized", klass.getName());
+                }
+            }
+            catch (ServiceException ex) {
+                destroy();
+                throw ex;
+            }
+        }
+    }
+
+    private List<String> getList(Services services, String name) {
+        String[] values = services.getConf().getStrings(name);
+        return (values != null) ? Arrays.asList(values) : Collections.<String>emptyList();
+    }
+
+    /**
+     * Destroy the metrics export service, destroying all the exporters.
+     */
+    public void destroy() {
+        if (exporters != null) {
+            for (InstrumentationExporter exporter : exporters) {
+                try {
+                    exporter.destroy();
+                }
+                catch (RuntimeException ex) {
+                    log.warn("Error destroying instrumentation exporter [{0}], {1}", exporter.getClass().getName(),
+                             ex.getMessage(), ex);
+                }
+            }
+            exporters = null;
+        }
+    }
+
+    /**
+     * Return the public interface for metrics export service.
+     *
+     * @return {@link MetricsExportService}.
+     */
+    public Class<? extends Service> getInterface() {
+        return MetricsExportService.class;
+    }
+
+    /**
+     * Return the filter with the instrumentation groups to export.
+     *
+     * @return the instrumentation group filter.
+     */
+    public InstrumentationFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Return the active exporters.
+     *
+     * @return the active exporters.
+     */
+    public List<InstrumentationExporter> getExporters() {
+        return Collections.unmodifiableList(exporters);
+    }
+
+    /**
+     * Write the exported instrumentation groups in Prometheus text format.
+     *
+     * @param writer writer to write to, it is not closed.
+     * @throws IOException thrown if the instrumentation could not be written.
+     */
+    public void writePrometheus(Writer writer) throws IOException {
+        new PrometheusInstrumentationWriter(instrumentationService.get(), filter).write(writer);
+    }
+
+}
@@ -0,0 +1,213 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.util.Instrumentation;
+
+/**
+ * Instruments the JPA named queries executed through an {@link EntityManager}. <p/> For each named query it records
+ * the calls and execution times in the {@link #GROUP} timers, the rows returned or updated in the {@link #ROWS_GROUP}
+ * counters and the 99th percentile of the execution time of the most recent calls in the {@link #P99_GROUP}
+ * variables. <p/> The {@link EntityManager} and its named queries are wrapped with proxies implementing all the
+ * interfaces of the wrapped instances, so vendor casts of them keep working.
+ */
+class NamedQueryInstrumentation {
+    static final String GROUP = "jpa.query";
+    static final String ROWS_GROUP = "jpa.query.rows";
+    static final String P99_GROUP = "jpa.query.p99";
+
+    private static final Set<String> EXECUTE_METHODS =
+            new LinkedHashSet<String>(Arrays.asList("getResultList", "getSingleResult", "executeUpdate"));
+
+    private final Instrumentation instr;
+    private final int sampleSize;
+    private final ConcurrentMap<String, Samples> samples = new ConcurrentHashMap<String, Samples>();
+
+    /**
+     * Create a named query instrumentation.
+     *
+     * @param instr instrumentation to record to.
+     * @param sampleSize number of most recent execution times per named query used for the percentile.
+     */
+    NamedQueryInstrumentation(Instrumentation instr, int sampleSize) {
+        this.instr = instr;
+        this.sampleSize = Math.max(1, sampleSize);
+    }
+
+    /**
+     * Wrap an entity manager so the named queries it creates are instrumented.
+     *
+     * @param em entity manager to wrap.
+     * @return the wrapped entity manager.
+     */
+    EntityManager wrap(final EntityManager em) {
+        return (EntityManager) proxy(em, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                Object ret = invokeTarget(em, method, args);
+                if (method.getName().equals("createNamedQuery") && ret instanceof Query) {
+                    ret = wrap((Query) ret, (String) args[0]);
+                }
+                return ret;
+            }
+        });
+    }
+
+    private Query wrap(final Query query, final String name) {
+        final Object[] self = new Object[1];
+        self[0] = proxy(query, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (EXECUTE_METHODS.contains(method.getName())) {
+                    Instrumentation.Cron cron = new Instrumentation.Cron();
+                    cron.start();
+                    Object ret = invokeTarget(query, method, args);
+                    cron.stop();
+                    long rows;
+                    if (ret instanceof List) {
+                        rows = ((List<?>) ret).size();
+                    }
+                    else if (ret instanceof Integer) {
+                        rows = (Integer) ret;
+                    }
+                    else {
+                        rows = 1;
+                    }
+                    record(name, cron, rows);
+                    return ret;
+                }
+                Object ret = invokeTarget(query, method, args);
+                // keep chained setters (setParameter, setMaxResults, ...) on the proxy
+                return (ret == query) ? self[0] : ret;
+            }
+        });
+        return (Query) self[0];
+    }
+
+    private static Object proxy(Object target, InvocationHandler handler) {
+        Set<Class<?>> interfaces = new LinkedHashSet<Class<?>>();
+        for (Class<?> klass = target.getClass(); klass != null; klass = klass.getSuperclass()) {
+            collectInterfaces(klass, interfaces);
+        }
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(),
+                                      interfaces.toArray(new Class<?>[interfaces.size()]), handler);
+    }
+
+    private static void collectInterfaces(Class<?> klass, Set<Class<?>> interfaces) {
+        for (Class<?> iface : klass.getInterfaces()) {
+            if (interfaces.add(iface)) {
+                collectInterfaces(iface, interfaces);
+            }
+        }
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        }
+        catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Record a named query execution.
+     *
+     * @param name named query name.
+     * @param cron execution time.
+     * @param rows rows returned or updated.
+     */
+    void record(String name, Instrumentation.Cron cron, long rows) {
+        instr.addCron(GROUP, name, cron);
+        instr.incr(ROWS_GROUP, name, rows);
+        Samples querySamples = samples.get(name);
+        if (querySamples == null) {
+            Samples newSamples = new Samples(sampleSize);
+            querySamples = samples.putIfAbsent(name, newSamples);
+            if (querySamples == null) {
+                querySamples = newSamples;
+                final Samples p99Samples = newSamples;
+                // Instrumentation does not guard concurrent additions of variables to the same group
+                synchronized (this) {
+                    instr.addVariable(P99_GROUP, name, new Instrumentation.Variable<Long>() {
+                        public Long getValue() {
+                            return p99Samples.getPercentile(0.99);
+                        }
+                    });
+                }
+            }
+        }
+        querySamples.add(cron.getOwn());
+    }
+
+    /**
+     * Return the 99th percentile of the execution time of the most recent calls of a named query.
+     *
+     * @param name named query name.
+     * @return the 99th percentile in milliseconds, <code>-1</code> if the named query has not been executed.
+     */
+    long getP99(String name) {
+        Samples querySamples = samples.get(name);
+        return (querySamples != null) ? querySamples.getPercentile(0.99) : -1;
+    }
+
+    /**
+     * Ring buffer with the most recent execution times of a named query.
+     */
+    static class Samples {
+        private final long[] values;
+        private int next;
+        private int count;
+
+        Samples(int size) {
+            values = new long[size];
+        }
+
+        synchronized void add(long value) {
+            values[next] = value;
+            next = (next + 1) % values.length;
+            count = Math.min(count + 1, values.length);
+        }
+
+        long getPercentile(double percentile) {
+            long[] sorted;
+            synchronized (this) {
+                if (count == 0) {
+                    return -1;
+                }
+                sorted = Arrays.copyOf(values, count);
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+
+}
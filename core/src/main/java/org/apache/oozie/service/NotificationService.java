@@ -0,0 +1,379 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This service delivers the job and action HTTP notifications in its own thread pool, so command threads never wait on
+ * notification endpoints. <p/> Notifications are queued per endpoint host, each host is drained by at most {@link
+ * #CONF_HOST_CONCURRENCY} threads sending its notifications one after the other, so consecutive notifications to the
+ * same host reuse the HTTP keep-alive connection. A notification for a URL and event already waiting to be sent is not
+ * queued twice, notifications sent without an event are never coalesced. <p/> A failed notification is retried up to
+ * {@link #CONF_RETRIES} times, the first retry after {@link #CONF_RETRY_DELAY} seconds and each following retry after
+ * twice the previous delay. <p/> At most {@link #CONF_QUEUE_SIZE} notifications wait to be sent, notifications beyond
+ * that are discarded. <p/> This service depends on the {@link SchedulerService} for the retries.
+ */
+public class NotificationService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "notification";
+    private static final String INSTR_QUEUED_COUNTER = "queued";
+    private static final String INSTR_COALESCED_COUNTER = "coalesced";
+    private static final String INSTR_DISCARDED_COUNTER = "discarded";
+    private static final String INSTR_SENT_COUNTER = "sent";
+    private static final String INSTR_RETRIED_COUNTER = "retried";
+    private static final String INSTR_FAILED_COUNTER = "failed";
+    private static final String INSTR_DELIVERY_TIMER = "delivery";
+    private static final String INSTR_REQUEST_TIMER = "request";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "NotificationService.";
+
+    public static final String CONF_THREADS = CONF_PREFIX + "threads";
+
+    public static final String CONF_HOST_CONCURRENCY = CONF_PREFIX + "host.concurrency";
+
+    public static final String CONF_QUEUE_SIZE = CONF_PREFIX + "queue.size";
+
+    public static final String CONF_RETRIES = CONF_PREFIX + "retries";
+
+    public static final String CONF_RETRY_DELAY = CONF_PREFIX + "retry.delay";
+
+    public static final String CONF_CONNECT_TIMEOUT = CONF_PREFIX + "connect.timeout";
+
+    public static final String CONF_READ_TIMEOUT = CONF_PREFIX + "read.timeout";
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private ThreadPoolExecutor executor;
+    private SchedulerService scheduler;
+    private Instrumentation instrumentation;
+    private Map<String, HostQueue> hosts = new HashMap<String, HostQueue>();
+    private int queued;
+    private int hostConcurrency;
+    private int queueSize;
+    private int retries;
+    private long retryDelay;
+    private int connectTimeout;
+    private int readTimeout;
+
+    /**
+     * Notification waiting to be sent.
+     */
+    private static class Notification {
+        private final URL url;
+        private final String key;
+        private final Instrumentation.Cron cron = new Instrumentation.Cron();
+        private int attempts;
+
+        Notification(URL url, String event) {
+            this.url = url;
+            key = (event != null) ? event + " " + url : null;
+            cron.start();
+        }
+    }
+
+    /**
+     * Notifications waiting to be sent to a host and number of threads sending them.
+     */
+    private static class HostQueue {
+        private final LinkedList<Notification> notifications = new LinkedList<Notification>();
+        private final Set<String> keys = new HashSet<String>();
+        private int active;
+    }
+
+    /**
+     * Initialize the notification service.
+     *
+     * @param services services instance.
+     * @throws ServiceException thrown if the SchedulerService is not available.
+     */
+    public void init(Services services) throws ServiceException {
+        scheduler = services.get(SchedulerService.class);
+        if (scheduler == null) {
+            throw new ServiceException(ErrorCode.E0100, getClass().getName(), "SchedulerService unavailable");
+        }
+        int threads = services.getConf().getInt(CONF_THREADS, 10);
+        hostConcurrency = Math.max(1, services.getConf().getInt(CONF_HOST_CONCURRENCY, 2));
+        queueSize = services.getConf().getInt(CONF_QUEUE_SIZE, 10000);
+        retries = services.getConf().getInt(CONF_RETRIES, 3);
+        retryDelay = services.getConf().getLong(CONF_RETRY_DELAY, 60) * 1000;
+        connectTimeout = services.getConf().getInt(CONF_CONNECT_TIMEOUT, 10) * 1000;
+        readTimeout = services.getConf().getInt(CONF_READ_TIMEOUT, 30) * 1000;
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Destroy the notification service, discarding the notifications waiting to be sent.
+     */
+    public void destroy() {
+        executor.shutdownNow();
+        synchronized (this) {
+            hosts.clear();
+            queued = 0;
+        }
+    }
+
+    /**
+     * Return the public interface for notification service.
+     *
+     * @return {@link NotificationService}.
+     */
+    public Class<? extends Service> getInterface() {
+        return NotificationService.class;
+    }
+
+    /**
+     * Instrument the notification service.
+     *
+     * @param instr instance to instrument the notification service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        instr.addVariable(INSTRUMENTATION_GROUP, "queue.size", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                synchronized (NotificationService.this) {
+                    return (long) queued;
+                }
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "threads.active", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) executor.getActiveCount();
+            }
+        });
+    }
+
+    /**
+     * Queue a notification to be sent, it returns without waiting for the notification to be sent. <p/> The
+     * notification is never coalesced with other notifications.
+     *
+     * @param url notification URL, a HTTP GET request is done to it.
+     * @return <code>true</code> if the notification was queued, <code>false</code> if the URL is invalid or the queue
+     * is full.
+     */
+    public boolean send(String url) {
+        return send(url, null);
+    }
+
+    /**
+     * Queue a notification for an event to be sent, it returns without waiting for the notification to be sent. <p/>
+     * If a notification for the same URL and event is already waiting to be sent, the notification is not queued
+     * twice. The event is part of the coalescing key because the URL may not contain the job ID or the status.
+     *
+     * @param url notification URL, a HTTP GET request is done to it.
+     * @param event event notified, the ID and status of the job or action, <code>null</code> if the notification must
+     * not be coalesced.
+     * @return <code>true</code> if the notification was queued or is already waiting to be sent, <code>false</code> if
+     * the URL is invalid or the queue is full.
+     */
+    public boolean send(String url, String event) {
+        try {
+            return queue(new Notification(new URL(url), event));
+        }
+        catch (MalformedURLException ex) {
+            log.warn(XLog.OPS, "invalid notification URL [{0}], {1}", url, ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Return the number of notifications waiting to be sent.
+     *
+     * @return the number of notifications waiting to be sent.
+     */
+    public synchronized int getQueueSize() {
+        return queued;
+    }
+
+    private boolean queue(Notification notification) {
+        String key = notification.key;
+        String host = getHostKey(notification.url);
+        boolean startWorker = false;
+        synchronized (this) {
+            HostQueue hostQueue = hosts.get(host);
+            if (hostQueue != null && key != null && hostQueue.keys.contains(key)) {
+                incrCounter(INSTR_COALESCED_COUNTER);
+                return true;
+            }
+            if (queued >= queueSize) {
+                incrCounter(INSTR_DISCARDED_COUNTER);
+                log.warn(XLog.OPS, "notification queue full, could not send notification [{0}]", notification.url);
+                return false;
+            }
+            if (hostQueue == null) {
+                hostQueue = new HostQueue();
+                hosts.put(host, hostQueue);
+            }
+            hostQueue.notifications.add(notification);
+            if (key != null) {
+                hostQueue.keys.add(key);
+            }
+            queued++;
+            if (hostQueue.active < hostConcurrency) {
+                hostQueue.active++;
+                startWorker = true;
+            }
+        }
+        incrCounter(INSTR_QUEUED_COUNTER);
+        if (startWorker) {
+            startWorker(host);
+        }
+        return true;
+    }
+
+    private void startWorker(final String host) {
+        Runnable worker = new Runnable() {
+            public void run() {
+                Notification notification;
+                while ((notification = next(host)) != null) {
+                    deliver(notification);
+                }
+            }
+        };
+        try {
+            executor.execute(worker);
+        }
+        catch (RuntimeException ex) {
+            log.warn("could not start notification worker for [{0}], {1}", host, ex.getMessage());
+            synchronized (this) {
+                HostQueue hostQueue = hosts.get(host);
+                if (hostQueue != null) {
+                    hostQueue.active--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the next notification to send to a host, once there are none the calling worker stops.
+     */
+    private synchronized Notification next(String host) {
+        HostQueue hostQueue = hosts.get(host);
+        if (hostQueue == null) {
+            return null;
+        }
+        if (hostQueue.notifications.isEmpty()) {
+            hostQueue.active--;
+            if (hostQueue.active == 0) {
+                hosts.remove(host);
+            }
+            return null;
+        }
+        Notification notification = hostQueue.notifications.removeFirst();
+        if (notification.key != null) {
+            hostQueue.keys.remove(notification.key);
+        }
+        queued--;
+        return notification;
+    }
+
+    private void deliver(final Notification notification) {
+        notification.attempts++;
+        Instrumentation.Cron cron = new Instrumentation.Cron();
+        cron.start();
+        boolean sent = false;
+        try {
+            HttpURLConnection conn = (HttpURLConnection) notification.url.openConnection();
+            conn.setConnectTimeout(connectTimeout);
+            conn.setReadTimeout(readTimeout);
+            int code = conn.getResponseCode();
+            consume(conn, code);
+            sent = (code == HttpURLConnection.HTTP_OK);
+            if (!sent) {
+                log.debug("notification [{0}] failed, HTTP status [{1}]", notification.url, code);
+            }
+        }
+        catch (IOException ex) {
+            log.debug("notification [{0}] failed, {1}", notification.url, ex.getMessage());
+        }
+        cron.stop();
+        addCron(INSTR_REQUEST_TIMER, cron);
+        if (sent) {
+            notification.cron.stop();
+            addCron(INSTR_DELIVERY_TIMER, notification.cron);
+            incrCounter(INSTR_SENT_COUNTER);
+        }
+        else if (notification.attempts <= retries && !executor.isShutdown()) {
+            incrCounter(INSTR_RETRIED_COUNTER);
+            long delay = retryDelay << (notification.attempts - 1);
+            scheduler.getScheduler().schedule(new Runnable() {
+                public void run() {
+                    queue(notification);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        else {
+            incrCounter(INSTR_FAILED_COUNTER);
+            log.warn(XLog.OPS, "could not send notification [{0}]", notification.url);
+        }
+    }
+
+    /**
+     * Read the response fully and close it, so the connection can be reused for the next request to the same host.
+     */
+    private void consume(HttpURLConnection conn, int code) {
+        try {
+            InputStream is = (code < HttpURLConnection.HTTP_BAD_REQUEST) ? conn.getInputStream()
+                                                                         : conn.getErrorStream();
+            if (is != null) {
+                byte[] buffer = new byte[1024];
+                while (is.read(buffer) > -1) {
+                }
+                is.close();
+            }
+        }
+        catch (IOException ex) {
+            conn.disconnect();
+        }
+    }
+
+    private static String getHostKey(URL url) {
+        int port = (url.getPort() != -1) ? url.getPort() : url.getDefaultPort();
+        return url.getProtocol() + "://" + url.getHost() + ":" + port;
+    }
+
+    private void incrCounter(String name) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
+    private void addCron(String name, Instrumentation.Cron cron) {
+        if (instrumentation != null) {
+            instrumentation.addCron(INSTRUMENTATION_GROUP, name, cron);
+        }
+    }
+
+}
@@ -0,0 +1,329 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.PathFilter;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The ShareLibService keeps launcher JARs and library directory listings staged and cached so they are not copied and
+ * listed again for every action. <p/> Launcher JARs are uploaded once per content hash to a staging directory,
+ * <code>[STAGING_DIR]/[MD5]/[LAUNCHER_JAR]</code>, and actions reference the staged JAR in the distributed cache
+ * instead of a copy in their action directory. A new launcher JAR, for example after an Oozie upgrade, has a new hash
+ * and it is staged again. The {@link #CONF_STAGING_DIR} configuration property indicates the staging directory, if
+ * not set it is the <code>.staging</code> directory of the Oozie system directory in the home of the user of the
+ * action. <p/> Library directory listings are cached per user and directory, a directory is listed again only if its
+ * modification time changed. Application library directories are checked every time, the cached listing of a shared
+ * library directory, like the system libpath, is used for {@link #CONF_CACHE_TTL} seconds without checking it.
+ */
+public class ShareLibService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "sharelib";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "ShareLibService.";
+
+    public static final String CONF_LAUNCHER_STAGING = CONF_PREFIX + "launcher.staging";
+
+    public static final String CONF_STAGING_DIR = CONF_PREFIX + "staging.dir";
+
+    public static final String CONF_CACHE_TTL = CONF_PREFIX + "cache.ttl";
+
+    public static final String CONF_LISTING_CACHE_SIZE = CONF_PREFIX + "listing.cache.size";
+
+    static final String STAGING_DIR_NAME = ".staging";
+
+    // listStatus() without a filter does not work properly with some file systems
+    private static final PathFilter ACCEPT_ALL = new PathFilter() {
+        public boolean accept(Path path) {
+            return true;
+        }
+    };
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private boolean launcherStaging;
+    private Path stagingDir;
+    private long ttl;
+    private Map<String, String> jarHashes = new ConcurrentHashMap<String, String>();
+    private Map<String, Long> stagedJars = new ConcurrentHashMap<String, Long>();
+    private Map<String, Listing> listings;
+    private Instrumentation instrumentation;
+
+    /**
+     * Cached listing of a library directory.
+     */
+    private static class Listing {
+        private final long modificationTime;
+        private final List<String> files;
+        private volatile long checked;
+
+        private Listing(long modificationTime, List<String> files) {
+            this.modificationTime = modificationTime;
+            this.files = files;
+            checked = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Initialize the sharelib service.
+     *
+     * @param services services instance.
+     */
+    @SuppressWarnings("serial")
+    public void init(Services services) {
+        launcherStaging = services.getConf().getBoolean(CONF_LAUNCHER_STAGING, true);
+        String dir = services.getConf().get(CONF_STAGING_DIR, "").trim();
+        stagingDir = (dir.length() > 0) ? new Path(dir) : null;
+        ttl = services.getConf().getLong(CONF_CACHE_TTL, 60) * 1000;
+        final int cacheSize = services.getConf().getInt(CONF_LISTING_CACHE_SIZE, 1000);
+        listings = Collections.synchronizedMap(new LinkedHashMap<String, Listing>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Listing> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        log.info("Launcher staging [{0}], staging dir [{1}], cache TTL [{2}] ms", launcherStaging,
+                 (stagingDir != null) ? stagingDir : "[ACTION USER HOME]/[SYSTEM ID]/" + STAGING_DIR_NAME, ttl);
+    }
+
+    /**
+     * Destroy the sharelib service.
+     */
+    public void destroy() {
+        jarHashes.clear();
+        stagedJars.clear();
+        listings.clear();
+    }
+
+    /**
+     * Return the public interface for sharelib service.
+     *
+     * @return {@link ShareLibService}.
+     */
+    public Class<? extends Service> getInterface() {
+        return ShareLibService.class;
+    }
+
+    /**
+     * Instrument the sharelib service.
+     *
+     * @param instr instance to instrument the sharelib service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        instr.addVariable(INSTRUMENTATION_GROUP, "listings.cached", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) listings.size();
+            }
+        });
+    }
+
+    /**
+     * Return if launcher JARs are staged.
+     *
+     * @return <code>true</code> if launcher JARs are staged, <code>false</code> if they are copied to every action
+     * directory.
+     */
+    public boolean isLauncherStagingEnabled() {
+        return launcherStaging;
+    }
+
+    /**
+     * Return the staged path of a launcher JAR for an action. <p/> The JAR is not uploaded, use {@link
+     * #stageLauncherJar(FileSystem, Path, File)} for that.
+     *
+     * @param actionDir action directory.
+     * @param localJar local launcher JAR.
+     * @return the staged path of the launcher JAR.
+     * @throws IOException thrown if the launcher JAR could not be read.
+     */
+    public Path getStagedLauncherJar(Path actionDir, File localJar) throws IOException {
+        Path root = stagingDir;
+        if (root == null) {
+            // action dir is [HOME]/[SYSTEM ID]/[JOB ID]/[ACTION NAME]--[TYPE]
+            root = new Path(actionDir.getParent().getParent(), STAGING_DIR_NAME);
+        }
+        return new Path(new Path(root, getHash(localJar)), localJar.getName());
+    }
+
+    /**
+     * Stage a launcher JAR for an action, uploading it if not already staged.
+     *
+     * @param fs file system of the action.
+     * @param actionDir action directory.
+     * @param localJar local launcher JAR.
+     * @return the staged path of the launcher JAR.
+     * @throws IOException thrown if the launcher JAR could not be staged.
+     */
+    public Path stageLauncherJar(FileSystem fs, Path actionDir, File localJar) throws IOException {
+        Path staged = getStagedLauncherJar(actionDir, localJar);
+        String key = fs.getUri() + staged.toUri().getPath();
+        Long verified = stagedJars.get(key);
+        long now = System.currentTimeMillis();
+        if (verified == null || now - verified > ttl) {
+            if (!fs.exists(staged)) {
+                upload(fs, localJar, staged);
+                stagedJars.put(key, now);
+                return staged;
+            }
+            stagedJars.put(key, now);
+        }
+        incr("launcher.uploads.avoided", 1);
+        incr("launcher.bytes.avoided", localJar.length());
+        return staged;
+    }
+
+    private void upload(FileSystem fs, File localJar, Path staged) throws IOException {
+        Path dir = staged.getParent();
+        Path temp = new Path(dir, "." + staged.getName() + "." + UUID.randomUUID() + ".tmp");
+        if (!fs.exists(dir)) {
+            fs.mkdirs(dir, new FsPermission((short) 0755));
+        }
+        try {
+            fs.copyFromLocalFile(false, true, new Path(localJar.getAbsolutePath()), temp);
+            fs.setPermission(temp, new FsPermission((short) 0644));
+            // a concurrent upload of the same JAR may have won the rename, the content is the same
+            if (!fs.rename(temp, staged) && !fs.exists(staged)) {
+                throw new IOException(XLog.format("Could not stage launcher JAR [{0}] to [{1}]", localJar, staged));
+            }
+        }
+        finally {
+            if (fs.exists(temp)) {
+                fs.delete(temp, false);
+            }
+        }
+        incr("launcher.uploads", 1);
+        incr("launcher.bytes.uploaded", localJar.length());
+        log.info("Staged launcher JAR [{0}] to [{1}]", localJar, staged);
+    }
+
+    /**
+     * Return the MD5 hash of a local file, hashes are cached by path, size and modification time.
+     *
+     * @param file local file.
+     * @return the MD5 hash in hexadecimal.
+     * @throws IOException thrown if the file could not be read.
+     */
+    String getHash(File file) throws IOException {
+        String key = file.getAbsolutePath() + "#" + file.length() + "#" + file.lastModified();
+        String hash = jarHashes.get(key);
+        if (hash == null) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("MD5");
+            }
+            catch (NoSuchAlgorithmException ex) {
+                throw new IOException(ex.getMessage());
+            }
+            InputStream is = new FileInputStream(file);
+            try {
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = is.read(buffer)) > -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            finally {
+                is.close();
+            }
+            StringBuilder sb = new StringBuilder(32);
+            for (byte b : digest.digest()) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            hash = sb.toString();
+            jarHashes.put(key, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Return the paths of the files in a library directory, using the cached listing if still valid.
+     *
+     * @param fs file system of the user.
+     * @param user user the file system belongs to.
+     * @param libPath library directory.
+     * @param shared <code>true</code> for a shared library directory, its cached listing is used without checking the
+     * directory within the cache TTL, <code>false</code> for an application library directory, it is always checked.
+     * @return the paths of the files in the library directory, <code>null</code> if the directory does not exist.
+     * @throws IOException thrown if the library directory could not be listed.
+     */
+    public List<String> getLibFiles(FileSystem fs, String user, Path libPath, boolean shared) throws IOException {
+        String key = user + "@" + fs.getUri() + libPath.toUri().getPath();
+        Listing listing = listings.get(key);
+        long now = System.currentTimeMillis();
+        if (shared && listing != null && now - listing.checked <= ttl) {
+            incr("listings.hits", 1);
+            return listing.files;
+        }
+        FileStatus status;
+        try {
+            status = fs.getFileStatus(libPath);
+        }
+        catch (FileNotFoundException ex) {
+            listings.remove(key);
+            return null;
+        }
+        if (status == null) {
+            listings.remove(key);
+            return null;
+        }
+        if (listing != null && listing.modificationTime == status.getModificationTime()) {
+            listing.checked = now;
+            incr("listings.hits", 1);
+            return listing.files;
+        }
+        List<String> files = new ArrayList<String>();
+        FileStatus[] statuses = fs.listStatus(libPath, ACCEPT_ALL);
+        if (statuses != null) {
+            for (FileStatus file : statuses) {
+                files.add(file.getPath().toUri().getPath().trim());
+            }
+        }
+        files = Collections.unmodifiableList(files);
+        listings.put(key, new Listing(status.getModificationTime(), files));
+        incr("listings.misses", 1);
+        return files;
+    }
+
+    private void incr(String name, long count) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, count);
+        }
+    }
+
+}
@@ -0,0 +1,361 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The SshSessionService runs the ssh and scp commands of the ssh actions, reusing one connection per remote host.
+ * <p/> If {@link #CONF_MULTIPLEXING} is enabled (it is disabled by default) the commands share a per-host OpenSSH
+ * master connection (OpenSSH ControlMaster/ControlPersist, OpenSSH 5.6 or later), the master connection is kept {@link
+ * #CONF_CONTROL_PERSIST} seconds after its last use so consecutive commands to a host do not pay a TCP and
+ * authentication handshake. <p/> The service also keeps, per host, a snapshot of the running process IDs refreshed in
+ * the background every {@link #CONF_STATUS_INTERVAL} seconds with a single command, so checking running ssh actions
+ * does not require a command per action. Only positive answers come from the snapshot. <p/> The commands are run by a
+ * {@link Transport}, the {@link #CONF_TRANSPORT} configuration property indicates its class, by default local
+ * processes are used. <p/> The duration of the commands is instrumented per host.
+ */
+public class SshSessionService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "ssh";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "SshSessionService.";
+
+    public static final String CONF_MULTIPLEXING = CONF_PREFIX + "multiplexing";
+
+    public static final String CONF_CONTROL_PERSIST = CONF_PREFIX + "control.persist";
+
+    public static final String CONF_STATUS_INTERVAL = CONF_PREFIX + "status.interval";
+
+    public static final String CONF_TRANSPORT = CONF_PREFIX + "transport";
+
+    // hosts not checked for this many status intervals are not refreshed anymore
+    private static final int STATUS_IDLE_INTERVALS = 10;
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private Transport transport;
+    private String options;
+    private long statusInterval;
+    private Map<String, HostStatus> statuses = new ConcurrentHashMap<String, HostStatus>();
+    private Instrumentation instrumentation;
+
+    /**
+     * Runs a command, ssh and scp commands are given with all their options.
+     */
+    public static interface Transport {
+
+        /**
+         * Run a command.
+         *
+         * @param command command and its arguments.
+         * @param maxLen maximum length of STDOUT and STDERR kept.
+         * @return the command result.
+         * @throws IOException thrown if the command could not be run.
+         * @throws InterruptedException thrown if interrupted while waiting for the command.
+         */
+        public Result run(String[] command, int maxLen) throws IOException, InterruptedException;
+    }
+
+    /**
+     * Result of a command.
+     */
+    public static class Result {
+        private int exitValue;
+        private String stdout;
+        private String stderr;
+
+        public Result(int exitValue, String stdout, String stderr) {
+            this.exitValue = exitValue;
+            this.stdout = stdout;
+            this.stderr = stderr;
+        }
+
+        public int getExitValue() {
+            return exitValue;
+        }
+
+        public String getStdout() {
+            return stdout;
+        }
+
+        public String getStderr() {
+            return stderr;
+        }
+    }
+
+    /**
+     * {@link Transport} running the commands as local processes. <p/> STDERR is drained by a separate thread while
+     * STDOUT is read, a background master connection keeping the streams open does not block the command.
+     */
+    public static class ProcessTransport implements Transport {
+
+        public Result run(String[] command, int maxLen) throws IOException, InterruptedException {
+            Process process = Runtime.getRuntime().exec(command);
+            try {
+                process.getOutputStream().close();
+                Drainer stderr = new Drainer(process.getErrorStream(), maxLen);
+                Thread errThread = new Thread(stderr, "ssh-stderr");
+                errThread.setDaemon(true);
+                errThread.start();
+                Drainer stdout = new Drainer(process.getInputStream(), maxLen);
+                Thread outThread = new Thread(stdout, "ssh-stdout");
+                outThread.setDaemon(true);
+                outThread.start();
+                int exitValue = process.waitFor();
+                outThread.join(1000);
+                errThread.join(1000);
+                return new Result(exitValue, stdout.toString(), stderr.toString());
+            }
+            finally {
+                process.destroy();
+            }
+        }
+    }
+
+    private static class Drainer implements Runnable {
+        private InputStream is;
+        private int maxLen;
+        private StringBuffer buffer = new StringBuffer();
+
+        private Drainer(InputStream is, int maxLen) {
+            this.is = is;
+            this.maxLen = maxLen;
+        }
+
+        public void run() {
+            try {
+                Reader reader = new BufferedReader(new InputStreamReader(is));
+                char[] buf = new char[1024];
+                int len = reader.read(buf);
+                while (len > -1) {
+                    // the content is kept up to the maximum, the rest is drained
+                    if (buffer.length() < maxLen) {
+                        buffer.append(buf, 0, len);
+                    }
+                    len = reader.read(buf);
+                }
+            }
+            catch (IOException ex) {
+                // stream closed when the process was destroyed
+            }
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+
+    /**
+     * Running process IDs snapshot of a host.
+     */
+    private static class HostStatus {
+        private String listCommand;
+        private volatile Set<String> pids;
+        private volatile long lastUsed;
+
+        private HostStatus(String listCommand) {
+            this.listCommand = listCommand;
+        }
+    }
+
+    /**
+     * Initialize the ssh session service.
+     *
+     * @param services services instance.
+     * @throws ServiceException thrown if the transport could not be created.
+     */
+    public void init(Services services) throws ServiceException {
+        Configuration conf = services.getConf();
+        Class<?> klass = conf.getClass(CONF_TRANSPORT, ProcessTransport.class);
+        if (!Transport.class.isAssignableFrom(klass)) {
+            throw new ServiceException(ErrorCode.E0100, getClass().getName(), XLog.format(
+                    "transport [{0}] does not implement [{1}]", klass.getName(), Transport.class.getName()));
+        }
+        transport = (Transport) ReflectionUtils.newInstance(klass, null);
+        options = "";
+        if (conf.getBoolean(CONF_MULTIPLEXING, false)) {
+            File controlDir = new File(services.getRuntimeDir(), "ssh-control");
+            if (!controlDir.exists() && !controlDir.mkdirs()) {
+                throw new ServiceException(ErrorCode.E0100, getClass().getName(), XLog.format(
+                        "could not create directory [{0}]", controlDir));
+            }
+            // ControlPath must be short, UNIX socket paths are limited to ~100 characters
+            options = "-o ControlMaster=auto -o ControlPath=" + controlDir.getAbsolutePath() + "/%r@%h:%p "
+                    + "-o ControlPersist=" + conf.getInt(CONF_CONTROL_PERSIST, 300) + " ";
+        }
+        statusInterval = conf.getLong(CONF_STATUS_INTERVAL, 10) * 1000;
+        if (statusInterval > 0) {
+            Runnable refresher = new Runnable() {
+                public void run() {
+                    refreshStatuses(System.currentTimeMillis());
+                }
+            };
+            services.get(SchedulerService.class).schedule(refresher, statusInterval / 1000, statusInterval / 1000,
+                                                          SchedulerService.Unit.SEC);
+        }
+    }
+
+    /**
+     * Destroy the ssh session service. Master connections exit on their own once idle.
+     */
+    public void destroy() {
+        statuses.clear();
+    }
+
+    /**
+     * Return the public interface for ssh session service.
+     *
+     * @return {@link SshSessionService}.
+     */
+    public Class<? extends Service> getInterface() {
+        return SshSessionService.class;
+    }
+
+    /**
+     * Instrument the ssh session service.
+     *
+     * @param instr instance to instrument the ssh session service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+    }
+
+    /**
+     * Return the ssh and scp options to share the per-host master connection.
+     *
+     * @return the ssh and scp options, ending with a space, an empty string if multiplexing is disabled.
+     */
+    public String getOptions() {
+        return options;
+    }
+
+    /**
+     * Run a command for a host. The command is split on whitespace.
+     *
+     * @param host host the command connects to, used for the per-host instrumentation, <code>null</code> if unknown.
+     * @param command command to run.
+     * @param maxLen maximum length of STDOUT and STDERR kept.
+     * @return the command result.
+     * @throws IOException thrown if the command could not be run.
+     * @throws InterruptedException thrown if interrupted while waiting for the command.
+     */
+    public Result execute(String host, String command, int maxLen) throws IOException, InterruptedException {
+        Instrumentation.Cron cron = new Instrumentation.Cron();
+        cron.start();
+        try {
+            return transport.run(command.split("\\s"), maxLen);
+        }
+        finally {
+            cron.stop();
+            if (instrumentation != null) {
+                if (host != null) {
+                    instrumentation.addCron(INSTRUMENTATION_GROUP, host, cron);
+                }
+                instrumentation.incr(INSTRUMENTATION_GROUP, "commands", 1);
+            }
+        }
+    }
+
+    /**
+     * Return if a process is known to be running in a host. <p/> The answer comes from the last snapshot of the host,
+     * the first call for a host only registers it to be refreshed.
+     *
+     * @param host host of the process.
+     * @param pid process ID.
+     * @param listCommand command that writes the IDs of the processes running in the host, one per line.
+     * @return <code>true</code> if the process is in the snapshot of the host, <code>false</code> if it is not or if
+     * there is no snapshot yet, the process must then be checked individually.
+     */
+    public boolean isRunning(String host, String pid, String listCommand) {
+        if (statusInterval <= 0) {
+            return false;
+        }
+        HostStatus status = statuses.get(host);
+        if (status == null) {
+            status = new HostStatus(listCommand);
+            HostStatus existing = ((ConcurrentHashMap<String, HostStatus>) statuses).putIfAbsent(host, status);
+            status = (existing != null) ? existing : status;
+        }
+        status.lastUsed = System.currentTimeMillis();
+        Set<String> pids = status.pids;
+        boolean running = pids != null && pids.contains(pid.trim());
+        incr((running) ? "status.running" : "status.not.running");
+        return running;
+    }
+
+    /**
+     * Refresh the running process ID snapshots of the hosts checked recently, forgetting the others.
+     *
+     * @param now current time.
+     */
+    void refreshStatuses(long now) {
+        for (Map.Entry<String, HostStatus> entry : statuses.entrySet()) {
+            HostStatus status = entry.getValue();
+            if (now - status.lastUsed > STATUS_IDLE_INTERVALS * statusInterval) {
+                statuses.remove(entry.getKey());
+                continue;
+            }
+            try {
+                Result result = execute(entry.getKey(), status.listCommand, Integer.MAX_VALUE);
+                if (result.getExitValue() == 0) {
+                    Set<String> pids = new HashSet<String>();
+                    for (String line : result.getStdout().split("\n")) {
+                        if (line.trim().length() > 0) {
+                            pids.add(line.trim());
+                        }
+                    }
+                    status.pids = Collections.unmodifiableSet(pids);
+                    incr("status.refreshes");
+                }
+                else {
+                    status.pids = null;
+                    log.debug("Could not list the processes of [{0}], {1}", entry.getKey(), result.getStderr());
+                }
+            }
+            catch (Exception ex) {
+                status.pids = null;
+                log.warn("Could not list the processes of [{0}], {1}", entry.getKey(), ex.getMessage());
+            }
+        }
+    }
+
+    private void incr(String name) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
+}
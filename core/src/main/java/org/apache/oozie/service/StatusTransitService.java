@@ -41,7 +41,7 @@ import org.apache.oozie.executor.jpa.BundleJobUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.BundleJobsGetPendingJPAExecutor;
 import org.apache.oozie.executor.jpa.BundleJobsGetRunningJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordActionsGetByLastModifiedTimeJPAExecutor;
-import org.apache.oozie.executor.jpa.CoordJobGetActionsJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordJobGetActionsStatusJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobsGetPendingJPAExecutor;
@@ -252,7 +252,7 @@ public class StatusTransitService implements Service {
                         Job.Status[] coordStatus = new Job.Status[1];
                         coordStatus[0] = coordJob.getStatus();
                         List<CoordinatorActionBean> coordActions = jpaService
-                                .execute(new CoordJobGetActionsJPAExecutor(jobId));
+                                .execute(new CoordJobGetActionsStatusJPAExecutor(jobId));
                         HashMap<CoordinatorAction.Status, Integer> coordActionStatus = new HashMap<CoordinatorAction.Status, Integer>();
                         boolean foundPending = false;
                         for (CoordinatorActionBean cAction : coordActions) {
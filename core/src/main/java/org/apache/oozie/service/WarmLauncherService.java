@@ -0,0 +1,690 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.filecache.DistributedCache;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.action.hadoop.WarmLauncher;
+import org.apache.oozie.command.wf.CompletedActionXCommand;
+import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The WarmLauncherService runs action main classes in a pool of long running local launcher processes instead of in
+ * launcher jobs, saving the launcher job submission and JVM startup of every action. <p/> Only the main classes listed
+ * in the {@link #CONF_MAIN_CLASSES} configuration property run in the pool, if none is listed the service is
+ * disabled. <p/> Each pool process runs one action at a time with the {@link WarmLauncher}, the main classes see the
+ * same system properties and produce the same output data, ID swap and error files they do in a launcher job, and
+ * the completion is notified like a launcher job callback. A main class that submits a Hadoop job and swaps the ID
+ * hands the action over to that job. <p/> The JARs in the classpath of the action, its workflow <code>lib/</code> and
+ * share library JARs, are copied to a local cache of the work directory and loaded in a class loader of their own for
+ * each execution. Actions with other files or archives run in a launcher job, as they need the working directory of
+ * a task. <p/> A process running an action longer than {@link #CONF_TIMEOUT} seconds, or running a killed action, is
+ * destroyed and replaced. <p/> If the queue is full the action runs in a launcher job.
+ * Executions are kept in memory, an execution running when the server stops is lost and its action fails when
+ * checked. <p/> The pool processes run as the Oozie server user, the service is disabled if Kerberos is enabled.
+ */
+public class WarmLauncherService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "warmlauncher";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "WarmLauncherService.";
+
+    public static final String CONF_MAIN_CLASSES = CONF_PREFIX + "main.classes";
+
+    public static final String CONF_PROCESSES = CONF_PREFIX + "processes";
+
+    public static final String CONF_QUEUE_SIZE = CONF_PREFIX + "queue.size";
+
+    public static final String CONF_TIMEOUT = CONF_PREFIX + "timeout";
+
+    public static final String CONF_JAVA_OPTS = CONF_PREFIX + "java.opts";
+
+    public static final String CONF_CLASSPATH = CONF_PREFIX + "classpath";
+
+    public static final String CONF_WORK_DIR = CONF_PREFIX + "work.dir";
+
+    /**
+     * Prefix of the external IDs of the actions running in the pool.
+     */
+    public static final String EXTERNAL_ID_PREFIX = "warm_";
+
+    /**
+     * Tracker URI of the actions running in the pool.
+     */
+    public static final String TRACKER_URI = "warm";
+
+    private static final int HIGH_PRIORITY = 2;
+
+    // completed executions not released by their action are discarded after this time
+    private static final long COMPLETED_TTL = 60 * 60 * 1000;
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private Set<String> mainClasses;
+    private BlockingQueue<Execution> queue;
+    private List<Worker> workers;
+    private volatile boolean active;
+    private long timeout;
+    private List<String> command;
+    private File workDir;
+    private File jarsDir;
+    private AtomicInteger sequence = new AtomicInteger();
+    private Map<String, Execution> executions = new ConcurrentHashMap<String, Execution>();
+    private Instrumentation instrumentation;
+
+    /**
+     * Execution of an action main class in a pool process.
+     */
+    public static class Execution implements LauncherExecution {
+        private String actionId;
+        private String externalId;
+        private File dir;
+        private volatile Worker worker;
+        private volatile long startTime;
+        private volatile long endTime;
+        private volatile boolean done;
+        private volatile boolean killed;
+        private Properties output;
+        private Properties error;
+        private String newId;
+
+        private Execution(String actionId, File dir) {
+            this.actionId = actionId;
+            this.externalId = EXTERNAL_ID_PREFIX + actionId;
+            this.dir = dir;
+        }
+
+        /**
+         * Record the result files of the execution, it does nothing if the execution already completed.
+         *
+         * @return <code>true</code> if the result was recorded.
+         * @throws IOException thrown if the result files could not be read.
+         */
+        private synchronized boolean complete() throws IOException {
+            if (done) {
+                return false;
+            }
+            File errorFile = new File(dir, WarmLauncher.ERROR_PROPS);
+            if (errorFile.exists()) {
+                error = load(errorFile);
+            }
+            else {
+                File outputFile = new File(dir, WarmLauncher.OUTPUT_PROPS);
+                output = (outputFile.exists()) ? load(outputFile) : null;
+                File newIdFile = new File(dir, WarmLauncher.NEW_ID_PROPS);
+                newId = (newIdFile.exists()) ? load(newIdFile).getProperty("id") : null;
+            }
+            end();
+            return true;
+        }
+
+        /**
+         * Complete the execution without running it or while it runs.
+         *
+         * @param reason error reason, <code>null</code> if the execution is killed.
+         * @return <code>true</code> if the execution was interrupted, <code>false</code> if it had completed.
+         */
+        private synchronized boolean interrupt(String reason) {
+            if (done) {
+                return false;
+            }
+            if (reason != null) {
+                error = new Properties();
+                error.setProperty("error.code", "0");
+                error.setProperty("error.reason", reason);
+            }
+            else {
+                killed = true;
+            }
+            end();
+            Worker worker = this.worker;
+            if (worker != null) {
+                worker.destroyProcess();
+            }
+            return true;
+        }
+
+        private void end() {
+            done = true;
+            endTime = System.currentTimeMillis();
+            try {
+                IOUtils.delete(dir);
+            }
+            catch (IOException ex) {
+                XLog.getLog(WarmLauncherService.class).warn("Could not delete execution directory [{0}], {1}", dir,
+                                                            ex.getMessage());
+            }
+        }
+
+        private static Properties load(File file) throws IOException {
+            InputStream is = new FileInputStream(file);
+            try {
+                Properties props = new Properties();
+                props.load(is);
+                return props;
+            }
+            finally {
+                is.close();
+            }
+        }
+
+        public String getExternalId() {
+            return externalId;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        public boolean isKilled() {
+            return killed;
+        }
+
+        public synchronized Properties getOutput() {
+            return output;
+        }
+
+        public synchronized Properties getError() {
+            return error;
+        }
+
+        public synchronized String getNewId() {
+            return newId;
+        }
+    }
+
+    /**
+     * Runs the queued executions in its pool process, starting a new process when needed.
+     */
+    private class Worker implements Runnable {
+        private int index;
+        private Process process;
+        private BufferedReader reader;
+        private Writer writer;
+
+        private Worker(int index) {
+            this.index = index;
+        }
+
+        public void run() {
+            while (active) {
+                Execution execution;
+                try {
+                    execution = queue.poll(1, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException ex) {
+                    break;
+                }
+                if (execution != null && !execution.isDone()) {
+                    execute(execution);
+                }
+            }
+            destroyProcess();
+        }
+
+        private void execute(Execution execution) {
+            Instrumentation.Cron cron = new Instrumentation.Cron();
+            cron.start();
+            String line;
+            try {
+                BufferedReader reader;
+                synchronized (this) {
+                    if (execution.isDone()) {
+                        return;
+                    }
+                    if (process == null) {
+                        startProcess();
+                    }
+                    reader = this.reader;
+                    execution.worker = this;
+                    execution.startTime = System.currentTimeMillis();
+                    writer.write(execution.dir.getAbsolutePath() + "\n");
+                    writer.flush();
+                }
+                line = reader.readLine();
+                while (line != null && !WarmLauncher.DONE.equals(line)) {
+                    // output the JVM writes before the launcher redirects it
+                    log.debug("Warm launcher process [{0}]: {1}", index, line);
+                    line = reader.readLine();
+                }
+                if (line == null) {
+                    throw new IOException("launcher process exited");
+                }
+                if (!execution.complete()) {
+                    return;
+                }
+            }
+            catch (IOException ex) {
+                destroyProcess();
+                if (!execution.interrupt("Warm launcher process failed, " + ex.getMessage())) {
+                    // killed or timed out, the process was destroyed for that
+                    return;
+                }
+            }
+            finally {
+                execution.worker = null;
+                cron.stop();
+            }
+            addCron("execution", cron);
+            incr((execution.getError() == null) ? "executions.succeeded" : "executions.failed");
+            queueCompleted(execution);
+        }
+
+        private void startProcess() throws IOException {
+            List<String> cmd = new ArrayList<String>(command);
+            cmd.add(new File(workDir, "launcher-" + index + ".log").getAbsolutePath());
+            process = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+            reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+            writer = new OutputStreamWriter(process.getOutputStream(), "UTF-8");
+            incr("processes.started");
+            log.debug("Warm launcher process [{0}] started", index);
+        }
+
+        private synchronized void destroyProcess() {
+            if (process != null) {
+                process.destroy();
+                process = null;
+                reader = null;
+                writer = null;
+                log.debug("Warm launcher process [{0}] destroyed", index);
+            }
+        }
+    }
+
+    /**
+     * Initialize the warm launcher service, starting the pool threads. The pool processes are started on first use.
+     *
+     * @param services services instance.
+     * @throws ServiceException thrown if the work directory could not be created.
+     */
+    public void init(Services services) throws ServiceException {
+        Configuration conf = services.getConf();
+        mainClasses = new HashSet<String>();
+        String[] classNames = conf.getStrings(CONF_MAIN_CLASSES);
+        if (classNames != null) {
+            for (String className : classNames) {
+                if (className.trim().length() > 0) {
+                    mainClasses.add(className.trim());
+                }
+            }
+        }
+        if (conf.getBoolean(KerberosHadoopAccessorService.KERBEROS_AUTH_ENABLED, false) && !mainClasses.isEmpty()) {
+            log.warn("Kerberos is enabled, main classes {0} run in launcher jobs", mainClasses);
+            mainClasses.clear();
+        }
+        timeout = conf.getLong(CONF_TIMEOUT, 3600) * 1000;
+        if (!mainClasses.isEmpty()) {
+            String dir = conf.get(CONF_WORK_DIR, "").trim();
+            workDir = new File((dir.length() > 0) ? dir : services.getRuntimeDir() + "/warm-launcher");
+            if (!workDir.exists() && !workDir.mkdirs()) {
+                throw new ServiceException(ErrorCode.E0100, getClass().getName(), XLog.format(
+                        "could not create work directory [{0}]", workDir));
+            }
+            jarsDir = new File(workDir, "jars");
+            if (!jarsDir.exists() && !jarsDir.mkdirs()) {
+                throw new ServiceException(ErrorCode.E0100, getClass().getName(), XLog.format(
+                        "could not create JAR cache directory [{0}]", jarsDir));
+            }
+            command = new ArrayList<String>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            String javaOpts = conf.get(CONF_JAVA_OPTS, "").trim();
+            if (javaOpts.length() > 0) {
+                command.addAll(Arrays.asList(javaOpts.split("\\s+")));
+            }
+            String classpath = conf.get(CONF_CLASSPATH, "").trim();
+            command.add("-cp");
+            command.add((classpath.length() > 0) ? classpath : System.getProperty("java.class.path"));
+            command.add(WarmLauncher.class.getName());
+
+            queue = new LinkedBlockingQueue<Execution>(Math.max(1, conf.getInt(CONF_QUEUE_SIZE, 100)));
+            active = true;
+            int processes = Math.max(1, conf.getInt(CONF_PROCESSES, 2));
+            workers = new ArrayList<Worker>();
+            for (int i = 0; i < processes; i++) {
+                Worker worker = new Worker(i);
+                workers.add(worker);
+                Thread thread = new Thread(worker, "warm-launcher-" + i);
+                thread.setDaemon(true);
+                thread.start();
+            }
+            Runnable reaper = new Runnable() {
+                public void run() {
+                    reap(System.currentTimeMillis());
+                }
+            };
+            services.get(SchedulerService.class).schedule(reaper, 60, 60, SchedulerService.Unit.SEC);
+            log.info("Running main classes {0} in [{1}] warm launcher processes", mainClasses, processes);
+        }
+    }
+
+    /**
+     * Destroy the warm launcher service, destroying the pool processes.
+     */
+    public void destroy() {
+        active = false;
+        if (workers != null) {
+            for (Worker worker : workers) {
+                worker.destroyProcess();
+            }
+            workers = null;
+        }
+        executions.clear();
+    }
+
+    /**
+     * Return the public interface for warm launcher service.
+     *
+     * @return {@link WarmLauncherService}.
+     */
+    public Class<? extends Service> getInterface() {
+        return WarmLauncherService.class;
+    }
+
+    /**
+     * Instrument the warm launcher service.
+     *
+     * @param instr instance to instrument the warm launcher service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        instr.addVariable(INSTRUMENTATION_GROUP, "executions", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) executions.size();
+            }
+        });
+    }
+
+    /**
+     * Return if a main class runs in the pool.
+     *
+     * @param mainClass main class name.
+     * @return <code>true</code> if the main class runs in the pool.
+     */
+    public boolean isWarm(String mainClass) {
+        return active && mainClass != null && mainClasses.contains(mainClass);
+    }
+
+    /**
+     * Return if an external ID is of an action running in the pool.
+     *
+     * @param externalId external ID.
+     * @return <code>true</code> if the external ID is of an action running in the pool.
+     */
+    public static boolean isWarmId(String externalId) {
+        return externalId != null && externalId.startsWith(EXTERNAL_ID_PREFIX);
+    }
+
+    /**
+     * Submit an action main class for execution in the pool.
+     *
+     * @param jobId workflow job ID.
+     * @param actionId action ID.
+     * @param mainClass main class name, it must run in the pool.
+     * @param actionConf action configuration.
+     * @param launcherConf launcher job configuration, with the files and archives of the action.
+     * @param fs filesystem for the user of the workflow job, to copy the JARs in the classpath of the action.
+     * @param args action arguments.
+     * @param maxOutputLen maximum length of the output data.
+     * @return the external ID of the execution, <code>null</code> if the queue is full or the action has files or
+     *         archives other than classpath JARs.
+     * @throws IOException thrown if the execution directory could not be written or a JAR could not be copied.
+     */
+    public String submit(String jobId, String actionId, String mainClass, Configuration actionConf,
+                         Configuration launcherConf, FileSystem fs, String[] args, int maxOutputLen)
+            throws IOException {
+        if (!isWarm(mainClass)) {
+            throw new IllegalArgumentException(XLog.format("main class [{0}] does not run in the pool", mainClass));
+        }
+        List<File> classpath = getClassPath(launcherConf, fs);
+        if (classpath == null) {
+            incr("executions.unsupported");
+            log.debug("Action [{0}] has files or archives, it runs in a launcher job", actionId);
+            return null;
+        }
+        File dir = new File(workDir, Integer.toString(sequence.incrementAndGet()));
+        if (!dir.mkdirs()) {
+            throw new IOException(XLog.format("could not create execution directory [{0}]", dir));
+        }
+        Execution execution = new Execution(actionId, dir);
+        Properties props = new Properties();
+        props.setProperty(WarmLauncher.MAIN_CLASS, mainClass);
+        props.setProperty(WarmLauncher.JOB_ID, jobId);
+        props.setProperty(WarmLauncher.ACTION_ID, actionId);
+        props.setProperty(WarmLauncher.LAUNCHER_ID, execution.getExternalId());
+        props.setProperty(WarmLauncher.MAX_OUTPUT_DATA, Integer.toString(maxOutputLen));
+        StringBuilder sb = new StringBuilder();
+        for (File jar : classpath) {
+            if (sb.length() > 0) {
+                sb.append(File.pathSeparator);
+            }
+            sb.append(jar.getAbsolutePath());
+        }
+        props.setProperty(WarmLauncher.CLASSPATH, sb.toString());
+        props.setProperty(WarmLauncher.MAIN_ARG_COUNT, Integer.toString(args.length));
+        for (int i = 0; i < args.length; i++) {
+            props.setProperty(WarmLauncher.MAIN_ARG_PREFIX + i, args[i]);
+        }
+        OutputStream os = new FileOutputStream(new File(dir, WarmLauncher.LAUNCHER_PROPS));
+        try {
+            props.store(os, "");
+        }
+        finally {
+            os.close();
+        }
+        os = new FileOutputStream(new File(dir, WarmLauncher.ACTION_CONF_XML));
+        try {
+            actionConf.writeXml(os);
+        }
+        finally {
+            os.close();
+        }
+        executions.put(execution.getExternalId(), execution);
+        if (!queue.offer(execution)) {
+            executions.remove(execution.getExternalId());
+            IOUtils.delete(dir);
+            incr("executions.rejected");
+            log.debug("Warm launcher queue full, action [{0}] runs in a launcher job", actionId);
+            return null;
+        }
+        incr("executions");
+        return execution.getExternalId();
+    }
+
+    /**
+     * Return the local copies of the JARs in the classpath of an action, copying them to the JAR cache if needed.
+     *
+     * @param launcherConf launcher job configuration.
+     * @param fs filesystem the JARs are in.
+     * @return the local JARs, <code>null</code> if the action has files or archives other than classpath JARs.
+     * @throws IOException thrown if a JAR could not be copied.
+     */
+    private List<File> getClassPath(Configuration launcherConf, FileSystem fs) throws IOException {
+        if (DistributedCache.getCacheArchives(launcherConf) != null) {
+            return null;
+        }
+        Set<String> classpathFiles = new HashSet<String>();
+        Path[] paths = DistributedCache.getFileClassPaths(launcherConf);
+        if (paths != null) {
+            for (Path path : paths) {
+                classpathFiles.add(path.toUri().getPath());
+            }
+        }
+        URI[] files = DistributedCache.getCacheFiles(launcherConf);
+        if (files != null) {
+            for (URI file : files) {
+                if (file.getFragment() != null || !classpathFiles.contains(file.getPath())) {
+                    return null;
+                }
+            }
+        }
+        List<File> jars = new ArrayList<File>();
+        if (paths != null) {
+            for (Path path : paths) {
+                jars.add(getLocalJar(fs, path));
+            }
+        }
+        return jars;
+    }
+
+    /**
+     * Return the local copy of a JAR, copying it to the JAR cache if it is not there or it has changed.
+     *
+     * @param fs filesystem the JAR is in.
+     * @param path JAR path.
+     * @return the local JAR.
+     * @throws IOException thrown if the JAR could not be copied.
+     */
+    private File getLocalJar(FileSystem fs, Path path) throws IOException {
+        FileStatus status = fs.getFileStatus(path);
+        String name = Integer.toHexString(status.getPath().toString().hashCode()) + "-" + status.getLen() + "-"
+                + status.getModificationTime() + "-" + path.getName();
+        File jar = new File(jarsDir, name);
+        if (!jar.exists()) {
+            File tmp = new File(jarsDir, name + "." + sequence.incrementAndGet() + ".tmp");
+            fs.copyToLocalFile(path, new Path(tmp.getAbsolutePath()));
+            if (!tmp.renameTo(jar) && !jar.exists()) {
+                throw new IOException(XLog.format("could not copy [{0}] to the JAR cache", path));
+            }
+            IOUtils.delete(tmp);
+            IOUtils.delete(new File(jarsDir, "." + tmp.getName() + ".crc"));
+            incr("jars.copied");
+        }
+        jar.setLastModified(System.currentTimeMillis());
+        return jar;
+    }
+
+    /**
+     * Return an execution.
+     *
+     * @param externalId external ID of the execution.
+     * @return the execution, <code>null</code> if unknown.
+     */
+    public Execution getExecution(String externalId) {
+        return executions.get(externalId);
+    }
+
+    /**
+     * Kill an execution, destroying its pool process if it is running.
+     *
+     * @param externalId external ID of the execution.
+     */
+    public void kill(String externalId) {
+        Execution execution = executions.remove(externalId);
+        if (execution != null && execution.interrupt(null)) {
+            incr("executions.killed");
+        }
+    }
+
+    /**
+     * Release an execution once its action has ended or swapped to a Hadoop job.
+     *
+     * @param externalId external ID of the execution.
+     */
+    public void release(String externalId) {
+        executions.remove(externalId);
+    }
+
+    /**
+     * Fail the executions running longer than the timeout, discard the completed executions not released and delete
+     * the cached JARs not used recently.
+     *
+     * @param now current time.
+     */
+    void reap(long now) {
+        File[] jars = (jarsDir != null) ? jarsDir.listFiles() : null;
+        if (jars != null) {
+            for (File jar : jars) {
+                if (now - jar.lastModified() > COMPLETED_TTL + timeout) {
+                    jar.delete();
+                }
+            }
+        }
+        Iterator<Execution> it = executions.values().iterator();
+        while (it.hasNext()) {
+            Execution execution = it.next();
+            if (execution.isDone()) {
+                if (now - execution.endTime > COMPLETED_TTL) {
+                    it.remove();
+                }
+            }
+            else if (timeout > 0 && execution.startTime > 0 && now - execution.startTime > timeout) {
+                if (execution.interrupt(XLog.format("Execution timed out after [{0}] seconds", timeout / 1000))) {
+                    incr("executions.timedout");
+                    log.warn("Warm launcher execution [{0}] timed out", execution.getExternalId());
+                    queueCompleted(execution);
+                }
+            }
+        }
+    }
+
+    private void queueCompleted(Execution execution) {
+        // a completion notified before the start of the action has been committed is retried by the command
+        String externalStatus = (execution.getError() == null) ? "SUCCEEDED" : "FAILED/KILLED";
+        CallableQueueService queueService = Services.get().get(CallableQueueService.class);
+        if (queueService == null || !queueService.queue(new CompletedActionXCommand(execution.actionId,
+                                                                                     externalStatus, null,
+                                                                                     HIGH_PRIORITY))) {
+            log.warn("Could not queue the completion of [{0}], it will be seen by the action checker",
+                     execution.getExternalId());
+        }
+    }
+
+    private void incr(String name) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
+    private void addCron(String name, Instrumentation.Cron cron) {
+        if (instrumentation != null) {
+            instrumentation.addCron(INSTRUMENTATION_GROUP, name, cron);
+        }
+    }
+
+}
@@ -169,9 +169,9 @@ public abstract class WorkflowAppService implements Service {
                 // app path could be a directory
                 Path path = new Path(uri.getPath());
                 if (!fs.isFile(path)) {
-                    filePaths = getLibFiles(fs, new Path(appPath + "/lib"));
+                    filePaths = getLibFiles(fs, user, new Path(appPath + "/lib"), false);
                 } else {
-                    filePaths = getLibFiles(fs, new Path(appPath.getParent(), "lib"));
+                    filePaths = getLibFiles(fs, user, new Path(appPath.getParent(), "lib"), false);
                 }
             }
             else {
@@ -183,14 +183,14 @@ public abstract class WorkflowAppService implements Service {
                 for (int i = 0; i < libPaths.length; i++) {
                     if (libPaths[i].trim().length() > 0) {
                         Path libPath = new Path(libPaths[i].trim());
-                        List<String> libFilePaths = getLibFiles(fs, libPath);
+                        List<String> libFilePaths = getLibFiles(fs, user, libPath, false);
                         filePaths.addAll(libFilePaths);
                     }
                 }
             }
 
             if (systemLibPath != null && jobConf.getBoolean(OozieClient.USE_SYSTEM_LIBPATH, false)) {
-                List<String> libFilePaths = getLibFiles(fs, systemLibPath);
+                List<String> libFilePaths = getLibFiles(fs, user, systemLibPath, true);
                 filePaths.addAll(libFilePaths);
             }
 
@@ -240,14 +240,25 @@ public abstract class WorkflowAppService implements Service {
     public abstract WorkflowApp parseDef(String wfXml) throws WorkflowException;
 
     /**
-     * Get all library paths.
+     * Get all library paths. <p/> If the {@link ShareLibService} is available the listing is cached.
      *
      * @param fs file system object.
+     * @param user user the file system belongs to.
      * @param libPath hdfs library path.
+     * @param shared <code>true</code> if the library path is the system libpath.
      * @return list of paths.
      * @throws IOException thrown if the lib paths could not be obtained.
      */
-    private List<String> getLibFiles(FileSystem fs, Path libPath) throws IOException {
+    private List<String> getLibFiles(FileSystem fs, String user, Path libPath, boolean shared) throws IOException {
+        ShareLibService shareLibService = Services.get().get(ShareLibService.class);
+        if (shareLibService != null) {
+            List<String> files = shareLibService.getLibFiles(fs, user, libPath, shared);
+            if (files == null) {
+                XLog.getLog(getClass()).warn("libpath [{0}] does not exists", libPath);
+                return new ArrayList<String>();
+            }
+            return new ArrayList<String>(files);
+        }
         List<String> libPaths = new ArrayList<String>();
         if (fs.exists(libPath)) {
             FileStatus[] files = fs.listStatus(libPath, new NoPathFilter());
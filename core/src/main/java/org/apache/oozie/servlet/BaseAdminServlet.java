@@ -25,13 +25,18 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.oozie.BuildInfo;
+import org.apache.oozie.command.XCommandProfile;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.service.AuthorizationException;
 import org.apache.oozie.service.AuthorizationService;
+import org.apache.oozie.service.CommandProfilerService;
 import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.MetricsExportService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.InstrumentationFilter;
+import org.apache.oozie.util.PrometheusInstrumentationWriter;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
@@ -74,8 +79,8 @@ public abstract class BaseAdminServlet extends JsonRestServlet {
     }
 
     /**
-     * Return safemode state, instrumentation, configuration, osEnv or
-     * javaSysProps
+     * Return safemode state, instrumentation, configuration, osEnv,
+     * javaSysProps, the instrumentation in Prometheus text format or the slowest recent commands
      */
     @Override
     @SuppressWarnings("unchecked")
@@ -117,6 +122,31 @@ public abstract class BaseAdminServlet extends JsonRestServlet {
             getQueueDump(json);
             sendJsonResponse(response, HttpServletResponse.SC_OK, json);
         }
+        else if (resource.equals(RestConstants.ADMIN_METRICS_RESOURCE)) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(PrometheusInstrumentationWriter.CONTENT_TYPE);
+            MetricsExportService metricsService = Services.get().get(MetricsExportService.class);
+            if (metricsService != null) {
+                metricsService.writePrometheus(response.getWriter());
+            }
+            else {
+                new PrometheusInstrumentationWriter(instr, InstrumentationFilter.ALL).write(response.getWriter());
+            }
+        }
+        else if (resource.equals(RestConstants.ADMIN_SLOW_COMMANDS_RESOURCE)) {
+            String lenStr = request.getParameter(RestConstants.LEN_PARAM);
+            int len = (lenStr != null) ? Integer.parseInt(lenStr) : -1;
+            JSONArray array = new JSONArray();
+            CommandProfilerService profilerService = Services.get().get(CommandProfilerService.class);
+            if (profilerService != null) {
+                for (XCommandProfile profile : profilerService.getSlowCommands(len)) {
+                    array.add(profile.toJSONObject());
+                }
+            }
+            JSONObject json = new JSONObject();
+            json.put(JsonTags.SLOW_COMMANDS, array);
+            sendJsonResponse(response, HttpServletResponse.SC_OK, json);
+        }
     }
 
     @Override
@@ -18,7 +18,9 @@
 package org.apache.oozie.servlet;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -32,7 +34,10 @@ import org.apache.oozie.service.Services;
 import org.apache.oozie.service.WorkflowAppService;
 import org.apache.oozie.util.JobUtils;
 import org.apache.oozie.util.XConfiguration;
+import org.apache.oozie.util.XLog;
+import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
 
 public abstract class BaseJobsServlet extends JsonRestServlet {
 
@@ -52,23 +57,41 @@ public abstract class BaseJobsServlet extends JsonRestServlet {
                                                   String.class, false, Arrays.asList("GET")),
                 new JsonRestServlet.ParameterInfo(RestConstants.LEN_PARAM,
                                                   String.class, false, Arrays.asList("GET")),
+                new JsonRestServlet.ParameterInfo(RestConstants.JOBS_CURSOR_PARAM,
+                                                  String.class, false, Arrays.asList("GET")),
+                new JsonRestServlet.ParameterInfo(RestConstants.JOBS_CHANGES_PARAM,
+                                                  String.class, false, Arrays.asList("GET")),
+                new JsonRestServlet.ParameterInfo(RestConstants.JOBS_TIMEOUT_PARAM,
+                                                  Integer.class, false, Arrays.asList("GET")),
 
                 new JsonRestServlet.ParameterInfo(
                         RestConstants.JOBS_EXTERNAL_ID_PARAM, String.class,
                         false, Arrays.asList("GET"))));
     }
 
+    public static final String CONF_STATUS_MAX_JOBS = "oozie.servlet.BaseJobsServlet.status.max.jobs";
+
     public BaseJobsServlet(String instrumentationName) {
         super(instrumentationName, RESOURCES_INFO);
     }
 
     /**
-     * Create a job.
+     * Create a job, or return the status of several jobs if the action is {@link RestConstants#JOBS_ACTION_STATUS}.
      */
     @Override
     @SuppressWarnings("unchecked")
     protected void doPost(HttpServletRequest request,
             HttpServletResponse response) throws ServletException, IOException {
+        if (RestConstants.JOBS_ACTION_STATUS.equals(request.getParameter(RestConstants.ACTION_PARAM))) {
+            validateContentType(request, RestConstants.JSON_CONTENT_TYPE);
+            request.setAttribute(AUDIT_OPERATION, RestConstants.JOBS_ACTION_STATUS);
+            List<String> jobIds = getJobIds(request);
+            stopCron();
+            JSONObject json = getJobsStatus(request, jobIds);
+            startCron();
+            sendJsonResponse(response, HttpServletResponse.SC_OK, json);
+            return;
+        }
         String authTok = getAuthToken(request);
         /*
          * Enumeration p = request.getAttributeNames();
@@ -111,6 +134,12 @@ public abstract class BaseJobsServlet extends JsonRestServlet {
             startCron();
             sendJsonResponse(response, HttpServletResponse.SC_OK, json);
         }
+        else if (request.getParameter(RestConstants.JOBS_CHANGES_PARAM) != null) {
+            stopCron();
+            JSONObject json = getJobChanges(request);
+            startCron();
+            sendJsonResponse(response, HttpServletResponse.SC_OK, json);
+        }
         else {
             stopCron();
             JSONObject json = getJobs(request);
@@ -119,6 +148,72 @@ public abstract class BaseJobsServlet extends JsonRestServlet {
         }
     }
 
+    /**
+     * Read the job IDs of a bulk jobs status request, a JSON array of job IDs.
+     *
+     * @param request servlet request.
+     * @return the job IDs.
+     * @throws XServletException thrown if the request is not a JSON array of job IDs or if it has too many IDs.
+     * @throws IOException thrown if the request could not be read.
+     */
+    private List<String> getJobIds(HttpServletRequest request) throws XServletException, IOException {
+        Object json = JSONValue.parse(request.getReader());
+        if (!(json instanceof JSONArray)) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0422,
+                                        "the request must be a JSON array of job IDs");
+        }
+        int max = Services.get().getConf().getInt(CONF_STATUS_MAX_JOBS, 5000);
+        JSONArray array = (JSONArray) json;
+        if (array.size() > max) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0422,
+                                        XLog.format("[{0}] job IDs exceed the maximum [{1}]", array.size(), max));
+        }
+        List<String> jobIds = new ArrayList<String>(array.size());
+        for (Object id : array) {
+            if (!(id instanceof String)) {
+                throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0422,
+                                            XLog.format("invalid job ID [{0}]", id));
+            }
+            jobIds.add((String) id);
+        }
+        return jobIds;
+    }
+
+    /**
+     * Return the status of several jobs.
+     * <p/>
+     * This implementation does not support bulk status requests, it throws an {@link XServletException}.
+     *
+     * @param request servlet request.
+     * @param jobIds IDs of the jobs.
+     * @return JSONObject with the status of the jobs.
+     * @throws XServletException thrown if the jobs status could not be obtained.
+     * @throws IOException thrown if the jobs status could not be obtained.
+     */
+    JSONObject getJobsStatus(HttpServletRequest request, List<String> jobIds) throws XServletException,
+            IOException {
+        throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0303, RestConstants.ACTION_PARAM,
+                                    RestConstants.JOBS_ACTION_STATUS);
+    }
+
+    /**
+     * Return the job and action status transitions that happened after the cursor given in the {@link
+     * RestConstants#JOBS_CHANGES_PARAM} parameter, waiting for them up to the {@link RestConstants#JOBS_TIMEOUT_PARAM}
+     * seconds.
+     * <p/>
+     * This implementation does not support the job changes feed, it throws an {@link XServletException}.
+     *
+     * @param request servlet request.
+     * @return JSONObject with the status transitions.
+     * @throws XServletException thrown if the status transitions could not be obtained.
+     * @throws IOException thrown if the status transitions could not be obtained.
+     */
+    JSONObject getJobChanges(HttpServletRequest request) throws XServletException, IOException {
+        throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0303,
+                                    RestConstants.JOBS_CHANGES_PARAM, request.getParameter(
+                RestConstants.JOBS_CHANGES_PARAM));
+    }
+
     /**
      * abstract method to submit a job, either workflow or coordinator in the case of workflow job, there is an optional
      * flag in request to indicate if want this job to be started immediately or not
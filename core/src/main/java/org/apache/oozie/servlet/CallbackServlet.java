@@ -29,9 +29,16 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.oozie.DagEngine;
 import org.apache.oozie.DagEngineException;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.action.hadoop.LauncherMapper;
+import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.client.rest.RestConstants;
+import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.executor.jpa.WorkflowActionGetJPAExecutor;
 import org.apache.oozie.service.CallbackService;
 import org.apache.oozie.service.DagEngineService;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.LauncherDataService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.IOUtils;
 import org.apache.oozie.util.PropertiesUtils;
@@ -128,10 +135,29 @@ public class CallbackServlet extends JsonRestServlet {
         validateContentType(request, RestConstants.TEXT_CONTENT_TYPE);
         try {
             log.info(XLog.STD, "callback for action [{0}]", actionId);
-            String data = IOUtils.getReaderAsString(request.getReader(), maxDataLen);
+            String externalStatus = callbackService.getExternalStatus(queryString);
+            LauncherDataService launcherDataService = null;
+            int maxLen = maxDataLen;
+            if (LauncherDataService.isLauncherData(externalStatus)) {
+                launcherDataService = Services.get().get(LauncherDataService.class);
+                if (launcherDataService == null) {
+                    throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0403,
+                                                "launcher data not accepted");
+                }
+                maxLen = launcherDataService.getMaxDataLen();
+                validateLauncher(actionId, request.getHeader(LauncherMapper.DATA_LAUNCHER_ID_HEADER));
+            }
+            String data = IOUtils.getReaderAsString(request.getReader(), maxLen);
             Properties props = PropertiesUtils.stringToProperties(data);
+            // the launcher writes the data to the action dir if it is not accepted
+            if (launcherDataService != null && !launcherDataService.put(actionId,
+                    request.getHeader(LauncherMapper.DATA_LAUNCHER_ID_HEADER),
+                    request.getHeader(LauncherMapper.DATA_SECRET_HEADER), externalStatus, props, data.length())) {
+                throw new XServletException(HttpServletResponse.SC_SERVICE_UNAVAILABLE, ErrorCode.E0403,
+                                            "launcher data not accepted");
+            }
             DagEngine dagEngine = Services.get().get(DagEngineService.class).getSystemDagEngine();
-            dagEngine.processCallback(actionId, callbackService.getExternalStatus(queryString), props);
+            dagEngine.processCallback(actionId, externalStatus, props);
         }
         catch (IOException ex) {
             if (ex.getMessage().startsWith("stream exceeds limit")) {
@@ -146,4 +172,26 @@ public class CallbackServlet extends JsonRestServlet {
             throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
         }
     }
+
+    /**
+     * Validate launcher data is posted by the launcher job of a running action.
+     *
+     * @param actionId action ID.
+     * @param launcherId ID of the launcher job posting the data.
+     * @throws XServletException thrown if the action is not running or its external ID is not the launcher job ID.
+     */
+    private void validateLauncher(String actionId, String launcherId) throws XServletException {
+        WorkflowActionBean action;
+        try {
+            action = Services.get().get(JPAService.class).execute(new WorkflowActionGetJPAExecutor(actionId));
+        }
+        catch (JPAExecutorException ex) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
+        }
+        if (action.getStatus() != WorkflowAction.Status.RUNNING || launcherId == null
+                || !launcherId.equals(action.getExternalId())) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0403,
+                                        "launcher [" + launcherId + "] is not running the action");
+        }
+    }
 }
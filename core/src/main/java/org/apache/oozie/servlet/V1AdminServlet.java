@@ -37,7 +37,7 @@ public class V1AdminServlet extends BaseAdminServlet {
 
     private static final long serialVersionUID = 1L;
     private static final String INSTRUMENTATION_NAME = "v1admin";
-    private static final ResourceInfo RESOURCES_INFO[] = new ResourceInfo[7];
+    private static final ResourceInfo RESOURCES_INFO[] = new ResourceInfo[9];
 
     static {
         RESOURCES_INFO[0] = new ResourceInfo(RestConstants.ADMIN_STATUS_RESOURCE, Arrays.asList("PUT", "GET"),
@@ -55,6 +55,10 @@ public class V1AdminServlet extends BaseAdminServlet {
                 Collections.EMPTY_LIST);
         RESOURCES_INFO[6] = new ResourceInfo(RestConstants.ADMIN_QUEUE_DUMP_RESOURCE, Arrays.asList("GET"),
                 Collections.EMPTY_LIST);
+        RESOURCES_INFO[7] = new ResourceInfo(RestConstants.ADMIN_METRICS_RESOURCE, Arrays.asList("GET"),
+                Collections.EMPTY_LIST);
+        RESOURCES_INFO[8] = new ResourceInfo(RestConstants.ADMIN_SLOW_COMMANDS_RESOURCE, Arrays.asList("GET"),
+                Arrays.asList(new ParameterInfo(RestConstants.LEN_PARAM, Integer.class, false, Arrays.asList("GET"))));
     }
 
     public V1AdminServlet() {
@@ -18,6 +18,7 @@
 package org.apache.oozie.servlet;
 
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.servlet.ServletInputStream;
@@ -44,6 +45,7 @@ import org.apache.oozie.service.BundleEngineService;
 import org.apache.oozie.service.CoordinatorEngineService;
 import org.apache.oozie.service.DagEngineService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.StreamingJSONArray;
 import org.apache.oozie.util.XLog;
 import org.json.simple.JSONObject;
 
@@ -702,8 +704,17 @@ public class V1JobServlet extends BaseJobServlet {
         int len = (lenStr != null) ? Integer.parseInt(lenStr) : 0;
         len = (len < 1) ? Integer.MAX_VALUE : len;
         try {
-            JsonCoordinatorJob coordJob = coordEngine.getCoordJob(jobId, start, len);
-            jobBean = coordJob;
+            // the actions are streamed into the response as they are read, in batches, not loaded with the job
+            final JsonCoordinatorJob coordJob = coordEngine.getCoordJobWithNoActionInfo(jobId);
+            final Iterator<CoordinatorActionBean> actions = coordEngine.getCoordActions(jobId, start, len);
+            jobBean = new JsonBean() {
+                @SuppressWarnings("unchecked")
+                public JSONObject toJSONObject() {
+                    JSONObject json = coordJob.toJSONObject();
+                    json.put(JsonTags.COORDINATOR_ACTIONS, new StreamingJSONArray(actions));
+                    return json;
+                }
+            };
         }
         catch (CoordinatorEngineException ex) {
             throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
@@ -24,6 +24,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.BaseEngineException;
 import org.apache.oozie.BundleJobBean;
 import org.apache.oozie.BundleJobInfo;
 import org.apache.oozie.CoordinatorEngine;
@@ -38,12 +39,17 @@ import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.WorkflowsInfo;
 import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.rest.JsonJobStatusEvent;
+import org.apache.oozie.client.rest.JsonJobStatusInfo;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.service.CoordinatorEngineService;
 import org.apache.oozie.service.DagEngineService;
 import org.apache.oozie.service.BundleEngineService;
+import org.apache.oozie.service.ChangeFeedService;
+import org.apache.oozie.service.ServiceException;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.StreamingJSONArray;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.XmlUtils;
 import org.json.simple.JSONObject;
@@ -142,6 +148,57 @@ public class V1JobsServlet extends BaseJobsServlet {
         return json;
     }
 
+    /**
+     * v1 service implementation to get the status of several workflow, coordinator and bundle jobs
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    JSONObject getJobsStatus(HttpServletRequest request, List<String> jobIds) throws XServletException,
+            IOException {
+        JSONObject json = new JSONObject();
+        try {
+            DagEngine dagEngine = Services.get().get(DagEngineService.class).getDagEngine(getUser(request),
+                                                                                         getAuthToken(request));
+            json.put(JsonTags.JOBS_STATUS, JsonJobStatusInfo.toJSONArray(dagEngine.getJobsStatus(jobIds)));
+        }
+        catch (BaseEngineException ex) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
+        }
+        return json;
+    }
+
+    /**
+     * v1 service implementation to get the job and action status transitions from the job changes feed
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    JSONObject getJobChanges(HttpServletRequest request) throws XServletException, IOException {
+        ChangeFeedService changeFeed = Services.get().get(ChangeFeedService.class);
+        if (changeFeed == null) {
+            throw new XServletException(HttpServletResponse.SC_SERVICE_UNAVAILABLE, ErrorCode.E0423);
+        }
+        String cursor = request.getParameter(RestConstants.JOBS_CHANGES_PARAM);
+        String filter = request.getParameter(RestConstants.JOBS_FILTER_PARAM);
+        String jobType = request.getParameter(RestConstants.JOBTYPE_PARAM);
+        String lenStr = request.getParameter(RestConstants.LEN_PARAM);
+        String timeoutStr = request.getParameter(RestConstants.JOBS_TIMEOUT_PARAM);
+        int len = (lenStr != null) ? Integer.parseInt(lenStr) : 100;
+        len = (len < 1) ? 100 : len;
+        int timeout = (timeoutStr != null) ? Integer.parseInt(timeoutStr) : 30;
+        try {
+            ChangeFeedService.Changes changes = changeFeed.getChanges(cursor,
+                    ChangeFeedService.parseFilter(filter, jobType), len, timeout * 1000L);
+            JSONObject json = new JSONObject();
+            json.put(JsonTags.JOB_CHANGES, JsonJobStatusEvent.toJSONArray(changes.getEvents()));
+            json.put(JsonTags.JOB_CHANGES_NEXT_CURSOR, changes.getNextCursor());
+            json.put(JsonTags.JOB_CHANGES_LOST, changes.isLost());
+            return json;
+        }
+        catch (ServiceException ex) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
+        }
+    }
+
     /**
      * v1 service implementation to submit a workflow job
      */
@@ -284,18 +341,29 @@ public class V1JobsServlet extends BaseJobsServlet {
             String filter = request.getParameter(RestConstants.JOBS_FILTER_PARAM);
             String startStr = request.getParameter(RestConstants.OFFSET_PARAM);
             String lenStr = request.getParameter(RestConstants.LEN_PARAM);
+            String cursor = request.getParameter(RestConstants.JOBS_CURSOR_PARAM);
             int start = (startStr != null) ? Integer.parseInt(startStr) : 1;
             start = (start < 1) ? 1 : start;
             int len = (lenStr != null) ? Integer.parseInt(lenStr) : 50;
             len = (len < 1) ? 50 : len;
             DagEngine dagEngine = Services.get().get(DagEngineService.class).getDagEngine(getUser(request),
                     getAuthToken(request));
-            WorkflowsInfo jobs = dagEngine.getJobs(filter, start, len);
-            List<WorkflowJobBean> jsonWorkflows = jobs.getWorkflows();
-            json.put(JsonTags.WORKFLOWS_JOBS, WorkflowJobBean.toJSONArray(jsonWorkflows));
-            json.put(JsonTags.WORKFLOWS_TOTAL, jobs.getTotal());
-            json.put(JsonTags.WORKFLOWS_OFFSET, jobs.getStart());
-            json.put(JsonTags.WORKFLOWS_LEN, jobs.getLen());
+            if (cursor != null) {
+                WorkflowsInfo jobs = dagEngine.getJobs(filter, cursor, len);
+                json.put(JsonTags.WORKFLOWS_JOBS, new StreamingJSONArray(jobs.getWorkflows().iterator()));
+                json.put(JsonTags.WORKFLOWS_LEN, jobs.getLen());
+                if (jobs.getNextCursor() != null) {
+                    json.put(JsonTags.WORKFLOWS_NEXT_CURSOR, jobs.getNextCursor());
+                }
+            }
+            else {
+                WorkflowsInfo jobs = dagEngine.getJobs(filter, start, len);
+                List<WorkflowJobBean> jsonWorkflows = jobs.getWorkflows();
+                json.put(JsonTags.WORKFLOWS_JOBS, new StreamingJSONArray(jsonWorkflows.iterator()));
+                json.put(JsonTags.WORKFLOWS_TOTAL, jobs.getTotal());
+                json.put(JsonTags.WORKFLOWS_OFFSET, jobs.getStart());
+                json.put(JsonTags.WORKFLOWS_LEN, jobs.getLen());
+            }
 
         }
         catch (DagEngineException ex) {
@@ -324,7 +392,7 @@ public class V1JobsServlet extends BaseJobsServlet {
                     getUser(request), getAuthToken(request));
             CoordinatorJobInfo jobs = coordEngine.getCoordJobs(filter, start, len);
             List<CoordinatorJobBean> jsonJobs = jobs.getCoordJobs();
-            json.put(JsonTags.COORDINATOR_JOBS, CoordinatorJobBean.toJSONArray(jsonJobs));
+            json.put(JsonTags.COORDINATOR_JOBS, new StreamingJSONArray(jsonJobs.iterator()));
             json.put(JsonTags.COORD_JOB_TOTAL, jobs.getTotal());
             json.put(JsonTags.COORD_JOB_OFFSET, jobs.getStart());
             json.put(JsonTags.COORD_JOB_LEN, jobs.getLen());
@@ -353,7 +421,7 @@ public class V1JobsServlet extends BaseJobsServlet {
             BundleJobInfo jobs = bundleEngine.getBundleJobs(filter, start, len);
             List<BundleJobBean> jsonJobs = jobs.getBundleJobs();
 
-            json.put(JsonTags.BUNDLE_JOBS, BundleJobBean.toJSONArray(jsonJobs));
+            json.put(JsonTags.BUNDLE_JOBS, new StreamingJSONArray(jsonJobs.iterator()));
             json.put(JsonTags.BUNDLE_JOB_TOTAL, jobs.getTotal());
             json.put(JsonTags.BUNDLE_JOB_OFFSET, jobs.getStart());
             json.put(JsonTags.BUNDLE_JOB_LEN, jobs.getLen());
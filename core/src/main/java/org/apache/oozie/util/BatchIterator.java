@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.util;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An iterator that reads a range of elements in batches. <p/> Only one batch is held in memory at a time, the next
+ * batch is read when the current one has been consumed. A batch shorter than requested means there are no more
+ * elements. <p/> If a batch cannot be read, {@link #hasNext()} throws a {@link RuntimeException} with the cause.
+ *
+ * @param <T> element type.
+ */
+public abstract class BatchIterator<T> implements Iterator<T> {
+    private int next;
+    private int remaining;
+    private final int batchSize;
+    private List<T> batch;
+    private int index;
+    private boolean done;
+
+    /**
+     * Create a batch iterator.
+     *
+     * @param start offset of the first element, base 1.
+     * @param len maximum number of elements to iterate over.
+     * @param batchSize number of elements to read per batch.
+     */
+    public BatchIterator(int start, int len, int batchSize) {
+        ParamChecker.checkGTZero(batchSize, "batchSize");
+        this.next = start;
+        this.remaining = len;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Read a batch of elements.
+     *
+     * @param start offset of the first element of the batch, base 1.
+     * @param len number of elements to read.
+     * @return the elements read, fewer than <code>len</code> if there are no more elements.
+     * @throws Exception thrown if the batch could not be read.
+     */
+    protected abstract List<T> read(int start, int len) throws Exception;
+
+    public boolean hasNext() {
+        if (batch != null && index < batch.size()) {
+            return true;
+        }
+        if (done || remaining <= 0) {
+            return false;
+        }
+        int len = Math.min(batchSize, remaining);
+        try {
+            batch = read(next, len);
+        }
+        catch (Exception ex) {
+            throw new RuntimeException(XLog.format("Could not read batch, start [{0}] len [{1}], {2}", next, len,
+                                                   ex.getMessage()), ex);
+        }
+        index = 0;
+        next += batch.size();
+        remaining -= batch.size();
+        done = batch.size() < len;
+        return batch.size() > 0;
+    }
+
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return batch.get(index++);
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+}
@@ -0,0 +1,204 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.util;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.MetricsExportService;
+import org.apache.oozie.service.SchedulerService;
+import org.apache.oozie.service.ServiceException;
+import org.apache.oozie.service.Services;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+
+/**
+ * Periodically reports the {@link Instrumentation} using the Graphite plaintext protocol, one
+ * <code>[PREFIX].[TYPE].[GROUP].[NAME] [VALUE] [EPOCH-SECONDS]</code> line per value. <p/> The {@link #CONF_URI}
+ * configuration property indicates where to report to, a <code>tcp://HOST:PORT</code> URI for a Graphite (carbon)
+ * listener or a <code>file:///PATH</code> URI for a file the report is appended to. <p/> The report is done every
+ * {@link #CONF_INTERVAL} seconds, a report that fails is logged and dropped.
+ */
+public class GraphiteInstrumentationExporter implements InstrumentationExporter {
+
+    public static final String CONF_URI = MetricsExportService.CONF_PREFIX + "graphite.uri";
+
+    public static final String CONF_PREFIX = MetricsExportService.CONF_PREFIX + "graphite.prefix";
+
+    public static final String CONF_INTERVAL = MetricsExportService.CONF_PREFIX + "graphite.interval";
+
+    private static final int CONNECT_TIMEOUT = 10 * 1000;
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private Instrumentation instr;
+    private InstrumentationFilter filter;
+    private URI uri;
+    private String prefix;
+    private volatile boolean active;
+
+    /**
+     * Initialize the exporter scheduling the periodic report.
+     *
+     * @param services services instance.
+     * @param instr system instrumentation.
+     * @param filter filter with the groups to export.
+     * @throws ServiceException thrown if the report URI is invalid.
+     */
+    public void init(Services services, Instrumentation instr, InstrumentationFilter filter) throws ServiceException {
+        this.instr = instr;
+        this.filter = filter;
+        String target = services.getConf().get(CONF_URI, "").trim();
+        try {
+            uri = new URI(target);
+        }
+        catch (URISyntaxException ex) {
+            throw new ServiceException(ErrorCode.E0100, getClass().getName(), ex.getMessage(), ex);
+        }
+        if (!"tcp".equals(uri.getScheme()) && !"file".equals(uri.getScheme())) {
+            throw new ServiceException(ErrorCode.E0100, getClass().getName(), XLog.format(
+                    "invalid [{0}] value [{1}], it must be a tcp:// or file:// URI", CONF_URI, target));
+        }
+        prefix = services.getConf().get(CONF_PREFIX, "oozie").trim();
+        active = true;
+        int interval = services.getConf().getInt(CONF_INTERVAL, 60);
+        if (interval > 0) {
+            Runnable reporter = new Runnable() {
+                public void run() {
+                    if (active) {
+                        try {
+                            report();
+                        }
+                        catch (IOException ex) {
+                            log.warn("Could not report instrumentation to [{0}], {1}", uri, ex.getMessage(), ex);
+                        }
+                    }
+                }
+            };
+            services.get(SchedulerService.class).schedule(reporter, interval, interval, SchedulerService.Unit.SEC);
+        }
+        log.info("Reporting instrumentation to [{0}] every [{1}] seconds", uri, interval);
+    }
+
+    /**
+     * Stop reporting.
+     */
+    public void destroy() {
+        active = false;
+    }
+
+    /**
+     * Report the current instrumentation values.
+     *
+     * @throws IOException thrown if the report could not be written.
+     */
+    public void report() throws IOException {
+        long timestamp = System.currentTimeMillis() / 1000;
+        if ("file".equals(uri.getScheme())) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(uri.getPath(), true),
+                                                                      "UTF-8"));
+            try {
+                write(writer, timestamp);
+            }
+            finally {
+                writer.close();
+            }
+        }
+        else {
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(uri.getHost(), uri.getPort()), CONNECT_TIMEOUT);
+                Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF-8"));
+                write(writer, timestamp);
+                writer.flush();
+            }
+            finally {
+                socket.close();
+            }
+        }
+    }
+
+    /**
+     * Write the current instrumentation values in Graphite plaintext format.
+     *
+     * @param writer writer to write to, it is not closed.
+     * @param timestamp timestamp of the values, in seconds since the epoch.
+     * @throws IOException thrown if the values could not be written.
+     */
+    void write(Writer writer, long timestamp) throws IOException {
+        String suffix = " " + timestamp + "\n";
+        for (Map.Entry<String, Map<String, Instrumentation.Element<Long>>> group :
+                filter.filter(instr.getCounters()).entrySet()) {
+            for (Map.Entry<String, Instrumentation.Element<Long>> entry : group.getValue().entrySet()) {
+                writer.write(path("counters", group.getKey(), entry.getKey()) + " " + entry.getValue().getValue()
+                             + suffix);
+            }
+        }
+        writeValues(writer, "variables", filter.filter(instr.getVariables()), suffix);
+        writeValues(writer, "samplers", filter.filter(instr.getSamplers()), suffix);
+        for (Map.Entry<String, Map<String, Instrumentation.Element<Instrumentation.Timer>>> group :
+                filter.filter(instr.getTimers()).entrySet()) {
+            for (Map.Entry<String, Instrumentation.Element<Instrumentation.Timer>> entry :
+                    group.getValue().entrySet()) {
+                Instrumentation.Timer timer = entry.getValue().getValue();
+                String path = path("timers", group.getKey(), entry.getKey());
+                writer.write(path + ".ticks " + timer.getTicks() + suffix);
+                writer.write(path + ".ownTimeAvg " + timer.getOwnAvg() + suffix);
+                writer.write(path + ".totalTimeAvg " + timer.getTotalAvg() + suffix);
+                writer.write(path + ".ownMaxTime " + timer.getOwnMax() + suffix);
+                writer.write(path + ".totalMaxTime " + timer.getTotalMax() + suffix);
+            }
+        }
+    }
+
+    private <T> void writeValues(Writer writer, String type, Map<String, Map<String, Instrumentation.Element<T>>>
+            elements, String suffix) throws IOException {
+        for (Map.Entry<String, Map<String, Instrumentation.Element<T>>> group : elements.entrySet()) {
+            for (Map.Entry<String, Instrumentation.Element<T>> entry : group.getValue().entrySet()) {
+                Object value = entry.getValue().getValue();
+                if (value instanceof Boolean) {
+                    value = ((Boolean) value) ? 1 : 0;
+                }
+                if (value instanceof Number) {
+                    writer.write(path(type, group.getKey(), entry.getKey()) + " " + value + suffix);
+                }
+            }
+        }
+    }
+
+    private String path(String type, String group, String name) {
+        StringBuilder sb = new StringBuilder(prefix.length() + type.length() + group.length() + name.length() + 3);
+        if (prefix.length() > 0) {
+            sb.append(prefix).append('.');
+        }
+        sb.append(type).append('.').append(sanitize(group)).append('.').append(sanitize(name));
+        return sb.toString();
+    }
+
+    private static String sanitize(String value) {
+        return value.replaceAll("[\\s#/]", "_");
+    }
+
+}
@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.util;
+
+import org.apache.oozie.service.ServiceException;
+import org.apache.oozie.service.Services;
+
+/**
+ * An exporter publishes the system {@link Instrumentation} to an external monitoring system. <p/> Exporters are
+ * created and managed by the {@link org.apache.oozie.service.MetricsExportService}, they must have a public no-arg
+ * constructor.
+ */
+public interface InstrumentationExporter {
+
+    /**
+     * Initialize the exporter.
+     *
+     * @param services services instance.
+     * @param instr system instrumentation.
+     * @param filter filter with the groups to export.
+     * @throws ServiceException thrown if the exporter could not be initialized.
+     */
+    public void init(Services services, Instrumentation instr, InstrumentationFilter filter) throws ServiceException;
+
+    /**
+     * Destroy the exporter, releasing any resource it holds.
+     */
+    public void destroy();
+
+}
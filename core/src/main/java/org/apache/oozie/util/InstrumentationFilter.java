@@ -0,0 +1,112 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects which {@link Instrumentation} groups are exported. <p/> A group is accepted if it matches any of the include
+ * patterns (or there are no include patterns) and it does not match any of the exclude patterns. <p/> A pattern is
+ * either a group name or a prefix followed by '*'. <p/> Filtering is done at group level, the elements of rejected
+ * groups are never snapshot.
+ */
+public class InstrumentationFilter {
+
+    /**
+     * Filter that accepts all groups.
+     */
+    public static final InstrumentationFilter ALL = new InstrumentationFilter(null, null);
+
+    private List<String> includes;
+    private List<String> excludes;
+
+    /**
+     * Create a group filter.
+     *
+     * @param includes include patterns, <code>null</code> or empty means all groups.
+     * @param excludes exclude patterns, <code>null</code> or empty means none.
+     */
+    public InstrumentationFilter(Collection<String> includes, Collection<String> excludes) {
+        this.includes = trim(includes);
+        this.excludes = trim(excludes);
+    }
+
+    private static List<String> trim(Collection<String> patterns) {
+        List<String> list = new ArrayList<String>();
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (pattern != null && pattern.trim().length() > 0) {
+                    list.add(pattern.trim());
+                }
+            }
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    private static boolean matches(List<String> patterns, String group) {
+        for (String pattern : patterns) {
+            if (pattern.endsWith("*")) {
+                if (group.startsWith(pattern.substring(0, pattern.length() - 1))) {
+                    return true;
+                }
+            }
+            else if (pattern.equals(group)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return if a group is accepted by the filter.
+     *
+     * @param group group name.
+     * @return <code>true</code> if the group is accepted.
+     */
+    public boolean accept(String group) {
+        return (includes.isEmpty() || matches(includes, group)) && !matches(excludes, group);
+    }
+
+    /**
+     * Return the accepted groups of an instrumentation elements map. <p/> The returned map is a copy of the group
+     * level, the element maps are the live ones.
+     *
+     * @param elements instrumentation elements by group.
+     * @return the accepted groups, sorted by group name.
+     */
+    public <T> Map<String, Map<String, T>> filter(Map<String, Map<String, T>> elements) {
+        List<String> groups = new ArrayList<String>(elements.keySet());
+        Collections.sort(groups);
+        Map<String, Map<String, T>> filtered = new LinkedHashMap<String, Map<String, T>>();
+        for (String group : groups) {
+            if (accept(group)) {
+                Map<String, T> map = elements.get(group);
+                if (map != null) {
+                    filtered.put(group, map);
+                }
+            }
+        }
+        return filtered;
+    }
+
+}
@@ -0,0 +1,281 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.util;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.MetricsExportService;
+import org.apache.oozie.service.SchedulerService;
+import org.apache.oozie.service.ServiceException;
+import org.apache.oozie.service.Services;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Exports the {@link Instrumentation} as JMX MBeans of the platform MBean server. <p/> There is one MBean per
+ * instrumentation element type and group, named <code>org.apache.oozie:type=[TYPE],group=[GROUP]</code>. Counters,
+ * variables and samplers are exposed as attributes with the element name, timers are exposed as
+ * <code>[NAME].[STAT]</code> attributes. <p/> Attribute values are read from the instrumentation when requested.
+ * Groups created after startup are registered every {@link #CONF_REFRESH_INTERVAL} seconds.
+ */
+public class JMXInstrumentationExporter implements InstrumentationExporter {
+
+    public static final String CONF_REFRESH_INTERVAL = MetricsExportService.CONF_PREFIX + "jmx.refresh.interval";
+
+    public static final String DOMAIN = "org.apache.oozie";
+
+    private static final String[] TIMER_STATS = {"ticks", "ownTimeAvg", "totalTimeAvg", "ownMinTime",
+            "ownMaxTime", "totalMinTime", "totalMaxTime"};
+
+    private final XLog log = XLog.getLog(getClass());
+
+    private MBeanServer mbeanServer;
+    private Instrumentation instr;
+    private InstrumentationFilter filter;
+    private Set<ObjectName> registered = new TreeSet<ObjectName>();
+    private volatile boolean active;
+
+    /**
+     * Initialize the exporter registering the MBeans for the existing groups.
+     *
+     * @param services services instance.
+     * @param instr system instrumentation.
+     * @param filter filter with the groups to export.
+     * @throws ServiceException thrown if the MBeans could not be registered.
+     */
+    public void init(Services services, Instrumentation instr, InstrumentationFilter filter) throws ServiceException {
+        this.instr = instr;
+        this.filter = filter;
+        mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        active = true;
+        try {
+            refresh();
+        }
+        catch (Exception ex) {
+            throw new ServiceException(ErrorCode.E0100, getClass().getName(), ex.getMessage(), ex);
+        }
+        int interval = services.getConf().getInt(CONF_REFRESH_INTERVAL, 60);
+        if (interval > 0) {
+            Runnable refresher = new Runnable() {
+                public void run() {
+                    try {
+                        refresh();
+                    }
+                    catch (Exception ex) {
+                        log.warn("Could not register instrumentation MBeans, {0}", ex.getMessage(), ex);
+                    }
+                }
+            };
+            services.get(SchedulerService.class).schedule(refresher, interval, interval, SchedulerService.Unit.SEC);
+        }
+    }
+
+    /**
+     * Register the MBeans for groups that do not have one yet.
+     *
+     * @throws Exception thrown if a MBean could not be registered.
+     */
+    public synchronized void refresh() throws Exception {
+        if (active) {
+            register("counters", instr.getCounters());
+            register("timers", instr.getTimers());
+            register("variables", instr.getVariables());
+            register("samplers", instr.getSamplers());
+        }
+    }
+
+    private <T> void register(String type, Map<String, Map<String, Instrumentation.Element<T>>> elements)
+            throws Exception {
+        for (String group : filter.filter(elements).keySet()) {
+            ObjectName name = getObjectName(type, group);
+            if (!registered.contains(name)) {
+                if (mbeanServer.isRegistered(name)) {
+                    mbeanServer.unregisterMBean(name);
+                }
+                mbeanServer.registerMBean(new GroupMBean(type, group, elements), name);
+                registered.add(name);
+            }
+        }
+    }
+
+    /**
+     * Return the object name of the MBean of an instrumentation group.
+     *
+     * @param type element type, <code>counters, timers, variables</code> or <code>samplers</code>.
+     * @param group group name.
+     * @return the object name.
+     * @throws Exception thrown if the object name is invalid.
+     */
+    public static ObjectName getObjectName(String type, String group) throws Exception {
+        return new ObjectName(DOMAIN + ":type=" + type + ",group=" + quote(group));
+    }
+
+    private static String quote(String value) {
+        for (char c : ",=:*?\"\n".toCharArray()) {
+            if (value.indexOf(c) > -1) {
+                return ObjectName.quote(value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Unregister all the MBeans registered by the exporter.
+     */
+    public synchronized void destroy() {
+        active = false;
+        for (ObjectName name : registered) {
+            try {
+                if (mbeanServer.isRegistered(name)) {
+                    mbeanServer.unregisterMBean(name);
+                }
+            }
+            catch (Exception ex) {
+                log.warn("Could not unregister MBean [{0}], {1}", name, ex.getMessage(), ex);
+            }
+        }
+        registered.clear();
+    }
+
+    /**
+     * MBean exposing the elements of one instrumentation group.
+     */
+    private static class GroupMBean implements DynamicMBean {
+        private String type;
+        private String group;
+        private Map<String, Map<String, Instrumentation.Element<?>>> elements;
+
+        @SuppressWarnings("unchecked")
+        public GroupMBean(String type, String group, Map elements) {
+            this.type = type;
+            this.group = group;
+            this.elements = elements;
+        }
+
+        private Map<String, Instrumentation.Element<?>> getGroup() {
+            return elements.get(group);
+        }
+
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Map<String, Instrumentation.Element<?>> map = getGroup();
+            String name = attribute;
+            String stat = null;
+            if (type.equals("timers")) {
+                int index = attribute.lastIndexOf('.');
+                if (index > 0) {
+                    name = attribute.substring(0, index);
+                    stat = attribute.substring(index + 1);
+                }
+            }
+            Instrumentation.Element<?> element = (map != null) ? map.get(name) : null;
+            if (element == null) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            Object value = element.getValue();
+            if (value instanceof Instrumentation.Timer) {
+                return getTimerStat((Instrumentation.Timer) value, stat, attribute);
+            }
+            return (value instanceof Number || value instanceof Boolean) ? value : String.valueOf(value);
+        }
+
+        private Object getTimerStat(Instrumentation.Timer timer, String stat, String attribute)
+                throws AttributeNotFoundException {
+            if ("ticks".equals(stat)) {
+                return timer.getTicks();
+            }
+            else if ("ownTimeAvg".equals(stat)) {
+                return timer.getOwnAvg();
+            }
+            else if ("totalTimeAvg".equals(stat)) {
+                return timer.getTotalAvg();
+            }
+            else if ("ownMinTime".equals(stat)) {
+                return timer.getOwnMin();
+            }
+            else if ("ownMaxTime".equals(stat)) {
+                return timer.getOwnMax();
+            }
+            else if ("totalMinTime".equals(stat)) {
+                return timer.getTotalMin();
+            }
+            else if ("totalMaxTime".equals(stat)) {
+                return timer.getTotalMax();
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(attribute)));
+                }
+                catch (AttributeNotFoundException ex) {
+                    // skipping, as per DynamicMBean contract
+                }
+            }
+            return list;
+        }
+
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Instrumentation attributes are read-only");
+        }
+
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException();
+        }
+
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attrs = new ArrayList<MBeanAttributeInfo>();
+            Map<String, Instrumentation.Element<?>> map = getGroup();
+            if (map != null) {
+                for (String name : new TreeSet<String>(map.keySet())) {
+                    if (type.equals("timers")) {
+                        for (String stat : TIMER_STATS) {
+                            attrs.add(new MBeanAttributeInfo(name + "." + stat, Long.class.getName(), stat, true,
+                                                             false, false));
+                        }
+                    }
+                    else {
+                        String klass = type.equals("counters") ? Long.class.getName() : Object.class.getName();
+                        attrs.add(new MBeanAttributeInfo(name, klass, name, true, false, false));
+                    }
+                }
+            }
+            return new MBeanInfo(getClass().getName(), "Oozie instrumentation " + type + " [" + group + "]",
+                                 attrs.toArray(new MBeanAttributeInfo[attrs.size()]), null, null, null);
+        }
+    }
+
+}
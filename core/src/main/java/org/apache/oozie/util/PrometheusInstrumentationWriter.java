@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link Instrumentation} elements in the Prometheus text exposition format (version 0.0.4). <p/> Group and
+ * element names are written as the <code>group</code> and <code>name</code> labels of fixed metric names, so they do
+ * not need to be valid Prometheus metric names. <p/> Only numeric and boolean variables are written.
+ */
+public class PrometheusInstrumentationWriter {
+
+    /**
+     * Content type of the Prometheus text exposition format.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=UTF-8";
+
+    private static final String PREFIX = "oozie_";
+    private static final String NL = "\n";
+
+    private Instrumentation instr;
+    private InstrumentationFilter filter;
+
+    /**
+     * Create a Prometheus writer.
+     *
+     * @param instr instrumentation to write.
+     * @param filter groups to write.
+     */
+    public PrometheusInstrumentationWriter(Instrumentation instr, InstrumentationFilter filter) {
+        this.instr = ParamChecker.notNull(instr, "instr");
+        this.filter = (filter != null) ? filter : InstrumentationFilter.ALL;
+    }
+
+    /**
+     * Write the instrumentation.
+     *
+     * @param writer writer to write to, it is not closed.
+     * @throws IOException thrown if the instrumentation could not be written.
+     */
+    public void write(Writer writer) throws IOException {
+        writeCounters(writer);
+        writeValues(writer, "variable", filter.filter(instr.getVariables()));
+        writeValues(writer, "sampler", filter.filter(instr.getSamplers()));
+        writeTimers(writer);
+        writer.flush();
+    }
+
+    private void writeCounters(Writer writer) throws IOException {
+        Map<String, Map<String, Instrumentation.Element<Long>>> counters = filter.filter(instr.getCounters());
+        writeType(writer, "counter", "counter");
+        for (Map.Entry<String, Map<String, Instrumentation.Element<Long>>> group : counters.entrySet()) {
+            for (Map.Entry<String, Instrumentation.Element<Long>> entry : group.getValue().entrySet()) {
+                writeSample(writer, "counter", group.getKey(), entry.getKey(), entry.getValue().getValue());
+            }
+        }
+    }
+
+    private <T> void writeValues(Writer writer, String metric, Map<String, Map<String, Instrumentation.Element<T>>>
+            elements) throws IOException {
+        writeType(writer, metric, "gauge");
+        for (Map.Entry<String, Map<String, Instrumentation.Element<T>>> group : elements.entrySet()) {
+            for (Map.Entry<String, Instrumentation.Element<T>> entry : group.getValue().entrySet()) {
+                Object value = entry.getValue().getValue();
+                if (value instanceof Boolean) {
+                    value = ((Boolean) value) ? 1 : 0;
+                }
+                if (value instanceof Number) {
+                    writeSample(writer, metric, group.getKey(), entry.getKey(), (Number) value);
+                }
+            }
+        }
+    }
+
+    private void writeTimers(Writer writer) throws IOException {
+        Map<String, Map<String, Instrumentation.Element<Instrumentation.Timer>>> timers =
+                filter.filter(instr.getTimers());
+        List<String[]> keys = new ArrayList<String[]>();
+        List<Instrumentation.Timer> snapshots = new ArrayList<Instrumentation.Timer>();
+        for (Map.Entry<String, Map<String, Instrumentation.Element<Instrumentation.Timer>>> group :
+                timers.entrySet()) {
+            for (Map.Entry<String, Instrumentation.Element<Instrumentation.Timer>> entry :
+                    group.getValue().entrySet()) {
+                keys.add(new String[]{group.getKey(), entry.getKey()});
+                snapshots.add(entry.getValue().getValue());
+            }
+        }
+        String[] metrics = {"timer_ticks", "timer_own_ms", "timer_total_ms", "timer_own_max_ms",
+                "timer_total_max_ms"};
+        String[] types = {"counter", "counter", "counter", "gauge", "gauge"};
+        for (int m = 0; m < metrics.length; m++) {
+            writeType(writer, metrics[m], types[m]);
+            for (int i = 0; i < snapshots.size(); i++) {
+                Instrumentation.Timer timer = snapshots.get(i);
+                long value;
+                switch (m) {
+                    case 0:
+                        value = timer.getTicks();
+                        break;
+                    case 1:
+                        value = timer.getOwn();
+                        break;
+                    case 2:
+                        value = timer.getTotal();
+                        break;
+                    case 3:
+                        value = timer.getOwnMax();
+                        break;
+                    default:
+                        value = timer.getTotalMax();
+                }
+                writeSample(writer, metrics[m], keys.get(i)[0], keys.get(i)[1], value);
+            }
+        }
+    }
+
+    private void writeType(Writer writer, String metric, String type) throws IOException {
+        writer.write("# TYPE " + PREFIX + metric + " " + type + NL);
+    }
+
+    private void writeSample(Writer writer, String metric, String group, String name, Number value)
+            throws IOException {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(PREFIX).append(metric).append("{group=\"");
+        escape(sb, group);
+        sb.append("\",name=\"");
+        escape(sb, name);
+        sb.append("\"} ").append(value).append(NL);
+        writer.write(sb.toString());
+    }
+
+    private static void escape(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+
+}
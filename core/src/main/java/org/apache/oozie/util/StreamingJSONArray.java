@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.util;
+
+import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.client.rest.RestConstants;
+import org.json.simple.JSONStreamAware;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+/**
+ * A JSON array that writes the JSON of its {@link JsonBean} elements as it iterates over them. <p/> Unlike a {@link
+ * org.json.simple.JSONArray}, the JSON of all the elements is never held in memory at once, only the JSON of the
+ * element being written. It can be used as a value of a {@link org.json.simple.JSONObject} written with {@link
+ * org.json.simple.JSONObject#writeJSONString(Writer)}. <p/> The elements are iterated only once, the array can be
+ * written only once. <p/> The HTTP status has already been sent when an element fails, instead of closing the array
+ * the {@link RestConstants#STREAM_ERROR_MARKER} and the error message are written, so the response is not valid JSON
+ * and clients detect the failure.
+ */
+public class StreamingJSONArray implements JSONStreamAware {
+    private Iterator<? extends JsonBean> beans;
+
+    /**
+     * Create a streaming JSON array.
+     *
+     * @param beans iterator over the elements of the array.
+     */
+    public StreamingJSONArray(Iterator<? extends JsonBean> beans) {
+        this.beans = ParamChecker.notNull(beans, "beans");
+    }
+
+    /**
+     * Write the JSON array, iterating over its elements.
+     *
+     * @param out writer to write to.
+     * @throws IOException thrown if the array could not be written or an element failed, in the latter case the
+     * error marker has been written.
+     * @throws IllegalStateException thrown if the array has already been written.
+     */
+    public void writeJSONString(Writer out) throws IOException {
+        if (beans == null) {
+            throw new IllegalStateException("Streaming JSON array already written");
+        }
+        Iterator<? extends JsonBean> it = beans;
+        beans = null;
+        out.write('[');
+        boolean first = true;
+        try {
+            while (it.hasNext()) {
+                if (!first) {
+                    out.write(',');
+                }
+                it.next().toJSONObject().writeJSONString(out);
+                first = false;
+            }
+        }
+        catch (RuntimeException ex) {
+            out.write('\n');
+            out.write(RestConstants.STREAM_ERROR_MARKER);
+            out.write(String.valueOf(ex.getMessage()));
+            out.flush();
+            IOException ioEx = new IOException("Streaming JSON array failed, " + ex.getMessage());
+            ioEx.initCause(ex);
+            throw ioEx;
+        }
+        out.write(']');
+    }
+
+}
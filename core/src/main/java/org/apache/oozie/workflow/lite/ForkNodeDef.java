@@ -25,6 +25,12 @@ public class ForkNodeDef extends NodeDef {
 
     public static final String FORK_COUNT_PREFIX = "workflow.fork.";
 
+    /**
+     * Prefix of the variable with the name of the fork node that created the execution paths of a fork, the join
+     * uses it to identify the branch arriving.
+     */
+    public static final String FORK_NODE_PREFIX = "workflow.forknode.";
+
     ForkNodeDef() {
     }
 
@@ -42,6 +48,7 @@ public class ForkNodeDef extends NodeDef {
         public List<String> multiExit(Context context) {
             List<String> transitions = context.getNodeDef().getTransitions();
             context.setVar(FORK_COUNT_PREFIX + context.getExecutionPath(), "" + transitions.size());
+            context.setVar(FORK_NODE_PREFIX + context.getExecutionPath(), context.getNodeDef().getName());
 
             List<String> fullTransitions = new ArrayList<String>(transitions.size());
 
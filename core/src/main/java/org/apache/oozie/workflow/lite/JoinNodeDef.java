@@ -18,10 +18,12 @@
 package org.apache.oozie.workflow.lite;
 
 import org.apache.oozie.workflow.WorkflowException;
+import org.apache.oozie.util.XLog;
 import org.apache.oozie.ErrorCode;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 //TODO javadoc
@@ -34,6 +36,12 @@ public class JoinNodeDef extends NodeDef {
         super(name, null, JoinNodeHandler.class, Arrays.asList(transition));
     }
 
+    /**
+     * Prefix of the variable with the branches of a fork that arrived to the join, a hexadecimal bitset indexed by the
+     * position of the branch in the fork transitions.
+     */
+    public static final String JOIN_ARRIVED_PREFIX = "workflow.join.";
+
     public static class JoinNodeHandler extends NodeHandler {
 
         public void loopDetection(Context context) throws WorkflowException {
@@ -42,31 +50,84 @@ public class JoinNodeDef extends NodeDef {
                 throw new WorkflowException(ErrorCode.E0709, context.getNodeDef().getName());
             }
             String parentExecutionPath = context.getParentExecutionPath(context.getExecutionPath());
-            String forkCount = context.getVar(ForkNodeDef.FORK_COUNT_PREFIX + parentExecutionPath);
-            if (forkCount == null) {
-                throw new WorkflowException(ErrorCode.E0720, context.getNodeDef().getName());
+            int forkCount = getForkCount(context, parentExecutionPath);
+            int branch = getBranch(context, parentExecutionPath);
+            boolean last;
+            if (branch < 0) {
+                last = forkCount - 1 == 0;
             }
-            int count = Integer.parseInt(forkCount) - 1;
-            if (count == 0) {
+            else {
+                BitSet arrived = decode(context.getVar(JOIN_ARRIVED_PREFIX + parentExecutionPath));
+                last = !arrived.get(branch) && arrived.cardinality() + 1 == forkCount;
+            }
+            if (last) {
                 context.setVar(flag, "true");
             }
         }
 
         public boolean enter(Context context) throws WorkflowException {
             String parentExecutionPath = context.getParentExecutionPath(context.getExecutionPath());
-            String forkCount = context.getVar(ForkNodeDef.FORK_COUNT_PREFIX + parentExecutionPath);
-            if (forkCount == null) {
-                throw new WorkflowException(ErrorCode.E0720, context.getNodeDef().getName());
+            int forkCount = getForkCount(context, parentExecutionPath);
+            int branch = getBranch(context, parentExecutionPath);
+            if (branch < 0) {
+                // fork started before the arrived branches were tracked, counting down the fork count
+                int count = forkCount - 1;
+                if (count > 0) {
+                    context.setVar(ForkNodeDef.FORK_COUNT_PREFIX + parentExecutionPath, "" + count);
+                    context.deleteExecutionPath();
+                }
+                else {
+                    context.setVar(ForkNodeDef.FORK_COUNT_PREFIX + parentExecutionPath, null);
+                }
+                return (count == 0);
             }
-            int count = Integer.parseInt(forkCount) - 1;
-            if (count > 0) {
-                context.setVar(ForkNodeDef.FORK_COUNT_PREFIX + parentExecutionPath, "" + count);
+            BitSet arrived = decode(context.getVar(JOIN_ARRIVED_PREFIX + parentExecutionPath));
+            if (arrived.get(branch)) {
+                // the branch already arrived, it must not count twice
+                XLog.getLog(getClass()).warn(XLog.STD, "Branch [{0}] already arrived to join [{1}], ignoring it",
+                                             context.getExecutionPath(), context.getNodeDef().getName());
                 context.deleteExecutionPath();
+                return false;
             }
-            else {
+            arrived.set(branch);
+            boolean last = arrived.cardinality() == forkCount;
+            if (last) {
+                context.setVar(JOIN_ARRIVED_PREFIX + parentExecutionPath, null);
                 context.setVar(ForkNodeDef.FORK_COUNT_PREFIX + parentExecutionPath, null);
+                context.setVar(ForkNodeDef.FORK_NODE_PREFIX + parentExecutionPath, null);
+            }
+            else {
+                context.setVar(JOIN_ARRIVED_PREFIX + parentExecutionPath, encode(arrived));
+                context.deleteExecutionPath();
+            }
+            return last;
+        }
+
+        private int getForkCount(Context context, String parentExecutionPath) throws WorkflowException {
+            String forkCount = context.getVar(ForkNodeDef.FORK_COUNT_PREFIX + parentExecutionPath);
+            if (forkCount == null) {
+                throw new WorkflowException(ErrorCode.E0720, context.getNodeDef().getName());
             }
-            return (count == 0);
+            return Integer.parseInt(forkCount);
+        }
+
+        /**
+         * Return the position of the arriving branch in the transitions of its fork.
+         *
+         * @param context node context.
+         * @param parentExecutionPath execution path of the fork.
+         * @return the branch position, <code>-1</code> if the fork node is not known.
+         */
+        private int getBranch(Context context, String parentExecutionPath) {
+            String forkName = context.getVar(ForkNodeDef.FORK_NODE_PREFIX + parentExecutionPath);
+            NodeDef forkDef = (forkName != null)
+                              ? context.getProcessInstance().getProcessDefinition().getNode(forkName) : null;
+            if (forkDef == null) {
+                return -1;
+            }
+            String executionPath = context.getExecutionPath();
+            String branchName = executionPath.substring(parentExecutionPath.length(), executionPath.length() - 1);
+            return forkDef.getTransitions().indexOf(branchName);
         }
 
         public List<String> multiExit(Context context) {
@@ -92,4 +153,33 @@ public class JoinNodeDef extends NodeDef {
         }
     }
 
+    static BitSet decode(String value) {
+        BitSet bits = new BitSet();
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                int digit = Character.digit(value.charAt(i), 16);
+                for (int j = 0; j < 4; j++) {
+                    if ((digit & (1 << j)) != 0) {
+                        bits.set(i * 4 + j);
+                    }
+                }
+            }
+        }
+        return bits;
+    }
+
+    static String encode(BitSet bits) {
+        StringBuilder sb = new StringBuilder((bits.length() + 3) / 4);
+        for (int i = 0; i < bits.length(); i += 4) {
+            int digit = 0;
+            for (int j = 0; j < 4; j++) {
+                if (bits.get(i + j)) {
+                    digit |= 1 << j;
+                }
+            }
+            sb.append(Character.forDigit(digit, 16));
+        }
+        return sb.toString();
+    }
+
 }
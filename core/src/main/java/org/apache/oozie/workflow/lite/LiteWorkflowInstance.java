@@ -150,6 +150,7 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
     private Map<String, NodeInstance> executionPaths = new HashMap<String, NodeInstance>();
     private Map<String, String> persistentVars = new HashMap<String, String>();
     private Map<String, Object> transientVars = new HashMap<String, Object>();
+    private boolean modified;
 
     protected LiteWorkflowInstance() {
         log = XLog.getLog(getClass());
@@ -162,6 +163,7 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
         this.conf = ParamChecker.notNull(conf, "conf");
         refreshLog();
         status = Status.PREP;
+        modified = true;
     }
 
     public synchronized boolean start() throws WorkflowException {
@@ -169,6 +171,7 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
             throw new WorkflowException(ErrorCode.E0719);
         }
         log.debug(XLog.STD, "Starting job");
+        modified = true;
         status = Status.RUNNING;
         executionPaths.put(ROOT, new NodeInstance(StartNodeDef.START));
         return signal(ROOT, StartNodeDef.START);
@@ -183,6 +186,7 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
         if (status != Status.RUNNING) {
             throw new WorkflowException(ErrorCode.E0716);
         }
+        modified = true;
         NodeInstance nodeJob = executionPaths.get(executionPath);
         if (nodeJob == null) {
             status = Status.FAILED;
@@ -332,6 +336,7 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
         if (status.isEndState()) {
             throw new WorkflowException(ErrorCode.E0718);
         }
+        modified = true;
         String failedNode = failNode(nodeName);
         if (failedNode != null) {
             log.warn(XLog.STD, "Workflow Failed. Failing node [{0}]", failedNode);
@@ -351,6 +356,7 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
             throw new WorkflowException(ErrorCode.E0718);
         }
         log.debug(XLog.STD, "Killing job");
+        modified = true;
         List<String> killedNodes = killNodes();
         if (killedNodes.size() > 1) {
             log.warn(XLog.STD, "workflow killed, killing [{0}] nodes", killedNodes.size());
@@ -363,6 +369,7 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
             throw new WorkflowException(ErrorCode.E0716);
         }
         log.debug(XLog.STD, "Suspending job");
+        modified = true;
         this.status = Status.SUSPENDED;
     }
 
@@ -375,16 +382,19 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
             throw new WorkflowException(ErrorCode.E0717);
         }
         log.debug(XLog.STD, "Resuming job");
+        modified = true;
         status = Status.RUNNING;
     }
 
     public void setVar(String name, String value) {
+        String oldValue;
         if (value != null) {
-            persistentVars.put(name, value);
+            oldValue = persistentVars.put(name, value);
         }
         else {
-            persistentVars.remove(name);
+            oldValue = persistentVars.remove(name);
         }
+        modified |= (value != null) ? !value.equals(oldValue) : oldValue != null;
     }
 
     @Override
@@ -395,6 +405,7 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
     @Override
     public void setAllVars(Map<String, String> varMap) {
         persistentVars.putAll(varMap);
+        modified |= !varMap.isEmpty();
     }
 
     public String getVar(String name) {
@@ -542,9 +553,27 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
     }
 
     public void setStatus(Status status) {
+        modified |= this.status != status;
         this.status = status;
     }
 
+    /**
+     * Return if the persistent state of the instance changed since it was created, deserialized or last marked as
+     * persisted. <p/> Transient variables are not persistent state.
+     *
+     * @return <code>true</code> if the instance must be serialized again to persist its state.
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Mark the current state of the instance as persisted.
+     */
+    public void resetModified() {
+        modified = false;
+    }
+
     @Override
     public void write(DataOutput dOut) throws IOException {
         dOut.writeUTF(instanceId);
@@ -601,6 +630,7 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
             String vVal = dIn.readUTF();
             persistentVars.put(vName, vVal);
         }
+        modified = false;
         refreshLog();
     }
 
@@ -17,11 +17,24 @@
  */
 package org.apache.oozie.action.email;
 
+import java.util.Map;
+
 import org.apache.oozie.WorkflowActionBean;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.action.hadoop.ActionExecutorTestCase;
+import org.apache.oozie.client.WorkflowAction;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.command.XCommand;
+import org.apache.oozie.executor.jpa.WorkflowActionGetJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowActionInsertJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowActionUpdateJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowJobInsertJPAExecutor;
+import org.apache.oozie.service.EmailService;
+import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.WorkflowAppService;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XmlUtils;
 import org.jdom.Element;
@@ -46,6 +59,7 @@ public class TestEmailActionExecutor extends ActionExecutorTestCase {
     protected void setSystemProps() {
         super.setSystemProps();
         setSystemProperty("oozie.service.ActionService.executor.classes", EmailActionExecutor.class.getName());
+        setSystemProperty(EmailService.CONF_THREADS, "1");
     }
 
     private Context createNormalContext(String actionXml) throws Exception {
@@ -119,6 +133,69 @@ public class TestEmailActionExecutor extends ActionExecutorTestCase {
         assertEquals("bod", GreenMailUtil.getBody(server.getReceivedMessages()[0]));
     }
 
+    public void testAsyncEmail() throws Exception {
+        final EmailActionExecutor email = new EmailActionExecutor();
+        final Context ctx = createNormalContext(XmlUtils.prettyPrint(prepareEmailElement(false)).toString());
+        final WorkflowActionBean action = (WorkflowActionBean) ctx.getAction();
+        email.start(ctx, action);
+        assertTrue(EmailService.isEmailId(action.getExternalId()));
+        assertEquals(EmailService.TRACKER_URI, action.getTrackerUri());
+        assertFalse(ctx.isExecuted());
+        waitFor(10 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                email.check(ctx, action);
+                return ctx.isExecuted();
+            }
+        });
+        assertEquals("OK", action.getExternalStatus());
+        assertEquals("bod", GreenMailUtil.getBody(server.getReceivedMessages()[0]));
+        email.end(ctx, action);
+        assertEquals(WorkflowAction.Status.OK, action.getStatus());
+        assertNull(Services.get().get(EmailService.class).getDelivery(action.getExternalId()));
+    }
+
+    public void testAsyncEmailCallbackBeforeStartCommit() throws Exception {
+        EmailActionExecutor email = new EmailActionExecutor();
+        Context ctx = createNormalContext(XmlUtils.prettyPrint(prepareEmailElement(false)).toString());
+        WorkflowJobBean wf = (WorkflowJobBean) ctx.getWorkflow();
+        WorkflowActionBean action = (WorkflowActionBean) ctx.getAction();
+        wf.setStatus(WorkflowJob.Status.RUNNING);
+        action.setJobId(wf.getId());
+        action.setStatus(WorkflowAction.Status.PREP);
+        action.setPending();
+        final JPAService jpaService = Services.get().get(JPAService.class);
+        jpaService.execute(new WorkflowJobInsertJPAExecutor(wf));
+        jpaService.execute(new WorkflowActionInsertJPAExecutor(action));
+
+        // the email is sent and its completion notified while the start of the action is not committed
+        email.start(ctx, action);
+        assertTrue(EmailService.isEmailId(action.getExternalId()));
+        waitFor(10 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return getCounter("callback.preconditionfailed") > 0;
+            }
+        });
+        assertEquals(1, server.getReceivedMessages().length);
+
+        // the start commits, the retried completion checks the action
+        jpaService.execute(new WorkflowActionUpdateJPAExecutor(action));
+        final String actionId = action.getId();
+        waitFor(10 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return "OK".equals(jpaService.execute(new WorkflowActionGetJPAExecutor(actionId)).getExternalStatus());
+            }
+        });
+        assertEquals("OK", jpaService.execute(new WorkflowActionGetJPAExecutor(actionId)).getExternalStatus());
+        assertEquals(0, getCounter("callback.xexceptions"));
+    }
+
+    private long getCounter(String name) {
+        Map<String, Instrumentation.Element<Long>> counters = Services.get().get(InstrumentationService.class).get()
+                .getCounters().get(XCommand.INSTRUMENTATION_GROUP);
+        Instrumentation.Element<Long> counter = (counters != null) ? counters.get(name) : null;
+        return (counter != null) ? counter.getValue() : 0;
+    }
+
     public void testValidation() throws Exception {
         EmailActionExecutor email = new EmailActionExecutor();
 
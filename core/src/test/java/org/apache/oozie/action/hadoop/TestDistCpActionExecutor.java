@@ -19,9 +19,19 @@ package org.apache.oozie.action.hadoop;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileWriter;
 import java.io.InputStream;
 import java.io.OutputStream;
-
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapred.JobClient;
 import org.apache.hadoop.mapred.JobConf;
@@ -61,6 +71,134 @@ public class TestDistCpActionExecutor extends ActionExecutorTestCase{
         assertTrue(runningJob.isSuccessful());
     }
 
+    public static class FakeDistCp {
+        static List<String[]> invocations = new ArrayList<String[]>();
+
+        public static void main(String[] args) {
+            invocations.add(args);
+        }
+    }
+
+    private File createFile(File dir, String name, String content, long modificationTime) throws Exception {
+        File file = new File(dir, name);
+        file.getParentFile().mkdirs();
+        Writer writer = new FileWriter(file);
+        writer.write(content);
+        writer.close();
+        file.setLastModified(modificationTime);
+        return file;
+    }
+
+    private Set<String> getNames(List<Path> paths) {
+        Set<String> names = new HashSet<String>();
+        for (Path path : paths) {
+            names.add(path.getName());
+        }
+        return names;
+    }
+
+    public void testParseArgs() throws Exception {
+        List<String> options = new ArrayList<String>();
+        List<String> paths = new ArrayList<String>();
+        assertTrue(DistcpActionExecutor.parseArgs(new String[]{"-update", "-m", "10", "-Dmyqueue", "in1", "in2",
+                "out"}, options, paths));
+        assertEquals(Arrays.asList("-update", "-m", "10", "-Dmyqueue"), options);
+        assertEquals(Arrays.asList("in1", "in2", "out"), paths);
+
+        assertFalse(DistcpActionExecutor.parseArgs(new String[]{"in", "out"}, new ArrayList<String>(),
+                                                   new ArrayList<String>()));
+        assertFalse(DistcpActionExecutor.parseArgs(new String[]{"-update", "-delete", "in", "out"},
+                                                   new ArrayList<String>(), new ArrayList<String>()));
+        assertFalse(DistcpActionExecutor.parseArgs(new String[]{"-update", "-f", "list", "out"},
+                                                   new ArrayList<String>(), new ArrayList<String>()));
+        assertFalse(DistcpActionExecutor.parseArgs(new String[]{"-update", "out"}, new ArrayList<String>(),
+                                                   new ArrayList<String>()));
+    }
+
+    public void testDeltaPlan() throws Exception {
+        File source = new File(getTestCaseDir(), "source");
+        File target = new File(getTestCaseDir(), "target");
+        long old = System.currentTimeMillis() - 60 * 60 * 1000;
+        long now = System.currentTimeMillis();
+        createFile(source, "a.txt", "aaa", old);
+        createFile(target, "a.txt", "aaa", now);
+        createFile(source, "b.txt", "bbbb", old);
+        createFile(target, "b.txt", "bb", now);
+        createFile(source, "sub/c.txt", "ccc", old);
+        createFile(source, "d.txt", "ddd", now);
+        createFile(target, "d.txt", "xxx", old);
+
+        DistcpActionExecutor ae = new DistcpActionExecutor();
+        List<String> paths = Arrays.asList("file://" + source.getAbsolutePath(), "file://" + target.getAbsolutePath());
+        DistcpActionExecutor.DeltaPlan plan = ae.createDeltaPlan(getTestUser(), getTestGroup(), "file:///", paths,
+                                                                 false);
+        assertNotNull(plan);
+        assertEquals(3, plan.getFilesCopied());
+        assertEquals(10, plan.getBytesCopied());
+        assertEquals(1, plan.getFilesSkipped());
+        assertEquals(3, plan.getBytesSkipped());
+        assertEquals(2, plan.getCopies().size());
+        for (Map.Entry<Path, List<Path>> entry : plan.getCopies().entrySet()) {
+            if (entry.getKey().getName().equals("sub")) {
+                assertEquals(new HashSet<String>(Arrays.asList("c.txt")), getNames(entry.getValue()));
+            }
+            else {
+                assertEquals("target", entry.getKey().getName());
+                assertEquals(new HashSet<String>(Arrays.asList("b.txt", "d.txt")), getNames(entry.getValue()));
+            }
+        }
+
+        // a plan is written in the format the launcher main reads
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Path planPath = new Path(getTestCaseDir(), "plan");
+        DistcpActionExecutor.writePlan(fs, planPath, plan);
+        Map<String, List<String>> read = DistcpDeltaMain.readPlan(fs, planPath);
+        assertEquals(2, read.size());
+        int files = 0;
+        for (List<String> sources : read.values()) {
+            files += sources.size();
+        }
+        assertEquals(3, files);
+
+        // a source file that is a target directory can not be planned
+        createFile(target, "sub/c.txt/x.txt", "x", now);
+        assertNull(ae.createDeltaPlan(getTestUser(), getTestGroup(), "file:///", Arrays.asList(
+                "file://" + source.getAbsolutePath(), "file://" + target.getAbsolutePath()), false));
+        assertNull(ae.createDeltaPlan(getTestUser(), getTestGroup(), "file:///", Arrays.asList(
+                "file://" + getTestCaseDir() + "/missing", "file://" + target.getAbsolutePath()), false));
+    }
+
+    public void testDeltaMain() throws Exception {
+        File target1 = new File(getTestCaseDir(), "target1");
+        File target2 = new File(getTestCaseDir(), "target2");
+        File plan = new File(getTestCaseDir(), "plan");
+        String target1Uri = "file://" + target1.getAbsolutePath();
+        String target2Uri = "file://" + target2.getAbsolutePath();
+        Writer writer = new FileWriter(plan);
+        writer.write(target1Uri + DistcpDeltaMain.PLAN_SEPARATOR + "/source/a\n");
+        writer.write(target1Uri + DistcpDeltaMain.PLAN_SEPARATOR + "/source/b\n");
+        writer.write(target2Uri + DistcpDeltaMain.PLAN_SEPARATOR + "/source/sub/c\n");
+        writer.close();
+
+        FakeDistCp.invocations.clear();
+        DistcpDeltaMain.main(new String[]{"file://" + plan.getAbsolutePath(), FakeDistCp.class.getName(),
+                "-overwrite"});
+        assertEquals(2, FakeDistCp.invocations.size());
+        assertEquals(Arrays.asList("-overwrite", "/source/a", "/source/b", target1Uri),
+                     Arrays.asList(FakeDistCp.invocations.get(0)));
+        assertEquals(Arrays.asList("-overwrite", "/source/sub/c", target2Uri),
+                     Arrays.asList(FakeDistCp.invocations.get(1)));
+        assertTrue(target1.isDirectory());
+        assertTrue(target2.isDirectory());
+
+        // nothing changed, DistCp does not run
+        new FileWriter(plan).close();
+        FakeDistCp.invocations.clear();
+        DistcpDeltaMain.main(new String[]{"file://" + plan.getAbsolutePath(), FakeDistCp.class.getName(),
+                "-overwrite"});
+        assertEquals(0, FakeDistCp.invocations.size());
+    }
+
 
     protected Context createContext(String actionXml) throws Exception {
         DistcpActionExecutor ae = new DistcpActionExecutor();
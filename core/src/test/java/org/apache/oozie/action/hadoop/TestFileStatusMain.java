@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.action.hadoop;
+
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.test.XFsTestCase;
+
+public class TestFileStatusMain extends XFsTestCase {
+
+    private void createFile(FileSystem fs, Path path, int length) throws Exception {
+        OutputStream os = fs.create(path);
+        os.write(new byte[length]);
+        os.close();
+    }
+
+    public void testFileStatus() throws Exception {
+        FileSystem fs = getFileSystem();
+        Path dir = new Path(getFsTestCaseDir(), "data");
+        createFile(fs, new Path(dir, "a.txt"), 10);
+        createFile(fs, new Path(dir, "b.txt"), 5);
+        createFile(fs, new Path(dir, "sub/c.txt"), 3);
+
+        String[] args = {dir.toString(), new Path(dir, "*.txt").toString(), new Path(dir, "x.txt").toString(),
+                new Path(dir, "*.log").toString()};
+        Properties props = new FileStatusMain().run(new Configuration(false), fs, args);
+
+        assertEquals("true", props.getProperty("path0.exists"));
+        assertEquals("1", props.getProperty("path0.count"));
+        assertEquals("18", props.getProperty("path0.length"));
+        assertEquals("true", props.getProperty("path1.exists"));
+        assertEquals("2", props.getProperty("path1.count"));
+        assertEquals("15", props.getProperty("path1.length"));
+        long modificationTime = Math.max(fs.getFileStatus(new Path(dir, "a.txt")).getModificationTime(),
+                                         fs.getFileStatus(new Path(dir, "b.txt")).getModificationTime());
+        assertEquals(Long.toString(modificationTime), props.getProperty("path1.modification.time"));
+        assertEquals("false", props.getProperty("path2.exists"));
+        assertEquals("0", props.getProperty("path2.count"));
+        assertEquals("false", props.getProperty("path3.exists"));
+        assertEquals("0", props.getProperty("path3.modification.time"));
+    }
+
+}
@@ -25,11 +25,15 @@ import org.apache.oozie.WorkflowActionBean;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.action.ActionExecutorException;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.service.WorkflowAppService;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XmlUtils;
 import org.jdom.Element;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 public class TestFsActionExecutor extends ActionExecutorTestCase {
 
@@ -261,6 +265,125 @@ public class TestFsActionExecutor extends ActionExecutorTestCase {
 
     }
 
+    public void testStages() throws Exception {
+        Path a = new Path("hdfs://x/a");
+        Path ab = new Path("hdfs://x/a/b");
+        Path ac = new Path("hdfs://x/a/c");
+        Path abc = new Path("hdfs://x/abc");
+        Path aGlob = new Path("hdfs://x/a/*");
+        assertTrue(FsActionExecutor.overlap(a, ab));
+        assertTrue(FsActionExecutor.overlap(ab, a));
+        assertTrue(FsActionExecutor.overlap(a, a));
+        assertFalse(FsActionExecutor.overlap(ab, ac));
+        assertFalse(FsActionExecutor.overlap(a, abc));
+        assertFalse(FsActionExecutor.overlap(a, new Path("hdfs://y/a")));
+        assertTrue(FsActionExecutor.overlap(aGlob, ab));
+        assertTrue(FsActionExecutor.overlap(aGlob, a));
+        assertFalse(FsActionExecutor.overlap(aGlob, abc));
+
+        List<List<Path>> paths = new ArrayList<List<Path>>();
+        paths.add(Arrays.asList(ab));
+        paths.add(Arrays.asList(ac));
+        paths.add(Arrays.asList(abc));
+        paths.add(Arrays.asList(a));
+        paths.add(Arrays.asList(abc, new Path("hdfs://x/d")));
+        paths.add(Arrays.asList(ac));
+        int[] stages = FsActionExecutor.getStages(paths);
+        assertEquals(0, stages[0]);
+        assertEquals(0, stages[1]);
+        assertEquals(0, stages[2]);
+        assertEquals(1, stages[3]);
+        assertEquals(1, stages[4]);
+        assertEquals(2, stages[5]);
+
+        FsActionExecutor ae = new FsActionExecutor();
+        Element move = XmlUtils.parseXml("<move source='hdfs://x/a/b' target='/e'/>");
+        assertEquals(Arrays.asList(ab, new Path("hdfs://x/e")), ae.getOperationPaths(move));
+    }
+
+    public void testGlobs() throws Exception {
+        FsActionExecutor ae = new FsActionExecutor();
+        FileSystem fs = getFileSystem();
+
+        Path dir = new Path(getFsTestCaseDir(), "dir");
+        fs.mkdirs(new Path(dir, "a1"));
+        fs.mkdirs(new Path(dir, "a2"));
+        fs.mkdirs(new Path(dir, "b1"));
+
+        Context context = createContext("<fs/>");
+
+        ae.chmod(context, new Path(dir, "a*"), "-rwx------", false);
+        assertEquals("rwx------", fs.getFileStatus(new Path(dir, "a1")).getPermission().toString());
+        assertEquals("rwx------", fs.getFileStatus(new Path(dir, "a2")).getPermission().toString());
+        assertNotSame("rwx------", fs.getFileStatus(new Path(dir, "b1")).getPermission().toString());
+
+        try {
+            ae.chmod(context, new Path(dir, "c*"), "-rwx------", false);
+            fail();
+        }
+        catch (ActionExecutorException ex) {
+            assertEquals("FS009", ex.getErrorCode());
+        }
+
+        ae.delete(context, new Path(dir, "a*"));
+        assertFalse(fs.exists(new Path(dir, "a1")));
+        assertFalse(fs.exists(new Path(dir, "a2")));
+        assertTrue(fs.exists(new Path(dir, "b1")));
+        ae.delete(context, new Path(dir, "a*"));
+    }
+
+    public void testDoOperationsInParallel() throws Exception {
+        Services.get().getConf().setInt(FsActionExecutor.CONF_PARALLELISM, 4);
+        FsActionExecutor ae = new FsActionExecutor();
+        FileSystem fs = getFileSystem();
+
+        Path parent = new Path(getFsTestCaseDir(), "parent");
+        Path child = new Path(parent, "child");
+        Path delete = new Path(getFsTestCaseDir(), "delete");
+        fs.mkdirs(new Path(delete, "d1"));
+        fs.mkdirs(new Path(delete, "d2"));
+        Path chmod = new Path(getFsTestCaseDir(), "chmod");
+        for (int i = 0; i < 150; i++) {
+            fs.mkdirs(new Path(chmod, "c" + i));
+        }
+
+        // the chmod and the move of the child must happen after the mkdirs of their paths
+        String str = MessageFormat.format("<root><mkdir path=''{0}''/>" +
+                "<mkdir path=''{1}''/>" +
+                "<delete path=''{2}/d*''/>" +
+                "<chmod path=''{0}'' permissions=''-rwxrwx---''/>" +
+                "<chmod path=''{3}'' permissions=''-rwxr-x---''/>" +
+                "<move source=''{1}'' target=''{4}''/>" +
+                "</root>", parent, child, delete, chmod,
+                new Path(getFsTestCaseDir(), "moved").toUri().getPath());
+
+        ae.doOperations(createContext("<fs/>"), XmlUtils.parseXml(str));
+
+        assertEquals("rwxrwx---", fs.getFileStatus(parent).getPermission().toString());
+        assertFalse(fs.exists(child));
+        assertTrue(fs.exists(new Path(getFsTestCaseDir(), "moved")));
+        assertTrue(fs.exists(delete));
+        assertEquals(0, fs.listStatus(delete).length);
+        assertEquals("rwxr-x---", fs.getFileStatus(chmod).getPermission().toString());
+        for (int i = 0; i < 150; i++) {
+            assertEquals("rwxr-x---", fs.getFileStatus(new Path(chmod, "c" + i)).getPermission().toString());
+        }
+
+        // a failed command stops the commands declared after it that depend on it
+        str = MessageFormat.format("<root><chmod path=''{0}'' permissions=''-rwxrwx---''/>" +
+                "<mkdir path=''{1}''/>" +
+                "</root>", new Path(getFsTestCaseDir(), "missing"),
+                new Path(new Path(getFsTestCaseDir(), "missing"), "child"));
+        try {
+            ae.doOperations(createContext("<fs/>"), XmlUtils.parseXml(str));
+            fail();
+        }
+        catch (ActionExecutorException ex) {
+            assertEquals("FS009", ex.getErrorCode());
+        }
+        assertFalse(fs.exists(new Path(getFsTestCaseDir(), "missing")));
+    }
+
     public void testSubmit() throws Exception {
         FsActionExecutor ae = new FsActionExecutor();
         FileSystem fs = getFileSystem();
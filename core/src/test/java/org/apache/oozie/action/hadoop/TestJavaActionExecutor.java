@@ -214,13 +214,16 @@ public class TestJavaActionExecutor extends ActionExecutorTestCase {
         ae.addToCache(conf, appPath, appSo1Path.toString(), false);
         assertTrue(conf.get("mapred.cache.files").contains(expectedSo1Path));
 
-        assertTrue(ae.getOozieLauncherJar(context).startsWith(context.getActionDir().toString()));
+        // the launcher JAR is staged outside of the action dir
+        Path stagingDir = new Path(context.getActionDir().getParent().getParent(), ".staging");
+        assertTrue(ae.getOozieLauncherJar(context).startsWith(stagingDir.toString()));
         assertTrue(ae.getOozieLauncherJar(context).endsWith(ae.getLauncherJarName()));
 
         assertFalse(getFileSystem().exists(context.getActionDir()));
         ae.prepareActionDir(getFileSystem(), context);
         assertTrue(getFileSystem().exists(context.getActionDir()));
-        assertTrue(getFileSystem().exists(new Path(context.getActionDir(), ae.getLauncherJarName())));
+        assertTrue(getFileSystem().exists(new Path(ae.getOozieLauncherJar(context))));
+        assertFalse(getFileSystem().exists(new Path(context.getActionDir(), ae.getLauncherJarName())));
 
         ae.cleanUpActionDir(getFileSystem(), context);
         assertFalse(getFileSystem().exists(context.getActionDir()));
@@ -17,9 +17,12 @@
  */
 package org.apache.oozie.client;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.fs.Path;
 import org.apache.oozie.BuildInfo;
@@ -230,6 +233,71 @@ public class TestWorkflowClient extends DagServletTestCase {
         });
     }
 
+    public void testJobStatusAsync() throws Exception {
+        runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                String oozieUrl = getContextURL();
+                OozieClient wc = new OozieClient(oozieUrl);
+                wc.setAsyncConcurrency(2);
+                assertEquals(2, wc.getAsyncConcurrency());
+
+                List<Future<WorkflowJob>> futures = new ArrayList<Future<WorkflowJob>>();
+                for (int i = 0; i < MockDagEngineService.INIT_WF_COUNT; i++) {
+                    futures.add(wc.getJobInfoAsync(MockDagEngineService.JOB_ID + i));
+                }
+                for (int i = 0; i < MockDagEngineService.INIT_WF_COUNT; i++) {
+                    assertEquals(MockDagEngineService.JOB_ID + i, futures.get(i).get().getId());
+                }
+
+                final List<WorkflowJob> results = new ArrayList<WorkflowJob>();
+                Future<WorkflowJob> future = wc.getJobInfoAsync(MockDagEngineService.JOB_ID + 1,
+                                                                new OozieClient.AsyncCallback<WorkflowJob>() {
+                    public void onSuccess(WorkflowJob result) {
+                        results.add(result);
+                    }
+
+                    public void onFailure(OozieClientException ex) {
+                        fail();
+                    }
+                });
+                WorkflowJob wf = future.get();
+                assertEquals(1, results.size());
+                assertSame(wf, results.get(0));
+                return null;
+            }
+        });
+    }
+
+    public void testJobStatusAsyncError() throws Exception {
+        runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                String oozieUrl = getContextURL() + "dummy";
+                OozieClient wc = new OozieClient(oozieUrl);
+                final List<OozieClientException> errors = new ArrayList<OozieClientException>();
+                Future<WorkflowJob> future = wc.getJobInfoAsync(MockDagEngineService.JOB_ID + 1,
+                                                                new OozieClient.AsyncCallback<WorkflowJob>() {
+                    public void onSuccess(WorkflowJob result) {
+                        fail();
+                    }
+
+                    public void onFailure(OozieClientException ex) {
+                        errors.add(ex);
+                    }
+                });
+                try {
+                    future.get();
+                    fail();
+                }
+                catch (ExecutionException ex) {
+                    assertTrue(ex.getCause() instanceof OozieClientException);
+                    assertEquals(1, errors.size());
+                    assertSame(ex.getCause(), errors.get(0));
+                }
+                return null;
+            }
+        });
+    }
+
     public void testJobsStatus() throws Exception {
         runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
             public Void call() throws Exception {
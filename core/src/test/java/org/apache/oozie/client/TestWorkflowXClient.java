@@ -19,10 +19,20 @@ package org.apache.oozie.client;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Callable;
 
 import org.apache.hadoop.fs.Path;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.rest.RestConstants;
+import org.apache.oozie.service.ChangeFeedService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.servlet.DagServletTestCase;
 import org.apache.oozie.servlet.MockDagEngineService;
 import org.apache.oozie.servlet.V1JobsServlet;
@@ -47,6 +57,99 @@ public class TestWorkflowXClient extends DagServletTestCase {
         MockDagEngineService.reset();
     }
 
+    public void testJobsPages() throws Exception {
+        runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                String oozieUrl = getContextURL();
+                XOozieClient wc = new XOozieClient(oozieUrl);
+
+                OozieClient.JobsPage page = wc.getJobsInfoPage("name=x", null, 3);
+                assertEquals(RestConstants.JOBS_CURSOR_PARAM, MockDagEngineService.did);
+                assertEquals(3, page.getJobs().size());
+                assertNotNull(page.getNextCursor());
+                page = wc.getJobsInfoPage("name=x", page.getNextCursor(), 3);
+                assertEquals(MockDagEngineService.INIT_WF_COUNT - 3, page.getJobs().size());
+                assertNull(page.getNextCursor());
+
+                List<WorkflowJob> list = wc.getAllJobsInfo(null, 1);
+                assertEquals(MockDagEngineService.INIT_WF_COUNT, list.size());
+                for (int i = 0; i < MockDagEngineService.INIT_WF_COUNT; i++) {
+                    assertEquals(MockDagEngineService.JOB_ID + i, list.get(i).getId());
+                }
+                return null;
+            }
+        });
+    }
+
+    public void testGetStatuses() throws Exception {
+        runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                String oozieUrl = getContextURL();
+                XOozieClient wc = new XOozieClient(oozieUrl);
+
+                List<String> ids = Arrays.asList(MockDagEngineService.JOB_ID + 1 + MockDagEngineService.JOB_ID_END,
+                                                 "unknown-W", MockDagEngineService.JOB_ID + 0);
+                Map<String, JobStatusInfo> statuses = wc.getStatuses(ids);
+                assertEquals(RestConstants.JOBS_ACTION_STATUS, MockDagEngineService.did);
+                assertEquals(2, statuses.size());
+                Iterator<String> it = statuses.keySet().iterator();
+                assertEquals(ids.get(0), it.next());
+                assertEquals(ids.get(2), it.next());
+                assertEquals(WorkflowJob.Status.SUCCEEDED.toString(), statuses.get(ids.get(0)).getStatus());
+                assertNotNull(statuses.get(ids.get(0)).getEndTime());
+                assertEquals(WorkflowJob.Status.RUNNING.toString(), statuses.get(ids.get(2)).getStatus());
+                assertNull(statuses.get(ids.get(2)).getEndTime());
+
+                MockDagEngineService.did = null;
+                assertTrue(wc.getStatuses(new ArrayList<String>()).isEmpty());
+                assertNull(MockDagEngineService.did);
+                return null;
+            }
+        });
+    }
+
+    public void testGetJobChanges() throws Exception {
+        runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                String oozieUrl = getContextURL();
+                XOozieClient wc = new XOozieClient(oozieUrl);
+
+                OozieClient.ChangesPage page = wc.getJobChanges(null, null, null, 10, 0);
+                assertTrue(page.getEvents().isEmpty());
+                assertFalse(page.isLost());
+
+                ChangeFeedService changeFeed = Services.get().get(ChangeFeedService.class);
+                WorkflowJobBean wf = new WorkflowJobBean();
+                wf.setId("0000000-000000000000000-oozie-test-W");
+                wf.setStatus(WorkflowJob.Status.RUNNING);
+                wf.setUser("u");
+                wf.setAppName("app");
+                changeFeed.stageStatus(wf);
+                changeFeed.publishStaged();
+
+                page = wc.getJobChanges("user=u", "wf", page.getNextCursor(), 10, 5);
+                assertEquals(1, page.getEvents().size());
+                JobStatusEvent event = page.getEvents().get(0);
+                assertEquals(wf.getId(), event.getId());
+                assertEquals("wf", event.getJobType());
+                assertFalse(event.isAction());
+                assertEquals(WorkflowJob.Status.RUNNING.toString(), event.getStatus());
+                assertEquals("app", event.getAppName());
+                assertNotNull(event.getTime());
+
+                assertTrue(wc.getJobChanges(null, "coord", null, 10, 0).getEvents().isEmpty());
+                try {
+                    wc.getJobChanges(null, null, "invalid", 10, 0);
+                    fail();
+                }
+                catch (OozieClientException ex) {
+                    assertEquals(ErrorCode.E0421.toString(), ex.getErrorCode());
+                }
+                return null;
+            }
+        });
+    }
+
     public void testSubmitPig() throws Exception {
         runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
             public Void call() throws Exception {
@@ -43,6 +43,7 @@ import org.apache.oozie.executor.jpa.WorkflowActionInsertJPAExecutor;
 import org.apache.oozie.service.HadoopAccessorService;
 import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.LauncherStatusService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.UUIDService;
 import org.apache.oozie.test.XDataTestCase;
@@ -56,6 +57,8 @@ public class TestActionCheckXCommand extends XDataTestCase {
     @Override
     protected void setUp() throws Exception {
         super.setUp();
+        // actions are checked right after their launcher job completes, without a completion callback
+        setSystemProperty(LauncherStatusService.CONF_SNAPSHOT_TTL, "0");
         services = new Services();
         services.init();
         cleanUpDBTables();
@@ -238,6 +241,54 @@ public class TestActionCheckXCommand extends XDataTestCase {
 
     }
 
+    /**
+     * Test : verify a completion callback is not answered from a running jobs snapshot fetched before it
+     *
+     * @throws Exception
+     */
+    public void testActionCheckAfterCallbackWithStaleSnapshot() throws Exception {
+        services.destroy();
+        setSystemProperty(LauncherStatusService.CONF_SNAPSHOT_TTL, "300");
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+
+        final JPAService jpaService = Services.get().get(JPAService.class);
+        WorkflowJobBean job = this.addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        WorkflowActionBean action = this.addRecordToWfActionTable(job.getId(), "1", WorkflowAction.Status.PREP);
+        final WorkflowActionGetJPAExecutor wfActionGetCmd = new WorkflowActionGetJPAExecutor(action.getId());
+
+        // the check done by the start fetches a snapshot with the launcher job running
+        new ActionStartXCommand(action.getId(), "map-reduce").call();
+        action = jpaService.execute(wfActionGetCmd);
+        final String launcherId = action.getExternalId();
+
+        ActionExecutorContext context = new ActionXCommand.ActionExecutorContext(job, action, false, false);
+        MapReduceActionExecutor actionExecutor = new MapReduceActionExecutor();
+        Configuration conf = actionExecutor.createBaseHadoopConf(context, XmlUtils.parseXml(action.getConf()));
+        String user = conf.get("user.name");
+        String group = conf.get("group.name");
+        JobClient jobClient = Services.get().get(HadoopAccessorService.class).createJobClient(user, group,
+                new JobConf(conf));
+        final RunningJob launcherJob = jobClient.getJob(JobID.forName(launcherId));
+        waitFor(120 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return launcherJob.isComplete();
+            }
+        });
+        assertTrue(launcherJob.isSuccessful());
+
+        // the snapshot still lists the launcher job, the check queued by the callback must look it up
+        new CompletedActionXCommand(action.getId(), "SUCCEEDED", null).call();
+        waitFor(30 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return !launcherId.equals(jpaService.execute(wfActionGetCmd).getExternalId());
+            }
+        });
+        action = jpaService.execute(wfActionGetCmd);
+        assertFalse(launcherId.equals(action.getExternalId()));
+    }
+
     @Override
     protected WorkflowActionBean addRecordToWfActionTable(String wfId, String actionName, WorkflowAction.Status status) throws Exception {
         WorkflowActionBean action = createWorkflowActionSetPending(wfId, status);
@@ -20,6 +20,7 @@ package org.apache.oozie.command.wf;
 import java.io.OutputStreamWriter;
 import java.io.StringReader;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.Date;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
@@ -120,6 +121,29 @@ public class TestActionStartXCommand extends XDataTestCase {
         assertEquals(new Long(1), new Long(counterVal));
     }
 
+    /**
+     * Test : verify the actions of a fork are all started by a single command under one job lock
+     *
+     * @throws Exception
+     */
+    public void testForkedActionStart() throws Exception {
+        Instrumentation inst = Services.get().get(InstrumentationService.class).get();
+
+        WorkflowJobBean job = this.addRecordToWfJobTable(WorkflowJob.Status.FAILED, WorkflowInstance.Status.FAILED);
+        WorkflowActionBean action1 = this.addRecordToWfActionTable(job.getId(), "1", WorkflowAction.Status.PREP);
+        WorkflowActionBean action2 = this.addRecordToWfActionTable(job.getId(), "2", WorkflowAction.Status.PREP);
+
+        ForkedActionStartXCommand forkCmd = new ForkedActionStartXCommand(job.getId(),
+                Arrays.asList(action1, action2));
+        forkCmd.call();
+
+        // both starts ran within the fork command, precondition failed because job != RUNNING
+        assertEquals(new Long(1), inst.getCounters().get(XCommand.INSTRUMENTATION_GROUP).get(
+                forkCmd.getName() + ".executions").getValue());
+        assertEquals(new Long(2), inst.getCounters().get(XCommand.INSTRUMENTATION_GROUP).get(
+                "action.start.preconditionfailed").getValue());
+    }
+
     /**
      * Test : verify the PreconditionException is thrown when pending = false
      *
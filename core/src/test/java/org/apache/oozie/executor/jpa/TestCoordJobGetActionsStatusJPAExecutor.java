@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XDataTestCase;
+
+public class TestCoordJobGetActionsStatusJPAExecutor extends XDataTestCase {
+
+    /**
+     * System property with the number of coordinator actions of the benchmark, the default is small to keep the
+     * test suite fast, use <code>-Doozie.test.benchmark.coord.actions=50000</code> for a full benchmark run.
+     */
+    public static final String BENCHMARK_ACTIONS = "oozie.test.benchmark.coord.actions";
+
+    Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testGetActionsStatus() throws Exception {
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        CoordinatorActionBean action1 = addRecordToCoordActionTable(job.getId(), 1,
+                CoordinatorAction.Status.SUCCEEDED, "coord-action-get.xml", 0);
+        CoordinatorActionBean action2 = addRecordToCoordActionTable(job.getId(), 2,
+                CoordinatorAction.Status.RUNNING, "coord-action-get.xml", 1);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertNotNull(jpaService);
+        List<CoordinatorActionBean> actions = jpaService.execute(new CoordJobGetActionsStatusJPAExecutor(job.getId()));
+        assertEquals(2, actions.size());
+
+        CoordinatorActionBean bean = actions.get(0);
+        assertEquals(action1.getId(), bean.getId());
+        assertEquals(job.getId(), bean.getJobId());
+        assertEquals(1, bean.getActionNumber());
+        assertEquals(CoordinatorAction.Status.SUCCEEDED, bean.getStatus());
+        assertEquals(action1.getNominalTime(), bean.getNominalTime());
+        assertEquals(action1.getExternalId(), bean.getExternalId());
+        assertFalse(bean.isPending());
+        assertNull(bean.getActionXml());
+        assertNull(bean.getCreatedConf());
+        assertNull(bean.getRunConf());
+
+        bean = actions.get(1);
+        assertEquals(action2.getId(), bean.getId());
+        assertEquals(CoordinatorAction.Status.RUNNING, bean.getStatus());
+        // the pending counter is not loaded
+        assertFalse(bean.isPending());
+    }
+
+    public void testGetActionsStatusSubset() throws Exception {
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        addRecordToCoordActionTable(job.getId(), 1, CoordinatorAction.Status.SUCCEEDED, "coord-action-get.xml", 0);
+        CoordinatorActionBean action2 = addRecordToCoordActionTable(job.getId(), 2,
+                CoordinatorAction.Status.RUNNING, "coord-action-get.xml", 0);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        List<CoordinatorActionBean> actions = jpaService.execute(
+                new CoordJobGetActionsStatusJPAExecutor(job.getId(), 2, 10));
+        assertEquals(1, actions.size());
+        assertEquals(action2.getId(), actions.get(0).getId());
+    }
+
+    public void testGetActionsStatusBenchmark() throws Exception {
+        int count = Integer.parseInt(System.getProperty(BENCHMARK_ACTIONS, "500"));
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        CoordinatorActionBean template = createCoordAction(job.getId(), 1, CoordinatorAction.Status.SUCCEEDED,
+                                                           "coord-action-get.xml", 0);
+        final List<CoordinatorActionBean> batch = new ArrayList<CoordinatorActionBean>();
+        JPAService jpaService = Services.get().get(JPAService.class);
+        for (int i = 1; i <= count; i++) {
+            CoordinatorActionBean action = new CoordinatorActionBean();
+            action.setId(job.getId() + "@" + i);
+            action.setJobId(job.getId());
+            action.setActionNumber(i);
+            action.setExternalId(action.getId() + "_E");
+            action.setNominalTime(template.getNominalTime());
+            action.setLastModifiedTime(template.getLastModifiedTime());
+            action.setStatus(CoordinatorAction.Status.SUCCEEDED);
+            action.setActionXml(template.getActionXml());
+            action.setCreatedConf(template.getCreatedConf());
+            action.setRunConf(template.getRunConf());
+            batch.add(action);
+            if (batch.size() == 1000 || i == count) {
+                jpaService.execute(new JPAExecutor<Void>() {
+                    public String getName() {
+                        return "BenchmarkCoordActionsInsert";
+                    }
+
+                    public Void execute(EntityManager em) throws JPAExecutorException {
+                        for (CoordinatorActionBean a : batch) {
+                            em.persist(a);
+                        }
+                        return null;
+                    }
+                });
+                batch.clear();
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        List<CoordinatorActionBean> full = jpaService.execute(new CoordJobGetActionsJPAExecutor(job.getId()));
+        long fullTime = System.currentTimeMillis() - start;
+        assertEquals(count, full.size());
+
+        start = System.currentTimeMillis();
+        List<CoordinatorActionBean> light = jpaService.execute(new CoordJobGetActionsStatusJPAExecutor(job.getId()));
+        long lightTime = System.currentTimeMillis() - start;
+
+        assertEquals(count, light.size());
+        System.out.println("Loading [" + count + "] coordinator actions, full beans [" + fullTime
+                + "] ms, status projection [" + lightTime + "] ms");
+    }
+
+}
@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.oozie.BundleJobBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.client.Job;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.client.rest.JsonJobStatusInfo;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XDataTestCase;
+import org.apache.oozie.workflow.WorkflowInstance;
+
+public class TestJobsGetStatusJPAExecutor extends XDataTestCase {
+    Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testGetStatus() throws Exception {
+        WorkflowJobBean wf = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        CoordinatorJobBean coord = addRecordToCoordJobTable(CoordinatorJob.Status.SUCCEEDED, false, false);
+        BundleJobBean bundle = addRecordToBundleJobTable(Job.Status.PREP, false);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertNotNull(jpaService);
+        List<String> ids = Arrays.asList(bundle.getId(), "0000000-000000000000000-oozie-xxx-W", wf.getId(),
+                                         "not-a-job-id", coord.getId(), wf.getId());
+        List<JsonJobStatusInfo> statuses = jpaService.execute(new JobsGetStatusJPAExecutor(ids));
+        assertEquals(3, statuses.size());
+
+        JsonJobStatusInfo status = statuses.get(0);
+        assertEquals(bundle.getId(), status.getId());
+        assertEquals(Job.Status.PREP.toString(), status.getStatus());
+
+        status = statuses.get(1);
+        assertEquals(wf.getId(), status.getId());
+        assertEquals(WorkflowJob.Status.RUNNING.toString(), status.getStatus());
+        assertEquals(wf.getStartTime(), status.getStartTime());
+        assertEquals(wf.getExternalId(), status.getExternalId());
+
+        status = statuses.get(2);
+        assertEquals(coord.getId(), status.getId());
+        assertEquals(CoordinatorJob.Status.SUCCEEDED.toString(), status.getStatus());
+        assertEquals(coord.getStartTime(), status.getStartTime());
+        assertEquals(coord.getEndTime(), status.getEndTime());
+    }
+
+    public void testGetStatusBatches() throws Exception {
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(addRecordToWfJobTable(WorkflowJob.Status.SUCCEEDED, WorkflowInstance.Status.SUCCEEDED).getId());
+        }
+        for (int i = 0; i < JobsGetStatusJPAExecutor.BATCH_SIZE; i++) {
+            ids.add(1, "0000000-" + i + "-oozie-xxx-W");
+        }
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        List<JsonJobStatusInfo> statuses = jpaService.execute(new JobsGetStatusJPAExecutor(ids));
+        assertEquals(3, statuses.size());
+        assertEquals(ids.get(0), statuses.get(0).getId());
+        assertEquals(ids.get(ids.size() - 2), statuses.get(1).getId());
+        assertEquals(ids.get(ids.size() - 1), statuses.get(2).getId());
+    }
+
+    public void testGetStatusEmpty() throws Exception {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertTrue(jpaService.execute(new JobsGetStatusJPAExecutor(new ArrayList<String>())).isEmpty());
+    }
+
+}
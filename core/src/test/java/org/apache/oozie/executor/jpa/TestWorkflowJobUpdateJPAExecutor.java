@@ -25,6 +25,7 @@ import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.test.XDataTestCase;
 import org.apache.oozie.workflow.WorkflowInstance;
+import org.apache.oozie.workflow.lite.LiteWorkflowInstance;
 
 public class TestWorkflowJobUpdateJPAExecutor extends XDataTestCase {
     Services services;
@@ -69,4 +70,56 @@ public class TestWorkflowJobUpdateJPAExecutor extends XDataTestCase {
         assertEquals(wfBean2.getStatusStr(), "RUNNING");
     }
 
+    public void testWorkflowJobDeltaUpdate() throws Exception {
+        WorkflowJobBean job = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        WorkflowJobGetJPAExecutor wfGetCmd = new WorkflowJobGetJPAExecutor(job.getId());
+        WorkflowJobBean wfBean = jpaService.execute(wfGetCmd);
+        assertTrue(wfBean.isDirtyTracked());
+        assertTrue(wfBean.getDirtyFields().isEmpty());
+
+        // an unmodified workflow instance is not written back
+        LiteWorkflowInstance wfInstance = (LiteWorkflowInstance) wfBean.getWorkflowInstance();
+        assertFalse(wfInstance.isModified());
+        wfBean.setWorkflowInstance(wfInstance);
+        wfBean.setConf(wfBean.getConf());
+        assertTrue(wfBean.getDirtyFields().isEmpty());
+
+        wfBean.setStatus(WorkflowJob.Status.SUSPENDED);
+        assertEquals(1, wfBean.getDirtyFields().size());
+        assertTrue(wfBean.getDirtyFields().containsKey("status"));
+        jpaService.execute(new WorkflowJobUpdateJPAExecutor(wfBean));
+        assertTrue(wfBean.getDirtyFields().isEmpty());
+
+        WorkflowJobBean wfBean1 = jpaService.execute(wfGetCmd);
+        assertEquals("SUSPENDED", wfBean1.getStatusStr());
+        assertEquals(job.getConf(), wfBean1.getConf());
+        assertEquals(job.getAppName(), wfBean1.getAppName());
+
+        // a modified workflow instance is written back
+        wfInstance = (LiteWorkflowInstance) wfBean1.getWorkflowInstance();
+        wfInstance.setVar("a", "A");
+        assertTrue(wfInstance.isModified());
+        wfBean1.setWorkflowInstance(wfInstance);
+        assertFalse(wfInstance.isModified());
+        assertTrue(wfBean1.getDirtyFields().containsKey("wfInstance"));
+        jpaService.execute(new WorkflowJobUpdateJPAExecutor(wfBean1));
+
+        WorkflowJobBean wfBean2 = jpaService.execute(wfGetCmd);
+        assertEquals("A", wfBean2.getWorkflowInstance().getVar("a"));
+        assertEquals("SUSPENDED", wfBean2.getStatusStr());
+    }
+
+    public void testWorkflowJobUpdateNotLoaded() throws Exception {
+        WorkflowJobBean job = addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP);
+        assertFalse(job.isDirtyTracked());
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        job.setStatus(WorkflowJob.Status.RUNNING);
+        jpaService.execute(new WorkflowJobUpdateJPAExecutor(job));
+        WorkflowJobBean wfBean = jpaService.execute(new WorkflowJobGetJPAExecutor(job.getId()));
+        assertEquals("RUNNING", wfBean.getStatusStr());
+    }
+
 }
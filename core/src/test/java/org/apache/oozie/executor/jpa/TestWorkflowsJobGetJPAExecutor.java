@@ -17,9 +17,14 @@
  */
 package org.apache.oozie.executor.jpa;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.WorkflowsInfo;
@@ -70,4 +75,101 @@ public class TestWorkflowsJobGetJPAExecutor extends XDataTestCase {
         wfBeans = wfInfo.getWorkflows();
         assertEquals(2, wfBeans.size());
     }
+
+    public void testWfJobsGetWithCursor() throws Exception {
+        Set<String> ids = new HashSet<String>();
+        ids.add(addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP).getId());
+        ids.add(addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING).getId());
+        ids.add(addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING).getId());
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertNotNull(jpaService);
+
+        Map<String, List<String>> filter = new HashMap<String, List<String>>();
+        WorkflowsInfo wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, "", 2));
+        assertEquals(2, wfInfo.getWorkflows().size());
+        assertEquals(-1, wfInfo.getTotal());
+        assertNotNull(wfInfo.getNextCursor());
+        List<String> read = new ArrayList<String>();
+        for (WorkflowJobBean bean : wfInfo.getWorkflows()) {
+            read.add(bean.getId());
+        }
+
+        wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, wfInfo.getNextCursor(), 2));
+        assertEquals(1, wfInfo.getWorkflows().size());
+        assertNull(wfInfo.getNextCursor());
+        read.add(wfInfo.getWorkflows().get(0).getId());
+        assertEquals(ids, new HashSet<String>(read));
+
+        filter.put("status", Arrays.asList(WorkflowJob.Status.RUNNING.toString()));
+        wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, "", 1));
+        assertEquals(1, wfInfo.getWorkflows().size());
+        assertNotNull(wfInfo.getNextCursor());
+        String first = wfInfo.getWorkflows().get(0).getId();
+        wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, wfInfo.getNextCursor(), 1));
+        assertEquals(1, wfInfo.getWorkflows().size());
+        assertEquals(WorkflowJob.Status.RUNNING, wfInfo.getWorkflows().get(0).getStatus());
+        assertFalse(first.equals(wfInfo.getWorkflows().get(0).getId()));
+        assertNull(wfInfo.getNextCursor());
+    }
+
+    public void testWfJobsGetWithCursorNullCreatedTime() throws Exception {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        Set<String> ids = new HashSet<String>();
+        ids.add(addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP).getId());
+        for (int i = 0; i < 3; i++) {
+            WorkflowJobBean wf = addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP);
+            wf.setCreatedTime(null);
+            jpaService.execute(new WorkflowJobUpdateJPAExecutor(wf));
+            ids.add(wf.getId());
+        }
+
+        // pages ending on a workflow with or without creation time carry on to the following workflows
+        Map<String, List<String>> filter = new HashMap<String, List<String>>();
+        List<String> read = new ArrayList<String>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            WorkflowsInfo wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, cursor, 1));
+            assertEquals(1, wfInfo.getWorkflows().size());
+            read.add(wfInfo.getWorkflows().get(0).getId());
+            cursor = wfInfo.getNextCursor();
+            pages++;
+        } while (cursor != null && pages < 10);
+        assertEquals(4, pages);
+        assertEquals(4, read.size());
+        assertEquals(ids, new HashSet<String>(read));
+
+        // the workflow with creation time comes first
+        assertNotNull(jpaService.execute(new WorkflowJobGetJPAExecutor(read.get(0))).getCreatedTime());
+
+        WorkflowsInfo wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, "", 3));
+        assertEquals(3, wfInfo.getWorkflows().size());
+        assertNotNull(wfInfo.getNextCursor());
+        wfInfo = jpaService.execute(new WorkflowsJobGetJPAExecutor(filter, wfInfo.getNextCursor(), 3));
+        assertEquals(1, wfInfo.getWorkflows().size());
+        assertNull(wfInfo.getNextCursor());
+    }
+
+    public void testCursorEncoding() throws Exception {
+        Timestamp time = new Timestamp(1300000000000L);
+        String cursor = WorkflowsJobGetJPAExecutor.encodeCursor(time, "0000001-000000000000000-oozie-W");
+        Object[] position = WorkflowsJobGetJPAExecutor.decodeCursor(cursor);
+        assertEquals(time, position[0]);
+        assertEquals("0000001-000000000000000-oozie-W", position[1]);
+
+        cursor = WorkflowsJobGetJPAExecutor.encodeCursor(null, "0000001-000000000000000-oozie-W");
+        position = WorkflowsJobGetJPAExecutor.decodeCursor(cursor);
+        assertNull(position[0]);
+        assertEquals("0000001-000000000000000-oozie-W", position[1]);
+
+        for (String invalid : new String[]{"abc", "zz", "3a", "31"}) {
+            try {
+                WorkflowsJobGetJPAExecutor.decodeCursor(invalid);
+                fail();
+            }
+            catch (IllegalArgumentException ex) {
+                // expected
+            }
+        }
+    }
 }
@@ -0,0 +1,261 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.client.rest.JsonJobStatusEvent;
+import org.apache.oozie.executor.jpa.WorkflowJobUpdateJPAExecutor;
+import org.apache.oozie.test.XDataTestCase;
+import org.apache.oozie.workflow.WorkflowInstance;
+
+public class TestChangeFeedService extends XDataTestCase {
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(ChangeFeedService.CONF_SIZE, "5");
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    private static JsonJobStatusEvent event(String id, String status) {
+        return new JsonJobStatusEvent(id, null, ChangeFeedService.JOB_TYPE_WF, false, status, "u", "app", new Date());
+    }
+
+    public void testTransitionsFromExecutors() throws Exception {
+        ChangeFeedService changeFeed = services.get(ChangeFeedService.class);
+        assertNotNull(changeFeed);
+        ChangeFeedService.Filter all = ChangeFeedService.parseFilter(null, null);
+
+        WorkflowJobBean wf = addRecordToWfJobTable(WorkflowJob.Status.PREP, WorkflowInstance.Status.PREP);
+        ChangeFeedService.Changes changes = changeFeed.getChanges(null, all, 10, 0);
+        assertEquals(1, changes.getEvents().size());
+        JsonJobStatusEvent event = changes.getEvents().get(0);
+        assertEquals(wf.getId(), event.getId());
+        assertEquals(ChangeFeedService.JOB_TYPE_WF, event.getJobType());
+        assertFalse(event.isAction());
+        assertEquals(WorkflowJob.Status.PREP.toString(), event.getStatus());
+        assertEquals(wf.getUser(), event.getUser());
+        assertFalse(changes.isLost());
+
+        JPAService jpaService = services.get(JPAService.class);
+        wf.setStatus(WorkflowJob.Status.RUNNING);
+        jpaService.execute(new WorkflowJobUpdateJPAExecutor(wf));
+        jpaService.execute(new WorkflowJobUpdateJPAExecutor(wf));
+        changes = changeFeed.getChanges(changes.getNextCursor(), all, 10, 0);
+        assertEquals(1, changes.getEvents().size());
+        assertEquals(WorkflowJob.Status.RUNNING.toString(), changes.getEvents().get(0).getStatus());
+
+        changes = changeFeed.getChanges(changes.getNextCursor(), all, 10, 0);
+        assertTrue(changes.getEvents().isEmpty());
+    }
+
+    public void testFilter() throws Exception {
+        ChangeFeedService changeFeed = services.get(ChangeFeedService.class);
+        WorkflowJobBean wf = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        CoordinatorJobBean coord = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+
+        List<JsonJobStatusEvent> events = changeFeed.getChanges(null, ChangeFeedService.parseFilter(null, "coord"), 10,
+                                                                0).getEvents();
+        assertEquals(1, events.size());
+        assertEquals(coord.getId(), events.get(0).getId());
+
+        events = changeFeed.getChanges(null, ChangeFeedService.parseFilter("user=" + wf.getUser(), "wf"), 10, 0)
+                .getEvents();
+        assertEquals(1, events.size());
+        assertEquals(wf.getId(), events.get(0).getId());
+
+        events = changeFeed.getChanges(null, ChangeFeedService.parseFilter("user=nobody", null), 10, 0).getEvents();
+        assertTrue(events.isEmpty());
+    }
+
+    public void testActionsGetJobInfo() throws Exception {
+        ChangeFeedService changeFeed = services.get(ChangeFeedService.class);
+        changeFeed.publish(Arrays.asList(event("job-W", "RUNNING"),
+                                         new JsonJobStatusEvent("job-W@a", "job-W", ChangeFeedService.JOB_TYPE_WF,
+                                                                true, "OK", null, null, new Date())));
+        List<JsonJobStatusEvent> events = changeFeed.getChanges(null, ChangeFeedService.parseFilter("name=app", null),
+                                                                10, 0).getEvents();
+        assertEquals(2, events.size());
+        assertTrue(events.get(1).isAction());
+        assertEquals("u", events.get(1).getUser());
+        assertEquals("app", events.get(1).getAppName());
+    }
+
+    public void testLongPoll() throws Exception {
+        final ChangeFeedService changeFeed = services.get(ChangeFeedService.class);
+        final String cursor = changeFeed.getChanges(null, ChangeFeedService.parseFilter(null, null), 10, 0)
+                .getNextCursor();
+        Thread publisher = new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(500);
+                }
+                catch (InterruptedException ex) {
+                    return;
+                }
+                changeFeed.publish(Arrays.asList(event("job-W", "RUNNING")));
+            }
+        };
+        long start = System.currentTimeMillis();
+        publisher.start();
+        ChangeFeedService.Changes changes = changeFeed.getChanges(cursor, ChangeFeedService.parseFilter(null, null),
+                                                                  10, 20 * 1000);
+        assertTrue(System.currentTimeMillis() - start < 10 * 1000);
+        assertEquals(1, changes.getEvents().size());
+        assertEquals("job-W", changes.getEvents().get(0).getId());
+        publisher.join();
+
+        start = System.currentTimeMillis();
+        changes = changeFeed.getChanges(changes.getNextCursor(), ChangeFeedService.parseFilter(null, null), 10, 300);
+        assertTrue(System.currentTimeMillis() - start >= 250);
+        assertTrue(changes.getEvents().isEmpty());
+    }
+
+    public void testMaxWaiters() throws Exception {
+        services.destroy();
+        setSystemProperty(ChangeFeedService.CONF_MAX_WAITERS, "1");
+        services = new Services();
+        services.init();
+        final ChangeFeedService changeFeed = services.get(ChangeFeedService.class);
+        final ChangeFeedService.Filter all = ChangeFeedService.parseFilter(null, null);
+        final String cursor = changeFeed.getChanges(null, all, 10, 0).getNextCursor();
+        final ChangeFeedService.Changes[] waited = new ChangeFeedService.Changes[1];
+        Thread waiter = new Thread() {
+            public void run() {
+                try {
+                    waited[0] = changeFeed.getChanges(cursor, all, 10, 20 * 1000);
+                }
+                catch (ServiceException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        };
+        waiter.start();
+        waitFor(5 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return getWaiters() == 1;
+            }
+        });
+        assertEquals(1, getWaiters());
+
+        // past the cap the request returns right away with the same cursor
+        long start = System.currentTimeMillis();
+        ChangeFeedService.Changes changes = changeFeed.getChanges(cursor, all, 10, 20 * 1000);
+        assertTrue(System.currentTimeMillis() - start < 5 * 1000);
+        assertTrue(changes.getEvents().isEmpty());
+        assertEquals(cursor, changes.getNextCursor());
+        assertEquals(1, getWaiters());
+        assertEquals(1, services.get(InstrumentationService.class).get().getCounters().get("changefeed")
+                .get("waiters.rejected").getValue().longValue());
+
+        changeFeed.publish(Arrays.asList(event("job-W", "RUNNING")));
+        waiter.join();
+        assertEquals(1, waited[0].getEvents().size());
+        assertEquals(0, getWaiters());
+    }
+
+    private long getWaiters() {
+        return (Long) services.get(InstrumentationService.class).get().getVariables().get("changefeed")
+                .get("waiters").getValue().getValue();
+    }
+
+    public void testLostAndStaleCursors() throws Exception {
+        ChangeFeedService changeFeed = services.get(ChangeFeedService.class);
+        ChangeFeedService.Filter all = ChangeFeedService.parseFilter(null, null);
+        changeFeed.publish(Arrays.asList(event("1-W", "RUNNING")));
+        String cursor = changeFeed.getChanges(null, all, 10, 0).getNextCursor();
+        for (int i = 2; i <= 8; i++) {
+            changeFeed.publish(Arrays.asList(event(i + "-W", "RUNNING")));
+        }
+        ChangeFeedService.Changes changes = changeFeed.getChanges(cursor, all, 10, 0);
+        assertTrue(changes.isLost());
+        assertEquals(5, changes.getEvents().size());
+        assertEquals("4-W", changes.getEvents().get(0).getId());
+        assertFalse(changeFeed.getChanges(changes.getNextCursor(), all, 10, 0).isLost());
+
+        changes = changeFeed.getChanges("0-1", all, 2, 0);
+        assertTrue(changes.isLost());
+        assertEquals(2, changes.getEvents().size());
+
+        try {
+            changeFeed.getChanges("invalid", all, 10, 0);
+            fail();
+        }
+        catch (ServiceException ex) {
+            assertEquals(ErrorCode.E0421, ex.getErrorCode());
+        }
+    }
+
+    public void testStaging() throws Exception {
+        ChangeFeedService changeFeed = services.get(ChangeFeedService.class);
+        ChangeFeedService.Filter all = ChangeFeedService.parseFilter(null, null);
+        WorkflowJobBean wf = newWorkflow(WorkflowJob.Status.RUNNING);
+        changeFeed.stageStatus(wf);
+        changeFeed.discardStaged();
+        changeFeed.publishStaged();
+        assertTrue(changeFeed.getChanges(null, all, 10, 0).getEvents().isEmpty());
+
+        changeFeed.stageStatus(wf);
+        changeFeed.publishStaged();
+        assertEquals(1, changeFeed.getChanges(null, all, 10, 0).getEvents().size());
+    }
+
+    public void testInvalidFilter() throws Exception {
+        try {
+            ChangeFeedService.parseFilter("foo=bar", null);
+            fail();
+        }
+        catch (ServiceException ex) {
+            assertEquals(ErrorCode.E0420, ex.getErrorCode());
+        }
+        try {
+            ChangeFeedService.parseFilter(null, "wf,foo");
+            fail();
+        }
+        catch (ServiceException ex) {
+            assertEquals(ErrorCode.E0420, ex.getErrorCode());
+        }
+    }
+
+    private WorkflowJobBean newWorkflow(WorkflowJob.Status status) {
+        WorkflowJobBean wf = new WorkflowJobBean();
+        wf.setId("0000000-000000000000000-oozie-test-W");
+        wf.setStatus(status);
+        wf.setUser("u");
+        wf.setAppName("app");
+        return wf;
+    }
+
+}
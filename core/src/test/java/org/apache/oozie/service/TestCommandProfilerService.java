@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.XCommand;
+import org.apache.oozie.command.XCommandProfile;
+import org.apache.oozie.test.XTestCase;
+
+import java.util.List;
+import java.util.Map;
+
+public class TestCommandProfilerService extends XTestCase {
+
+    private static class SleepXCommand extends XCommand<Void> {
+        private long sleep;
+
+        public SleepXCommand(String name, long sleep) {
+            super(name, "sleep", 1);
+            this.sleep = sleep;
+        }
+
+        @Override
+        protected boolean isLockRequired() {
+            return false;
+        }
+
+        @Override
+        protected String getEntityKey() {
+            return getName() + "-key";
+        }
+
+        @Override
+        protected void loadState() {
+        }
+
+        @Override
+        protected void verifyPrecondition() {
+        }
+
+        @Override
+        protected Void execute() throws CommandException {
+            try {
+                Thread.sleep(sleep);
+            }
+            catch (InterruptedException ex) {
+                throw new RuntimeException(ex);
+            }
+            return null;
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (Services.get() != null) {
+            Services.get().destroy();
+        }
+        super.tearDown();
+    }
+
+    public void testService() throws Exception {
+        Services services = new Services();
+        services.init();
+        assertNotNull(services.get(CommandProfilerService.class));
+    }
+
+    public void testThreshold() throws Exception {
+        setSystemProperty(CommandProfilerService.CONF_THRESHOLD, "200");
+        Services services = new Services();
+        services.init();
+        CommandProfilerService profiler = services.get(CommandProfilerService.class);
+
+        new SleepXCommand("fast", 0).call();
+        assertEquals(0, profiler.getSlowCommands(-1).size());
+
+        new SleepXCommand("slow", 300).call();
+        List<XCommandProfile> slow = profiler.getSlowCommands(-1);
+        assertEquals(1, slow.size());
+        XCommandProfile profile = slow.get(0);
+        assertEquals("slow", profile.getName());
+        assertEquals("sleep", profile.getType());
+        assertEquals("slow-key", profile.getEntityKey());
+        assertEquals(XCommandProfile.OUTCOME_SUCCEEDED, profile.getOutcome());
+        assertTrue(profile.getTotal() >= 300);
+
+        Map<String, Long> phases = profile.getPhases();
+        assertTrue(phases.containsKey(XCommandProfile.PHASE_QUEUE_WAIT));
+        assertTrue(phases.containsKey(XCommandProfile.PHASE_LOAD_STATE));
+        assertTrue(phases.containsKey(XCommandProfile.PHASE_VERIFY_PRECONDITION));
+        assertFalse(phases.containsKey(XCommandProfile.PHASE_ACQUIRE_LOCK));
+        assertTrue(phases.get(XCommandProfile.PHASE_EXECUTE) >= 300);
+
+        profiler.clear();
+        assertEquals(0, profiler.getSlowCommands(-1).size());
+    }
+
+    public void testRingBuffer() throws Exception {
+        setSystemProperty(CommandProfilerService.CONF_THRESHOLD, "0");
+        setSystemProperty(CommandProfilerService.CONF_SIZE, "2");
+        Services services = new Services();
+        services.init();
+        CommandProfilerService profiler = services.get(CommandProfilerService.class);
+
+        new SleepXCommand("c1", 150).call();
+        new SleepXCommand("c2", 100).call();
+        new SleepXCommand("c3", 200).call();
+
+        List<XCommandProfile> slow = profiler.getSlowCommands(-1);
+        assertEquals(2, slow.size());
+        assertEquals("c3", slow.get(0).getName());
+        assertEquals("c2", slow.get(1).getName());
+
+        slow = profiler.getSlowCommands(1);
+        assertEquals(1, slow.size());
+        assertEquals("c3", slow.get(0).getName());
+    }
+
+}
@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import javax.mail.Message;
+import javax.mail.Message.RecipientType;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
+
+public class TestEmailService extends XTestCase {
+
+    // GreenMail helps unit test with functional in-memory mail servers.
+    private GreenMail server;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        server = new GreenMail();
+        server.start();
+        setSystemProperty(EmailService.CONF_THREADS, "1");
+        new Services().init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Services.get().destroy();
+        server.stop();
+        super.tearDown();
+    }
+
+    private Session createSession(int port) {
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.host", "localhost");
+        properties.setProperty("mail.smtp.port", Integer.toString(port));
+        properties.setProperty("mail.smtp.auth", "false");
+        return Session.getInstance(properties);
+    }
+
+    private Message createMessage(Session session, String body) throws Exception {
+        Message message = new MimeMessage(session);
+        message.setFrom(new InternetAddress("test@oozie.com"));
+        message.addRecipient(RecipientType.TO, new InternetAddress("abc@oozie.com"));
+        message.setSubject("sub");
+        message.setContent(body, "text/plain");
+        return message;
+    }
+
+    private EmailService.Delivery waitForDelivery(final EmailService service, final String externalId) {
+        waitFor(10 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return service.getDelivery(externalId).isDone();
+            }
+        });
+        EmailService.Delivery delivery = service.getDelivery(externalId);
+        assertTrue(delivery.isDone());
+        return delivery;
+    }
+
+    private long getCounter(String name) {
+        Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+        Instrumentation.Element<Long> counter = instr.getCounters().get("email").get(name);
+        return (counter != null) ? counter.getValue() : 0;
+    }
+
+    public void testDisabled() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(EmailService.CONF_THREADS, "0");
+        new Services().init();
+        EmailService service = Services.get().get(EmailService.class);
+        assertFalse(service.isEnabled());
+        Session session = createSession(server.getSmtp().getPort());
+        assertNull(service.submit("1-W@a", session, createMessage(session, "bod")));
+    }
+
+    public void testDeliveriesReuseConnection() throws Exception {
+        EmailService service = Services.get().get(EmailService.class);
+        assertTrue(service.isEnabled());
+        assertFalse(EmailService.isEmailId("job_201101010000_0001"));
+
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 5; i++) {
+            Session session = createSession(server.getSmtp().getPort());
+            String id = service.submit(i + "-W@a", session, createMessage(session, "bod" + i));
+            assertEquals(EmailService.EXTERNAL_ID_PREFIX + i + "-W@a", id);
+            assertTrue(EmailService.isEmailId(id));
+            ids.add(id);
+        }
+        for (String id : ids) {
+            assertNull(waitForDelivery(service, id).getError());
+            service.release(id);
+            assertNull(service.getDelivery(id));
+        }
+        assertEquals(5, server.getReceivedMessages().length);
+        assertEquals("bod0", GreenMailUtil.getBody(server.getReceivedMessages()[0]));
+        assertEquals(5, getCounter("messages.queued"));
+        assertEquals(5, getCounter("messages.sent"));
+        // all the emails went over the single connection of the delivery thread
+        assertEquals(1, getCounter("connections"));
+    }
+
+    public void testFailedDelivery() throws Exception {
+        EmailService service = Services.get().get(EmailService.class);
+        int port = server.getSmtp().getPort();
+        server.stop();
+        Session session = createSession(port);
+        String id = service.submit("1-W@a", session, createMessage(session, "bod"));
+        EmailService.Delivery delivery = waitForDelivery(service, id);
+        assertNotNull(delivery.getError());
+        assertEquals(1, getCounter("messages.failed"));
+        server = new GreenMail();
+        server.start();
+    }
+
+    public void testCancel() throws Exception {
+        EmailService service = Services.get().get(EmailService.class);
+
+        // keep the delivery thread busy with a server that never answers
+        ServerSocket silent = new ServerSocket(0);
+        try {
+            Session silentSession = createSession(silent.getLocalPort());
+            silentSession.getProperties().setProperty("mail.smtp.timeout", "3000");
+            String busyId = service.submit("1-W@a", silentSession, createMessage(silentSession, "bod1"));
+
+            Session session = createSession(server.getSmtp().getPort());
+            String id = service.submit("2-W@a", session, createMessage(session, "bod2"));
+            assertTrue(service.cancel(id));
+            assertNull(service.getDelivery(id));
+            assertFalse(service.cancel(id));
+
+            assertNotNull(waitForDelivery(service, busyId).getError());
+            assertFalse(service.cancel(busyId));
+        }
+        finally {
+            silent.close();
+        }
+        Thread.sleep(1000);
+        assertEquals(0, server.getReceivedMessages().length);
+        assertEquals(1, getCounter("messages.cancelled"));
+    }
+
+    public void testReap() throws Exception {
+        EmailService service = Services.get().get(EmailService.class);
+        Session session = createSession(server.getSmtp().getPort());
+        String id = service.submit("1-W@a", session, createMessage(session, "bod"));
+        waitForDelivery(service, id);
+        service.reap(System.currentTimeMillis());
+        assertNotNull(service.getDelivery(id));
+        service.reap(System.currentTimeMillis() + 2 * 60 * 60 * 1000);
+        assertNull(service.getDelivery(id));
+    }
+
+}
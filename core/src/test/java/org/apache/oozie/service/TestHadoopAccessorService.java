@@ -18,11 +18,13 @@
 package org.apache.oozie.service;
 
 import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.JobClient;
 import org.apache.hadoop.fs.FileSystem;
 
 import java.net.URI;
+import java.util.Map;
 
 public class TestHadoopAccessorService extends XTestCase {
 
@@ -81,4 +83,45 @@ public class TestHadoopAccessorService extends XTestCase {
         assertNotNull(fs);
     }
 
+    public void testHandleCache() throws Exception {
+        HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
+        JobConf conf = new JobConf();
+        conf.set("mapred.job.tracker", getJobTrackerUri());
+        conf.set("fs.default.name", getNameNodeUri());
+        injectKerberosInfo(conf);
+        String user = getTestUser();
+        String group = getTestGroup();
+
+        JobClient jc1 = has.createJobClient(user, group, conf);
+        JobClient jc2 = has.createJobClient(user, group, conf);
+        assertSame(jc1, jc2);
+        jc1.close();
+        jc2.close();
+
+        // a released handle is still usable by the next caller
+        JobClient jc3 = has.createJobClient(user, group, conf);
+        assertSame(jc1, jc3);
+        assertNotNull(jc3.getClusterStatus());
+
+        // handles in use are not evicted
+        has.evictIdle(System.currentTimeMillis() + 3600 * 1000);
+        assertSame(jc1, has.createJobClient(user, group, conf));
+        jc3.close();
+        jc3.close();
+
+        has.evictIdle(System.currentTimeMillis() + 3600 * 1000);
+        JobClient jc4 = has.createJobClient(user, group, conf);
+        assertNotSame(jc1, jc4);
+        jc4.close();
+
+        assertSame(has.createFileSystem(user, group, conf), has.createFileSystem(user, group, conf));
+
+        Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+        Map<String, Instrumentation.Element<Long>> counters = instr.getCounters().get("hadoopaccessor");
+        assertEquals(2, (long) counters.get("jobclient.created").getValue());
+        assertEquals(3, (long) counters.get("jobclient.hits").getValue());
+        assertEquals(1, (long) counters.get("jobclient.closed").getValue());
+        assertEquals(1, (long) counters.get("filesystem.hits").getValue());
+    }
+
 }
@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.util.Properties;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.action.hadoop.InServerMain;
+import org.apache.oozie.test.XTestCase;
+
+public class TestInServerLauncherService extends XTestCase {
+
+    public static class OutputMain implements InServerMain {
+        public Properties run(Configuration actionConf, FileSystem fs, String[] args) throws Exception {
+            Properties props = new Properties();
+            props.setProperty("a", actionConf.get("a"));
+            props.setProperty("args", Integer.toString(args.length));
+            return props;
+        }
+    }
+
+    public static class FailingMain implements InServerMain {
+        public Properties run(Configuration actionConf, FileSystem fs, String[] args) throws Exception {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    public static class SleepingMain implements InServerMain {
+        private static volatile boolean started;
+
+        public Properties run(Configuration actionConf, FileSystem fs, String[] args) throws Exception {
+            started = true;
+            Thread.sleep(60 * 1000);
+            return null;
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(InServerLauncherService.CONF_MAIN_CLASSES, OutputMain.class.getName() + ","
+                + FailingMain.class.getName() + "," + SleepingMain.class.getName());
+        new Services().init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Services.get().destroy();
+        super.tearDown();
+    }
+
+    private InServerLauncherService.Execution waitForExecution(final InServerLauncherService service,
+                                                               final String externalId) {
+        waitFor(5 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return service.getExecution(externalId).isDone();
+            }
+        });
+        InServerLauncherService.Execution execution = service.getExecution(externalId);
+        assertTrue(execution.isDone());
+        return execution;
+    }
+
+    public void testDisabled() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(InServerLauncherService.CONF_MAIN_CLASSES, "");
+        new Services().init();
+        InServerLauncherService service = Services.get().get(InServerLauncherService.class);
+        assertNotNull(service);
+        assertFalse(service.isInServer(OutputMain.class.getName()));
+    }
+
+    public void testInvalidMainClass() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(InServerLauncherService.CONF_MAIN_CLASSES, getClass().getName());
+        try {
+            new Services().init();
+            fail();
+        }
+        catch (ServiceException ex) {
+            assertEquals(ErrorCode.E0100, ex.getErrorCode());
+        }
+    }
+
+    public void testExecutions() throws Exception {
+        InServerLauncherService service = Services.get().get(InServerLauncherService.class);
+        assertTrue(service.isInServer(OutputMain.class.getName()));
+        assertFalse(service.isInServer("org.apache.oozie.example.DemoJavaMain"));
+        assertFalse(InServerLauncherService.isInServerId("job_201101010000_0001"));
+
+        Configuration conf = new Configuration(false);
+        conf.set("a", "A");
+        String id = service.submit("1-W@a", OutputMain.class.getName(), conf, null, new String[]{"x", "y"}, 1024);
+        assertEquals(InServerLauncherService.EXTERNAL_ID_PREFIX + "1-W@a", id);
+        assertTrue(InServerLauncherService.isInServerId(id));
+        InServerLauncherService.Execution execution = waitForExecution(service, id);
+        assertNull(execution.getError());
+        assertEquals("A", execution.getOutput().getProperty("a"));
+        assertEquals("2", execution.getOutput().getProperty("args"));
+        service.release(id);
+        assertNull(service.getExecution(id));
+
+        // output data larger than the maximum
+        id = service.submit("2-W@a", OutputMain.class.getName(), conf, null, new String[0], 5);
+        execution = waitForExecution(service, id);
+        assertNull(execution.getOutput());
+        assertTrue(execution.getError().getProperty("error.reason").contains("exceeds maximum"));
+
+        id = service.submit("3-W@a", FailingMain.class.getName(), conf, null, new String[0], 1024);
+        execution = waitForExecution(service, id);
+        assertEquals("0", execution.getError().getProperty("error.code"));
+        assertEquals("failed", execution.getError().getProperty("exception.message"));
+        assertNotNull(execution.getError().getProperty("exception.stacktrace"));
+    }
+
+    public void testKillAndTimeout() throws Exception {
+        InServerLauncherService service = Services.get().get(InServerLauncherService.class);
+        Configuration conf = new Configuration(false);
+        String id = service.submit("1-W@a", SleepingMain.class.getName(), conf, null, new String[0], 1024);
+        InServerLauncherService.Execution execution = service.getExecution(id);
+        assertFalse(execution.isDone());
+        service.kill(id);
+        assertTrue(execution.isDone());
+        assertTrue(execution.isKilled());
+        assertNull(service.getExecution(id));
+
+        SleepingMain.started = false;
+        id = service.submit("2-W@a", SleepingMain.class.getName(), conf, null, new String[0], 1024);
+        execution = service.getExecution(id);
+        waitFor(5 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return SleepingMain.started;
+            }
+        });
+        assertTrue(SleepingMain.started);
+        service.reap(System.currentTimeMillis() + 3600 * 1000);
+        assertTrue(execution.isDone());
+        assertFalse(execution.isKilled());
+        assertTrue(execution.getError().getProperty("error.reason").contains("timed out"));
+
+        // completed executions not released are discarded
+        service.reap(System.currentTimeMillis() + 2 * 3600 * 1000);
+        assertNull(service.getExecution(id));
+    }
+
+}
@@ -18,8 +18,12 @@
 package org.apache.oozie.service;
 
 import org.apache.oozie.executor.jpa.JPAExecutor;
+import org.apache.oozie.executor.jpa.JobsGetStatusJPAExecutor;
 import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
+
 import javax.persistence.EntityManager;
+import java.util.Arrays;
 
 public class TestJPAService extends XTestCase {
 
@@ -54,4 +58,35 @@ public class TestJPAService extends XTestCase {
         assertEquals("ret", ret);
     }
 
+    public void testNamedQueryInstrumentation() throws Exception {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        String query = "GET_WORKFLOWS_STATUS_FOR_IDS";
+        assertEquals(-1, jpaService.getNamedQueryP99(query));
+        jpaService.execute(new JobsGetStatusJPAExecutor(Arrays.asList("0000000-000000000000000-oozie-xxx-W")));
+        jpaService.execute(new JobsGetStatusJPAExecutor(Arrays.asList("0000001-000000000000000-oozie-xxx-W")));
+
+        Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+        Instrumentation.Timer timer = instr.getTimers().get(NamedQueryInstrumentation.GROUP).get(query).getValue();
+        assertEquals(2, timer.getTicks());
+        assertEquals(0, (long) instr.getCounters().get(NamedQueryInstrumentation.ROWS_GROUP).get(query).getValue());
+        assertTrue(jpaService.getNamedQueryP99(query) >= 0);
+        assertTrue(instr.getVariables().get(NamedQueryInstrumentation.P99_GROUP).containsKey(query));
+    }
+
+    public void testNamedQuerySamplesPercentile() throws Exception {
+        NamedQueryInstrumentation.Samples samples = new NamedQueryInstrumentation.Samples(100);
+        assertEquals(-1, samples.getPercentile(0.99));
+        for (int i = 1; i <= 100; i++) {
+            samples.add(i);
+        }
+        assertEquals(99, samples.getPercentile(0.99));
+        assertEquals(50, samples.getPercentile(0.5));
+
+        // only the most recent values are kept
+        for (int i = 0; i < 100; i++) {
+            samples.add(1);
+        }
+        assertEquals(1, samples.getPercentile(0.99));
+    }
+
 }
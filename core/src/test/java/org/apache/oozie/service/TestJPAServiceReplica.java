@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.client.rest.JsonJobStatusInfo;
+import org.apache.oozie.executor.jpa.JobsGetStatusJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowJobGetJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowJobUpdateJPAExecutor;
+import org.apache.oozie.test.XDataTestCase;
+import org.apache.oozie.workflow.WorkflowInstance;
+
+public class TestJPAServiceReplica extends XDataTestCase {
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(JPAService.CONF_REPLICA_URL, "jdbc:hsqldb:mem:oozie-replica-db;create=true");
+        setSystemProperty(JPAService.CONF_REPLICA_DRIVER, "org.hsqldb.jdbcDriver");
+        setSystemProperty(JPAService.CONF_REPLICA_CREATE_DB_SCHEMA, "true");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (services != null) {
+            services.destroy();
+        }
+        super.tearDown();
+    }
+
+    private void initServices(int maxStaleness) throws Exception {
+        setSystemProperty(JPAService.CONF_REPLICA_MAX_STALENESS, Integer.toString(maxStaleness));
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+    }
+
+    private WorkflowJobBean addModifiedWorkflow() throws Exception {
+        WorkflowJobBean wf = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        wf.setLastModifiedTime(new Date());
+        Services.get().get(JPAService.class).execute(new WorkflowJobUpdateJPAExecutor(wf));
+        return wf;
+    }
+
+    public void testReadOnlyExecutorsUseReplica() throws Exception {
+        initServices(0);
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertTrue(jpaService.isReplicaInUse());
+        WorkflowJobBean wf = addModifiedWorkflow();
+
+        // the replica is a separate database, writes to the primary database are not visible through it
+        List<JsonJobStatusInfo> statuses = jpaService.execute(new JobsGetStatusJPAExecutor(Arrays.asList(wf.getId())));
+        assertTrue(statuses.isEmpty());
+
+        // executors that are not read-only use the primary database
+        assertEquals(wf.getId(), jpaService.execute(new WorkflowJobGetJPAExecutor(wf.getId())).getId());
+    }
+
+    public void testStaleReplicaIsNotUsed() throws Exception {
+        initServices(60);
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertEquals(0, jpaService.checkReplicaLag());
+        assertTrue(jpaService.isReplicaInUse());
+
+        WorkflowJobBean wf = addModifiedWorkflow();
+        assertEquals(Long.MAX_VALUE, jpaService.checkReplicaLag());
+        assertFalse(jpaService.isReplicaInUse());
+
+        List<JsonJobStatusInfo> statuses = jpaService.execute(new JobsGetStatusJPAExecutor(Arrays.asList(wf.getId())));
+        assertEquals(1, statuses.size());
+        assertEquals(wf.getId(), statuses.get(0).getId());
+    }
+
+}
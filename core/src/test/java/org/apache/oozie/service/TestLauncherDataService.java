@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.util.Properties;
+
+import org.apache.oozie.action.hadoop.LauncherMapper;
+import org.apache.oozie.test.XTestCase;
+
+public class TestLauncherDataService extends XTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(LauncherDataService.CONF_MAX_DATA_LEN, "100");
+        setSystemProperty(LauncherDataService.CONF_MAX_SIZE, "150");
+        setSystemProperty(LauncherDataService.CONF_TTL, "3600");
+        new Services().init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Services.get().destroy();
+        super.tearDown();
+    }
+
+    private Properties props(String key, String value) {
+        Properties props = new Properties();
+        props.setProperty(key, value);
+        return props;
+    }
+
+    public void testPutGetRelease() throws Exception {
+        LauncherDataService service = Services.get().get(LauncherDataService.class);
+        assertNotNull(service);
+        assertTrue(service.isEnabled());
+        assertEquals(100, service.getMaxDataLen());
+        assertNull(service.get("a1"));
+
+        String secret = service.register("a1");
+        assertNull(service.get("a1"));
+        assertTrue(service.put("a1", "job_1", secret, LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+        assertEquals(LauncherMapper.DATA_OUTPUT, service.get("a1").getType());
+        assertEquals("job_1", service.get("a1").getLauncherId());
+        assertEquals("v", service.get("a1").getProperties().getProperty("k"));
+
+        // data posted again replaces the previous one
+        assertTrue(service.put("a1", "job_1", secret, LauncherMapper.DATA_ID_SWAP, props("id", "job_2"), 10));
+        assertEquals(LauncherMapper.DATA_ID_SWAP, service.get("a1").getType());
+        assertEquals("job_2", service.get("a1").getProperties().getProperty("id"));
+
+        service.release("a1");
+        assertNull(service.get("a1"));
+        assertFalse(service.put("a1", "job_1", secret, LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+        assertEquals(new Long(2), Services.get().get(InstrumentationService.class).get().getCounters()
+                .get("launcherdata").get("posts").getValue());
+    }
+
+    public void testUnauthorized() throws Exception {
+        LauncherDataService service = Services.get().get(LauncherDataService.class);
+        // not registered
+        assertFalse(service.put("a1", "job_1", "secret", LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+
+        String secret = service.register("a1");
+        assertFalse(service.put("a1", "job_1", null, LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+        assertFalse(service.put("a1", "job_1", secret + "x", LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+        assertFalse(service.put("a1", null, secret, LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+        assertFalse(service.put("a2", "job_1", secret, LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+
+        // a new launcher invalidates the secret of the previous one and its data
+        assertTrue(service.put("a1", "job_1", secret, LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+        String newSecret = service.register("a1");
+        assertNull(service.get("a1"));
+        assertFalse(service.put("a1", "job_1", secret, LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+        assertNull(service.get("a1"));
+        assertTrue(service.put("a1", "job_2", newSecret, LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+        assertEquals("job_2", service.get("a1").getLauncherId());
+        assertEquals(new Long(6), Services.get().get(InstrumentationService.class).get().getCounters()
+                .get("launcherdata").get("posts.unauthorized").getValue());
+    }
+
+    public void testRejected() throws Exception {
+        LauncherDataService service = Services.get().get(LauncherDataService.class);
+        String secret1 = service.register("a1");
+        String secret2 = service.register("a2");
+        assertFalse(service.put("a1", "job_1", secret1, "SUCCEEDED", props("k", "v"), 10));
+        assertFalse(service.put("a1", "job_1", secret1, LauncherMapper.DATA_OUTPUT, props("k", "v"), 101));
+        assertNull(service.get("a1"));
+
+        assertTrue(service.put("a1", "job_1", secret1, LauncherMapper.DATA_OUTPUT, props("k", "v"), 100));
+        assertFalse(service.put("a2", "job_2", secret2, LauncherMapper.DATA_OUTPUT, props("k", "v"), 100));
+        assertNull(service.get("a2"));
+        service.release("a1");
+        assertTrue(service.put("a2", "job_2", secret2, LauncherMapper.DATA_OUTPUT, props("k", "v"), 100));
+        assertEquals(new Long(3), Services.get().get(InstrumentationService.class).get().getCounters()
+                .get("launcherdata").get("posts.rejected").getValue());
+    }
+
+    public void testReap() throws Exception {
+        LauncherDataService service = Services.get().get(LauncherDataService.class);
+        String secret = service.register("a1");
+        assertTrue(service.put("a1", "job_1", secret, LauncherMapper.DATA_ERROR, props("error.code", "1"), 100));
+        // a launcher that never posts
+        String unused = service.register("a3");
+        service.reap(System.currentTimeMillis());
+        assertNotNull(service.get("a1"));
+        service.reap(System.currentTimeMillis() + 2 * 60 * 60 * 1000);
+        assertNull(service.get("a1"));
+        assertFalse(service.put("a3", "job_3", unused, LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+        // the reaped data does not count anymore
+        secret = service.register("a2");
+        assertTrue(service.put("a2", "job_2", secret, LauncherMapper.DATA_OUTPUT, props("k", "v"), 100));
+        assertEquals(new Long(2), Services.get().get(InstrumentationService.class).get().getCounters()
+                .get("launcherdata").get("expired").getValue());
+    }
+
+    public void testDisabled() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(LauncherDataService.CONF_ENABLED, "false");
+        new Services().init();
+        LauncherDataService service = Services.get().get(LauncherDataService.class);
+        assertFalse(service.isEnabled());
+        String secret = service.register("a1");
+        assertFalse(service.put("a1", "job_1", secret, LauncherMapper.DATA_OUTPUT, props("k", "v"), 10));
+        assertNull(service.get("a1"));
+    }
+
+}
@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.oozie.test.XTestCase;
+
+public class TestLauncherStatusService extends XTestCase {
+
+    private static class CountingSource implements LauncherStatusService.RunningJobsSource {
+        private Set<String> jobIds;
+        private boolean fail;
+        private int fetches;
+
+        private CountingSource(String... jobIds) {
+            this.jobIds = new HashSet<String>(Arrays.asList(jobIds));
+        }
+
+        public Set<String> getRunningJobIds() throws IOException {
+            fetches++;
+            if (fail) {
+                throw new IOException("JobTracker unavailable");
+            }
+            return new HashSet<String>(jobIds);
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(LauncherStatusService.CONF_SNAPSHOT_TTL, "300");
+        new Services().init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Services.get().destroy();
+        super.tearDown();
+    }
+
+    public void testSnapshot() throws Exception {
+        LauncherStatusService service = Services.get().get(LauncherStatusService.class);
+        assertNotNull(service);
+        CountingSource source = new CountingSource("job_1", "job_2");
+        for (int i = 0; i < 100; i++) {
+            assertTrue(service.isRunning("jt1:9001", "job_1", source));
+            assertTrue(service.isRunning("jt1:9001", "job_2", source));
+        }
+        assertFalse(service.isRunning("jt1:9001", "job_3", source));
+        assertEquals(1, source.fetches);
+
+        // each JobTracker has its own snapshot
+        CountingSource other = new CountingSource("job_3");
+        assertTrue(service.isRunning("jt2:9001", "job_3", other));
+        assertFalse(service.isRunning("jt2:9001", "job_1", other));
+        assertEquals(1, other.fetches);
+        assertEquals(1, source.fetches);
+
+        assertEquals(new Long(2), Services.get().get(InstrumentationService.class).get().getCounters()
+                .get("launcherstatus").get("snapshots").getValue());
+    }
+
+    public void testCompletionCallback() throws Exception {
+        LauncherStatusService service = Services.get().get(LauncherStatusService.class);
+        CountingSource source = new CountingSource("job_1", "job_2");
+        assertTrue(service.isRunning("jt1:9001", "job_1", source));
+        // the snapshot predates the callback, job_1 must be looked up
+        Thread.sleep(10);
+        service.completed("jt1:9001", "job_1");
+        assertFalse(service.isRunning("jt1:9001", "job_1", source));
+        assertTrue(service.isRunning("jt1:9001", "job_2", source));
+        // callbacks of other JobTrackers do not apply
+        service.completed("jt2:9001", "job_2");
+        assertTrue(service.isRunning("jt1:9001", "job_2", source));
+        assertEquals(1, source.fetches);
+    }
+
+    public void testSnapshotFailure() throws Exception {
+        LauncherStatusService service = Services.get().get(LauncherStatusService.class);
+        CountingSource source = new CountingSource("job_1");
+        source.fail = true;
+        assertFalse(service.isRunning("jt1:9001", "job_1", source));
+        // a failed fetch is retried on the next call
+        source.fail = false;
+        assertTrue(service.isRunning("jt1:9001", "job_1", source));
+        assertEquals(2, source.fetches);
+    }
+
+    public void testSnapshotExpiration() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(LauncherStatusService.CONF_SNAPSHOT_TTL, "1");
+        new Services().init();
+        LauncherStatusService service = Services.get().get(LauncherStatusService.class);
+        CountingSource source = new CountingSource("job_1");
+        assertTrue(service.isRunning("jt1:9001", "job_1", source));
+        source.jobIds.clear();
+        assertTrue(service.isRunning("jt1:9001", "job_1", source));
+        Thread.sleep(1100);
+        assertFalse(service.isRunning("jt1:9001", "job_1", source));
+        assertEquals(2, source.fetches);
+    }
+
+    public void testDisabled() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(LauncherStatusService.CONF_SNAPSHOT_TTL, "0");
+        new Services().init();
+        LauncherStatusService service = Services.get().get(LauncherStatusService.class);
+        CountingSource source = new CountingSource("job_1");
+        assertFalse(service.isRunning("jt1:9001", "job_1", source));
+        assertEquals(0, source.fetches);
+    }
+
+}
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.GraphiteInstrumentationExporter;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.InstrumentationFilter;
+import org.apache.oozie.util.JMXInstrumentationExporter;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TestMetricsExportService extends XTestCase {
+
+    public void testFilter() throws Exception {
+        InstrumentationFilter filter = new InstrumentationFilter(Arrays.asList("jvm", "web*"), Arrays.asList("webx"));
+        assertTrue(filter.accept("jvm"));
+        assertTrue(filter.accept("webservices"));
+        assertFalse(filter.accept("webx"));
+        assertFalse(filter.accept("commands"));
+        assertTrue(InstrumentationFilter.ALL.accept("commands"));
+
+        filter = new InstrumentationFilter(null, Arrays.asList("jvm"));
+        assertFalse(filter.accept("jvm"));
+        assertTrue(filter.accept("commands"));
+    }
+
+    public void testPrometheus() throws Exception {
+        setSystemProperty(MetricsExportService.CONF_GROUPS_EXCLUDE, "excluded");
+        Services services = new Services();
+        services.init();
+        try {
+            Instrumentation instr = services.get(InstrumentationService.class).get();
+            instr.incr("test", "a\"b", 3);
+            instr.incr("excluded", "c", 1);
+            Instrumentation.Cron cron = new Instrumentation.Cron();
+            cron.start();
+            cron.stop();
+            instr.addCron("test", "timer", cron);
+
+            StringWriter writer = new StringWriter();
+            services.get(MetricsExportService.class).writePrometheus(writer);
+            String text = writer.toString();
+            assertTrue(text.contains("# TYPE oozie_counter counter\n"));
+            assertTrue(text.contains("oozie_counter{group=\"test\",name=\"a\\\"b\"} 3\n"));
+            assertTrue(text.contains("oozie_variable{group=\"jvm\",name=\"max.memory\"} "));
+            assertTrue(text.contains("oozie_timer_ticks{group=\"test\",name=\"timer\"} 1\n"));
+            assertFalse(text.contains("group=\"excluded\""));
+        }
+        finally {
+            services.destroy();
+        }
+    }
+
+    public void testJMX() throws Exception {
+        setSystemProperty(MetricsExportService.CONF_EXPORTERS, JMXInstrumentationExporter.class.getName());
+        setSystemProperty(MetricsExportService.CONF_GROUPS_INCLUDE, "jvm,test");
+        Services services = new Services();
+        services.init();
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName jvm = JMXInstrumentationExporter.getObjectName("variables", "jvm");
+        ObjectName test = JMXInstrumentationExporter.getObjectName("counters", "test");
+        try {
+            assertTrue(mbeanServer.isRegistered(jvm));
+            assertTrue(((Long) mbeanServer.getAttribute(jvm, "max.memory")) > 0);
+            assertFalse(mbeanServer.isRegistered(JMXInstrumentationExporter.getObjectName("counters", "other")));
+
+            Instrumentation instr = services.get(InstrumentationService.class).get();
+            instr.incr("test", "c", 5);
+            instr.incr("other", "c", 5);
+            JMXInstrumentationExporter exporter = (JMXInstrumentationExporter)
+                    services.get(MetricsExportService.class).getExporters().get(0);
+            exporter.refresh();
+            assertTrue(mbeanServer.isRegistered(test));
+            assertEquals(5L, mbeanServer.getAttribute(test, "c"));
+            instr.incr("test", "c", 1);
+            assertEquals(6L, mbeanServer.getAttribute(test, "c"));
+            assertFalse(mbeanServer.isRegistered(JMXInstrumentationExporter.getObjectName("counters", "other")));
+        }
+        finally {
+            services.destroy();
+        }
+        assertFalse(mbeanServer.isRegistered(jvm));
+        assertFalse(mbeanServer.isRegistered(test));
+    }
+
+    public void testGraphite() throws Exception {
+        final ServerSocket serverSocket = new ServerSocket(0);
+        setSystemProperty(MetricsExportService.CONF_EXPORTERS, GraphiteInstrumentationExporter.class.getName());
+        setSystemProperty(GraphiteInstrumentationExporter.CONF_URI, "tcp://localhost:" + serverSocket.getLocalPort());
+        setSystemProperty(GraphiteInstrumentationExporter.CONF_INTERVAL, "0");
+        setSystemProperty(MetricsExportService.CONF_GROUPS_INCLUDE, "test");
+        Services services = new Services();
+        services.init();
+        try {
+            Instrumentation instr = services.get(InstrumentationService.class).get();
+            instr.incr("test", "my counter", 7);
+            GraphiteInstrumentationExporter exporter = (GraphiteInstrumentationExporter)
+                    services.get(MetricsExportService.class).getExporters().get(0);
+
+            final List<String> lines = new ArrayList<String>();
+            Thread listener = new Thread() {
+                public void run() {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                        String line = reader.readLine();
+                        while (line != null) {
+                            lines.add(line);
+                            line = reader.readLine();
+                        }
+                        socket.close();
+                    }
+                    catch (Exception ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            };
+            listener.start();
+            exporter.report();
+            listener.join(10 * 1000);
+
+            assertEquals(1, lines.size());
+            String[] parts = lines.get(0).split(" ");
+            assertEquals(3, parts.length);
+            assertEquals("oozie.counters.test.my_counter", parts[0]);
+            assertEquals("7", parts[1]);
+            assertEquals(System.currentTimeMillis() / 1000, Long.parseLong(parts[2]), 10);
+        }
+        finally {
+            services.destroy();
+            serverSocket.close();
+        }
+    }
+
+}
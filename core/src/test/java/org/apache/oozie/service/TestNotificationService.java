@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.oozie.test.EmbeddedServletContainer;
+import org.apache.oozie.test.XTestCase;
+
+public class TestNotificationService extends XTestCase {
+    private EmbeddedServletContainer container;
+    private Services services;
+
+    public static class NotificationServlet extends HttpServlet {
+        static List<String> requests = new CopyOnWriteArrayList<String>();
+        static volatile int status = HttpServletResponse.SC_OK;
+        static volatile CountDownLatch block;
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response)
+                throws ServletException, IOException {
+            requests.add(request.getQueryString());
+            CountDownLatch latch = block;
+            if (latch != null) {
+                try {
+                    latch.await(30, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException ex) {
+                    throw new ServletException(ex);
+                }
+            }
+            response.setStatus(status);
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        NotificationServlet.requests.clear();
+        NotificationServlet.status = HttpServletResponse.SC_OK;
+        NotificationServlet.block = null;
+        container = new EmbeddedServletContainer("oozie");
+        container.addServletEndpoint("/notify/*", NotificationServlet.class);
+        container.start();
+        setSystemProperty(NotificationService.CONF_RETRY_DELAY, "0");
+        setSystemProperty(NotificationService.CONF_RETRIES, "2");
+        setSystemProperty(NotificationService.CONF_HOST_CONCURRENCY, "1");
+        setSystemProperty(NotificationService.CONF_QUEUE_SIZE, "2");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (NotificationServlet.block != null) {
+            NotificationServlet.block.countDown();
+            NotificationServlet.block = null;
+        }
+        if (services != null) {
+            services.destroy();
+        }
+        container.stop();
+        super.tearDown();
+    }
+
+    private String getUrl(String query) {
+        return container.getServletURL("/notify/*") + "?" + query;
+    }
+
+    public void testSend() throws Exception {
+        services = new Services();
+        services.init();
+        NotificationService notificationService = services.get(NotificationService.class);
+        assertNotNull(notificationService);
+
+        assertTrue(notificationService.send(getUrl("id=1")));
+        assertTrue(notificationService.send(getUrl("id=2")));
+        // without an event the notifications are never coalesced
+        assertTrue(notificationService.send(getUrl("id=2")));
+        waitFor(10 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return NotificationServlet.requests.size() == 3;
+            }
+        });
+        assertEquals(3, NotificationServlet.requests.size());
+        assertEquals(Arrays.asList("id=1", "id=2", "id=2"), NotificationServlet.requests);
+        assertEquals(0, notificationService.getQueueSize());
+
+        assertFalse(notificationService.send("foo://bar"));
+    }
+
+    public void testRetries() throws Exception {
+        services = new Services();
+        services.init();
+        NotificationService notificationService = services.get(NotificationService.class);
+        NotificationServlet.status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+
+        assertTrue(notificationService.send(getUrl("id=1")));
+        waitFor(10 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return NotificationServlet.requests.size() == 3;
+            }
+        });
+        Thread.sleep(500);
+        assertEquals(3, NotificationServlet.requests.size());
+    }
+
+    public void testCoalescingAndQueueLimit() throws Exception {
+        services = new Services();
+        services.init();
+        NotificationService notificationService = services.get(NotificationService.class);
+        NotificationServlet.block = new CountDownLatch(1);
+
+        assertTrue(notificationService.send(getUrl("id=1")));
+        waitFor(10 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return NotificationServlet.requests.size() == 1;
+            }
+        });
+        // the only thread for the host is blocked sending the first notification
+        assertTrue(notificationService.send(getUrl("id=2"), "2 RUNNING"));
+        assertTrue(notificationService.send(getUrl("id=2"), "2 RUNNING"));
+        assertEquals(1, notificationService.getQueueSize());
+        // the URL does not contain the status, a different event for the same URL is not coalesced
+        assertTrue(notificationService.send(getUrl("id=2"), "2 SUCCEEDED"));
+        assertEquals(2, notificationService.getQueueSize());
+        assertFalse(notificationService.send(getUrl("id=4"), "4 RUNNING"));
+
+        NotificationServlet.block.countDown();
+        waitFor(10 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return NotificationServlet.requests.size() == 3;
+            }
+        });
+        Thread.sleep(500);
+        assertEquals(3, NotificationServlet.requests.size());
+        assertEquals("id=2", NotificationServlet.requests.get(1));
+        assertEquals("id=2", NotificationServlet.requests.get(2));
+    }
+
+}
@@ -80,6 +80,8 @@ public class TestRecoveryService extends XDataTestCase {
     protected void setUp() throws Exception {
         super.setUp();
         setSystemProperty(SchemaService.WF_CONF_EXT_SCHEMAS, "wf-ext-schema.xsd");
+        // actions are checked right after their launcher job completes, without a completion callback
+        setSystemProperty(LauncherStatusService.CONF_SNAPSHOT_TTL, "0");
         services = new Services();
         services.init();
         cleanUpDBTables();
@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.test.XFsTestCase;
+import org.apache.oozie.util.Instrumentation;
+
+public class TestShareLibService extends XFsTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(ShareLibService.CONF_CACHE_TTL, "0");
+        new Services().init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Services.get().destroy();
+        super.tearDown();
+    }
+
+    private File createLocalJar(String content) throws Exception {
+        File jar = new File(getTestCaseDir(), "test-launcher.jar");
+        OutputStream os = new FileOutputStream(jar);
+        os.write(content.getBytes("UTF-8"));
+        os.close();
+        return jar;
+    }
+
+    private long getCounter(String name) {
+        Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+        return instr.getCounters().get("sharelib").get(name).getValue();
+    }
+
+    public void testStageLauncherJar() throws Exception {
+        ShareLibService service = Services.get().get(ShareLibService.class);
+        assertNotNull(service);
+        assertTrue(service.isLauncherStagingEnabled());
+        FileSystem fs = getFileSystem();
+        File jar = createLocalJar("launcher");
+        Path systemDir = new Path(getFsTestCaseDir(), "oozie-system");
+
+        Path staged = service.stageLauncherJar(fs, new Path(systemDir, "job1/action--java"), jar);
+        assertEquals(new Path(systemDir, ".staging/" + service.getHash(jar) + "/" + jar.getName()), staged);
+        assertTrue(fs.exists(staged));
+        assertEquals(jar.length(), fs.getFileStatus(staged).getLen());
+        assertEquals(staged, service.getStagedLauncherJar(new Path(systemDir, "job1/action--java"), jar));
+
+        // other actions reuse the staged JAR
+        assertEquals(staged, service.stageLauncherJar(fs, new Path(systemDir, "job2/action--java"), jar));
+        assertEquals(1, getCounter("launcher.uploads"));
+        assertEquals(1, getCounter("launcher.uploads.avoided"));
+        assertEquals(jar.length(), getCounter("launcher.bytes.avoided"));
+
+        // a changed JAR is staged again
+        jar = createLocalJar("new launcher");
+        jar.setLastModified(System.currentTimeMillis() + 2000);
+        Path newStaged = service.stageLauncherJar(fs, new Path(systemDir, "job3/action--java"), jar);
+        assertFalse(staged.equals(newStaged));
+        assertTrue(fs.exists(newStaged));
+        assertEquals(2, getCounter("launcher.uploads"));
+
+        // a deleted staged JAR is uploaded again
+        fs.delete(newStaged, false);
+        service.stageLauncherJar(fs, new Path(systemDir, "job4/action--java"), jar);
+        assertTrue(fs.exists(newStaged));
+        assertEquals(3, getCounter("launcher.uploads"));
+    }
+
+    public void testGetLibFiles() throws Exception {
+        ShareLibService service = Services.get().get(ShareLibService.class);
+        FileSystem fs = getFileSystem();
+        Path libDir = new Path(getFsTestCaseDir(), "lib");
+        assertNull(service.getLibFiles(fs, getTestUser(), libDir, false));
+
+        fs.create(new Path(libDir, "a.jar")).close();
+        fs.create(new Path(libDir, "b.jar")).close();
+        List<String> files = service.getLibFiles(fs, getTestUser(), libDir, false);
+        assertEquals(2, files.size());
+        assertEquals(1, getCounter("listings.misses"));
+
+        // unchanged directory, the cached listing is used
+        assertEquals(files, service.getLibFiles(fs, getTestUser(), libDir, false));
+        assertEquals(1, getCounter("listings.misses"));
+        assertEquals(1, getCounter("listings.hits"));
+
+        // the directory modification time changes when files are added
+        Thread.sleep(1000);
+        fs.create(new Path(libDir, "c.jar")).close();
+        assertEquals(3, service.getLibFiles(fs, getTestUser(), libDir, false).size());
+        assertEquals(2, getCounter("listings.misses"));
+    }
+
+    public void testGetLibFilesTtl() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(ShareLibService.CONF_CACHE_TTL, "300");
+        new Services().init();
+        ShareLibService service = Services.get().get(ShareLibService.class);
+        FileSystem fs = getFileSystem();
+        Path appLibDir = new Path(getFsTestCaseDir(), "app/lib");
+        Path sharedLibDir = new Path(getFsTestCaseDir(), "share/lib");
+        fs.create(new Path(appLibDir, "a.jar")).close();
+        fs.create(new Path(sharedLibDir, "a.jar")).close();
+        assertEquals(1, service.getLibFiles(fs, getTestUser(), appLibDir, false).size());
+        assertEquals(1, service.getLibFiles(fs, getTestUser(), sharedLibDir, true).size());
+
+        Thread.sleep(1000);
+        fs.create(new Path(appLibDir, "b.jar")).close();
+        fs.create(new Path(sharedLibDir, "b.jar")).close();
+
+        // an application library directory is checked within the TTL
+        assertEquals(2, service.getLibFiles(fs, getTestUser(), appLibDir, false).size());
+        // a shared library directory is not checked within the TTL
+        assertEquals(1, service.getLibFiles(fs, getTestUser(), sharedLibDir, true).size());
+        assertEquals(1, getCounter("listings.hits"));
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
+
+public class TestSshSessionService extends XTestCase {
+
+    public static class FakeTransport implements SshSessionService.Transport {
+        private static List<String> commands = new ArrayList<String>();
+        private static String stdout = "";
+        private static int exitValue = 0;
+
+        public SshSessionService.Result run(String[] command, int maxLen) throws IOException {
+            commands.add(Arrays.toString(command));
+            return new SshSessionService.Result(exitValue, stdout, "");
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        FakeTransport.commands.clear();
+        FakeTransport.stdout = "";
+        FakeTransport.exitValue = 0;
+        setSystemProperty(SshSessionService.CONF_TRANSPORT, FakeTransport.class.getName());
+        new Services().init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Services.get().destroy();
+        super.tearDown();
+    }
+
+    public void testOptions() throws Exception {
+        SshSessionService service = Services.get().get(SshSessionService.class);
+        assertNotNull(service);
+        // multiplexing is disabled by default
+        assertEquals("", service.getOptions());
+
+        Services.get().destroy();
+        setSystemProperty(SshSessionService.CONF_MULTIPLEXING, "true");
+        new Services().init();
+        service = Services.get().get(SshSessionService.class);
+        assertTrue(service.getOptions().contains("-o ControlMaster=auto"));
+        assertTrue(service.getOptions().contains("-o ControlPersist=300"));
+        assertTrue(service.getOptions().endsWith(" "));
+    }
+
+    public void testExecuteUnknownHost() throws Exception {
+        SshSessionService service = Services.get().get(SshSessionService.class);
+        assertEquals(0, service.execute(null, "ssh u@h1 ls /tmp", 100).getExitValue());
+        assertEquals(Arrays.asList("[ssh, u@h1, ls, /tmp]"), FakeTransport.commands);
+    }
+
+    public void testExecute() throws Exception {
+        SshSessionService service = Services.get().get(SshSessionService.class);
+        FakeTransport.stdout = "out";
+        SshSessionService.Result result = service.execute("u@h1", "ssh u@h1 ls /tmp", 100);
+        assertEquals(0, result.getExitValue());
+        assertEquals("out", result.getStdout());
+        assertEquals(Arrays.asList("[ssh, u@h1, ls, /tmp]"), FakeTransport.commands);
+        Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+        assertEquals(1, instr.getTimers().get("ssh").get("u@h1").getValue().getTicks());
+    }
+
+    public void testStatus() throws Exception {
+        SshSessionService service = Services.get().get(SshSessionService.class);
+        // the first check only registers the host
+        assertFalse(service.isRunning("u@h1", "123", "ssh u@h1 ps -e -o pid="));
+        assertTrue(FakeTransport.commands.isEmpty());
+
+        FakeTransport.stdout = "    1\n  123\n  456\n";
+        service.refreshStatuses(System.currentTimeMillis());
+        assertEquals(Arrays.asList("[ssh, u@h1, ps, -e, -o, pid=]"), FakeTransport.commands);
+        assertTrue(service.isRunning("u@h1", "123", "ssh u@h1 ps -e -o pid="));
+        assertTrue(service.isRunning("u@h1", "456", "ssh u@h1 ps -e -o pid="));
+        assertFalse(service.isRunning("u@h1", "789", "ssh u@h1 ps -e -o pid="));
+        assertFalse(service.isRunning("u@h2", "123", "ssh u@h2 ps -e -o pid="));
+
+        // a failed listing drops the snapshot
+        FakeTransport.exitValue = 255;
+        service.refreshStatuses(System.currentTimeMillis());
+        assertFalse(service.isRunning("u@h1", "123", "ssh u@h1 ps -e -o pid="));
+
+        // hosts not checked anymore are not refreshed
+        FakeTransport.commands.clear();
+        service.refreshStatuses(System.currentTimeMillis() + 3600 * 1000);
+        assertTrue(FakeTransport.commands.isEmpty());
+    }
+
+}
@@ -0,0 +1,229 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.service;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Properties;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.filecache.DistributedCache;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
+
+public class TestWarmLauncherService extends XTestCase {
+    private FileSystem fs;
+
+    public static class OutputMain {
+        public static void main(String[] args) throws Exception {
+            Properties props = new Properties();
+            props.setProperty("args", Integer.toString(args.length));
+            props.setProperty("conf", Boolean.toString(new File(System.getProperty("oozie.action.conf.xml"))
+                    .exists()));
+            props.setProperty("pid", System.getProperty("test.pid", "new"));
+            System.setProperty("test.pid", "reused");
+            OutputStream os = new FileOutputStream(System.getProperty("oozie.action.output.properties"));
+            props.store(os, "");
+            os.close();
+        }
+    }
+
+    public static class SwapMain {
+        public static void main(String[] args) throws Exception {
+            Properties props = new Properties();
+            props.setProperty("id", "job_201101010000_0001");
+            OutputStream os = new FileOutputStream(System.getProperty("oozie.action.newId.properties"));
+            props.store(os, "");
+            os.close();
+        }
+    }
+
+    public static class ExitMain {
+        public static void main(String[] args) throws Exception {
+            System.exit(3);
+        }
+    }
+
+    public static class ResourceMain {
+        public static void main(String[] args) throws Exception {
+            Properties props = new Properties();
+            InputStream is = Thread.currentThread().getContextClassLoader().getResourceAsStream("warm-test.properties");
+            if (is != null) {
+                props.load(is);
+                is.close();
+            }
+            OutputStream os = new FileOutputStream(System.getProperty("oozie.action.output.properties"));
+            props.store(os, "");
+            os.close();
+        }
+    }
+
+    public static class SleepingMain {
+        public static void main(String[] args) throws Exception {
+            Thread.sleep(60 * 1000);
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(WarmLauncherService.CONF_MAIN_CLASSES, OutputMain.class.getName() + ","
+                + SwapMain.class.getName() + "," + ExitMain.class.getName() + "," + ResourceMain.class.getName() + ","
+                + SleepingMain.class.getName());
+        setSystemProperty(WarmLauncherService.CONF_PROCESSES, "1");
+        new Services().init();
+        fs = FileSystem.getLocal(new Configuration());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Services.get().destroy();
+        super.tearDown();
+    }
+
+    private WarmLauncherService.Execution waitForExecution(final WarmLauncherService service,
+                                                           final String externalId) {
+        waitFor(60 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return service.getExecution(externalId).isDone();
+            }
+        });
+        WarmLauncherService.Execution execution = service.getExecution(externalId);
+        assertTrue(execution.isDone());
+        return execution;
+    }
+
+    private long getCounter(String name) {
+        Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+        return instr.getCounters().get("warmlauncher").get(name).getValue();
+    }
+
+    public void testDisabled() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(WarmLauncherService.CONF_MAIN_CLASSES, "");
+        new Services().init();
+        WarmLauncherService service = Services.get().get(WarmLauncherService.class);
+        assertNotNull(service);
+        assertFalse(service.isWarm(OutputMain.class.getName()));
+    }
+
+    public void testExecutions() throws Exception {
+        WarmLauncherService service = Services.get().get(WarmLauncherService.class);
+        assertTrue(service.isWarm(OutputMain.class.getName()));
+        assertFalse(service.isWarm("org.apache.oozie.example.DemoJavaMain"));
+        Configuration conf = new Configuration(false);
+
+        String id = service.submit("1-W", "1-W@a", OutputMain.class.getName(), conf, conf, fs, new String[]{"x"},
+                                   1024);
+        assertEquals(WarmLauncherService.EXTERNAL_ID_PREFIX + "1-W@a", id);
+        assertTrue(WarmLauncherService.isWarmId(id));
+        WarmLauncherService.Execution execution = waitForExecution(service, id);
+        assertNull(execution.getError());
+        assertNull(execution.getNewId());
+        assertEquals("1", execution.getOutput().getProperty("args"));
+        assertEquals("true", execution.getOutput().getProperty("conf"));
+        assertEquals("new", execution.getOutput().getProperty("pid"));
+        service.release(id);
+        assertNull(service.getExecution(id));
+
+        // the process is reused and its system properties restored
+        id = service.submit("1-W", "1-W@b", OutputMain.class.getName(), conf, conf, fs, new String[0], 1024);
+        execution = waitForExecution(service, id);
+        assertEquals("new", execution.getOutput().getProperty("pid"));
+        assertEquals(1, getCounter("processes.started"));
+
+        // output data larger than the maximum
+        id = service.submit("1-W", "1-W@c", OutputMain.class.getName(), conf, conf, fs, new String[0], 5);
+        execution = waitForExecution(service, id);
+        assertTrue(execution.getError().getProperty("error.reason").contains("exceeds maximum"));
+
+        id = service.submit("1-W", "1-W@d", SwapMain.class.getName(), conf, conf, fs, new String[0], 1024);
+        execution = waitForExecution(service, id);
+        assertNull(execution.getError());
+        assertEquals("job_201101010000_0001", execution.getNewId());
+
+        id = service.submit("1-W", "1-W@e", ExitMain.class.getName(), conf, conf, fs, new String[0], 1024);
+        execution = waitForExecution(service, id);
+        assertEquals("3", execution.getError().getProperty("error.code"));
+        assertEquals(1, getCounter("processes.started"));
+    }
+
+    public void testClassPath() throws Exception {
+        WarmLauncherService service = Services.get().get(WarmLauncherService.class);
+        File jar = new File(getTestCaseDir(), "lib.jar");
+        JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar));
+        jos.putNextEntry(new ZipEntry("warm-test.properties"));
+        jos.write("from=lib\n".getBytes("UTF-8"));
+        jos.closeEntry();
+        jos.close();
+        Configuration conf = new Configuration(false);
+        DistributedCache.addFileToClassPath(new Path(jar.getAbsolutePath()), conf);
+
+        String id = service.submit("1-W", "1-W@a", ResourceMain.class.getName(), conf, conf, fs, new String[0],
+                                   1024);
+        WarmLauncherService.Execution execution = waitForExecution(service, id);
+        assertNull(execution.getError());
+        assertEquals("lib", execution.getOutput().getProperty("from"));
+
+        // the cached JAR is reused, an execution without it does not see it
+        id = service.submit("1-W", "1-W@b", ResourceMain.class.getName(), conf, conf, fs, new String[0], 1024);
+        assertEquals("lib", waitForExecution(service, id).getOutput().getProperty("from"));
+        assertEquals(1, getCounter("jars.copied"));
+        Configuration noLibConf = new Configuration(false);
+        id = service.submit("1-W", "1-W@c", ResourceMain.class.getName(), noLibConf, noLibConf, fs, new String[0],
+                            1024);
+        assertNull(waitForExecution(service, id).getOutput().getProperty("from"));
+    }
+
+    public void testFilesAndArchivesRunInLauncherJob() throws Exception {
+        WarmLauncherService service = Services.get().get(WarmLauncherService.class);
+        Configuration conf = new Configuration(false);
+        DistributedCache.addCacheFile(new URI("/data/a.txt#a.txt"), conf);
+        assertNull(service.submit("1-W", "1-W@a", OutputMain.class.getName(), conf, conf, fs, new String[0], 1024));
+
+        conf = new Configuration(false);
+        DistributedCache.addCacheArchive(new URI("/data/a.zip"), conf);
+        assertNull(service.submit("1-W", "1-W@b", OutputMain.class.getName(), conf, conf, fs, new String[0], 1024));
+        assertEquals(2, getCounter("executions.unsupported"));
+    }
+
+    public void testKill() throws Exception {
+        WarmLauncherService service = Services.get().get(WarmLauncherService.class);
+        Configuration conf = new Configuration(false);
+        String id = service.submit("1-W", "1-W@a", SleepingMain.class.getName(), conf, conf, fs, new String[0], 1024);
+        WarmLauncherService.Execution execution = service.getExecution(id);
+        Thread.sleep(2000);
+        service.kill(id);
+        assertTrue(execution.isDone());
+        assertTrue(execution.isKilled());
+        assertNull(service.getExecution(id));
+
+        // a new process replaces the destroyed one
+        id = service.submit("1-W", "1-W@b", OutputMain.class.getName(), conf, conf, fs, new String[0], 1024);
+        execution = waitForExecution(service, id);
+        assertNull(execution.getError());
+    }
+
+}
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
@@ -167,6 +168,24 @@ public class MockCoordinatorEngineService extends CoordinatorEngineService {
             return (CoordinatorJobBean) coordJobs.get(idx);
         }
 
+        @Override
+        public CoordinatorJobBean getCoordJobWithNoActionInfo(String jobId) throws BaseEngineException {
+            did = RestConstants.JOB_SHOW_INFO;
+            int idx = validateCoordinatorIdx(jobId);
+            return (CoordinatorJobBean) coordJobs.get(idx);
+        }
+
+        @Override
+        public Iterator<CoordinatorActionBean> getCoordActions(String jobId, int start, int length)
+                throws CoordinatorEngineException {
+            List<CoordinatorActionBean> actionBeans = new ArrayList<CoordinatorActionBean>();
+            int idx = validateCoordinatorIdx(jobId);
+            for (CoordinatorAction action : coordJobs.get(idx).getActions()) {
+                actionBeans.add((CoordinatorActionBean) action);
+            }
+            return actionBeans.iterator();
+        }
+
         @Override
         public String getDefinition(String jobId) throws BaseEngineException {
             did = RestConstants.JOB_SHOW_DEFINITION;
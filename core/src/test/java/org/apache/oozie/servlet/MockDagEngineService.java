@@ -20,6 +20,7 @@ package org.apache.oozie.servlet;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
@@ -30,6 +31,7 @@ import org.apache.oozie.DagEngineException;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowsInfo;
 import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.client.rest.JsonJobStatusInfo;
 import org.apache.oozie.client.rest.JsonWorkflowAction;
 import org.apache.oozie.client.rest.JsonWorkflowJob;
 import org.apache.oozie.client.rest.RestConstants;
@@ -187,12 +189,40 @@ public class MockDagEngineService extends DagEngineService {
             return new WorkflowsInfo((List) workflows, start, len, workflows.size());
         }
 
+        @Override
+        public WorkflowsInfo getJobs(String filter, String cursor, int len) throws DagEngineException {
+            parseFilter(filter);
+            did = RestConstants.JOBS_CURSOR_PARAM;
+            int start = (cursor.length() > 0) ? Integer.parseInt(cursor) : 0;
+            int end = Math.min(start + len, workflows.size());
+            return new WorkflowsInfo((List) workflows.subList(start, end), len,
+                                     (end < workflows.size()) ? Integer.toString(end) : null);
+        }
+
         @Override
         public String getJobIdForExternalId(String externalId) throws DagEngineException {
             did = RestConstants.JOBS_EXTERNAL_ID_PARAM;
             return (externalId.equals("external-valid")) ? "id-valid" : null;
         }
 
+        @Override
+        public List<JsonJobStatusInfo> getJobsStatus(Collection<String> jobIds) {
+            did = RestConstants.JOBS_ACTION_STATUS;
+            List<JsonJobStatusInfo> statuses = new ArrayList<JsonJobStatusInfo>();
+            for (String jobId : jobIds) {
+                try {
+                    WorkflowJob workflow = workflows.get(validateWorkflowIdx(jobId));
+                    statuses.add(new JsonJobStatusInfo(jobId, workflow.getStatus().toString(),
+                                                       workflow.getStartTime(), workflow.getEndTime(),
+                                                       workflow.getLastModifiedTime(), workflow.getExternalId()));
+                }
+                catch (DagEngineException ex) {
+                    // unknown jobs are not reported
+                }
+            }
+            return statuses;
+        }
+
         private int validateWorkflowIdx(String jobId) throws DagEngineException {
             int idx = -1;
             try {
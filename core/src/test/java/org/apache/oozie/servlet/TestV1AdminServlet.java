@@ -31,7 +31,11 @@ import org.apache.oozie.BuildInfo;
 import org.apache.oozie.client.OozieClient.SYSTEM_MODE;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
+import org.apache.oozie.command.TestXCommand;
+import org.apache.oozie.service.CommandProfilerService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.IOUtils;
+import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
 
@@ -123,6 +127,50 @@ public class TestV1AdminServlet extends DagServletTestCase {
         });
     }
 
+    public void testMetrics() throws Exception {
+        runTest("/v1/admin/*", V1AdminServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                URL url = createURL(RestConstants.ADMIN_METRICS_RESOURCE, Collections.EMPTY_MAP);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertTrue(conn.getHeaderField("content-type").startsWith(RestConstants.TEXT_CONTENT_TYPE));
+                String text = IOUtils.getReaderAsString(new InputStreamReader(conn.getInputStream()), -1);
+                assertTrue(text.contains("# TYPE oozie_variable gauge"));
+                assertTrue(text.contains("oozie_variable{group=\"jvm\",name=\"free.memory\"}"));
+                return null;
+            }
+        });
+    }
+
+    public void testSlowCommands() throws Exception {
+        setSystemProperty(CommandProfilerService.CONF_THRESHOLD, "0");
+        runTest("/v1/admin/*", V1AdminServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                new TestXCommand.AXCommand(false).call();
+                URL url = createURL(RestConstants.ADMIN_SLOW_COMMANDS_RESOURCE, Collections.EMPTY_MAP);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("GET");
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertTrue(conn.getHeaderField("content-type").startsWith(RestConstants.JSON_CONTENT_TYPE));
+                JSONObject json = (JSONObject) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                JSONArray array = (JSONArray) json.get(JsonTags.SLOW_COMMANDS);
+                assertNotNull(array);
+                boolean found = false;
+                for (Object obj : array) {
+                    JSONObject command = (JSONObject) obj;
+                    if ("name".equals(command.get(JsonTags.COMMAND_NAME))) {
+                        assertEquals("key", command.get(JsonTags.COMMAND_ENTITY_KEY));
+                        assertNotNull(((JSONObject) command.get(JsonTags.COMMAND_PHASES)).get("execute"));
+                        found = true;
+                    }
+                }
+                assertTrue(found);
+                return null;
+            }
+        });
+    }
+
     public void testSafeMode() throws Exception {
         runTest(new String[]{"/v1/admin/*", "/v1/job/*"}, new Class[]{V1AdminServlet.class, V1JobServlet.class},
                 IS_SECURITY_ENABLED, new Callable<Void>() {
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.oozie.test.XTestCase;
+
+public class TestBatchIterator extends XTestCase {
+
+    private static class RangeIterator extends BatchIterator<Integer> {
+        private int total;
+        private List<String> reads = new ArrayList<String>();
+
+        RangeIterator(int total, int start, int len, int batchSize) {
+            super(start, len, batchSize);
+            this.total = total;
+        }
+
+        @Override
+        protected List<Integer> read(int start, int len) throws Exception {
+            reads.add(start + ":" + len);
+            List<Integer> list = new ArrayList<Integer>();
+            for (int i = start; i < start + len && i <= total; i++) {
+                list.add(i);
+            }
+            return list;
+        }
+    }
+
+    public void testIterate() throws Exception {
+        RangeIterator it = new RangeIterator(10, 1, Integer.MAX_VALUE, 4);
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(it.hasNext());
+            assertEquals(i, (int) it.next());
+        }
+        assertFalse(it.hasNext());
+        assertEquals(3, it.reads.size());
+        assertEquals("9:4", it.reads.get(2));
+        try {
+            it.next();
+            fail();
+        }
+        catch (NoSuchElementException ex) {
+            // expected
+        }
+    }
+
+    public void testIterateRange() throws Exception {
+        RangeIterator it = new RangeIterator(100, 3, 5, 2);
+        List<Integer> values = new ArrayList<Integer>();
+        while (it.hasNext()) {
+            values.add(it.next());
+        }
+        assertEquals(5, values.size());
+        assertEquals(3, (int) values.get(0));
+        assertEquals(7, (int) values.get(4));
+        assertEquals("7:1", it.reads.get(2));
+    }
+
+    public void testExactBatches() throws Exception {
+        RangeIterator it = new RangeIterator(4, 1, Integer.MAX_VALUE, 2);
+        int count = 0;
+        while (it.hasNext()) {
+            it.next();
+            count++;
+        }
+        assertEquals(4, count);
+        assertEquals(3, it.reads.size());
+    }
+
+    public void testReadFailure() throws Exception {
+        BatchIterator<Integer> it = new BatchIterator<Integer>(1, 10, 5) {
+            @Override
+            protected List<Integer> read(int start, int len) throws Exception {
+                throw new Exception("failure");
+            }
+        };
+        try {
+            it.hasNext();
+            fail();
+        }
+        catch (RuntimeException ex) {
+            assertEquals("failure", ex.getCause().getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.oozie.util;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.oozie.client.rest.JsonBean;
+import org.apache.oozie.client.rest.RestConstants;
+import org.apache.oozie.test.XTestCase;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+
+public class TestStreamingJSONArray extends XTestCase {
+
+    private static class Bean implements JsonBean {
+        private int value;
+
+        Bean(int value) {
+            this.value = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        public JSONObject toJSONObject() {
+            JSONObject json = new JSONObject();
+            json.put("value", value);
+            return json;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testWrite() throws Exception {
+        List<Bean> beans = Arrays.asList(new Bean(1), new Bean(2), new Bean(3));
+        JSONObject json = new JSONObject();
+        json.put("beans", new StreamingJSONArray(beans.iterator()));
+        StringWriter writer = new StringWriter();
+        json.writeJSONString(writer);
+
+        JSONArray array = (JSONArray) ((JSONObject) JSONValue.parse(writer.toString())).get("beans");
+        assertEquals(3, array.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals((long) i + 1, ((JSONObject) array.get(i)).get("value"));
+        }
+    }
+
+    public void testWriteEmpty() throws Exception {
+        StringWriter writer = new StringWriter();
+        new StreamingJSONArray(Collections.<JsonBean>emptyList().iterator()).writeJSONString(writer);
+        assertEquals("[]", writer.toString());
+    }
+
+    public void testWriteError() throws Exception {
+        final Iterator<Bean> beans = Arrays.asList(new Bean(1), new Bean(2)).iterator();
+        Iterator<Bean> failing = new Iterator<Bean>() {
+            public boolean hasNext() {
+                return true;
+            }
+
+            public Bean next() {
+                if (beans.hasNext()) {
+                    return beans.next();
+                }
+                throw new RuntimeException("batch failed");
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        StringWriter writer = new StringWriter();
+        try {
+            new StreamingJSONArray(failing).writeJSONString(writer);
+            fail();
+        }
+        catch (IOException ex) {
+            assertTrue(ex.getCause() instanceof RuntimeException);
+        }
+        String written = writer.toString();
+        assertTrue(written.startsWith("[{\"value\":1},{\"value\":2},"));
+        assertTrue(written.endsWith("\n" + RestConstants.STREAM_ERROR_MARKER + "batch failed"));
+        assertNull(JSONValue.parse(written));
+    }
+
+    public void testWriteOnlyOnce() throws Exception {
+        StreamingJSONArray array = new StreamingJSONArray(new ArrayList<JsonBean>().iterator());
+        array.writeJSONString(new StringWriter());
+        try {
+            array.writeJSONString(new StringWriter());
+            fail();
+        }
+        catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+
+}
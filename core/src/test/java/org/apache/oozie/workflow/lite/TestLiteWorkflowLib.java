@@ -28,6 +28,7 @@ import org.apache.oozie.ErrorCode;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -481,6 +482,71 @@ public class TestLiteWorkflowLib extends XTestCase {
     }
 
 
+    public void testAsynchForkJoin() throws WorkflowException {
+        LiteWorkflowApp def = new LiteWorkflowApp("wf", "<worklfow-app/>", new StartNodeDef("f"))
+                .addNode(new ForkNodeDef("f", Arrays.asList(new String[]{"a", "b", "c"})))
+                .addNode(new NodeDef("a", null, AsynchNodeHandler.class, Arrays.asList(new String[]{"j"})))
+                .addNode(new NodeDef("b", null, AsynchNodeHandler.class, Arrays.asList(new String[]{"j"})))
+                .addNode(new NodeDef("c", null, AsynchNodeHandler.class, Arrays.asList(new String[]{"j"})))
+                .addNode(new JoinNodeDef("j", "end"))
+                .addNode(new EndNodeDef("end"));
+
+        LiteWorkflowInstance job = new LiteWorkflowInstance(def, new XConfiguration(), "1");
+        job.start();
+        assertEquals(WorkflowInstance.Status.RUNNING, job.getStatus());
+        assertEquals("3", job.getVar(ForkNodeDef.FORK_COUNT_PREFIX + "/"));
+        assertEquals("f", job.getVar(ForkNodeDef.FORK_NODE_PREFIX + "/"));
+        assertNull(job.getVar(JoinNodeDef.JOIN_ARRIVED_PREFIX + "/"));
+
+        job.signal("/b/", "");
+        assertEquals(WorkflowInstance.Status.RUNNING, job.getStatus());
+        assertEquals("2", job.getVar(JoinNodeDef.JOIN_ARRIVED_PREFIX + "/"));
+        assertEquals("3", job.getVar(ForkNodeDef.FORK_COUNT_PREFIX + "/"));
+
+        job = WritableUtils.fromByteArray(WritableUtils.toByteArray(job), LiteWorkflowInstance.class);
+        job.signal("/a/", "");
+        assertEquals(WorkflowInstance.Status.RUNNING, job.getStatus());
+        assertEquals("3", job.getVar(JoinNodeDef.JOIN_ARRIVED_PREFIX + "/"));
+
+        job.signal("/c/", "");
+        assertEquals(WorkflowInstance.Status.SUCCEEDED, job.getStatus());
+        assertNull(job.getVar(JoinNodeDef.JOIN_ARRIVED_PREFIX + "/"));
+        assertNull(job.getVar(ForkNodeDef.FORK_COUNT_PREFIX + "/"));
+        assertNull(job.getVar(ForkNodeDef.FORK_NODE_PREFIX + "/"));
+    }
+
+    public void testAsynchForkJoinWithoutForkNode() throws WorkflowException {
+        LiteWorkflowApp def = new LiteWorkflowApp("wf", "<worklfow-app/>", new StartNodeDef("f"))
+                .addNode(new ForkNodeDef("f", Arrays.asList(new String[]{"a", "b"})))
+                .addNode(new NodeDef("a", null, AsynchNodeHandler.class, Arrays.asList(new String[]{"j"})))
+                .addNode(new NodeDef("b", null, AsynchNodeHandler.class, Arrays.asList(new String[]{"j"})))
+                .addNode(new JoinNodeDef("j", "end"))
+                .addNode(new EndNodeDef("end"));
+
+        // fork started by a version that only kept the fork count
+        LiteWorkflowInstance job = new LiteWorkflowInstance(def, new XConfiguration(), "1");
+        job.start();
+        job.setVar(ForkNodeDef.FORK_NODE_PREFIX + "/", null);
+
+        job.signal("/a/", "");
+        assertEquals(WorkflowInstance.Status.RUNNING, job.getStatus());
+        assertEquals("1", job.getVar(ForkNodeDef.FORK_COUNT_PREFIX + "/"));
+        job.signal("/b/", "");
+        assertEquals(WorkflowInstance.Status.SUCCEEDED, job.getStatus());
+    }
+
+    public void testJoinBitSetEncoding() {
+        BitSet bits = new BitSet();
+        assertEquals("", JoinNodeDef.encode(bits));
+        assertEquals(bits, JoinNodeDef.decode(null));
+        bits.set(0);
+        bits.set(5);
+        bits.set(199);
+        String encoded = JoinNodeDef.encode(bits);
+        assertEquals(50, encoded.length());
+        assertEquals(bits, JoinNodeDef.decode(encoded));
+    }
+
     public void testKillWithRunningNodes() throws WorkflowException {
 
         LiteWorkflowApp def = new LiteWorkflowApp("wf", "<worklfow-app/>", new StartNodeDef("f"))